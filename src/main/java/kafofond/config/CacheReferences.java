@@ -0,0 +1,101 @@
+package kafofond.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import kafofond.entity.Entreprise;
+import kafofond.entity.SeuilValidation;
+import kafofond.entity.Utilisateur;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidation du cache de second niveau après les écritures sur les entités de référence
+ * (EntrepriseService, SeuilValidationService, UtilisateurService, import CSV).
+ * Les écritures JPA sont déjà répercutées par la stratégie READ_WRITE ; l'éviction explicite
+ * couvre les écritures JDBC (import en masse) et les résultats de requêtes mis en cache.
+ * Dans une transaction, l'éviction a lieu après le commit ; elle est aussi publiée dans le
+ * journal des invalidations pour les autres instances
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheReferences {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final JournalInvalidations journalInvalidations;
+
+    @PostConstruct
+    void abonner() {
+        journalInvalidations.abonner(CachesPartages.NIVEAU2_ENTREPRISE, cle -> evincer(Entreprise.class, cle, null));
+        journalInvalidations.abonner(CachesPartages.NIVEAU2_SEUIL,
+                cle -> evincer(SeuilValidation.class, cle, RegionsCache.SEUIL_ACTIF));
+        journalInvalidations.abonner(CachesPartages.NIVEAU2_UTILISATEUR,
+                cle -> evincer(Utilisateur.class, cle, RegionsCache.UTILISATEUR_PAR_EMAIL));
+    }
+
+    public void entrepriseModifiee(Long entrepriseId) {
+        journalInvalidations.publier(CachesPartages.NIVEAU2_ENTREPRISE, String.valueOf(entrepriseId));
+        apresCommit(() -> entityManagerFactory.getCache().evict(Entreprise.class, entrepriseId));
+    }
+
+    public void seuilModifie(Long seuilId) {
+        journalInvalidations.publier(CachesPartages.NIVEAU2_SEUIL, String.valueOf(seuilId));
+        apresCommit(() -> {
+            entityManagerFactory.getCache().evict(SeuilValidation.class, seuilId);
+            sessionFactory().getCache().evictQueryRegion(RegionsCache.SEUIL_ACTIF);
+        });
+    }
+
+    public void utilisateurModifie(Long utilisateurId) {
+        journalInvalidations.publier(CachesPartages.NIVEAU2_UTILISATEUR, String.valueOf(utilisateurId));
+        apresCommit(() -> {
+            entityManagerFactory.getCache().evict(Utilisateur.class, utilisateurId);
+            sessionFactory().getCache().evictQueryRegion(RegionsCache.UTILISATEUR_PAR_EMAIL);
+        });
+    }
+
+    /**
+     * Utilisateurs insérés hors Hibernate : seuls les résultats de requêtes (absences comprises) sont périmés
+     */
+    public void utilisateursImportes() {
+        journalInvalidations.publier(CachesPartages.NIVEAU2_UTILISATEUR, null);
+        apresCommit(() -> sessionFactory().getCache().evictQueryRegion(RegionsCache.UTILISATEUR_PAR_EMAIL));
+    }
+
+    /**
+     * Éviction demandée par une autre instance (cle null : toute l'entité)
+     */
+    private void evincer(Class<?> entite, String cle, String regionRequetes) {
+        if (cle == null) {
+            entityManagerFactory.getCache().evict(entite);
+        } else {
+            entityManagerFactory.getCache().evict(entite, Long.valueOf(cle));
+        }
+        if (regionRequetes != null) {
+            sessionFactory().getCache().evictQueryRegion(regionRequetes);
+        }
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    private void apresCommit(Runnable eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        } else {
+            eviction.run();
+        }
+    }
+}
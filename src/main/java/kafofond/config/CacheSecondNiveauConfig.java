@@ -0,0 +1,74 @@
+package kafofond.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de second niveau Hibernate (JCache adossé à Caffeine) pour les entités de référence
+ * Entreprise, SeuilValidation et Utilisateur, et cache des requêtes seuil actif / utilisateur par email.
+ * Chaque région est créée ici avec sa taille et sa durée de vie ; Hibernate refuse de démarrer
+ * si une région mise en cache n'est pas déclarée (missing_cache_strategy=fail).
+ * Les écritures JPA mettent les régions à jour (stratégie READ_WRITE) ; CacheReferences évince
+ * après commit pour les écritures qui contournent Hibernate.
+ */
+@Configuration
+public class CacheSecondNiveauConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager cacheManagerHibernate(
+            @Value("${cache.niveau2.entreprise.taille:1000}") long tailleEntreprise,
+            @Value("${cache.niveau2.entreprise.ttl-minutes:60}") long ttlEntreprise,
+            @Value("${cache.niveau2.seuil.taille:1000}") long tailleSeuil,
+            @Value("${cache.niveau2.seuil.ttl-minutes:60}") long ttlSeuil,
+            @Value("${cache.niveau2.utilisateur.taille:20000}") long tailleUtilisateur,
+            @Value("${cache.niveau2.utilisateur.ttl-minutes:30}") long ttlUtilisateur,
+            @Value("${cache.niveau2.requetes.taille:20000}") long tailleRequetes,
+            @Value("${cache.niveau2.requetes.ttl-minutes:10}") long ttlRequetes) {
+        CachingProvider fournisseur = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = fournisseur.getCacheManager(URI.create("kafofond-hibernate"),
+                CacheSecondNiveauConfig.class.getClassLoader());
+
+        creer(cacheManager, RegionsCache.ENTREPRISE, tailleEntreprise, ttlEntreprise);
+        creer(cacheManager, RegionsCache.SEUIL_VALIDATION, tailleSeuil, ttlSeuil);
+        creer(cacheManager, RegionsCache.UTILISATEUR, tailleUtilisateur, ttlUtilisateur);
+        creer(cacheManager, RegionsCache.SEUIL_ACTIF, tailleSeuil, ttlRequetes);
+        creer(cacheManager, RegionsCache.UTILISATEUR_PAR_EMAIL, tailleUtilisateur, ttlRequetes);
+        creer(cacheManager, RegionsCache.REQUETES_DEFAUT, tailleRequetes, ttlRequetes);
+        // Les horodatages de tables ne doivent jamais expirer avant les résultats de requêtes
+        creer(cacheManager, RegionsCache.HORODATAGES, 10_000, 0);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer cacheSecondNiveau(CacheManager cacheManagerHibernate) {
+        return proprietes -> {
+            proprietes.put("hibernate.cache.use_second_level_cache", true);
+            proprietes.put("hibernate.cache.use_query_cache", true);
+            proprietes.put("hibernate.cache.region.factory_class", "jcache");
+            proprietes.put("hibernate.javax.cache.cache_manager", cacheManagerHibernate);
+            proprietes.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            // Statistiques de régions publiées par CacheSecondNiveauMetriques
+            proprietes.put("hibernate.generate_statistics", true);
+        };
+    }
+
+    private static void creer(CacheManager cacheManager, String region, long taille, long ttlMinutes) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(taille));
+        if (ttlMinutes > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.MINUTES.toNanos(ttlMinutes)));
+        }
+        cacheManager.createCache(region, configuration);
+    }
+}
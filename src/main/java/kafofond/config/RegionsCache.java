@@ -0,0 +1,28 @@
+package kafofond.config;
+
+import java.util.List;
+
+/**
+ * Régions du cache de second niveau Hibernate (dimensionnées dans CacheSecondNiveauConfig)
+ */
+public final class RegionsCache {
+
+    public static final String ENTREPRISE = "kafofond.entreprise";
+    public static final String SEUIL_VALIDATION = "kafofond.seuilValidation";
+    public static final String UTILISATEUR = "kafofond.utilisateur";
+
+    /** Requête : seuil actif d'une entreprise */
+    public static final String SEUIL_ACTIF = "kafofond.requete.seuilActif";
+    /** Requête : utilisateur par email (connexion, résolution de l'utilisateur courant) */
+    public static final String UTILISATEUR_PAR_EMAIL = "kafofond.requete.utilisateurParEmail";
+
+    /** Régions propres à Hibernate, créées explicitement car missing_cache_strategy=fail */
+    public static final String REQUETES_DEFAUT = "default-query-results-region";
+    public static final String HORODATAGES = "default-update-timestamps-region";
+
+    public static final List<String> TOUTES = List.of(ENTREPRISE, SEUIL_VALIDATION, UTILISATEUR,
+            SEUIL_ACTIF, UTILISATEUR_PAR_EMAIL, REQUETES_DEFAUT, HORODATAGES);
+
+    private RegionsCache() {
+    }
+}
@@ -10,8 +10,13 @@ import kafofond.service.ReinitialisationMotDePasseService;
 import kafofond.entity.Utilisateur;
 import kafofond.entity.Role;
 import kafofond.entity.Entreprise;
+import kafofond.exception.TropDeTentativesException;
+import kafofond.security.PorteConnexion;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -42,6 +47,7 @@ public class AuthController {
     private final ReinitialisationMotDePasseService reinitialisationMotDePasseService;
     private final PasswordEncoder passwordEncoder;
     private final CustomUserDetailsService userDetailsService;
+    private final PorteConnexion porteConnexion;
 
     /**
      * Connexion d'un utilisateur
@@ -51,23 +57,34 @@ public class AuthController {
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Connexion réussie"),
         @ApiResponse(responseCode = "400", description = "Données invalides ou utilisateur introuvable"),
-        @ApiResponse(responseCode = "401", description = "Mot de passe incorrect ou compte désactivé")
+        @ApiResponse(responseCode = "401", description = "Mot de passe incorrect ou compte désactivé"),
+        @ApiResponse(responseCode = "429", description = "Trop de tentatives de connexion")
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest requeteHttp) {
         try {
             log.info("Tentative de connexion pour l'utilisateur {}", request.getEmail());
-            
+
+            // Limites de débit par IP et par email, avant toute requête ou hachage
+            // getRemoteAddr : adresse du client réel, X-Forwarded-For n'étant cru que d'un proxy de confiance
+            porteConnexion.autoriser(request.getEmail(), requeteHttp.getRemoteAddr());
+
+            if (porteConnexion.estEmailInconnu(request.getEmail())) {
+                throw new RuntimeException("Utilisateur introuvable");
+            }
             Utilisateur user = utilisateurRepo.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                    .orElseThrow(() -> {
+                        porteConnexion.memoriserEmailInconnu(request.getEmail());
+                        return new RuntimeException("Utilisateur introuvable");
+                    });
 
             // Vérifier si l'utilisateur est actif
             if (!user.isEtat()) {
                 throw new RuntimeException("Compte désactivé");
             }
 
-            // Vérifier le mot de passe
-            if (!passwordEncoder.matches(request.getMotDePasse(), user.getMotDePasse())) {
+            // Vérifier le mot de passe (pool BCrypt borné)
+            if (!porteConnexion.verifierMotDePasse(request.getMotDePasse(), user.getMotDePasse())) {
                 throw new RuntimeException("Mot de passe ou Email invalide");
             }
 
@@ -84,6 +101,12 @@ public class AuthController {
             log.info("Connexion réussie pour l'utilisateur {}", request.getEmail());
             return ResponseEntity.ok(response);
             
+        } catch (TropDeTentativesException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getAttenteSecondes()))
+                    .body(error);
         } catch (Exception e) {
             log.error("Erreur lors de la connexion : {}", e.getMessage());
             Map<String, String> error = new HashMap<>();
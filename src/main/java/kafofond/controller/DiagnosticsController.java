@@ -0,0 +1,84 @@
+package kafofond.controller;
+
+import kafofond.entity.Role;
+import kafofond.monitoring.JournalRequetesLentes;
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Controller d'administration des diagnostics (Super Admin)
+ * Permet de consulter et de modifier à chaud le journal des requêtes SQL lentes
+ */
+@RestController
+@RequestMapping("/api/admin/diagnostics")
+@RequiredArgsConstructor
+@Slf4j
+public class DiagnosticsController {
+
+    private final JournalRequetesLentes journalRequetesLentes;
+    private final UtilisateurConnecteService utilisateurConnecteService;
+
+    /**
+     * Configuration courante du journal SQL et compteurs d'instructions observées / journalisées
+     */
+    @GetMapping("/sql")
+    public ResponseEntity<?> consulterJournalSql(Authentication authentication) {
+        try {
+            verifierSuperAdmin(authentication);
+
+            return ResponseEntity.ok(journalRequetesLentes.configuration());
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la consultation du journal SQL : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Modifie le journal SQL sans redémarrage ; les paramètres absents gardent leur valeur
+     */
+    @PutMapping("/sql")
+    public ResponseEntity<?> modifierJournalSql(
+            @RequestParam(required = false) Boolean actif,
+            @RequestParam(required = false) Long seuilMs,
+            @RequestParam(required = false) Integer echantillonnage,
+            Authentication authentication) {
+        try {
+            verifierSuperAdmin(authentication);
+            log.info("Modification du journal SQL par {} : actif={}, seuilMs={}, echantillonnage={}",
+                    authentication.getName(), actif, seuilMs, echantillonnage);
+
+            Map<String, Object> courante = journalRequetesLentes.configuration();
+            journalRequetesLentes.configurer(
+                    actif != null ? actif : (Boolean) courante.get("actif"),
+                    seuilMs != null ? seuilMs : (Long) courante.get("seuilMs"),
+                    echantillonnage != null ? echantillonnage : (Integer) courante.get("echantillonnage"));
+
+            return ResponseEntity.ok(journalRequetesLentes.configuration());
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la modification du journal SQL : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    private void verifierSuperAdmin(Authentication authentication) {
+        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+        if (utilisateur.getRole() != Role.SUPER_ADMIN) {
+            throw new RuntimeException("Seul le Super Admin peut administrer les diagnostics");
+        }
+    }
+}
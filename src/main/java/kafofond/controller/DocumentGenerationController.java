@@ -2,6 +2,8 @@ package kafofond.controller;
 
 import kafofond.entity.*;
 import kafofond.repository.*;
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
 import kafofond.service.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -62,7 +64,7 @@ public class DocumentGenerationController {
     private final OrdreDePaiementService ordreDePaiementService;
 
     private final DocumentService documentService;
-    private final UtilisateurService utilisateurService;
+    private final UtilisateurConnecteService utilisateurConnecteService;
 
     /**
      * Génère un PDF pour un bon de commande spécifique
@@ -82,13 +84,12 @@ public class DocumentGenerationController {
             log.info("Génération du PDF pour bon de commande ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer le bon de commande avec initialisation des relations
             BonDeCommande bon = bonDeCommandeService.getBonDeCommandeById(id);
 
-            if (!bon.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!bon.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -144,13 +145,12 @@ public class DocumentGenerationController {
         try {
             log.info("Téléchargement du PDF pour bon de commande ID: {}", id);
 
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             BonDeCommande bon = bonDeCommandeRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Bon de commande introuvable"));
 
-            if (!bon.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!bon.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -208,14 +208,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour budget ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer le budget avec initialisation des relations
             Budget budget = budgetService.trouverParIdAvecRelations(id)
                     .orElseThrow(() -> new RuntimeException("Budget introuvable"));
 
-            if (!budget.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!budget.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -269,13 +268,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             Budget budget = budgetRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Budget introuvable"));
 
-            if (!budget.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!budget.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -323,14 +321,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour fiche de besoin ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer la fiche de besoin avec initialisation des relations
             FicheDeBesoin fiche = ficheBesoinService.trouverParIdAvecRelations(id)
                     .orElseThrow(() -> new RuntimeException("Fiche de besoin introuvable"));
 
-            if (!fiche.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!fiche.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -384,13 +381,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             FicheDeBesoin fiche = ficheBesoinRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Fiche de besoin introuvable"));
 
-            if (!fiche.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!fiche.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -438,14 +434,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour demande d'achat ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer la demande d'achat avec initialisation des relations
             DemandeDAchat demande = demandeDAchatService.trouverParIdAvecRelations(id)
                     .orElseThrow(() -> new RuntimeException("Demande d'achat introuvable"));
 
-            if (!demande.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!demande.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -499,13 +494,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             DemandeDAchat demande = demandeDAchatRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Demande d'achat introuvable"));
 
-            if (!demande.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!demande.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -553,14 +547,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour attestation de service fait ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer l'attestation avec initialisation des relations
             AttestationDeServiceFait attestation = attestationServiceFaitService.trouverParIdAvecRelations(id)
                     .orElseThrow(() -> new RuntimeException("Attestation de service fait introuvable"));
 
-            if (!attestation.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!attestation.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -615,13 +608,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             AttestationDeServiceFait attestation = attestationRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Attestation de service fait introuvable"));
 
-            if (!attestation.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!attestation.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -669,14 +661,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour décision de prélèvement ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer la décision avec initialisation des relations
             DecisionDePrelevement decision = decisionPrelevementService.trouverParId(id)
                     .orElseThrow(() -> new RuntimeException("Décision de prélèvement introuvable"));
 
-            if (!decision.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!decision.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -722,13 +713,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             DecisionDePrelevement decision = decisionRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Décision de prélèvement introuvable"));
 
-            if (!decision.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!decision.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -776,14 +766,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour ordre de paiement ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer l'ordre avec initialisation des relations
             OrdreDePaiement ordre = ordreDePaiementService.trouverParIdAvecRelations(id)
                     .orElseThrow(() -> new RuntimeException("Ordre de paiement introuvable"));
 
-            if (!ordre.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!ordre.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -837,13 +826,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             OrdreDePaiement ordre = ordreRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Ordre de paiement introuvable"));
 
-            if (!ordre.getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!ordre.getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -891,14 +879,13 @@ public class DocumentGenerationController {
             log.info("Demande de génération PDF pour ligne de crédit ID: {}", id);
 
             // Vérifier l'authentification
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             // Récupérer la ligne de crédit avec initialisation des relations
             LigneCredit ligne = ligneCreditRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Ligne de crédit introuvable"));
 
-            if (!ligne.getBudget().getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!ligne.getBudget().getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
@@ -952,13 +939,12 @@ public class DocumentGenerationController {
             Authentication auth) {
 
         try {
-            Utilisateur user = utilisateurService.trouverParEmail(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte user = utilisateurConnecteService.resoudre(auth);
 
             LigneCredit ligne = ligneCreditRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Ligne de crédit introuvable"));
 
-            if (!ligne.getBudget().getEntreprise().getId().equals(user.getEntreprise().getId())) {
+            if (!ligne.getBudget().getEntreprise().getId().equals(user.getEntrepriseId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body(Map.of("message", "Accès interdit"));
             }
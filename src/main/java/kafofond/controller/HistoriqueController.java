@@ -1,20 +1,32 @@
 package kafofond.controller;
 
+import kafofond.dto.ArchivageHistoriqueRapportDTO;
+import kafofond.dto.ChronologieDocumentDTO;
 import kafofond.dto.HistoriqueDTO;
-import kafofond.entity.HistoriqueAction;
+import kafofond.dto.HistoriquePageDTO;
 import kafofond.entity.Utilisateur;
+import kafofond.entity.Role;
+import kafofond.entity.SegmentArchive;
+import kafofond.entity.TypeDocument;
+import kafofond.service.ChronologieDocumentService;
+import kafofond.service.HistoriqueArchiveService;
 import kafofond.service.HistoriqueService;
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
 import kafofond.service.UtilisateurService;
+import kafofond.service.audit.AuditWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Controller pour la gestion de l'historique des actions
@@ -27,7 +39,11 @@ import java.util.stream.Collectors;
 public class HistoriqueController {
 
     private final HistoriqueService historiqueService;
+    private final ChronologieDocumentService chronologieDocumentService;
+    private final HistoriqueArchiveService historiqueArchiveService;
     private final UtilisateurService utilisateurService;
+    private final UtilisateurConnecteService utilisateurConnecteService;
+    private final AuditWriter auditWriter;
 
     /**
      * Consulte l'historique d'un document spécifique
@@ -41,12 +57,8 @@ public class HistoriqueController {
             log.info("Consultation de l'historique du document {} #{} par {}", 
                     typeDocument, idDocument, authentication.getName());
 
-            List<HistoriqueAction> historique = historiqueService.consulterHistorique(typeDocument, idDocument);
-            
-            // Convertir en DTO pour éviter les problèmes de sérialisation
-            List<HistoriqueDTO> historiqueDTO = historique.stream()
-                    .map(HistoriqueDTO::fromEntity)
-                    .collect(Collectors.toList());
+            // Projection DTO, segments archivés compris si nécessaire
+            List<HistoriqueDTO> historiqueDTO = historiqueService.consulterHistoriqueDocument(typeDocument, idDocument);
 
             Map<String, Object> response = new HashMap<>();
             response.put("historique", historiqueDTO);
@@ -62,6 +74,49 @@ public class HistoriqueController {
         }
     }
 
+    /**
+     * Chronologie d'un document : historique, validations et commentaires fusionnés en une requête
+     * Pagination par curseur (curseurDate, curseurSource, curseurId) ; répond 304 si l'en-tête
+     * If-None-Match correspond à l'ETag, calculé par une sonde légère avant la requête complète
+     */
+    @GetMapping("/{typeDocument}/{idDocument}/chronologie")
+    public ResponseEntity<?> consulterChronologieDocument(
+            @PathVariable String typeDocument,
+            @PathVariable Long idDocument,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) String curseurSource,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch,
+            Authentication authentication) {
+        try {
+            log.info("Consultation de la chronologie du document {} #{} par {}",
+                    typeDocument, idDocument, authentication.getName());
+
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            Long entrepriseId = utilisateur.estSuperAdmin() ? null : utilisateur.getEntrepriseId();
+            TypeDocument type = TypeDocument.valueOf(typeDocument);
+
+            String eTag = chronologieDocumentService.calculerETag(type, idDocument, entrepriseId,
+                    curseurDate, curseurSource, curseurId, taille);
+            if (eTag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+
+            ChronologieDocumentDTO chronologie = chronologieDocumentService.consulterChronologie(
+                    type, idDocument, entrepriseId, curseurDate, curseurSource, curseurId, taille);
+
+            return ResponseEntity.ok().eTag(eTag).body(chronologie);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la consultation de la chronologie : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Consulte l'historique complet de l'entreprise
      */
@@ -73,12 +128,8 @@ public class HistoriqueController {
             Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
                     .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
 
-            List<HistoriqueAction> historique = historiqueService.consulterHistoriqueEntreprise(utilisateur.getEntreprise());
-
-            // Convertir en DTO pour éviter les problèmes de sérialisation
-            List<HistoriqueDTO> historiqueDTO = historique.stream()
-                    .map(HistoriqueDTO::fromEntity)
-                    .collect(Collectors.toList());
+            // Table chaude et segments archivés, déjà convertis en DTO
+            List<HistoriqueDTO> historiqueDTO = historiqueService.consulterHistoriqueEntreprise(utilisateur.getEntreprise());
 
             Map<String, Object> response = new HashMap<>();
             response.put("historique", historiqueDTO);
@@ -94,6 +145,41 @@ public class HistoriqueController {
         }
     }
 
+    /**
+     * Recherche paginée (curseur dateAction/id) et filtrable dans l'historique de l'entreprise
+     * Pour la page suivante, renvoyer curseurDate et curseurId de la réponse précédente
+     */
+    @GetMapping("/recherche")
+    public ResponseEntity<?> rechercherHistorique(
+            @RequestParam(required = false) String typeDocument,
+            @RequestParam(required = false) Long idDocument,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Long utilisateurId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            Authentication authentication) {
+        try {
+            log.info("Recherche dans l'historique de l'entreprise par {}", authentication.getName());
+
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            HistoriquePageDTO page = historiqueService.rechercherHistorique(utilisateur.getEntrepriseId(),
+                    typeDocument, idDocument, action, utilisateurId, dateDebut, dateFin,
+                    curseurDate, curseurId, taille);
+
+            return ResponseEntity.ok(page);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la recherche dans l'historique : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Consulte l'historique de l'entreprise par type de document
      */
@@ -108,14 +194,10 @@ public class HistoriqueController {
             Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
                     .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
 
-            List<HistoriqueAction> historique = historiqueService.consulterHistoriqueParType(
+            // Table chaude et segments archivés, déjà convertis en DTO
+            List<HistoriqueDTO> historiqueDTO = historiqueService.consulterHistoriqueParType(
                     utilisateur.getEntreprise(), typeDocument);
 
-            // Convertir en DTO pour éviter les problèmes de sérialisation
-            List<HistoriqueDTO> historiqueDTO = historique.stream()
-                    .map(HistoriqueDTO::fromEntity)
-                    .collect(Collectors.toList());
-
             Map<String, Object> response = new HashMap<>();
             response.put("historique", historiqueDTO);
             response.put("total", historiqueDTO.size());
@@ -141,12 +223,8 @@ public class HistoriqueController {
             Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
                     .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
 
-            List<HistoriqueAction> historique = historiqueService.consulterHistoriqueUtilisateur(utilisateur);
-
-            // Convertir en DTO pour éviter les problèmes de sérialisation
-            List<HistoriqueDTO> historiqueDTO = historique.stream()
-                    .map(HistoriqueDTO::fromEntity)
-                    .collect(Collectors.toList());
+            // Table chaude et segments archivés, déjà convertis en DTO
+            List<HistoriqueDTO> historiqueDTO = historiqueService.consulterHistoriqueUtilisateur(utilisateur);
 
             Map<String, Object> response = new HashMap<>();
             response.put("historique", historiqueDTO);
@@ -161,4 +239,82 @@ public class HistoriqueController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Statistiques de l'écrivain d'audit asynchrone (profondeur de file, latence des lots)
+     */
+    @GetMapping("/audit/statistiques")
+    public ResponseEntity<?> statistiquesAudit(Authentication authentication) {
+        try {
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            if (utilisateur.getRole() != Role.SUPER_ADMIN) {
+                throw new RuntimeException("Seul le Super Admin peut consulter les statistiques d'audit");
+            }
+
+            return ResponseEntity.ok(auditWriter.statistiques());
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la consultation des statistiques d'audit : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Manifeste des segments mensuels archivés (historique et validations)
+     */
+    @GetMapping("/archives/segments")
+    public ResponseEntity<?> consulterSegmentsArchive(Authentication authentication) {
+        try {
+            log.info("Consultation du manifeste d'archive par {}", authentication.getName());
+
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            if (utilisateur.getRole() != Role.SUPER_ADMIN) {
+                throw new RuntimeException("Seul le Super Admin peut consulter le manifeste d'archive");
+            }
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("historique", historiqueArchiveService.consulterSegments(SegmentArchive.SOURCE_HISTORIQUE));
+            response.put("validations", historiqueArchiveService.consulterSegments(SegmentArchive.SOURCE_VALIDATION));
+            response.put("limiteChaudeHistorique", historiqueArchiveService.limiteChaude(SegmentArchive.SOURCE_HISTORIQUE));
+            response.put("limiteChaudeValidations", historiqueArchiveService.limiteChaude(SegmentArchive.SOURCE_VALIDATION));
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la consultation du manifeste d'archive : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Déclenche manuellement l'archivage des mois clos (Super Admin)
+     */
+    @PostMapping("/archives/executer")
+    public ResponseEntity<?> executerArchivage(Authentication authentication) {
+        try {
+            log.info("Archivage manuel de l'historique demandé par {}", authentication.getName());
+
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            if (utilisateur.getRole() != Role.SUPER_ADMIN) {
+                throw new RuntimeException("Seul le Super Admin peut déclencher l'archivage de l'historique");
+            }
+
+            ArchivageHistoriqueRapportDTO rapport = historiqueArchiveService.archiverMoisClos();
+
+            return ResponseEntity.ok(rapport);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de l'archivage de l'historique : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package kafofond.controller;
 
+import kafofond.dto.ArchivageNotificationsRapportDTO;
+import kafofond.dto.NotificationPageDTO;
 import kafofond.entity.Notification;
 import kafofond.entity.Utilisateur;
 import kafofond.repository.NotificationRepo;
+import kafofond.service.NotificationRetentionService;
+import kafofond.service.NotificationService;
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
 import kafofond.service.UtilisateurService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,7 +33,10 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationRepo notificationRepo;
+    private final NotificationService notificationService;
+    private final NotificationRetentionService notificationRetentionService;
     private final UtilisateurService utilisateurService;
+    private final UtilisateurConnecteService utilisateurConnecteService;
 
     /**
      * Liste toutes les notifications de l'utilisateur connecté
@@ -35,10 +46,9 @@ public class NotificationController {
         try {
             log.info("Liste des notifications demandée par {}", authentication.getName());
             
-            Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
             
-            List<Notification> notifications = notificationRepo.findByDestinataire(utilisateur);
+            List<Notification> notifications = notificationRepo.findByDestinataireId(utilisateur.getId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("notifications", notifications);
@@ -54,6 +64,40 @@ public class NotificationController {
         }
     }
 
+    /**
+     * Boîte de réception paginée de l'utilisateur connecté
+     * Pagination par curseur : renvoyer curseurDate/curseurId de la réponse pour la page suivante
+     * Filtre par document : typeDocument et idDocument ensemble
+     */
+    @GetMapping("/boite-reception")
+    public ResponseEntity<?> consulterBoiteReception(
+            @RequestParam(required = false) Boolean etat,
+            @RequestParam(required = false) String typeDocument,
+            @RequestParam(required = false) Long idDocument,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            Authentication authentication) {
+        try {
+            log.info("Boîte de réception demandée par {}", authentication.getName());
+            
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+            
+            NotificationPageDTO page = notificationService.consulterBoiteReception(utilisateur.getId(), etat,
+                    typeDocument, idDocument, dateDebut, dateFin, curseurDate, curseurId, taille);
+            
+            return ResponseEntity.ok(page);
+            
+        } catch (Exception e) {
+            log.error("Erreur lors de la consultation de la boîte de réception : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Liste toutes les notifications d'un utilisateur spécifique (par ID)
      */
@@ -64,8 +108,7 @@ public class NotificationController {
                     utilisateurId, authentication.getName());
             
             // Vérifier que l'utilisateur a le droit d'accéder à ces notifications
-            Utilisateur utilisateurActuel = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte utilisateurActuel = utilisateurConnecteService.resoudre(authentication);
             
             // Vérifier que l'utilisateur demandé existe
             Utilisateur utilisateurCible = utilisateurService.trouverParId(utilisateurId)
@@ -103,10 +146,9 @@ public class NotificationController {
         try {
             log.info("Comptage des notifications non lues demandé par {}", authentication.getName());
             
-            Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
             
-            long nombreNonLues = notificationRepo.countByDestinataireAndEtat(utilisateur, false);
+            long nombreNonLues = notificationRepo.countByDestinataireIdAndEtat(utilisateur.getId(), false);
             
             Map<String, Object> response = new HashMap<>();
             response.put("nombreNonLues", nombreNonLues);
@@ -131,8 +173,7 @@ public class NotificationController {
                     utilisateurId, authentication.getName());
             
             // Vérifier que l'utilisateur a le droit d'accéder à ces notifications
-            Utilisateur utilisateurActuel = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte utilisateurActuel = utilisateurConnecteService.resoudre(authentication);
             
             // Vérifier que l'utilisateur demandé existe
             Utilisateur utilisateurCible = utilisateurService.trouverParId(utilisateurId)
@@ -168,8 +209,7 @@ public class NotificationController {
         try {
             log.info("Marquage de la notification {} comme lue par {}", id, authentication.getName());
             
-            Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
             
             Notification notification = notificationRepo.findById(id)
                     .orElseThrow(() -> new RuntimeException("Notification introuvable"));
@@ -204,19 +244,13 @@ public class NotificationController {
         try {
             log.info("Marquage de toutes les notifications comme lues par {}", authentication.getName());
             
-            Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
-            
-            List<Notification> notificationsNonLues = notificationRepo.findByDestinataireAndEtat(utilisateur, false);
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
             
-            for (Notification notification : notificationsNonLues) {
-                notification.setEtat(true);  // Marquée comme lue
-                notificationRepo.save(notification);
-            }
+            int nombreMarquees = notificationService.marquerToutesCommeLues(utilisateur.getId());
             
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Toutes les notifications ont été marquées comme lues");
-            response.put("nombreMarquees", notificationsNonLues.size());
+            response.put("nombreMarquees", nombreMarquees);
             
             return ResponseEntity.ok(response);
             
@@ -227,4 +261,118 @@ public class NotificationController {
             return ResponseEntity.badRequest().body(error);
         }
     }
+
+    /**
+     * Marque comme lues toutes les notifications concernant un document
+     */
+    @PostMapping("/document/{typeDocument}/{idDocument}/marquer-lues")
+    public ResponseEntity<?> marquerCommeLuesParDocument(@PathVariable String typeDocument,
+                                                         @PathVariable Long idDocument,
+                                                         Authentication authentication) {
+        try {
+            log.info("Marquage des notifications du document {} #{} comme lues par {}",
+                    typeDocument, idDocument, authentication.getName());
+            
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+            
+            int nombreMarquees = notificationService.marquerCommeLuesParDocument(utilisateur.getId(),
+                    typeDocument, idDocument);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Notifications du document marquées comme lues");
+            response.put("typeDocument", typeDocument);
+            response.put("idDocument", idDocument);
+            response.put("nombreMarquees", nombreMarquees);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Erreur lors du marquage des notifications du document : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Marque comme lues toutes les notifications envoyées avant une date
+     */
+    @PostMapping("/marquer-lues-avant")
+    public ResponseEntity<?> marquerCommeLuesAvant(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime date,
+            Authentication authentication) {
+        try {
+            log.info("Marquage des notifications antérieures au {} comme lues par {}", date, authentication.getName());
+            
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+            
+            int nombreMarquees = notificationService.marquerCommeLuesAvant(utilisateur.getId(), date);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Notifications antérieures marquées comme lues");
+            response.put("dateLimite", date);
+            response.put("nombreMarquees", nombreMarquees);
+            
+            return ResponseEntity.ok(response);
+            
+        } catch (Exception e) {
+            log.error("Erreur lors du marquage des notifications antérieures : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Consulte les notifications archivées de l'utilisateur connecté (chemin lent)
+     */
+    @GetMapping("/archives")
+    public ResponseEntity<?> consulterArchives(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            Authentication authentication) {
+        try {
+            log.info("Consultation des notifications archivées par {}", authentication.getName());
+            
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+            
+            NotificationPageDTO page = notificationRetentionService.consulterArchives(
+                    utilisateur.getId(), curseurDate, curseurId, taille);
+            
+            return ResponseEntity.ok(page);
+            
+        } catch (Exception e) {
+            log.error("Erreur lors de la consultation des notifications archivées : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Déclenche manuellement l'archivage des notifications lues (Super Admin)
+     */
+    @PostMapping("/archives/executer")
+    public ResponseEntity<?> executerArchivage(Authentication authentication) {
+        try {
+            log.info("Archivage manuel des notifications demandé par {}", authentication.getName());
+            
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+            
+            if (utilisateur.getRole() != kafofond.entity.Role.SUPER_ADMIN) {
+                throw new RuntimeException("Seul le Super Admin peut déclencher l'archivage des notifications");
+            }
+            
+            ArchivageNotificationsRapportDTO rapport = notificationRetentionService.archiverSelonRetention();
+            
+            return ResponseEntity.ok(rapport);
+            
+        } catch (Exception e) {
+            log.error("Erreur lors de l'archivage des notifications : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
 }
@@ -9,9 +9,9 @@ import kafofond.dto.ResponsableChartDataDTO;
 import kafofond.dto.GestionnaireDashboardStatsDTO;
 import kafofond.dto.GestionnaireChartDataDTO;
 import kafofond.entity.Role;
-import kafofond.entity.Utilisateur;
 import kafofond.service.StatistiqueService;
-import kafofond.service.UtilisateurService;
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
 import kafofond.service.ResponsableStatistiquesService;
 import kafofond.repository.LigneCreditRepo;
 import kafofond.repository.OrdreDePaiementRepo;
@@ -33,7 +33,7 @@ import java.util.Map;
 public class StatistiqueController {
 
         private final StatistiqueService statistiqueService;
-        private final UtilisateurService utilisateurService;
+        private final UtilisateurConnecteService utilisateurConnecteService;
         private final ResponsableStatistiquesService responsableStatistiquesService;
         private final LigneCreditRepo ligneCreditRepo;
         private final OrdreDePaiementRepo ordreDePaiementRepo;
@@ -65,28 +65,27 @@ public class StatistiqueController {
         public ResponseEntity<DsiDashboardStats> getStatistiquesDashboardDSI(Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         DsiDashboardStats stats = new DsiDashboardStats();
 
                         // Total users = utilisateurs actifs de l'entreprise
                         int totalUsers = Math.toIntExact(
                                         statistiqueService.getUtilisateursActifsParEntreprise(
-                                                        utilisateur.getEntreprise().getId()));
+                                                        utilisateur.getEntrepriseId()));
                         stats.setTotalUsers(totalUsers);
 
                         // Disabled users = total utilisateurs - utilisateurs actifs de l'entreprise
                         int totalUtilisateurs = Math.toIntExact(
                                         statistiqueService.getTotalUtilisateursParEntreprise(
-                                                        utilisateur.getEntreprise().getId()));
+                                                        utilisateur.getEntrepriseId()));
                         int disabledUsers = totalUtilisateurs - totalUsers;
                         stats.setDisabledUsers(disabledUsers);
 
                         // Shared documents = total documents de l'entreprise
                         int sharedDocuments = Math
                                         .toIntExact(statistiqueService.getTotalDocumentsParEntreprise(
-                                                        utilisateur.getEntreprise().getId()));
+                                                        utilisateur.getEntrepriseId()));
                         stats.setSharedDocuments(sharedDocuments);
 
                         // Active users percentage
@@ -164,8 +163,7 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         Map<String, Object> response = new HashMap<>();
                         Map<String, Object> datasets = new HashMap<>();
@@ -173,9 +171,9 @@ public class StatistiqueController {
                         // Récupérer les vraies données pour l'entreprise
                         List<String> labels = statistiqueService.getLabelsParPeriode(periode);
                         List<Integer> utilisateurs = statistiqueService.getUtilisateursParPeriodeEtEntreprise(periode,
-                                        utilisateur.getEntreprise().getId());
+                                        utilisateur.getEntrepriseId());
                         List<Integer> documents = statistiqueService.getDocumentsParPeriodeEtEntreprise(periode,
-                                        utilisateur.getEntreprise().getId());
+                                        utilisateur.getEntrepriseId());
 
                         datasets.put("utilisateurs", utilisateurs);
                         datasets.put("documents", documents);
@@ -202,8 +200,7 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle DIRECTEUR
                         if (utilisateur.getRole() != Role.DIRECTEUR) {
@@ -212,7 +209,7 @@ public class StatistiqueController {
 
                         DirecteurDashboardStats stats = new DirecteurDashboardStats();
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
 
                         // Récupérer les statistiques
                         long totalBudget = statistiqueService.getTotalBudgetByEntrepriseId(entrepriseId);
@@ -260,8 +257,7 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle DIRECTEUR
                         if (utilisateur.getRole() != Role.DIRECTEUR) {
@@ -274,7 +270,7 @@ public class StatistiqueController {
                         Map<String, Object> response = new HashMap<>();
                         Map<String, Object> datasets = new HashMap<>();
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
 
                         // Récupérer les données pour les graphiques
                         List<String> labels = statistiqueService.getLabelsParPeriode(periode);
@@ -312,15 +308,14 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle RESPONSABLE
                         if (utilisateur.getRole() != Role.RESPONSABLE) {
                                 return ResponseEntity.status(403).build();
                         }
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
                         
                         // Récupérer les statistiques dynamiques du service
                         ResponsableDashboardStatsDTO stats = responsableStatistiquesService.getDashboardStats(entrepriseId);
@@ -347,15 +342,14 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle RESPONSABLE
                         if (utilisateur.getRole() != Role.RESPONSABLE) {
                                 return ResponseEntity.status(403).build();
                         }
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
                         
                         // Récupérer les données pour les graphiques
                         ResponsableChartDataDTO chartData = responsableStatistiquesService.getChartData(periode, entrepriseId);
@@ -377,15 +371,14 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle GESTIONNAIRE
                         if (utilisateur.getRole() != Role.GESTIONNAIRE) {
                                 return ResponseEntity.status(403).build();
                         }
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
                         
                         // Récupérer les statistiques pour le gestionnaire
                         int totalLignesCredit = Math.toIntExact(statistiqueService.getTotalLignesCreditByEntrepriseId(entrepriseId));
@@ -444,15 +437,14 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle GESTIONNAIRE
                         if (utilisateur.getRole() != Role.GESTIONNAIRE) {
                                 return ResponseEntity.status(403).build();
                         }
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
                         
                         // Récupérer les données pour les graphiques
                         List<String> labels = statistiqueService.getLabelsParPeriode(periode);
@@ -487,15 +479,14 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle COMPTABLE
                         if (utilisateur.getRole() != Role.COMPTABLE) {
                                 return ResponseEntity.status(403).build();
                         }
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
 
                         ComptableDashboardStats stats = new ComptableDashboardStats();
 
@@ -550,15 +541,14 @@ public class StatistiqueController {
                         Authentication authentication) {
                 try {
                         // Récupérer l'utilisateur authentifié
-                        Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                                        .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+                        UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
                         // Vérifier que l'utilisateur a le rôle COMPTABLE
                         if (utilisateur.getRole() != Role.COMPTABLE) {
                                 return ResponseEntity.status(403).build();
                         }
 
-                        Long entrepriseId = utilisateur.getEntreprise().getId();
+                        Long entrepriseId = utilisateur.getEntrepriseId();
                         
                         // Récupérer les données pour les graphiques
                         List<String> labels = statistiqueService.getLabelsParPeriode(periode);
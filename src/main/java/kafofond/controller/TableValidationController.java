@@ -1,16 +1,22 @@
 package kafofond.controller;
 
 import kafofond.dto.TableValidationDTO;
+import kafofond.dto.ValidationPageDTO;
+import kafofond.entity.StatutValidation;
 import kafofond.entity.TableValidation;
-import kafofond.entity.Utilisateur;
+import kafofond.dto.ResumeActiviteDocumentDTO;
+import kafofond.service.ActiviteDocumentService;
 import kafofond.service.TableValidationService;
-import kafofond.service.UtilisateurService;
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,7 +33,55 @@ import java.util.stream.Collectors;
 public class TableValidationController {
 
     private final TableValidationService tableValidationService;
-    private final UtilisateurService utilisateurService;
+    private final UtilisateurConnecteService utilisateurConnecteService;
+    private final ActiviteDocumentService activiteDocumentService;
+
+    /**
+     * Résumé d'activité d'un lot de documents du même type (une requête groupée) :
+     * nombre de commentaires, nombre de validations, dernier statut et dernier validateur par ID
+     */
+    @GetMapping("/resume")
+    public ResponseEntity<?> resumerActiviteDocuments(
+            @RequestParam String typeDocument,
+            @RequestParam List<Long> ids,
+            Authentication authentication) {
+        try {
+            log.info("Résumé d'activité de {} document(s) {} demandé par {}",
+                    ids.size(), typeDocument, authentication.getName());
+
+            if (ids.size() > 500) {
+                throw new IllegalArgumentException("500 documents au maximum par requête");
+            }
+
+            kafofond.entity.TypeDocument typeDoc = kafofond.entity.TypeDocument.valueOf(typeDocument);
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            // Seuls les documents de l'entreprise de l'utilisateur peuvent être résumés (hors Super Admin)
+            if (!utilisateur.estSuperAdmin()) {
+                List<Long> refuses = activiteDocumentService.idsHorsEntreprise(typeDoc, ids,
+                        utilisateur.getEntrepriseId());
+                if (!refuses.isEmpty()) {
+                    Map<String, String> error = new HashMap<>();
+                    error.put("message", "Documents inaccessibles pour votre entreprise : " + refuses);
+                    return ResponseEntity.status(403).body(error);
+                }
+            }
+
+            Map<Long, ResumeActiviteDocumentDTO> resumes = activiteDocumentService.resumer(typeDoc, ids);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("resumes", resumes);
+            response.put("total", resumes.size());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Erreur lors du calcul du résumé d'activité : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
 
     /**
      * Consulte les validations d'un document spécifique
@@ -73,8 +127,7 @@ public class TableValidationController {
         try {
             log.info("Consultation des validations de l'utilisateur {}", authentication.getName());
 
-            Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
-                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
             List<TableValidation> validations = tableValidationService.consulterValidationsValidateur(utilisateur.getId());
 
@@ -98,31 +151,67 @@ public class TableValidationController {
     }
 
     /**
-     * Consulte les validations par type de document
+     * Recherche paginée (curseur dateValidation/id) et filtrable dans les validations de l'entreprise
+     * Pour la page suivante, renvoyer curseurDate et curseurId de la réponse précédente
+     * Le Super Admin voit toutes les entreprises, ou une seule avec entrepriseId
+     */
+    @GetMapping("/recherche")
+    public ResponseEntity<?> rechercherValidations(
+            @RequestParam(required = false) String typeDocument,
+            @RequestParam(required = false) String statut,
+            @RequestParam(required = false) Long validateurId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateDebut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime dateFin,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            @RequestParam(required = false) Long entrepriseId,
+            Authentication authentication) {
+        try {
+            log.info("Recherche dans les validations de l'entreprise par {}", authentication.getName());
+
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
+            ValidationPageDTO page = tableValidationService.rechercherValidations(perimetre(utilisateur, entrepriseId),
+                    typeDocument != null ? kafofond.entity.TypeDocument.valueOf(typeDocument) : null,
+                    statut != null ? StatutValidation.valueOf(statut) : null,
+                    validateurId, dateDebut, dateFin, curseurDate, curseurId, taille);
+
+            return ResponseEntity.ok(page);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la recherche des validations : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Consulte les validations de l'entreprise par type de document (paginé par curseur)
+     * Le Super Admin voit toutes les entreprises, ou une seule avec entrepriseId
      */
     @GetMapping("/type/{typeDocument}")
     public ResponseEntity<?> consulterValidationsParType(
             @PathVariable String typeDocument,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            @RequestParam(required = false) Long entrepriseId,
             Authentication authentication) {
         try {
             log.info("Consultation des validations pour le type {} par {}", 
                     typeDocument, authentication.getName());
 
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
+
             // Convertir le typeDocument en enum
             kafofond.entity.TypeDocument typeDoc = kafofond.entity.TypeDocument.valueOf(typeDocument);
             
-            List<TableValidation> validations = tableValidationService.consulterValidationsParType(typeDoc);
+            ValidationPageDTO page = tableValidationService.rechercherValidations(perimetre(utilisateur, entrepriseId),
+                    typeDoc, null, null, null, null, curseurDate, curseurId, taille);
 
-            // Convertir en DTO pour éviter les problèmes de sérialisation
-            List<TableValidationDTO> validationsDTO = validations.stream()
-                    .map(TableValidationDTO::fromEntity)
-                    .collect(Collectors.toList());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("validations", validationsDTO);
-            response.put("total", validationsDTO.size());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(reponsePage(page));
 
         } catch (Exception e) {
             log.error("Erreur lors de la consultation des validations par type : {}", e.getMessage());
@@ -133,28 +222,27 @@ public class TableValidationController {
     }
 
     /**
-     * Consulte les validations par statut
+     * Consulte les validations de l'entreprise par statut (paginé par curseur)
+     * Le Super Admin voit toutes les entreprises, ou une seule avec entrepriseId
      */
     @GetMapping("/statut/{statut}")
     public ResponseEntity<?> consulterValidationsParStatut(
             @PathVariable String statut,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime curseurDate,
+            @RequestParam(required = false) Long curseurId,
+            @RequestParam(required = false) Integer taille,
+            @RequestParam(required = false) Long entrepriseId,
             Authentication authentication) {
         try {
             log.info("Consultation des validations avec le statut {} par {}", 
                     statut, authentication.getName());
 
-            List<TableValidation> validations = tableValidationService.consulterValidationsParStatut(statut);
+            UtilisateurConnecte utilisateur = utilisateurConnecteService.resoudre(authentication);
 
-            // Convertir en DTO pour éviter les problèmes de sérialisation
-            List<TableValidationDTO> validationsDTO = validations.stream()
-                    .map(TableValidationDTO::fromEntity)
-                    .collect(Collectors.toList());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("validations", validationsDTO);
-            response.put("total", validationsDTO.size());
+            ValidationPageDTO page = tableValidationService.rechercherValidations(perimetre(utilisateur, entrepriseId),
+                    null, StatutValidation.valueOf(statut), null, null, null, curseurDate, curseurId, taille);
 
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(reponsePage(page));
 
         } catch (Exception e) {
             log.error("Erreur lors de la consultation des validations par statut : {}", e.getMessage());
@@ -163,4 +251,33 @@ public class TableValidationController {
             return ResponseEntity.badRequest().body(error);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Entreprise sur laquelle porte la recherche : celle de l'utilisateur, ou pour le Super Admin
+     * l'entreprise demandée (null : toutes les entreprises)
+     */
+    private Long perimetre(UtilisateurConnecte utilisateur, Long entrepriseDemandee) {
+        if (utilisateur.estSuperAdmin()) {
+            return entrepriseDemandee;
+        }
+        if (utilisateur.getEntrepriseId() == null) {
+            throw new RuntimeException("Utilisateur rattaché à aucune entreprise");
+        }
+        return utilisateur.getEntrepriseId();
+    }
+
+    /**
+     * Réponse des anciens endpoints de liste, désormais paginés (50 validations par défaut, 200 au plus) :
+     * "taille" est le nombre de validations de la page et remplace "total", qui donnait le nombre
+     * complet et n'est plus calculé ; les pages suivantes se lisent avec curseurDate et curseurId
+     */
+    private Map<String, Object> reponsePage(ValidationPageDTO page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("validations", page.getValidations());
+        response.put("taille", page.getTaille());
+        response.put("pageSuivante", page.isPageSuivante());
+        response.put("curseurDate", page.getCurseurDate());
+        response.put("curseurId", page.getCurseurId());
+        return response;
+    }
+}
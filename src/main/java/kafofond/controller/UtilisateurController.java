@@ -2,18 +2,23 @@ package kafofond.controller;
 
 import kafofond.dto.UtilisateurCreateDTO;
 import kafofond.dto.UtilisateurDTO;
+import kafofond.dto.UtilisateurPageDTO;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Role;
 import kafofond.entity.Utilisateur;
 import kafofond.mapper.UtilisateurMapper;
+import kafofond.service.ImportUtilisateursService;
 import kafofond.service.UtilisateurService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +36,7 @@ public class UtilisateurController {
     private final UtilisateurService utilisateurService;
     private final UtilisateurMapper utilisateurMapper;
     private final PasswordEncoder passwordEncoder;
+    private final ImportUtilisateursService importUtilisateursService;
 
     /**
      * Liste tous les utilisateurs de l'entreprise
@@ -494,6 +500,88 @@ public class UtilisateurController {
         }
     }
 
+    /**
+     * Annuaire paginé des utilisateurs, filtré et trié en base
+     *
+     * @param entrepriseId (optionnel) ID de l'entreprise (SUPER_ADMIN uniquement, sinon l'entreprise de l'utilisateur)
+     * @param recherche    (optionnel) texte recherché dans le nom, le prénom ou l'email
+     * @param tri          (optionnel) nom, prenom, email, role ou dateCreation ; préfixe "-" pour décroissant
+     */
+    @GetMapping("/annuaire")
+    public ResponseEntity<?> rechercherAnnuaire(
+            @RequestParam(required = false) Long entrepriseId,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) Boolean actif,
+            @RequestParam(required = false) String recherche,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer taille,
+            @RequestParam(required = false) String tri,
+            Authentication authentication) {
+        try {
+            log.info("Recherche dans l'annuaire par {} (entrepriseId: {}, rôle: {}, actif: {})",
+                    authentication.getName(), entrepriseId, role, actif);
+
+            Utilisateur utilisateur = utilisateurService.trouverParEmail(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+
+            Long entrepriseFiltre = entrepriseId;
+            if (utilisateur.getRole() != Role.SUPER_ADMIN) {
+                if (entrepriseId != null && !entrepriseId.equals(utilisateur.getEntreprise().getId())) {
+                    Map<String, String> error = new HashMap<>();
+                    error.put("message", "Seul le SUPER_ADMIN peut filtrer par entreprise");
+                    return ResponseEntity.status(403).body(error);
+                }
+                entrepriseFiltre = utilisateur.getEntreprise().getId();
+            }
+
+            UtilisateurPageDTO resultat = utilisateurService.rechercherAnnuaire(entrepriseFiltre,
+                    role != null ? Role.valueOf(role.toUpperCase()) : null,
+                    actif, recherche, page, taille, tri);
+
+            return ResponseEntity.ok(resultat);
+
+        } catch (Exception e) {
+            log.error("Erreur lors de la recherche dans l'annuaire : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Import en masse d'utilisateurs depuis un fichier CSV
+     * En-tête : nom;prenom;email;motDePasse;departement;role (séparateur ; ou ,)
+     *
+     * @param entrepriseId (optionnel) entreprise cible (SUPER_ADMIN uniquement, sinon l'entreprise de l'utilisateur)
+     */
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<?> importerUtilisateurs(@RequestParam("fichier") MultipartFile fichier,
+            @RequestParam(required = false) Long entrepriseId,
+            Authentication authentication) {
+        try {
+            log.info("Import CSV d'utilisateurs par {} ({} octets)", authentication.getName(), fichier.getSize());
+
+            Utilisateur admin = utilisateurService.trouverParEmail(authentication.getName())
+                    .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+
+            if (entrepriseId != null && admin.getRole() != Role.SUPER_ADMIN) {
+                Map<String, String> error = new HashMap<>();
+                error.put("message", "Seul le SUPER_ADMIN peut choisir l'entreprise cible");
+                return ResponseEntity.status(403).body(error);
+            }
+
+            try (InputStream flux = fichier.getInputStream()) {
+                return ResponseEntity.ok(importUtilisateursService.importer(flux, entrepriseId, admin));
+            }
+
+        } catch (Exception e) {
+            log.error("Erreur lors de l'import CSV d'utilisateurs : {}", e.getMessage());
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     /**
      * Récupère les détails de l'utilisateur connecté
      */
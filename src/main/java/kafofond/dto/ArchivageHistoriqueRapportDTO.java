@@ -0,0 +1,40 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * DTO pour le rapport d'une exécution de l'archivage mensuel de l'historique et des validations
+ * Détaille les lignes déplacées et la durée pour chaque segment (source, mois)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivageHistoriqueRapportDTO {
+
+    /**
+     * Premier mois conservé dans les tables chaudes
+     */
+    private YearMonth premierMoisChaud;
+    private int tailleLot;
+    private long totalLignes;
+    private long dureeTotaleMs;
+    private List<Segment> segments;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Segment {
+        private String source;
+        private int mois;
+        private long lignes;
+        private long dureeMs;
+    }
+}
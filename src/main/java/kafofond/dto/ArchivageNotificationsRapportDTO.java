@@ -0,0 +1,36 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO pour le rapport d'une exécution de l'archivage des notifications
+ * Détaille le nombre de lignes déplacées et la durée de chaque lot
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivageNotificationsRapportDTO {
+
+    private LocalDateTime dateLimite;
+    private int tailleLot;
+    private long totalLignes;
+    private long dureeTotaleMs;
+    private List<Lot> lots;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Lot {
+        private int numero;
+        private int lignes;
+        private long dureeMs;
+    }
+}
@@ -37,4 +37,7 @@ public class BonDeCommandeDTO {
     private String entrepriseNom;
     private Long demandeAchatId;
     private List<CommentaireDTO> commentaires;
+
+    // Résumé des commentaires et validations (écrans de liste)
+    private ResumeActiviteDocumentDTO activite;
 }
\ No newline at end of file
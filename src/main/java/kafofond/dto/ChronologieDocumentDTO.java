@@ -0,0 +1,35 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO pour une page de la chronologie d'un document
+ * (historique, validations et commentaires fusionnés, du plus récent au plus ancien)
+ * Le curseur (curseurDate, curseurSource, curseurId) est à renvoyer pour obtenir la page suivante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChronologieDocumentDTO {
+
+    private String typeDocument;
+    private Long idDocument;
+    private List<EvenementChronologieDTO> evenements;
+    private int taille;
+
+    /**
+     * true s'il reste des événements après cette page
+     */
+    private boolean pageSuivante;
+
+    private LocalDateTime curseurDate;
+    private String curseurSource;
+    private Long curseurId;
+}
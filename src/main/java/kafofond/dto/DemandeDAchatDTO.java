@@ -41,6 +41,9 @@ public class DemandeDAchatDTO {
     // Commentaires associés
     private List<CommentaireSimplifieDTO> commentaires;
 
+    // Résumé des commentaires et validations (écrans de liste)
+    private ResumeActiviteDocumentDTO activite;
+
     public static DemandeDAchatDTO fromEntity(DemandeDAchat demande) {
         if (demande == null) return null;
 
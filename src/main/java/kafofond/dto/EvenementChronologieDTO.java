@@ -0,0 +1,33 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO pour un événement de la chronologie d'un document
+ * source : HISTORIQUE (historiques_actions), VALIDATION (table_validation) ou COMMENTAIRE (commentaires)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EvenementChronologieDTO {
+
+    private String source;
+    private Long id;
+    private LocalDateTime dateEvenement;
+
+    /**
+     * Action de l'historique, statut de validation ou "COMMENTAIRE"
+     */
+    private String libelle;
+    private String statut;
+    private String contenu;
+
+    private Long auteurId;
+    private String auteurNomComplet;
+}
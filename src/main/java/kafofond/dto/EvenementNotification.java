@@ -0,0 +1,46 @@
+package kafofond.dto;
+
+import kafofond.entity.Utilisateur;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Événement de notification sur un document
+ * Transporte le type, l'ID et le code du document ainsi qu'un instantané de l'acteur,
+ * afin que NotificationService n'ait aucune entité à recharger
+ */
+@Value
+@Builder
+public class EvenementNotification {
+
+    String typeDocument;
+    Long idDocument;
+    String codeDocument;
+
+    /**
+     * Action effectuée (créée, validée, rejetée, ...)
+     */
+    String action;
+
+    Long acteurId;
+    String acteurPrenom;
+    String acteurNom;
+    String acteurEmail;
+
+    /**
+     * Construit un événement à partir du document déjà chargé par le service appelant
+     */
+    public static EvenementNotification de(String typeDocument, Long idDocument, String codeDocument,
+                                           Utilisateur acteur, String action) {
+        return EvenementNotification.builder()
+                .typeDocument(typeDocument)
+                .idDocument(idDocument)
+                .codeDocument(codeDocument)
+                .action(action)
+                .acteurId(acteur.getId())
+                .acteurPrenom(acteur.getPrenom())
+                .acteurNom(acteur.getNom())
+                .acteurEmail(acteur.getEmail())
+                .build();
+    }
+}
@@ -39,4 +39,7 @@ public class FicheBesoinDTO {
     
     // Commentaires associés
     private List<CommentaireSimplifieDTO> commentaires;
+
+    // Résumé des commentaires et validations (écrans de liste)
+    private ResumeActiviteDocumentDTO activite;
 }
\ No newline at end of file
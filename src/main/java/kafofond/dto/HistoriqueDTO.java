@@ -33,6 +33,18 @@ public class HistoriqueDTO {
     private Long entrepriseId;
     private String entrepriseNom;
     
+    /**
+     * Constructeur de projection JPQL (HistoriqueActionRepo.rechercher) :
+     * évite de charger les entités Utilisateur et Entreprise associées
+     */
+    public HistoriqueDTO(Long id, String typeDocument, Long idDocument, String action,
+                         String ancienStatut, String nouveauStatut, String ancienEtat, String nouveauEtat,
+                         LocalDateTime dateAction, Long utilisateurId, String utilisateurNomComplet,
+                         String utilisateurEmail, Long entrepriseId) {
+        this(id, typeDocument, idDocument, action, ancienStatut, nouveauStatut, ancienEtat, nouveauEtat,
+                dateAction, utilisateurId, utilisateurNomComplet, utilisateurEmail, entrepriseId, null);
+    }
+
     /**
      * Convertit une entité HistoriqueAction en DTO
      * Cette méthode doit être appelée dans un contexte transactionnel
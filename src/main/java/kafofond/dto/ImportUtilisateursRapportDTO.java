@@ -0,0 +1,39 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO du rapport d'import CSV d'utilisateurs
+ * Les lignes en erreur sont ignorées, les lignes valides sont créées dans une seule transaction
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportUtilisateursRapportDTO {
+
+    private Long entrepriseId;
+    private int lignesLues;
+    private int utilisateursCrees;
+    private int lignesRejetees;
+    private long dureeMs;
+    private List<ErreurLigne> erreurs;
+
+    /**
+     * Erreur d'une ligne du fichier (numéro de ligne 1 = en-tête)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ErreurLigne {
+        private int ligne;
+        private String email;
+        private String message;
+    }
+}
@@ -32,4 +32,7 @@ public class LigneCreditDTO {
     private String createurEmail;
     private String entrepriseNom;
     private List<CommentaireDTO> commentaires; // récupérés via le service
+
+    // Résumé des commentaires et validations (écrans de liste)
+    private ResumeActiviteDocumentDTO activite;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package kafofond.dto;
 
 import kafofond.entity.Notification;
+import kafofond.entity.NotificationArchive;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -52,10 +53,27 @@ public class NotificationDTO {
                 .etat(notification.getEtat())
                 .transmission(notification.getTransmission())
                 .dateEnvoi(notification.getDateEnvoi())
+                .typeDocument(notification.getTypeDocument())
                 .idDocument(notification.getIdDocument())
                 .destinataireNom(notification.getDestinataire() != null ? 
                     notification.getDestinataire().getPrenom() + " " + notification.getDestinataire().getNom() : null)
                 .destinataireEmail(notification.getDestinataire() != null ? notification.getDestinataire().getEmail() : null)
                 .build();
     }
+
+    /**
+     * Convertit une notification archivée en DTO (le destinataire n'est conservé que par son identifiant)
+     */
+    public static NotificationDTO fromArchive(NotificationArchive archive) {
+        return NotificationDTO.builder()
+                .id(archive.getId())
+                .titre(archive.getTitre())
+                .message(archive.getMessage())
+                .etat(archive.getEtat())
+                .transmission(archive.getTransmission())
+                .dateEnvoi(archive.getDateEnvoi())
+                .typeDocument(archive.getTypeDocument())
+                .idDocument(archive.getIdDocument())
+                .build();
+    }
 }
@@ -0,0 +1,26 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO résumant l'activité d'un document pour les écrans de liste
+ * Nombre de commentaires et de validations, dernier statut de validation et son auteur
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResumeActiviteDocumentDTO {
+
+    private Long idDocument;
+    private long nombreCommentaires;
+    private long nombreValidations;
+    private String dernierStatutValidation;
+    private LocalDateTime dateDerniereValidation;
+    private String dernierValidateurNom;
+}
@@ -37,7 +37,7 @@ public class TableValidationDTO {
                 .id(validation.getId())
                 .validateurId(validation.getValidateurId())
                 .commentaire(validation.getCommentaire())
-                .statut(validation.getStatut())
+                .statut(validation.getStatut() != null ? validation.getStatut().name() : null)
                 .idDocument(validation.getIdDocument())
                 .typeDocument(validation.getTypeDocument() != null ? validation.getTypeDocument().name() : null)
                 .dateValidation(validation.getDateValidation())
@@ -21,4 +21,13 @@ public class UtilisateurDTO {
     private Long entrepriseId;
     private String entrepriseNom;
     private LocalDateTime dateCreation;
+
+    /**
+     * Constructeur de projection JPQL (UtilisateurRepo, annuaire) :
+     * ni mot de passe ni chargement des entités Utilisateur / Entreprise
+     */
+    public UtilisateurDTO(Long id, String nom, String prenom, String email, String departement, Role role,
+                          boolean actif, Long entrepriseId, String entrepriseNom, LocalDateTime dateCreation) {
+        this(id, nom, prenom, email, null, departement, role, actif, entrepriseId, entrepriseNom, dateCreation);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour une page de l'annuaire des utilisateurs
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UtilisateurPageDTO {
+
+    private List<UtilisateurDTO> utilisateurs;
+    private int page;
+    private int taille;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,31 @@
+package kafofond.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO pour une page de la table de validation
+ * Le curseur (curseurDate, curseurId) est à renvoyer pour obtenir la page suivante
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ValidationPageDTO {
+
+    private List<TableValidationDTO> validations;
+    private int taille;
+
+    /**
+     * true s'il reste des validations après cette page
+     */
+    private boolean pageSuivante;
+
+    private LocalDateTime curseurDate;
+    private Long curseurId;
+}
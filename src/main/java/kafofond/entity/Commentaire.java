@@ -5,7 +5,9 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "commentaires")
+@Table(name = "commentaires", indexes = {
+        @Index(name = "idx_commentaires_document", columnList = "type_document, document_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
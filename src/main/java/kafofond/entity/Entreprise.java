@@ -1,11 +1,15 @@
 package kafofond.entity;
 
 import jakarta.persistence.*;
+import kafofond.config.RegionsCache;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionsCache.ENTREPRISE)
 @Table(name = "entreprises")
 @Data
 @NoArgsConstructor
@@ -8,7 +8,10 @@ import java.time.LocalDateTime;
  * Entité HistoriqueAction - Trace toutes les actions effectuées sur les documents ou entités
  */
 @Entity
-@Table(name = "historiques_actions")
+@Table(name = "historiques_actions", indexes = {
+        @Index(name = "idx_historiques_entreprise_date", columnList = "entreprise_id, date_action"),
+        @Index(name = "idx_historiques_document", columnList = "type_document, id_document")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
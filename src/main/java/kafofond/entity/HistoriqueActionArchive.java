@@ -0,0 +1,49 @@
+package kafofond.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entité HistoriqueActionArchive - Actions des mois clos déplacées hors de historiques_actions
+ * Copie compacte de HistoriqueAction : utilisateur et entreprise conservés par leur ID, sans association.
+ * moisArchive (AAAAMM) est la clé de partitionnement mensuel (voir migration V8)
+ */
+@Entity
+@Table(name = "historiques_actions_archive", indexes = {
+        @Index(name = "idx_historiques_archive_entreprise_date", columnList = "entreprise_id, date_action"),
+        @Index(name = "idx_historiques_archive_document", columnList = "type_document, id_document")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HistoriqueActionArchive {
+
+    /**
+     * ID d'origine de l'action (pas de génération)
+     */
+    @Id
+    private Long id;
+
+    private String typeDocument;
+    private Long idDocument;
+    private String action;
+
+    private String ancienStatut;
+    private String nouveauStatut;
+
+    private String ancienEtat;
+    private String nouveauEtat;
+
+    private LocalDateTime dateAction;
+
+    @Column(name = "utilisateur_id")
+    private Long utilisateurId;
+
+    @Column(name = "entreprise_id")
+    private Long entrepriseId;
+
+    @Column(name = "mois_archive", nullable = false)
+    private Integer moisArchive;
+}
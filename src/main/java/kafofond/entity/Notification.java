@@ -5,7 +5,10 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_destinataire_etat_date", columnList = "destinataire_id, etat, date_envoi"),
+        @Index(name = "idx_notifications_destinataire_date_id", columnList = "destinataire_id, date_envoi, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +36,10 @@ public class Notification {
     private Boolean transmission;
     
     private LocalDateTime dateEnvoi;
+
+    @Column(name = "type_document", length = 50)
+    private String typeDocument;
+
     private Long idDocument;
 
     @ManyToOne
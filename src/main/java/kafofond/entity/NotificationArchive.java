@@ -0,0 +1,50 @@
+package kafofond.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entité NotificationArchive - Notifications lues déplacées hors de la table chaude
+ * Copie compacte de Notification : le destinataire est conservé par son ID, sans association
+ */
+@Entity
+@Table(name = "notifications_archive", indexes = {
+        @Index(name = "idx_notifications_archive_destinataire_date", columnList = "destinataire_id, date_envoi")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationArchive {
+
+    /**
+     * ID d'origine de la notification (pas de génération)
+     */
+    @Id
+    private Long id;
+
+    private String titre;
+    private String message;
+
+    @Column(name = "etat")
+    private Boolean etat;
+
+    @Column(name = "transmission")
+    private Boolean transmission;
+
+    @Column(name = "date_envoi")
+    private LocalDateTime dateEnvoi;
+
+    @Column(name = "type_document", length = 50)
+    private String typeDocument;
+
+    @Column(name = "id_document")
+    private Long idDocument;
+
+    @Column(name = "destinataire_id")
+    private Long destinataireId;
+
+    @Column(name = "date_archivage")
+    private LocalDateTime dateArchivage;
+}
@@ -0,0 +1,46 @@
+package kafofond.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entité SegmentArchive - Manifeste des segments mensuels archivés
+ * Une ligne par (source, mois) : bornes [debut, fin[ et nombre de lignes déplacées
+ */
+@Entity
+@Table(name = "archive_segments", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_archive_segments_source_mois", columnNames = {"source", "mois"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SegmentArchive {
+
+    public static final String SOURCE_HISTORIQUE = "HISTORIQUE";
+    public static final String SOURCE_VALIDATION = "VALIDATION";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * HISTORIQUE (historiques_actions) ou VALIDATION (table_validation)
+     */
+    @Column(nullable = false, length = 20)
+    private String source;
+
+    /**
+     * Mois archivé au format AAAAMM
+     */
+    @Column(nullable = false)
+    private Integer mois;
+
+    private LocalDateTime debut;
+    private LocalDateTime fin;
+
+    private Long nombreLignes;
+
+    private LocalDateTime dateArchivage;
+}
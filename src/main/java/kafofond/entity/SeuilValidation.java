@@ -2,11 +2,15 @@ package kafofond.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import kafofond.config.RegionsCache;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDate;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionsCache.SEUIL_VALIDATION)
 @Table(name = "seuils_validation")
 @Data
 @NoArgsConstructor
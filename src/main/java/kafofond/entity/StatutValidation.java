@@ -0,0 +1,13 @@
+package kafofond.entity;
+
+/**
+ * Statut d'un enregistrement de la table de validation
+ * CREATION trace la création du document, les autres valeurs une décision de validation
+ */
+public enum StatutValidation {
+    CREATION,
+    EN_ATTENTE,
+    VALIDE,
+    APPROUVE,
+    REJETE
+}
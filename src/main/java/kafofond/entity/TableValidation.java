@@ -11,7 +11,10 @@ import java.time.LocalDateTime;
  * Centralise la traçabilité des validations dans le système.
  */
 @Entity
-@Table(name = "table_validation")
+@Table(name = "table_validation", indexes = {
+        @Index(name = "idx_validation_document", columnList = "type_document, id_document"),
+        @Index(name = "idx_validation_validateur_date", columnList = "validateur_id, date_validation")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,10 +38,11 @@ public class TableValidation {
     private String commentaire;
 
     /**
-     * Statut de validation : VALIDE, REJETE, APPROUVE, EN_ATTENTE, etc.
+     * Statut de validation : VALIDE, REJETE, APPROUVE, EN_ATTENTE ou CREATION
      */
+    @Enumerated(EnumType.STRING)
     @Column(nullable = false)
-    private String statut;
+    private StatutValidation statut;
 
     /**
      * ID du document validé
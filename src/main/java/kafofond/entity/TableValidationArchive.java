@@ -0,0 +1,51 @@
+package kafofond.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Entité TableValidationArchive - Validations des mois clos déplacées hors de table_validation
+ * Le validateur est conservé par son ID, sans association.
+ * moisArchive (AAAAMM) est la clé de partitionnement mensuel (voir migration V8)
+ */
+@Entity
+@Table(name = "table_validation_archive", indexes = {
+        @Index(name = "idx_validation_archive_document", columnList = "type_document, id_document"),
+        @Index(name = "idx_validation_archive_validateur_date", columnList = "validateur_id, date_validation")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TableValidationArchive {
+
+    /**
+     * ID d'origine de la validation (pas de génération)
+     */
+    @Id
+    private Long id;
+
+    @Column(name = "validateur_id", nullable = false)
+    private Long validateurId;
+
+    @Column(columnDefinition = "TEXT")
+    private String commentaire;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatutValidation statut;
+
+    @Column(name = "id_document", nullable = false)
+    private Long idDocument;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type_document", nullable = false)
+    private TypeDocument typeDocument;
+
+    @Column(name = "date_validation")
+    private LocalDateTime dateValidation;
+
+    @Column(name = "mois_archive", nullable = false)
+    private Integer moisArchive;
+}
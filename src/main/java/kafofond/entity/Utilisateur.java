@@ -2,12 +2,20 @@ package kafofond.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import kafofond.config.RegionsCache;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "utilisateurs")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = RegionsCache.UTILISATEUR)
+@Table(name = "utilisateurs", indexes = {
+        @Index(name = "idx_utilisateurs_entreprise_role_etat", columnList = "entreprise_id, role, etat"),
+        @Index(name = "idx_utilisateurs_role_etat", columnList = "role, etat"),
+        @Index(name = "idx_utilisateurs_email", columnList = "email")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
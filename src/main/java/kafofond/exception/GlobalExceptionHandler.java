@@ -2,6 +2,7 @@ package kafofond.exception;
 
 import kafofond.dto.ErrorResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -103,6 +104,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    /**
+     * Gestion des limites de débit (connexion)
+     */
+    @ExceptionHandler(TropDeTentativesException.class)
+    public ResponseEntity<ErrorResponse> handleTropDeTentatives(TropDeTentativesException ex, WebRequest request) {
+        log.warn("Limite de débit atteinte : {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .message(ex.getMessage())
+                .code("TOO_MANY_REQUESTS")
+                .timestamp(LocalDateTime.now())
+                .path(request.getDescription(false).replace("uri=", ""))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getAttenteSecondes()))
+                .body(errorResponse);
+    }
+
     /**
      * Gestion des erreurs spécifiques du domaine
      */
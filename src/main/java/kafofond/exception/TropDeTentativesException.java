@@ -0,0 +1,19 @@
+package kafofond.exception;
+
+/**
+ * Exception levée lorsqu'une limite de débit est atteinte (réponse HTTP 429)
+ * attenteSecondes alimente l'en-tête Retry-After
+ */
+public class TropDeTentativesException extends RuntimeException {
+
+    private final long attenteSecondes;
+
+    public TropDeTentativesException(String message, long attenteSecondes) {
+        super(message);
+        this.attenteSecondes = attenteSecondes;
+    }
+
+    public long getAttenteSecondes() {
+        return attenteSecondes;
+    }
+}
@@ -1,6 +1,7 @@
 package kafofond.mapper;
 
 import kafofond.dto.TableValidationDTO;
+import kafofond.entity.StatutValidation;
 import kafofond.entity.TableValidation;
 import kafofond.entity.TypeDocument;
 import org.springframework.stereotype.Component;
@@ -25,7 +26,7 @@ public class TableValidationMapper {
                 .validateurEmail(validation.getValidateur() != null ? 
                     validation.getValidateur().getEmail() : null)
                 .commentaire(validation.getCommentaire())
-                .statut(validation.getStatut())
+                .statut(validation.getStatut() != null ? validation.getStatut().name() : null)
                 .idDocument(validation.getIdDocument())
                 .typeDocument(validation.getTypeDocument() != null ? validation.getTypeDocument().name() : null)
                 .dateValidation(validation.getDateValidation())
@@ -39,7 +40,7 @@ public class TableValidationMapper {
                 .id(dto.getId())
                 .validateurId(dto.getValidateurId())
                 .commentaire(dto.getCommentaire())
-                .statut(dto.getStatut())
+                .statut(dto.getStatut() != null ? StatutValidation.valueOf(dto.getStatut()) : null)
                 .idDocument(dto.getIdDocument())
                 .typeDocument(dto.getTypeDocument() != null ? TypeDocument.valueOf(dto.getTypeDocument()) : null)
                 .dateValidation(dto.getDateValidation())
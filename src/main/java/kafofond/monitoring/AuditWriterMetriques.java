@@ -0,0 +1,43 @@
+package kafofond.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import kafofond.service.audit.AuditWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publie les statistiques de l'écrivain d'audit asynchrone (kafofond.audit.*)
+ */
+@Component
+@RequiredArgsConstructor
+public class AuditWriterMetriques implements MeterBinder {
+
+    private final AuditWriter auditWriter;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("kafofond.audit.file.profondeur", auditWriter, AuditWriter::profondeurFile)
+                .description("Entrées d'audit en attente d'écriture")
+                .register(registry);
+        Gauge.builder("kafofond.audit.file.capacite", auditWriter, AuditWriter::capaciteFile)
+                .register(registry);
+        FunctionCounter.builder("kafofond.audit.entrees.ecrites", auditWriter, AuditWriter::entreesEcrites)
+                .register(registry);
+        FunctionCounter.builder("kafofond.audit.ecritures.synchrones", auditWriter, AuditWriter::ecrituresSynchrones)
+                .description("Entrées écrites dans la transaction appelante faute de place dans la file")
+                .register(registry);
+        FunctionCounter.builder("kafofond.audit.entrees.secours", auditWriter, AuditWriter::entreesSecours)
+                .description("Entrées écrites dans le fichier de secours")
+                .register(registry);
+        FunctionTimer.builder("kafofond.audit.lots", auditWriter, AuditWriter::lotsEcrits,
+                        AuditWriter::dureeTotaleLotsNs, TimeUnit.NANOSECONDS)
+                .description("Lots d'audit écrits et leur durée cumulée")
+                .register(registry);
+    }
+}
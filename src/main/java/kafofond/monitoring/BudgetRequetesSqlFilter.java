@@ -0,0 +1,105 @@
+package kafofond.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget SQL par requête HTTP
+ * Collecte les statistiques SQL de chaque requête, les publie en métriques étiquetées par endpoint
+ * (kafofond.sql.requetes, kafofond.sql.lignes, kafofond.sql.duree), journalise les requêtes qui
+ * dépassent diagnostics.sql.budget-requetes et, en dev, les renvoie dans des en-têtes X-Sql-*
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "diagnostics.sql.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BudgetRequetesSqlFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${diagnostics.sql.budget-requetes:20}")
+    private int budgetRequetes;
+
+    @Value("${diagnostics.sql.en-tetes:false}")
+    private boolean enTetes;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatistiquesSql statistiques = ContexteSql.demarrer();
+        // Les en-têtes doivent être posés avant l'envoi du corps : celui-ci est retenu en dev uniquement
+        ContentCachingResponseWrapper reponseRetenue = enTetes ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            chain.doFilter(request, reponseRetenue != null ? reponseRetenue : response);
+        } finally {
+            ContexteSql.terminer();
+            String endpoint = endpoint(request);
+            publier(request.getMethod(), endpoint, statistiques);
+
+            if (statistiques.getExecutionsJdbc() > budgetRequetes) {
+                log.warn("Budget SQL dépassé : {} {} → {} exécution(s) JDBC (budget {}), {} instruction(s) Hibernate, "
+                                + "{} ligne(s), {} ms JDBC",
+                        request.getMethod(), endpoint, statistiques.getExecutionsJdbc(), budgetRequetes,
+                        statistiques.getInstructionsHibernate(), statistiques.getLignes(),
+                        statistiques.getDureeJdbcMs());
+            }
+
+            if (reponseRetenue != null) {
+                reponseRetenue.setHeader("X-Sql-Requetes", String.valueOf(statistiques.getExecutionsJdbc()));
+                reponseRetenue.setHeader("X-Sql-Instructions-Hibernate",
+                        String.valueOf(statistiques.getInstructionsHibernate()));
+                reponseRetenue.setHeader("X-Sql-Lignes", String.valueOf(statistiques.getLignes()));
+                reponseRetenue.setHeader("X-Sql-Duree-Ms", String.valueOf(statistiques.getDureeJdbcMs()));
+                reponseRetenue.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void publier(String methode, String endpoint, StatistiquesSql statistiques) {
+        DistributionSummary.builder("kafofond.sql.requetes")
+                .description("Exécutions JDBC par requête HTTP")
+                .tag("methode", methode)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(statistiques.getExecutionsJdbc());
+        DistributionSummary.builder("kafofond.sql.lignes")
+                .description("Lignes lues ou modifiées par requête HTTP")
+                .tag("methode", methode)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(statistiques.getLignes());
+        Timer.builder("kafofond.sql.duree")
+                .description("Temps JDBC cumulé par requête HTTP")
+                .tag("methode", methode)
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .record(statistiques.getDureeJdbcNs(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Motif de l'endpoint (ex. /api/fiches-besoin/{id}) pour borner la cardinalité des étiquettes
+     */
+    private static String endpoint(HttpServletRequest request) {
+        Object motif = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return motif != null ? motif.toString() : "AUTRE";
+    }
+}
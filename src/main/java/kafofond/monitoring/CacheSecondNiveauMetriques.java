@@ -0,0 +1,59 @@
+package kafofond.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import kafofond.config.RegionsCache;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Publie les statistiques des régions du cache de second niveau (kafofond.cache.niveau2.*{region})
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheSecondNiveauMetriques implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistiques = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : RegionsCache.TOUTES) {
+            compteur(registry, statistiques, region, "kafofond.cache.niveau2.succes", CacheRegionStatistics::getHitCount);
+            compteur(registry, statistiques, region, "kafofond.cache.niveau2.echecs", CacheRegionStatistics::getMissCount);
+            compteur(registry, statistiques, region, "kafofond.cache.niveau2.ecritures", CacheRegionStatistics::getPutCount);
+            Gauge.builder("kafofond.cache.niveau2.elements", statistiques,
+                            s -> valeur(s, region, CacheRegionStatistics::getElementCountInMemory))
+                    .description("Entrées présentes dans la région")
+                    .tag("region", region)
+                    .register(registry);
+        }
+    }
+
+    private static void compteur(MeterRegistry registry, Statistics statistiques, String region, String nom,
+                                 ToLongFunction<CacheRegionStatistics> lecture) {
+        FunctionCounter.builder(nom, statistiques, s -> valeur(s, region, lecture))
+                .tag("region", region)
+                .register(registry);
+    }
+
+    /**
+     * Une région de requêtes n'a de statistiques qu'après sa première utilisation
+     */
+    private static double valeur(Statistics statistiques, String region, ToLongFunction<CacheRegionStatistics> lecture) {
+        try {
+            CacheRegionStatistics stats = statistiques.getCacheRegionStatistics(region);
+            return stats == null ? 0 : Math.max(0, lecture.applyAsLong(stats));
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+}
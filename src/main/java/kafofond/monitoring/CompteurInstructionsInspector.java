@@ -0,0 +1,17 @@
+package kafofond.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * StatementInspector Hibernate : compte chaque instruction SQL préparée par Hibernate
+ * pour la requête HTTP en cours. Déclaré par
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector
+ */
+public class CompteurInstructionsInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        ContexteSql.instructionHibernate();
+        return sql;
+    }
+}
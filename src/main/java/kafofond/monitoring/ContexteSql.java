@@ -0,0 +1,44 @@
+package kafofond.monitoring;
+
+/**
+ * Porte les statistiques SQL de la requête HTTP en cours (ThreadLocal)
+ * Hors requête HTTP (tâches planifiées, écrivain d'audit), aucune statistique n'est collectée
+ */
+public final class ContexteSql {
+
+    private static final ThreadLocal<StatistiquesSql> COURANT = new ThreadLocal<>();
+
+    private ContexteSql() {
+    }
+
+    public static StatistiquesSql demarrer() {
+        StatistiquesSql statistiques = new StatistiquesSql();
+        COURANT.set(statistiques);
+        return statistiques;
+    }
+
+    public static void terminer() {
+        COURANT.remove();
+    }
+
+    static void instructionHibernate() {
+        StatistiquesSql statistiques = COURANT.get();
+        if (statistiques != null) {
+            statistiques.instructionHibernate();
+        }
+    }
+
+    static void executionJdbc(long dureeNs, long lignesModifiees) {
+        StatistiquesSql statistiques = COURANT.get();
+        if (statistiques != null) {
+            statistiques.executionJdbc(dureeNs, lignesModifiees);
+        }
+    }
+
+    static void ligneLue() {
+        StatistiquesSql statistiques = COURANT.get();
+        if (statistiques != null) {
+            statistiques.ligneLue();
+        }
+    }
+}
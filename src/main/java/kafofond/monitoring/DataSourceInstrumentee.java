@@ -0,0 +1,141 @@
+package kafofond.monitoring;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Proxy de DataSource : mesure chaque exécution JDBC (durée, lignes modifiées)
+ * et compte les lignes lues dans les ResultSet, pour JPA comme pour JdbcTemplate.
+ * Chaque exécution est aussi transmise à l'observateur (journal des requêtes lentes),
+ * avec le texte SQL et les paramètres liés lorsque celui-ci est actif
+ */
+public class DataSourceInstrumentee extends DelegatingDataSource {
+
+    private final ObservateurJdbc observateur;
+
+    public DataSourceInstrumentee(DataSource cible, ObservateurJdbc observateur) {
+        super(cible);
+        this.observateur = observateur;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connection(super.getConnection(username, password));
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (cible, methode, args) -> {
+            Object resultat = invoquer(cible, methode, args);
+            if (resultat instanceof CallableStatement instruction) {
+                return instruction(CallableStatement.class, instruction, sql(args));
+            }
+            if (resultat instanceof PreparedStatement instruction) {
+                return instruction(PreparedStatement.class, instruction, sql(args));
+            }
+            if (resultat instanceof Statement instruction) {
+                return instruction(Statement.class, instruction, null);
+            }
+            return resultat;
+        });
+    }
+
+    private <T extends Statement> T instruction(Class<T> type, T instruction, String sqlPrepare) {
+        // Paramètres liés, capturés seulement si l'observateur est actif à la préparation
+        Map<Integer, Object> parametres = sqlPrepare != null && observateur.actif() ? new TreeMap<>() : null;
+        return proxy(type, instruction, (cible, methode, args) -> {
+            String nom = methode.getName();
+            if (!nom.startsWith("execute")) {
+                if (parametres != null) {
+                    if (nom.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        parametres.put(index, args[1]);
+                    } else if ("clearParameters".equals(nom)) {
+                        parametres.clear();
+                    }
+                }
+                Object resultat = invoquer(cible, methode, args);
+                return resultat instanceof ResultSet resultSet ? resultSet(resultSet) : resultat;
+            }
+            long debut = System.nanoTime();
+            Object resultat = invoquer(cible, methode, args);
+            long duree = System.nanoTime() - debut;
+            long lignes = lignesModifiees(resultat);
+            ContexteSql.executionJdbc(duree, lignes);
+            observateur.executee(sqlPrepare != null ? sqlPrepare : sql(args), parametres, duree, lignes);
+            return resultat instanceof ResultSet resultSet ? resultSet(resultSet) : resultat;
+        });
+    }
+
+    private static ResultSet resultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (cible, methode, args) -> {
+            Object resultat = invoquer(cible, methode, args);
+            if ("next".equals(methode.getName()) && Boolean.TRUE.equals(resultat)) {
+                ContexteSql.ligneLue();
+            }
+            return resultat;
+        });
+    }
+
+    private static long lignesModifiees(Object resultat) {
+        if (resultat instanceof Integer lignes) {
+            return lignes;
+        }
+        if (resultat instanceof Long lignes) {
+            return lignes;
+        }
+        if (resultat instanceof int[] lot) {
+            long total = 0;
+            for (int lignes : lot) {
+                total += Math.max(lignes, 0);
+            }
+            return total;
+        }
+        return 0;
+    }
+
+    private static String sql(Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+    }
+
+    private static Object invoquer(Object cible, Method methode, Object[] args) throws Throwable {
+        try {
+            return methode.invoke(cible, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T cible, Appel appel) {
+        InvocationHandler handler = (p, methode, args) -> {
+            // unwrap/isWrapperFor doivent voir l'objet réel (Hibernate, Hikari)
+            if ("unwrap".equals(methode.getName()) || "isWrapperFor".equals(methode.getName())) {
+                return invoquer(cible, methode, args);
+            }
+            return appel.invoquer(cible, methode, args);
+        };
+        return (T) Proxy.newProxyInstance(DataSourceInstrumentee.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    @FunctionalInterface
+    private interface Appel {
+        Object invoquer(Object cible, Method methode, Object[] args) throws Throwable;
+    }
+}
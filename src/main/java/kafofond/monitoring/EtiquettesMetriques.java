@@ -0,0 +1,95 @@
+package kafofond.monitoring;
+
+import kafofond.security.UtilisateurConnecte;
+import kafofond.security.UtilisateurConnecteService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Étiquettes communes des métriques applicatives : entreprise et rôle de l'utilisateur authentifié,
+ * type de document traité par un service
+ * L'entreprise vient de l'instantané de l'utilisateur connecté (cache partagé, pas de requête par mesure) ;
+ * désactivée par défaut (metriques.etiquette-entreprise) : avec l'histogramme de percentiles, chaque
+ * entreprise multiplie les séries Prometheus par le nombre de buckets.
+ * Les appels anonymes (réinitialisation de mot de passe, connexion) sont étiquetés AUCUN, et une
+ * étiquette qui ne peut pas être résolue vaut AUCUN : l'étiquetage ne lève jamais d'exception
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EtiquettesMetriques {
+
+    public static final String AUCUN = "AUCUN";
+
+    private static final Map<String, String> TYPES_PAR_SERVICE = Map.ofEntries(
+            Map.entry("BudgetService", "BUDGET"),
+            Map.entry("LigneCreditService", "LIGNE_CREDIT"),
+            Map.entry("FicheBesoinService", "FICHE_BESOIN"),
+            Map.entry("DemandeDAchatService", "DEMANDE_ACHAT"),
+            Map.entry("BonDeCommandeService", "BON_COMMANDE"),
+            Map.entry("AttestationServiceFaitService", "ATTESTATION_SERVICE_FAIT"),
+            Map.entry("DecisionPrelevementService", "DECISION_PRELEVEMENT"),
+            Map.entry("OrdreDePaiementService", "ORDRE_PAIEMENT"),
+            Map.entry("RapportAchatService", "RAPPORT_ACHAT"),
+            Map.entry("SeuilValidationService", "SEUIL_VALIDATION"),
+            Map.entry("UtilisateurService", "UTILISATEUR"),
+            Map.entry("EntrepriseService", "ENTREPRISE"));
+
+    private final UtilisateurConnecteService utilisateurConnecteService;
+
+    @Value("${metriques.etiquette-entreprise:false}")
+    private boolean etiquetteEntreprise;
+
+    public String typeDocument(Class<?> service) {
+        return TYPES_PAR_SERVICE.getOrDefault(service.getSimpleName(), AUCUN);
+    }
+
+    public String role() {
+        Authentication authentication = authentifie();
+        if (authentication == null) {
+            return AUCUN;
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(autorite -> autorite.startsWith("ROLE_"))
+                .map(autorite -> autorite.substring(5))
+                .findFirst()
+                .orElse(AUCUN);
+    }
+
+    public String entreprise() {
+        Authentication authentication = authentifie();
+        if (!etiquetteEntreprise || authentication == null || authentication.getName() == null) {
+            return AUCUN;
+        }
+        try {
+            return utilisateurConnecteService.trouver(authentication.getName())
+                    .map(UtilisateurConnecte::getEntrepriseId)
+                    .map(String::valueOf)
+                    .orElse(AUCUN);
+        } catch (RuntimeException e) {
+            log.debug("Étiquette entreprise non résolue pour {} : {}", authentication.getName(), e.getMessage());
+            return AUCUN;
+        }
+    }
+
+    /**
+     * Authentification d'un utilisateur réel, null si absente ou anonyme
+     */
+    private static Authentication authentifie() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication;
+    }
+}
@@ -0,0 +1,31 @@
+package kafofond.monitoring;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Enveloppe la DataSource de l'application dans DataSourceInstrumentee
+ * (désactivable par diagnostics.sql.enabled=false)
+ */
+@Component
+@ConditionalOnProperty(name = "diagnostics.sql.enabled", havingValue = "true", matchIfMissing = true)
+public class InstrumentationDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<JournalRequetesLentes> journalRequetesLentes;
+
+    public InstrumentationDataSourcePostProcessor(ObjectProvider<JournalRequetesLentes> journalRequetesLentes) {
+        this.journalRequetesLentes = journalRequetesLentes;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof DataSourceInstrumentee)) {
+            return new DataSourceInstrumentee(dataSource, journalRequetesLentes.getObject());
+        }
+        return bean;
+    }
+}
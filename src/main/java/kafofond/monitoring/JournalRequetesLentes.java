@@ -0,0 +1,231 @@
+package kafofond.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Journal diagnostique des requêtes SQL (remplace spring.jpa.show-sql)
+ * Journalise sur le logger kafofond.sql.lent, en une ligne structurée, les instructions dont la durée
+ * dépasse le seuil, plus un échantillon de 1 sur N des autres, avec un résumé des paramètres liés
+ * et la méthode de service à l'origine. Reconfigurable à chaud via /api/admin/diagnostics/sql
+ * Les paramètres texte sont masqués par défaut (emails, empreintes de mots de passe et de codes, noms...) :
+ * seuls ceux liés à une colonne de la liste sûre (identifiants, dates, statuts, types) sont affichés.
+ * Les valeurs non textuelles (nombres, booléens, dates) restent visibles
+ */
+@Component
+@Slf4j(topic = "kafofond.sql.lent")
+public class JournalRequetesLentes implements ObservateurJdbc {
+
+    private static final int LONGUEUR_SQL_MAX = 1000;
+    private static final int LONGUEUR_VALEUR_MAX = 32;
+    private static final int PARAMETRES_MAX = 20;
+    private static final String MASQUE = "<masqué>";
+
+    /**
+     * Colonnes dont les valeurs texte peuvent être journalisées, en plus des colonnes *_id, id_* et date_* ;
+     * les valeurs texte de toute autre colonne (email, mot_de_passe, empreinte_code, nom...) sont masquées
+     */
+    private static final Set<String> COLONNES_AFFICHEES = Set.of(
+            "id", "etat", "actif", "statut", "ancien_statut", "nouveau_statut", "ancien_etat", "nouveau_etat",
+            "type_document", "action", "role", "source", "mois", "mois_archive", "nom_cache", "noeud",
+            "transmission", "expire_le");
+
+    private static final Pattern INSERTION = Pattern.compile(
+            "^\\s*insert\\s+into\\s+[\\w.`\"]+\\s*\\(([^)]*)\\)\\s*values\\s*\\(", Pattern.CASE_INSENSITIVE);
+    private static final Pattern COMPARAISON = Pattern.compile(
+            "([a-z_][a-z0-9_]*)[`\"]?\\s*(?:=|<>|!=|<=|>=|<|>|\\blike)\\s*$", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LISTE_IN = Pattern.compile(
+            "([a-z_][a-z0-9_]*)[`\"]?\\s+in\\s*\\(\\s*(?:\\?\\s*,\\s*)*$", Pattern.CASE_INSENSITIVE);
+    private static final int CONTEXTE_MAX = 200;
+
+    private static final StackWalker PILE = StackWalker.getInstance();
+
+    private final AtomicLong compteur = new AtomicLong();
+    private final AtomicLong journalisees = new AtomicLong();
+
+    private volatile boolean active;
+    private volatile long seuilNs;
+    private volatile int echantillonnage;
+
+    public JournalRequetesLentes(@Value("${diagnostics.sql.lentes.actif:true}") boolean active,
+                                 @Value("${diagnostics.sql.lentes.seuil-ms:200}") long seuilMs,
+                                 @Value("${diagnostics.sql.lentes.echantillonnage:0}") int echantillonnage) {
+        configurer(active, seuilMs, echantillonnage);
+    }
+
+    /**
+     * Change la configuration sans redémarrage
+     * @param echantillonnage journalise 1 instruction rapide sur N (0 : aucune)
+     */
+    public synchronized void configurer(boolean active, long seuilMs, int echantillonnage) {
+        if (seuilMs < 0 || echantillonnage < 0) {
+            throw new IllegalArgumentException("Le seuil et l'échantillonnage doivent être positifs");
+        }
+        this.seuilNs = TimeUnit.MILLISECONDS.toNanos(seuilMs);
+        this.echantillonnage = echantillonnage;
+        this.active = active;
+        log.info("Journal SQL : actif={}, seuil={} ms, échantillonnage=1/{}", active, seuilMs, echantillonnage);
+    }
+
+    public Map<String, Object> configuration() {
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("actif", active);
+        configuration.put("seuilMs", TimeUnit.NANOSECONDS.toMillis(seuilNs));
+        configuration.put("echantillonnage", echantillonnage);
+        configuration.put("instructionsObservees", compteur.get());
+        configuration.put("instructionsJournalisees", journalisees.get());
+        return configuration;
+    }
+
+    @Override
+    public boolean actif() {
+        return active;
+    }
+
+    @Override
+    public void executee(String sql, Map<Integer, Object> parametres, long dureeNs, long lignesModifiees) {
+        if (!active) {
+            return;
+        }
+        long numero = compteur.incrementAndGet();
+        boolean lente = dureeNs >= seuilNs;
+        int n = echantillonnage;
+        boolean echantillon = !lente && n > 0 && numero % n == 0;
+        if (!lente && !echantillon) {
+            return;
+        }
+        journalisees.incrementAndGet();
+
+        String message = "type={} duree_ms={} lignes_modifiees={} origine={} sql=\"{}\" parametres={}";
+        Object[] valeurs = {lente ? "LENTE" : "ECHANTILLON", TimeUnit.NANOSECONDS.toMillis(dureeNs),
+                lignesModifiees, origine(), abreger(sql), resumer(sql, parametres)};
+        if (lente) {
+            log.warn(message, valeurs);
+        } else {
+            log.info(message, valeurs);
+        }
+    }
+
+    /**
+     * Première méthode de kafofond.service dans la pile d'appel (hors proxys)
+     */
+    private static String origine() {
+        Optional<String> origine = PILE.walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith("kafofond.service.") && !f.getClassName().contains("$$"))
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+                .findFirst());
+        return origine.orElse("inconnue");
+    }
+
+    private static String abreger(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String ligne = sql.replaceAll("\\s+", " ").trim();
+        return ligne.length() > LONGUEUR_SQL_MAX ? ligne.substring(0, LONGUEUR_SQL_MAX) + "…" : ligne;
+    }
+
+    private static String resumer(String sql, Map<Integer, Object> parametres) {
+        if (parametres == null || parametres.isEmpty()) {
+            return "[]";
+        }
+        List<String> colonnes = colonnesParametres(sql);
+        StringBuilder resume = new StringBuilder("[");
+        int i = 0;
+        for (Map.Entry<Integer, Object> parametre : parametres.entrySet()) {
+            if (i++ == PARAMETRES_MAX) {
+                resume.append(", …").append(parametres.size() - PARAMETRES_MAX).append(" autre(s)");
+                break;
+            }
+            if (i > 1) {
+                resume.append(", ");
+            }
+            int rang = parametre.getKey() - 1;
+            String colonne = rang >= 0 && rang < colonnes.size() ? colonnes.get(rang) : null;
+            resume.append(parametre.getKey()).append('=')
+                    .append(affichable(colonne, parametre.getValue()) ? valeur(parametre.getValue()) : MASQUE);
+        }
+        return resume.append(']').toString();
+    }
+
+    /**
+     * Une valeur texte n'est affichée que si sa colonne est connue et sûre
+     */
+    private static boolean affichable(String colonne, Object valeur) {
+        if (!(valeur instanceof CharSequence)) {
+            return true;
+        }
+        return colonne != null && (COLONNES_AFFICHEES.contains(colonne) || colonne.endsWith("_id")
+                || colonne.startsWith("id_") || colonne.startsWith("date_"));
+    }
+
+    /**
+     * Colonne associée à chaque paramètre positionnel (null si inconnue) :
+     * liste de colonnes d'un INSERT ... VALUES, sinon « colonne opérateur ? » et « colonne IN (?, ...) »
+     */
+    private static List<String> colonnesParametres(String sql) {
+        List<String> colonnes = new ArrayList<>();
+        if (sql == null) {
+            return colonnes;
+        }
+        String minuscules = sql.toLowerCase(Locale.ROOT);
+        List<String> colonnesInsertion = null;
+        int debutValeurs = -1;
+        Matcher insertion = INSERTION.matcher(minuscules);
+        if (insertion.find()) {
+            colonnesInsertion = Arrays.stream(insertion.group(1).split(","))
+                    .map(c -> c.trim().replaceAll("[`\"]", ""))
+                    .toList();
+            debutValeurs = insertion.end();
+        }
+
+        boolean dansChaine = false;
+        for (int i = 0; i < minuscules.length(); i++) {
+            char c = minuscules.charAt(i);
+            if (c == '\'') {
+                dansChaine = !dansChaine;
+            }
+            if (dansChaine || c != '?') {
+                continue;
+            }
+            if (colonnesInsertion != null && i >= debutValeurs) {
+                // VALUES (?, ?, ...) [, (?, ?, ...)] : position cyclique dans la liste de colonnes
+                colonnes.add(colonnesInsertion.get(colonnes.size() % colonnesInsertion.size()));
+                continue;
+            }
+            String contexte = minuscules.substring(Math.max(0, i - CONTEXTE_MAX), i);
+            Matcher comparaison = COMPARAISON.matcher(contexte);
+            Matcher listeIn = LISTE_IN.matcher(contexte);
+            colonnes.add(comparaison.find() ? comparaison.group(1) : listeIn.find() ? listeIn.group(1) : null);
+        }
+        return colonnes;
+    }
+
+    private static String valeur(Object valeur) {
+        if (valeur == null) {
+            return "null";
+        }
+        if (valeur instanceof byte[] octets) {
+            return "<" + octets.length + " octets>";
+        }
+        if (valeur instanceof CharSequence texte) {
+            String chaine = texte.toString();
+            return "'" + (chaine.length() > LONGUEUR_VALEUR_MAX ? chaine.substring(0, LONGUEUR_VALEUR_MAX) + "…" : chaine) + "'";
+        }
+        return String.valueOf(valeur);
+    }
+}
@@ -0,0 +1,53 @@
+package kafofond.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timer Micrometer kafofond.service sur chaque méthode publique des beans de kafofond.service
+ * (creer, valider, approuver, rejeter, lister*, generer*Pdf, ...)
+ * Étiquettes : classe, methode, typeDocument, entreprise (AUCUN sauf metriques.etiquette-entreprise=true),
+ * role, resultat (succes / nom de l'exception).
+ * L'histogramme de percentiles est activé par management.metrics.distribution.percentiles-histogram.
+ * En test, Spring Boot fournit un SimpleMeterRegistry en mémoire à la place du registre Prometheus
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class MetriquesServiceAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final EtiquettesMetriques etiquettes;
+
+    @Around("execution(public * kafofond.service.*.*(..)) && within(kafofond.service.*)")
+    public Object mesurer(ProceedingJoinPoint point) throws Throwable {
+        // Étiquettes résolues avant l'appel, hors du finally : elles ne peuvent pas masquer l'exception métier
+        Class<?> service = point.getSignature().getDeclaringType();
+        String entreprise = etiquettes.entreprise();
+        String role = etiquettes.role();
+
+        Timer.Sample mesure = Timer.start(meterRegistry);
+        String resultat = "succes";
+        try {
+            return point.proceed();
+        } catch (Throwable e) {
+            resultat = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            mesure.stop(Timer.builder("kafofond.service")
+                    .description("Durée des méthodes des services métier")
+                    .tag("classe", service.getSimpleName())
+                    .tag("methode", point.getSignature().getName())
+                    .tag("typeDocument", etiquettes.typeDocument(service))
+                    .tag("entreprise", entreprise)
+                    .tag("role", role)
+                    .tag("resultat", resultat)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package kafofond.monitoring;
+
+import java.util.Map;
+
+/**
+ * Reçoit chaque exécution JDBC de DataSourceInstrumentee
+ */
+public interface ObservateurJdbc {
+
+    /**
+     * Indique si les paramètres liés doivent être capturés pour les prochaines instructions
+     */
+    boolean actif();
+
+    /**
+     * @param parametres paramètres liés par index, null s'ils n'ont pas été capturés
+     */
+    void executee(String sql, Map<Integer, Object> parametres, long dureeNs, long lignesModifiees);
+}
@@ -0,0 +1,34 @@
+package kafofond.monitoring;
+
+import lombok.Getter;
+
+/**
+ * Compteurs SQL d'une requête HTTP : instructions préparées par Hibernate,
+ * exécutions JDBC, lignes lues/modifiées et temps passé dans le driver
+ */
+@Getter
+public class StatistiquesSql {
+
+    private int instructionsHibernate;
+    private int executionsJdbc;
+    private long lignes;
+    private long dureeJdbcNs;
+
+    void instructionHibernate() {
+        instructionsHibernate++;
+    }
+
+    void executionJdbc(long dureeNs, long lignesModifiees) {
+        executionsJdbc++;
+        dureeJdbcNs += dureeNs;
+        lignes += Math.max(lignesModifiees, 0);
+    }
+
+    void ligneLue() {
+        lignes++;
+    }
+
+    public long getDureeJdbcMs() {
+        return dureeJdbcNs / 1_000_000;
+    }
+}
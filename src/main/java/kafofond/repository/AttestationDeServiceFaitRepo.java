@@ -52,4 +52,10 @@ public interface AttestationDeServiceFaitRepo extends JpaRepository<AttestationD
     // Méthode pour lister les attestations créées par un utilisateur spécifique dans une entreprise
     @Query("SELECT a FROM AttestationDeServiceFait a WHERE a.creePar.id = :utilisateurId AND a.entreprise.id = :entrepriseId")
     List<AttestationDeServiceFait> findByCreeParIdAndEntrepriseId(@Param("utilisateurId") Long utilisateurId, @Param("entrepriseId") Long entrepriseId);
-}
\ No newline at end of file
+
+    /**
+     * Récupère uniquement le code d'un document (sans charger l'entité)
+     */
+    @Query("SELECT x.code FROM AttestationDeServiceFait x WHERE x.id = :id")
+    Optional<String> findCodeById(@Param("id") Long id);
+}
@@ -71,4 +71,10 @@ public interface BonDeCommandeRepo extends JpaRepository<BonDeCommande, Long> {
     // Méthodes pour les statistiques par statut
     @Query("SELECT COUNT(b) FROM BonDeCommande b WHERE b.entreprise.id = :entrepriseId AND b.statut = kafofond.entity.Statut.EN_COURS")
     long countByEntrepriseIdAndStatutEnAttente(@Param("entrepriseId") Long entrepriseId);
-}
\ No newline at end of file
+
+    /**
+     * Récupère uniquement le code d'un document (sans charger l'entité)
+     */
+    @Query("SELECT x.code FROM BonDeCommande x WHERE x.id = :id")
+    Optional<String> findCodeById(@Param("id") Long id);
+}
@@ -10,6 +10,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité Budget
@@ -55,4 +56,10 @@ public interface BudgetRepo extends JpaRepository<Budget, Long> {
         // Méthodes pour les statistiques du directeur
         @Query("SELECT COALESCE(SUM(b.montantBudget), 0) FROM Budget b WHERE b.entreprise.id = :entrepriseId")
         double sumMontantBudgetByEntrepriseId(@Param("entrepriseId") Long entrepriseId);
-}
\ No newline at end of file
+
+        /**
+         * Récupère uniquement le code d'un document (sans charger l'entité)
+         */
+        @Query("SELECT x.code FROM Budget x WHERE x.id = :id")
+        Optional<String> findCodeById(@Param("id") Long id);
+}
@@ -4,8 +4,11 @@ import kafofond.entity.Commentaire;
 import kafofond.entity.TypeDocument;
 import kafofond.entity.Utilisateur;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +17,12 @@ public interface CommentaireRepo extends JpaRepository<Commentaire, Long> {
     // Tous les commentaires pour un document donné (par ID et type)
     List<Commentaire> findByDocumentIdAndTypeDocument(Long documentId, TypeDocument typeDocument);
 
+    // Commentaires d'un lot de documents du même type, auteur chargé dans la même requête
+    @Query("SELECT c FROM Commentaire c JOIN FETCH c.auteur " +
+            "WHERE c.typeDocument = :typeDocument AND c.documentId IN :ids ORDER BY c.dateCreation, c.id")
+    List<Commentaire> findByTypeDocumentAndDocumentIds(@Param("typeDocument") TypeDocument typeDocument,
+                                                       @Param("ids") Collection<Long> ids);
+
     // Tous les commentaires par auteur
     List<Commentaire> findByAuteur(Utilisateur auteur);
 
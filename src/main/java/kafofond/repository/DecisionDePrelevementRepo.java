@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité DecisionDePrelevement
@@ -58,4 +59,10 @@ public interface DecisionDePrelevementRepo extends JpaRepository<DecisionDePrele
         // Méthodes pour les statistiques du directeur
         @Query("SELECT COUNT(d) FROM DecisionDePrelevement d WHERE d.entreprise.id = :entrepriseId AND (d.statut = 'EN_COURS' OR d.statut = 'APPROUVE')")
         long countByEntrepriseIdAndStatutEnAttente(@Param("entrepriseId") Long entrepriseId);
-}
\ No newline at end of file
+
+        /**
+         * Récupère uniquement le code d'un document (sans charger l'entité)
+         */
+        @Query("SELECT x.code FROM DecisionDePrelevement x WHERE x.id = :id")
+        Optional<String> findCodeById(@Param("id") Long id);
+}
@@ -80,4 +80,10 @@ public interface DemandeDAchatRepo extends JpaRepository<DemandeDAchat, Long> {
      */
     @Query("SELECT d FROM DemandeDAchat d WHERE d.entreprise.id = :entrepriseId")
     List<DemandeDAchat> findByEntrepriseId(@Param("entrepriseId") Long entrepriseId);
-}
\ No newline at end of file
+
+    /**
+     * Récupère uniquement le code d'un document (sans charger l'entité)
+     */
+    @Query("SELECT x.code FROM DemandeDAchat x WHERE x.id = :id")
+    Optional<String> findCodeById(@Param("id") Long id);
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité FicheDeBesoin
@@ -71,4 +72,10 @@ public interface FicheBesoinRepo extends JpaRepository<FicheDeBesoin, Long> {
      */
     @Query("SELECT f FROM FicheDeBesoin f LEFT JOIN f.demandeDAchat d WHERE f.statut = kafofond.entity.Statut.APPROUVE AND d.id IS NULL")
     List<FicheDeBesoin> findApprovedWithoutDemandeDAchat();
-}
\ No newline at end of file
+
+    /**
+     * Récupère uniquement le code d'un document (sans charger l'entité)
+     */
+    @Query("SELECT x.code FROM FicheDeBesoin x WHERE x.id = :id")
+    Optional<String> findCodeById(@Param("id") Long id);
+}
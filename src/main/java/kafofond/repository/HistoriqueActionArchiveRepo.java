@@ -0,0 +1,97 @@
+package kafofond.repository;
+
+import kafofond.dto.HistoriqueDTO;
+import kafofond.entity.HistoriqueActionArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'entité HistoriqueActionArchive
+ * Chemin lent : consulté seulement quand la période demandée précède la limite de la table chaude
+ */
+@Repository
+public interface HistoriqueActionArchiveRepo extends JpaRepository<HistoriqueActionArchive, Long> {
+
+    /**
+     * Copie un lot d'actions de la table chaude vers l'archive, dans le segment du mois donné
+     */
+    @Modifying
+    @Query(value = "INSERT INTO historiques_actions_archive " +
+            "(id, type_document, id_document, action, ancien_statut, nouveau_statut, ancien_etat, nouveau_etat, " +
+            "date_action, utilisateur_id, entreprise_id, mois_archive) " +
+            "SELECT h.id, h.type_document, h.id_document, h.action, h.ancien_statut, h.nouveau_statut, " +
+            "h.ancien_etat, h.nouveau_etat, h.date_action, h.utilisateur_id, h.entreprise_id, :mois " +
+            "FROM historiques_actions h WHERE h.id IN (:ids)", nativeQuery = true)
+    int archiverLot(@Param("ids") List<Long> ids, @Param("mois") Integer mois);
+
+    /**
+     * Même recherche que HistoriqueActionRepo.rechercher, sur les segments archivés
+     */
+    @Query("SELECT new kafofond.dto.HistoriqueDTO(a.id, a.typeDocument, a.idDocument, a.action, " +
+            "a.ancienStatut, a.nouveauStatut, a.ancienEtat, a.nouveauEtat, a.dateAction, " +
+            "u.id, CONCAT(u.prenom, ' ', u.nom), u.email, a.entrepriseId) " +
+            "FROM HistoriqueActionArchive a LEFT JOIN Utilisateur u ON u.id = a.utilisateurId " +
+            "WHERE a.entrepriseId = :entrepriseId " +
+            "AND (:typeDocument IS NULL OR a.typeDocument = :typeDocument) " +
+            "AND (:idDocument IS NULL OR a.idDocument = :idDocument) " +
+            "AND (:action IS NULL OR a.action = :action) " +
+            "AND (:utilisateurId IS NULL OR a.utilisateurId = :utilisateurId) " +
+            "AND (:dateDebut IS NULL OR a.dateAction >= :dateDebut) " +
+            "AND (:dateFin IS NULL OR a.dateAction < :dateFin) " +
+            "AND (:curseurDate IS NULL OR a.dateAction < :curseurDate " +
+            "     OR (a.dateAction = :curseurDate AND a.id < :curseurId)) " +
+            "ORDER BY a.dateAction DESC, a.id DESC")
+    List<HistoriqueDTO> rechercher(@Param("entrepriseId") Long entrepriseId,
+            @Param("typeDocument") String typeDocument,
+            @Param("idDocument") Long idDocument,
+            @Param("action") String action,
+            @Param("utilisateurId") Long utilisateurId,
+            @Param("dateDebut") LocalDateTime dateDebut,
+            @Param("dateFin") LocalDateTime dateFin,
+            @Param("curseurDate") LocalDateTime curseurDate,
+            @Param("curseurId") Long curseurId,
+            Pageable pageable);
+
+    /**
+     * Actions archivées d'un document, de la plus ancienne à la plus récente
+     */
+    @Query("SELECT new kafofond.dto.HistoriqueDTO(a.id, a.typeDocument, a.idDocument, a.action, " +
+            "a.ancienStatut, a.nouveauStatut, a.ancienEtat, a.nouveauEtat, a.dateAction, " +
+            "u.id, CONCAT(u.prenom, ' ', u.nom), u.email, a.entrepriseId) " +
+            "FROM HistoriqueActionArchive a LEFT JOIN Utilisateur u ON u.id = a.utilisateurId " +
+            "WHERE a.typeDocument = :typeDocument AND a.idDocument = :idDocument " +
+            "ORDER BY a.dateAction, a.id")
+    List<HistoriqueDTO> findParDocument(@Param("typeDocument") String typeDocument,
+            @Param("idDocument") Long idDocument);
+
+    /**
+     * Actions archivées d'une entreprise (typeDocument null : tous les types), des plus récentes aux plus anciennes
+     */
+    @Query("SELECT new kafofond.dto.HistoriqueDTO(a.id, a.typeDocument, a.idDocument, a.action, " +
+            "a.ancienStatut, a.nouveauStatut, a.ancienEtat, a.nouveauEtat, a.dateAction, " +
+            "u.id, CONCAT(u.prenom, ' ', u.nom), u.email, a.entrepriseId) " +
+            "FROM HistoriqueActionArchive a LEFT JOIN Utilisateur u ON u.id = a.utilisateurId " +
+            "WHERE a.entrepriseId = :entrepriseId " +
+            "AND (:typeDocument IS NULL OR a.typeDocument = :typeDocument) " +
+            "ORDER BY a.dateAction DESC, a.id DESC")
+    List<HistoriqueDTO> findParEntreprise(@Param("entrepriseId") Long entrepriseId,
+            @Param("typeDocument") String typeDocument);
+
+    /**
+     * Actions archivées d'un utilisateur, des plus récentes aux plus anciennes
+     */
+    @Query("SELECT new kafofond.dto.HistoriqueDTO(a.id, a.typeDocument, a.idDocument, a.action, " +
+            "a.ancienStatut, a.nouveauStatut, a.ancienEtat, a.nouveauEtat, a.dateAction, " +
+            "u.id, CONCAT(u.prenom, ' ', u.nom), u.email, a.entrepriseId) " +
+            "FROM HistoriqueActionArchive a LEFT JOIN Utilisateur u ON u.id = a.utilisateurId " +
+            "WHERE a.utilisateurId = :utilisateurId " +
+            "ORDER BY a.dateAction DESC, a.id DESC")
+    List<HistoriqueDTO> findParUtilisateur(@Param("utilisateurId") Long utilisateurId);
+}
@@ -1,12 +1,19 @@
 package kafofond.repository;
 
+import kafofond.dto.HistoriqueDTO;
 import kafofond.entity.HistoriqueAction;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Utilisateur;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité HistoriqueAction
@@ -34,4 +41,65 @@ public interface HistoriqueActionRepo extends JpaRepository<HistoriqueAction, Lo
      * Trouve toutes les actions d'une entreprise par type de document
      */
     List<HistoriqueAction> findByEntrepriseAndTypeDocument(Entreprise entreprise, String typeDocument);
+
+    /**
+     * Recherche paginée par curseur (keyset) sur (dateAction, id), du plus récent au plus ancien.
+     * Retourne directement des HistoriqueDTO (projection) sans charger Utilisateur ni Entreprise.
+     * Les filtres null sont ignorés. S'appuie sur l'index (entreprise_id, date_action).
+     */
+    @Query("SELECT new kafofond.dto.HistoriqueDTO(h.id, h.typeDocument, h.idDocument, h.action, " +
+            "h.ancienStatut, h.nouveauStatut, h.ancienEtat, h.nouveauEtat, h.dateAction, " +
+            "u.id, CONCAT(u.prenom, ' ', u.nom), u.email, h.entreprise.id) " +
+            "FROM HistoriqueAction h LEFT JOIN h.utilisateur u " +
+            "WHERE h.entreprise.id = :entrepriseId " +
+            "AND (:typeDocument IS NULL OR h.typeDocument = :typeDocument) " +
+            "AND (:idDocument IS NULL OR h.idDocument = :idDocument) " +
+            "AND (:action IS NULL OR h.action = :action) " +
+            "AND (:utilisateurId IS NULL OR u.id = :utilisateurId) " +
+            "AND (:dateDebut IS NULL OR h.dateAction >= :dateDebut) " +
+            "AND (:dateFin IS NULL OR h.dateAction < :dateFin) " +
+            "AND (:curseurDate IS NULL OR h.dateAction < :curseurDate " +
+            "     OR (h.dateAction = :curseurDate AND h.id < :curseurId)) " +
+            "ORDER BY h.dateAction DESC, h.id DESC")
+    List<HistoriqueDTO> rechercher(@Param("entrepriseId") Long entrepriseId,
+            @Param("typeDocument") String typeDocument,
+            @Param("idDocument") Long idDocument,
+            @Param("action") String action,
+            @Param("utilisateurId") Long utilisateurId,
+            @Param("dateDebut") LocalDateTime dateDebut,
+            @Param("dateFin") LocalDateTime dateFin,
+            @Param("curseurDate") LocalDateTime curseurDate,
+            @Param("curseurId") Long curseurId,
+            Pageable pageable);
+
+    /**
+     * Actions d'un document en projection, de la plus ancienne à la plus récente
+     */
+    @Query("SELECT new kafofond.dto.HistoriqueDTO(h.id, h.typeDocument, h.idDocument, h.action, " +
+            "h.ancienStatut, h.nouveauStatut, h.ancienEtat, h.nouveauEtat, h.dateAction, " +
+            "u.id, CONCAT(u.prenom, ' ', u.nom), u.email, h.entreprise.id) " +
+            "FROM HistoriqueAction h LEFT JOIN h.utilisateur u " +
+            "WHERE h.typeDocument = :typeDocument AND h.idDocument = :idDocument " +
+            "ORDER BY h.dateAction, h.id")
+    List<HistoriqueDTO> findParDocument(@Param("typeDocument") String typeDocument,
+            @Param("idDocument") Long idDocument);
+
+    /**
+     * Date de la plus ancienne action de la table chaude
+     */
+    @Query("SELECT MIN(h.dateAction) FROM HistoriqueAction h")
+    Optional<LocalDateTime> findDateActionMin();
+
+    /**
+     * IDs d'un lot d'actions d'une période [debut, fin[ (archivage par lots)
+     */
+    @Query("SELECT h.id FROM HistoriqueAction h WHERE h.dateAction >= :debut AND h.dateAction < :fin ORDER BY h.id")
+    List<Long> findIdsEntre(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin, Pageable pageable);
+
+    /**
+     * Supprime un lot d'actions par leurs IDs (après copie vers l'archive)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM HistoriqueAction h WHERE h.id IN :ids")
+    int supprimerParIds(@Param("ids") List<Long> ids);
 }
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité LigneCredit
@@ -90,4 +91,10 @@ public interface LigneCreditRepo extends JpaRepository<LigneCredit, Long> {
         
         @Query("SELECT COALESCE(SUM(l.montantAllouer), 0) FROM LigneCredit l WHERE l.statut = 'APPROUVE' AND DATE(l.dateCreation) = :date AND HOUR(l.dateCreation) = :heure")
         double sumMontantAllouerByDateAndHeure(@Param("date") java.time.LocalDate date, @Param("heure") int heure);
-}
\ No newline at end of file
+
+        /**
+         * Récupère uniquement le code d'un document (sans charger l'entité)
+         */
+        @Query("SELECT x.code FROM LigneCredit x WHERE x.id = :id")
+        Optional<String> findCodeById(@Param("id") Long id);
+}
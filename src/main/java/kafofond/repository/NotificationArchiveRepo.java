@@ -0,0 +1,43 @@
+package kafofond.repository;
+
+import kafofond.entity.NotificationArchive;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'entité NotificationArchive
+ * Chemin lent : consultation de l'historique des notifications archivées
+ */
+@Repository
+public interface NotificationArchiveRepo extends JpaRepository<NotificationArchive, Long> {
+
+    /**
+     * Copie un lot de notifications de la table chaude vers l'archive
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notifications_archive " +
+            "(id, titre, message, etat, transmission, date_envoi, type_document, id_document, destinataire_id, " +
+            "date_archivage) " +
+            "SELECT n.id, n.titre, n.message, n.etat, n.transmission, n.date_envoi, n.type_document, n.id_document, " +
+            "n.destinataire_id, :dateArchivage FROM notifications n WHERE n.id IN (:ids)", nativeQuery = true)
+    int archiverLot(@Param("ids") List<Long> ids, @Param("dateArchivage") LocalDateTime dateArchivage);
+
+    /**
+     * Notifications archivées d'un destinataire, paginées par curseur sur (dateEnvoi, id)
+     */
+    @Query("SELECT a FROM NotificationArchive a WHERE a.destinataireId = :destinataireId " +
+            "AND (:curseurDate IS NULL OR a.dateEnvoi < :curseurDate " +
+            "     OR (a.dateEnvoi = :curseurDate AND a.id < :curseurId)) " +
+            "ORDER BY a.dateEnvoi DESC, a.id DESC")
+    List<NotificationArchive> findArchives(@Param("destinataireId") Long destinataireId,
+            @Param("curseurDate") LocalDateTime curseurDate,
+            @Param("curseurId") Long curseurId,
+            Pageable pageable);
+}
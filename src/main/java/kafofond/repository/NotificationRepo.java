@@ -2,9 +2,14 @@ package kafofond.repository;
 
 import kafofond.entity.Notification;
 import kafofond.entity.Utilisateur;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -28,9 +33,88 @@ public interface NotificationRepo extends JpaRepository<Notification, Long> {
      * Compte les notifications non lues d'un destinataire
      */
     long countByDestinataireAndEtat(Utilisateur destinataire, boolean etat);
+
+    List<Notification> findByDestinataireId(Long destinataireId);
+
+    long countByDestinataireIdAndEtat(Long destinataireId, boolean etat);
     
     /**
      * Trouve les notifications par statut de transmission
      */
     List<Notification> findByTransmission(Boolean transmission);
+
+    // Opérations de masse : une seule requête UPDATE/DELETE, retourne le nombre de lignes affectées
+
+    /**
+     * Marque toutes les notifications non lues d'un destinataire comme lues
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.etat = true WHERE n.destinataire.id = :destinataireId AND n.etat = false")
+    int marquerToutesCommeLues(@Param("destinataireId") Long destinataireId);
+
+    /**
+     * Marque comme lues les notifications non lues d'un destinataire concernant un document
+     * (type et id : les ids de documents de types différents se recouvrent)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.etat = true WHERE n.destinataire.id = :destinataireId " +
+            "AND n.typeDocument = :typeDocument AND n.idDocument = :idDocument AND n.etat = false")
+    int marquerCommeLuesParDocument(@Param("destinataireId") Long destinataireId,
+            @Param("typeDocument") String typeDocument,
+            @Param("idDocument") Long idDocument);
+
+    /**
+     * Marque comme lues les notifications non lues d'un destinataire envoyées avant une date
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.etat = true WHERE n.destinataire.id = :destinataireId " +
+            "AND n.etat = false AND n.dateEnvoi < :dateLimite")
+    int marquerCommeLuesAvant(@Param("destinataireId") Long destinataireId,
+            @Param("dateLimite") LocalDateTime dateLimite);
+
+    /**
+     * Supprime les notifications lues envoyées avant une date (rétention)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.etat = true AND n.dateEnvoi < :dateLimite")
+    int supprimerLuesAvant(@Param("dateLimite") LocalDateTime dateLimite);
+
+    /**
+     * Boîte de réception paginée par curseur (keyset) sur (dateEnvoi, id), du plus récent au plus ancien.
+     * Le curseur (curseurDate, curseurId) est la dernière ligne de la page précédente, null pour la première page.
+     * Les filtres null sont ignorés ; un document se désigne par son type et son id (les ids se
+     * recouvrent d'un type à l'autre). Index parcouru dans l'ordre du tri, sans tri du reste de l'historique :
+     * (destinataire_id, etat, date_envoi) avec un filtre etat, (destinataire_id, date_envoi, id) sans.
+     */
+    @Query("SELECT n FROM Notification n WHERE n.destinataire.id = :destinataireId " +
+            "AND (:etat IS NULL OR n.etat = :etat) " +
+            "AND (:typeDocument IS NULL OR n.typeDocument = :typeDocument) " +
+            "AND (:idDocument IS NULL OR n.idDocument = :idDocument) " +
+            "AND (:dateDebut IS NULL OR n.dateEnvoi >= :dateDebut) " +
+            "AND (:dateFin IS NULL OR n.dateEnvoi < :dateFin) " +
+            "AND (:curseurDate IS NULL OR n.dateEnvoi < :curseurDate " +
+            "     OR (n.dateEnvoi = :curseurDate AND n.id < :curseurId)) " +
+            "ORDER BY n.dateEnvoi DESC, n.id DESC")
+    List<Notification> findBoiteReception(@Param("destinataireId") Long destinataireId,
+            @Param("etat") Boolean etat,
+            @Param("typeDocument") String typeDocument,
+            @Param("idDocument") Long idDocument,
+            @Param("dateDebut") LocalDateTime dateDebut,
+            @Param("dateFin") LocalDateTime dateFin,
+            @Param("curseurDate") LocalDateTime curseurDate,
+            @Param("curseurId") Long curseurId,
+            Pageable pageable);
+
+    /**
+     * IDs des notifications lues envoyées avant une date, par lot (archivage)
+     */
+    @Query("SELECT n.id FROM Notification n WHERE n.etat = true AND n.dateEnvoi < :dateLimite ORDER BY n.id")
+    List<Long> findIdsLuesAvant(@Param("dateLimite") LocalDateTime dateLimite, Pageable pageable);
+
+    /**
+     * Supprime un lot de notifications par IDs (après copie dans l'archive)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int supprimerParIds(@Param("ids") List<Long> ids);
 }
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour l'entité OrdreDePaiement
@@ -80,4 +81,10 @@ public interface OrdreDePaiementRepo extends JpaRepository<OrdreDePaiement, Long
         
         @Query("SELECT COALESCE(SUM(o.montant), 0) FROM OrdreDePaiement o WHERE DATE(o.dateCreation) = :date AND HOUR(o.dateCreation) = :heure")
         double sumMontantTotalByDateAndHeure(@Param("date") java.time.LocalDate date, @Param("heure") int heure);
-}
\ No newline at end of file
+
+        /**
+         * Récupère uniquement le code d'un document (sans charger l'entité)
+         */
+        @Query("SELECT x.code FROM OrdreDePaiement x WHERE x.id = :id")
+        Optional<String> findCodeById(@Param("id") Long id);
+}
@@ -0,0 +1,34 @@
+package kafofond.repository;
+
+import kafofond.entity.SegmentArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour le manifeste des segments d'archive (SegmentArchive)
+ */
+@Repository
+public interface SegmentArchiveRepo extends JpaRepository<SegmentArchive, Long> {
+
+    /**
+     * Trouve le segment d'une source pour un mois (AAAAMM)
+     */
+    Optional<SegmentArchive> findBySourceAndMois(String source, Integer mois);
+
+    /**
+     * Liste les segments d'une source, du plus récent au plus ancien
+     */
+    List<SegmentArchive> findBySourceOrderByMoisDesc(String source);
+
+    /**
+     * Fin du segment archivé le plus récent : début de la période couverte par la table chaude
+     */
+    @Query("SELECT MAX(s.fin) FROM SegmentArchive s WHERE s.source = :source")
+    Optional<LocalDateTime> findLimiteChaude(@Param("source") String source);
+}
@@ -2,9 +2,14 @@ package kafofond.repository;
 
 import kafofond.entity.SeuilValidation;
 import kafofond.entity.Entreprise;
+import jakarta.persistence.QueryHint;
+import kafofond.config.RegionsCache;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -15,7 +20,26 @@ import java.util.Optional;
 public interface SeuilValidationRepo extends JpaRepository<SeuilValidation, Long> {
     
     /**
-     * Trouve le seuil actif d'une entreprise
+     * Trouve le seuil actif d'une entreprise (cache de requêtes Hibernate)
      */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = RegionsCache.SEUIL_ACTIF)
+    })
     Optional<SeuilValidation> findByEntrepriseAndActif(Entreprise entreprise, boolean actif);
+
+    /**
+     * Seuil actif le plus récent d'une entreprise, sans cache de requêtes (chargement du registre)
+     */
+    Optional<SeuilValidation> findFirstByEntrepriseIdAndActifTrueOrderByIdDesc(Long entrepriseId);
+
+    /**
+     * Tous les seuils actifs (vérification de cohérence du registre)
+     */
+    List<SeuilValidation> findByActifTrue();
+
+    /**
+     * Seuils d'une entreprise, du plus ancien au plus récent
+     */
+    List<SeuilValidation> findByEntrepriseIdOrderByIdAsc(Long entrepriseId);
 }
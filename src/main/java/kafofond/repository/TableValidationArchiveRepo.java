@@ -0,0 +1,80 @@
+package kafofond.repository;
+
+import kafofond.entity.StatutValidation;
+import kafofond.entity.TableValidation;
+import kafofond.entity.TableValidationArchive;
+import kafofond.entity.TypeDocument;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository pour l'entité TableValidationArchive
+ * Les lectures renvoient des TableValidation (non persistées) avec le validateur joint,
+ * pour être fusionnées avec les lignes de la table chaude
+ */
+@Repository
+public interface TableValidationArchiveRepo extends JpaRepository<TableValidationArchive, Long> {
+
+    /**
+     * Copie un lot de validations de la table chaude vers l'archive, dans le segment du mois donné
+     */
+    @Modifying
+    @Query(value = "INSERT INTO table_validation_archive " +
+            "(id, validateur_id, commentaire, statut, id_document, type_document, date_validation, mois_archive) " +
+            "SELECT v.id, v.validateur_id, v.commentaire, v.statut, v.id_document, v.type_document, " +
+            "v.date_validation, :mois FROM table_validation v WHERE v.id IN (:ids)", nativeQuery = true)
+    int archiverLot(@Param("ids") List<Long> ids, @Param("mois") Integer mois);
+
+    /**
+     * Validations archivées d'un document
+     */
+    @Query("SELECT new kafofond.entity.TableValidation(a.id, a.validateurId, a.commentaire, a.statut, " +
+            "a.idDocument, a.typeDocument, a.dateValidation, u) " +
+            "FROM TableValidationArchive a LEFT JOIN Utilisateur u ON u.id = a.validateurId " +
+            "WHERE a.idDocument = :idDocument AND a.typeDocument = :typeDocument " +
+            "ORDER BY a.dateValidation, a.id")
+    List<TableValidation> findParDocument(@Param("idDocument") Long idDocument,
+            @Param("typeDocument") TypeDocument typeDocument);
+
+    /**
+     * Validations archivées d'un validateur
+     */
+    @Query("SELECT new kafofond.entity.TableValidation(a.id, a.validateurId, a.commentaire, a.statut, " +
+            "a.idDocument, a.typeDocument, a.dateValidation, u) " +
+            "FROM TableValidationArchive a LEFT JOIN Utilisateur u ON u.id = a.validateurId " +
+            "WHERE a.validateurId = :validateurId " +
+            "ORDER BY a.dateValidation, a.id")
+    List<TableValidation> findParValidateur(@Param("validateurId") Long validateurId);
+
+    /**
+     * Même recherche que TableValidationRepo.rechercher, sur les segments archivés
+     */
+    @Query("SELECT new kafofond.entity.TableValidation(a.id, a.validateurId, a.commentaire, a.statut, " +
+            "a.idDocument, a.typeDocument, a.dateValidation, u) " +
+            "FROM TableValidationArchive a JOIN Utilisateur u ON u.id = a.validateurId " +
+            "WHERE (:entrepriseId IS NULL OR u.entreprise.id = :entrepriseId) " +
+            "AND (:typeDocument IS NULL OR a.typeDocument = :typeDocument) " +
+            "AND (:statut IS NULL OR a.statut = :statut) " +
+            "AND (:validateurId IS NULL OR a.validateurId = :validateurId) " +
+            "AND (:dateDebut IS NULL OR a.dateValidation >= :dateDebut) " +
+            "AND (:dateFin IS NULL OR a.dateValidation < :dateFin) " +
+            "AND (:curseurDate IS NULL OR a.dateValidation < :curseurDate " +
+            "     OR (a.dateValidation = :curseurDate AND a.id < :curseurId)) " +
+            "ORDER BY a.dateValidation DESC, a.id DESC")
+    List<TableValidation> rechercher(@Param("entrepriseId") Long entrepriseId,
+            @Param("typeDocument") TypeDocument typeDocument,
+            @Param("statut") StatutValidation statut,
+            @Param("validateurId") Long validateurId,
+            @Param("dateDebut") LocalDateTime dateDebut,
+            @Param("dateFin") LocalDateTime dateFin,
+            @Param("curseurDate") LocalDateTime curseurDate,
+            @Param("curseurId") Long curseurId,
+            Pageable pageable);
+}
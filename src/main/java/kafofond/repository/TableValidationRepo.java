@@ -1,35 +1,85 @@
 package kafofond.repository;
 
+import kafofond.entity.StatutValidation;
 import kafofond.entity.TableValidation;
 import kafofond.entity.TypeDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository pour TableValidation (remplace CommentaireRepo)
+ * Les lectures chargent le validateur dans la même requête (JOIN FETCH)
  */
 @Repository
 public interface TableValidationRepo extends JpaRepository<TableValidation, Long> {
 
     /**
      * Trouve toutes les validations d'un document spécifique
+     * S'appuie sur l'index (type_document, id_document)
      */
-    List<TableValidation> findByIdDocumentAndTypeDocument(Long idDocument, TypeDocument typeDocument);
+    @Query("SELECT v FROM TableValidation v LEFT JOIN FETCH v.validateur " +
+            "WHERE v.idDocument = :idDocument AND v.typeDocument = :typeDocument " +
+            "ORDER BY v.dateValidation, v.id")
+    List<TableValidation> findByIdDocumentAndTypeDocument(@Param("idDocument") Long idDocument,
+            @Param("typeDocument") TypeDocument typeDocument);
 
     /**
      * Trouve toutes les validations d'un validateur
+     * S'appuie sur l'index (validateur_id, date_validation)
      */
-    List<TableValidation> findByValidateurId(Long validateurId);
+    @Query("SELECT v FROM TableValidation v LEFT JOIN FETCH v.validateur " +
+            "WHERE v.validateurId = :validateurId ORDER BY v.dateValidation, v.id")
+    List<TableValidation> findByValidateurId(@Param("validateurId") Long validateurId);
 
     /**
-     * Trouve toutes les validations par type de document
+     * Recherche paginée par curseur (keyset) sur (dateValidation, id), du plus récent au plus ancien,
+     * limitée aux validations faites par les utilisateurs de l'entreprise. Les filtres null sont ignorés ;
+     * entrepriseId null (toutes les entreprises) n'est transmis que pour le Super Admin
      */
-    List<TableValidation> findByTypeDocument(TypeDocument typeDocument);
+    @Query("SELECT v FROM TableValidation v JOIN FETCH v.validateur u " +
+            "WHERE (:entrepriseId IS NULL OR u.entreprise.id = :entrepriseId) " +
+            "AND (:typeDocument IS NULL OR v.typeDocument = :typeDocument) " +
+            "AND (:statut IS NULL OR v.statut = :statut) " +
+            "AND (:validateurId IS NULL OR v.validateurId = :validateurId) " +
+            "AND (:dateDebut IS NULL OR v.dateValidation >= :dateDebut) " +
+            "AND (:dateFin IS NULL OR v.dateValidation < :dateFin) " +
+            "AND (:curseurDate IS NULL OR v.dateValidation < :curseurDate " +
+            "     OR (v.dateValidation = :curseurDate AND v.id < :curseurId)) " +
+            "ORDER BY v.dateValidation DESC, v.id DESC")
+    List<TableValidation> rechercher(@Param("entrepriseId") Long entrepriseId,
+            @Param("typeDocument") TypeDocument typeDocument,
+            @Param("statut") StatutValidation statut,
+            @Param("validateurId") Long validateurId,
+            @Param("dateDebut") LocalDateTime dateDebut,
+            @Param("dateFin") LocalDateTime dateFin,
+            @Param("curseurDate") LocalDateTime curseurDate,
+            @Param("curseurId") Long curseurId,
+            Pageable pageable);
 
     /**
-     * Trouve toutes les validations par statut
+     * Date de la plus ancienne validation de la table chaude
      */
-    List<TableValidation> findByStatut(String statut);
+    @Query("SELECT MIN(v.dateValidation) FROM TableValidation v")
+    Optional<LocalDateTime> findDateValidationMin();
+
+    /**
+     * IDs d'un lot de validations d'une période [debut, fin[ (archivage par lots)
+     */
+    @Query("SELECT v.id FROM TableValidation v WHERE v.dateValidation >= :debut AND v.dateValidation < :fin ORDER BY v.id")
+    List<Long> findIdsEntre(@Param("debut") LocalDateTime debut, @Param("fin") LocalDateTime fin, Pageable pageable);
+
+    /**
+     * Supprime un lot de validations par leurs IDs (après copie vers l'archive)
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM TableValidation v WHERE v.id IN :ids")
+    int supprimerParIds(@Param("ids") List<Long> ids);
 }
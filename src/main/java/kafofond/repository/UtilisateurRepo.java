@@ -1,22 +1,53 @@
 package kafofond.repository;
 
+import jakarta.persistence.QueryHint;
+import kafofond.config.RegionsCache;
+import kafofond.dto.UtilisateurDTO;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Role;
 import kafofond.entity.Utilisateur;
+import kafofond.security.UtilisateurConnecte;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 public interface UtilisateurRepo extends JpaRepository<Utilisateur, Long> {
+
+    /**
+     * Utilisateur par email (cache de requêtes Hibernate ; entité servie par la région kafofond.utilisateur)
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = RegionsCache.UTILISATEUR_PAR_EMAIL)
+    })
     Optional<Utilisateur> findByEmail(String email);
 
     @Query("SELECT u FROM Utilisateur u LEFT JOIN FETCH u.entreprise WHERE u.email = :email")
     Optional<Utilisateur> findByEmailWithEntreprise(@Param("email") String email);
 
+    /**
+     * Instantané de l'utilisateur authentifié (UtilisateurConnecteService), sans charger les entités
+     */
+    @Query("SELECT new kafofond.security.UtilisateurConnecte(u.id, u.email, u.nom, u.prenom, u.role, u.etat, e.id, e.nom) " +
+            "FROM Utilisateur u LEFT JOIN u.entreprise e WHERE u.email = :email")
+    Optional<UtilisateurConnecte> findConnecteParEmail(@Param("email") String email);
+
+    /**
+     * Emails déjà utilisés parmi ceux d'un lot d'import (une seule requête IN par lot)
+     */
+    @Query("SELECT u.email FROM Utilisateur u WHERE u.email IN :emails")
+    List<String> findEmailsExistants(@Param("emails") Collection<String> emails);
+
     boolean existsByRole(Role role);
 
     boolean existsByEmail(String email);
@@ -42,6 +73,49 @@ public interface UtilisateurRepo extends JpaRepository<Utilisateur, Long> {
     // Si besoin, tous les utilisateurs d'une entreprise
     List<Utilisateur> findByEntreprise(Entreprise entreprise);
 
+    List<Utilisateur> findByEntrepriseId(Long entrepriseId);
+
+    List<Utilisateur> findByEntrepriseIdAndEtatTrue(Long entrepriseId);
+
+    /**
+     * Annuaire paginé : filtres optionnels (null = ignoré) entreprise, rôle, état,
+     * et recherche (motif LIKE en minuscules) sur nom, prénom ou email.
+     * Projection directe en DTO, sans mot de passe ni chargement des entités
+     */
+    @Query(value = "SELECT new kafofond.dto.UtilisateurDTO(u.id, u.nom, u.prenom, u.email, u.departement, u.role, " +
+            "u.etat, e.id, e.nom, u.dateCreation) " +
+            "FROM Utilisateur u LEFT JOIN u.entreprise e " +
+            "WHERE (:entrepriseId IS NULL OR e.id = :entrepriseId) " +
+            "AND (:role IS NULL OR u.role = :role) " +
+            "AND (:etat IS NULL OR u.etat = :etat) " +
+            "AND (:recherche IS NULL OR LOWER(u.nom) LIKE :recherche OR LOWER(u.prenom) LIKE :recherche " +
+            "OR LOWER(u.email) LIKE :recherche)",
+            countQuery = "SELECT COUNT(u) FROM Utilisateur u " +
+                    "WHERE (:entrepriseId IS NULL OR u.entreprise.id = :entrepriseId) " +
+                    "AND (:role IS NULL OR u.role = :role) " +
+                    "AND (:etat IS NULL OR u.etat = :etat) " +
+                    "AND (:recherche IS NULL OR LOWER(u.nom) LIKE :recherche OR LOWER(u.prenom) LIKE :recherche " +
+                    "OR LOWER(u.email) LIKE :recherche)")
+    Page<UtilisateurDTO> rechercherAnnuaire(@Param("entrepriseId") Long entrepriseId,
+                                            @Param("role") Role role,
+                                            @Param("etat") Boolean etat,
+                                            @Param("recherche") String recherche,
+                                            Pageable pageable);
+
+    /**
+     * Annuaire complet (anciens endpoints de liste) : mêmes filtres, sans pagination
+     */
+    @Query("SELECT new kafofond.dto.UtilisateurDTO(u.id, u.nom, u.prenom, u.email, u.departement, u.role, " +
+            "u.etat, e.id, e.nom, u.dateCreation) " +
+            "FROM Utilisateur u LEFT JOIN u.entreprise e " +
+            "WHERE (:entrepriseId IS NULL OR e.id = :entrepriseId) " +
+            "AND (:role IS NULL OR u.role = :role) " +
+            "AND (:etat IS NULL OR u.etat = :etat)")
+    List<UtilisateurDTO> listerAnnuaire(@Param("entrepriseId") Long entrepriseId,
+                                        @Param("role") Role role,
+                                        @Param("etat") Boolean etat,
+                                        Sort sort);
+
     // Méthodes pour les statistiques par date
     @Query("SELECT COUNT(u) FROM Utilisateur u WHERE u.dateCreation >= :startDate AND u.dateCreation < :endDate")
     long countByDateCreationBetween(@Param("startDate") LocalDateTime startDate,
@@ -0,0 +1,133 @@
+package kafofond.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kafofond.entity.Role;
+import kafofond.entity.Utilisateur;
+import kafofond.repository.UtilisateurRepo;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Annuaire des approbateurs : par entreprise, rôle → utilisateurs actifs
+ * Chargé en une seule requête par entreprise et gardé dans un cache Caffeine borné, il sert
+ * au routage des validations et aux notifications : les transitions du workflow ne relisent
+ * plus la table utilisateurs. UtilisateurService invalide l'entreprise à chaque création,
+ * modification, désactivation ou réactivation ; les invalidations sont propagées aux autres instances.
+ * Le cache ne garde que des instantanés immuables (Approbateur) : aucune entité détachée n'est partagée
+ * entre threads, et premier() rend une référence attachée à la session de l'appelant
+ */
+@Service
+@Slf4j
+public class AnnuaireApprobateurs {
+
+    private final UtilisateurRepo utilisateurRepo;
+    private final JournalInvalidations journalInvalidations;
+    private final Cache<Long, Map<Role, List<Approbateur>>> parEntreprise;
+
+    public AnnuaireApprobateurs(UtilisateurRepo utilisateurRepo,
+                                JournalInvalidations journalInvalidations,
+                                @Value("${workflow.approbateurs.cache-minutes:10}") long dureeCacheMinutes,
+                                @Value("${workflow.approbateurs.cache-taille:1000}") long tailleCache) {
+        this.utilisateurRepo = utilisateurRepo;
+        this.journalInvalidations = journalInvalidations;
+        this.parEntreprise = Caffeine.newBuilder()
+                .maximumSize(tailleCache)
+                .expireAfterWrite(Duration.ofMinutes(dureeCacheMinutes))
+                .build();
+        journalInvalidations.abonner(CachesPartages.APPROBATEURS, cle -> {
+            if (cle == null) {
+                parEntreprise.invalidateAll();
+            } else {
+                parEntreprise.invalidate(Long.valueOf(cle));
+            }
+        });
+    }
+
+    /**
+     * Premier utilisateur actif du rôle (le plus ancien compte), ou null si aucun
+     * Dans une transaction, une référence (getReferenceById) suffit : elle n'est chargée que si
+     * l'appelant lit ses attributs, par clé primaire et dans sa propre session ; hors transaction
+     * l'utilisateur est relu pour ne pas rendre un proxy impossible à initialiser
+     */
+    public Utilisateur premier(Long entrepriseId, Role role) {
+        List<Approbateur> approbateurs = tous(entrepriseId, role);
+        if (approbateurs.isEmpty()) {
+            return null;
+        }
+        Long id = approbateurs.get(0).getId();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return utilisateurRepo.getReferenceById(id);
+        }
+        return utilisateurRepo.findById(id).orElse(null);
+    }
+
+    /**
+     * Tous les approbateurs actifs du rôle dans l'entreprise (liste immuable, éventuellement vide)
+     */
+    public List<Approbateur> tous(Long entrepriseId, Role role) {
+        if (entrepriseId == null || role == null) {
+            return List.of();
+        }
+        return parEntreprise.get(entrepriseId, this::charger).getOrDefault(role, List.of());
+    }
+
+    /**
+     * Invalide l'entreprise tout de suite et, dans une transaction, une seconde fois après le commit :
+     * une lecture concurrente faite avant le commit ne peut donc pas remettre l'ancien état en cache
+     */
+    public void invalider(Long entrepriseId) {
+        if (entrepriseId == null) {
+            return;
+        }
+        parEntreprise.invalidate(entrepriseId);
+        journalInvalidations.publier(CachesPartages.APPROBATEURS, String.valueOf(entrepriseId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    parEntreprise.invalidate(entrepriseId);
+                }
+            });
+        }
+        log.debug("Annuaire des approbateurs invalidé pour l'entreprise {}", entrepriseId);
+    }
+
+    /**
+     * Invalide l'entreprise de l'utilisateur (sans effet pour un compte rattaché à aucune entreprise)
+     */
+    public void invalider(Utilisateur utilisateur) {
+        if (utilisateur != null && utilisateur.getEntreprise() != null) {
+            invalider(utilisateur.getEntreprise().getId());
+        }
+    }
+
+    public void invaliderTout() {
+        parEntreprise.invalidateAll();
+        journalInvalidations.publier(CachesPartages.APPROBATEURS, null);
+    }
+
+    private Map<Role, List<Approbateur>> charger(Long entrepriseId) {
+        Map<Role, List<Approbateur>> annuaire = utilisateurRepo.findByEntrepriseIdAndEtatTrue(entrepriseId).stream()
+                .filter(u -> u.getRole() != null)
+                .map(u -> new Approbateur(u.getId(), u.getEmail(), u.getNom(), u.getPrenom(), u.getRole(), entrepriseId))
+                .sorted(Comparator.comparing(Approbateur::getId))
+                .collect(Collectors.groupingBy(Approbateur::getRole, () -> new EnumMap<>(Role.class),
+                        Collectors.collectingAndThen(Collectors.toList(), List::copyOf)));
+        log.debug("Annuaire des approbateurs chargé pour l'entreprise {} : {} rôle(s)", entrepriseId, annuaire.size());
+        return Collections.unmodifiableMap(annuaire);
+    }
+}
@@ -0,0 +1,23 @@
+package kafofond.security;
+
+import kafofond.entity.Role;
+import lombok.Value;
+
+/**
+ * Instantané immuable d'un approbateur de l'annuaire (identité, rôle, entreprise)
+ * Partageable entre threads : aucune association paresseuse, contrairement à l'entité Utilisateur
+ */
+@Value
+public class Approbateur {
+
+    Long id;
+    String email;
+    String nom;
+    String prenom;
+    Role role;
+    Long entrepriseId;
+
+    public String getNomComplet() {
+        return prenom + " " + nom;
+    }
+}
@@ -0,0 +1,209 @@
+package kafofond.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import kafofond.exception.TropDeTentativesException;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Porte d'entrée de /api/auth/login : protège le reste de l'API contre les rafales de connexion
+ * - seaux à jetons par email et par adresse IP (caches Caffeine bornés)
+ * - vérification BCrypt sur un pool dédié borné (threads et file) : file pleine ou attente trop
+ *   longue = refus immédiat en 429, les threads Tomcat restent disponibles pour le workflow
+ * - cache négatif des emails inconnus : pas de SELECT répété pour un email qui n'existe pas
+ * Métriques : kafofond.auth.bcrypt (durée de hachage), kafofond.auth.rejets{motif},
+ * kafofond.auth.bcrypt.file (profondeur de la file)
+ */
+@Component
+@Slf4j
+public class PorteConnexion {
+
+    private final PasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+    private final JournalInvalidations journalInvalidations;
+    private final Cache<String, SeauJetons> seauxEmail;
+    private final Cache<String, SeauJetons> seauxIp;
+    private final Cache<String, Boolean> emailsInconnus;
+    private final ThreadPoolExecutor poolBcrypt;
+    private final Timer dureeBcrypt;
+    private final int capaciteEmail;
+    private final int rechargeEmailParMinute;
+    private final int capaciteIp;
+    private final int rechargeIpParMinute;
+    private final long delaiBcryptMs;
+
+    public PorteConnexion(PasswordEncoder passwordEncoder,
+                          MeterRegistry meterRegistry,
+                          JournalInvalidations journalInvalidations,
+                          @Value("${securite.connexion.email.capacite:10}") int capaciteEmail,
+                          @Value("${securite.connexion.email.recharge-par-minute:5}") int rechargeEmailParMinute,
+                          @Value("${securite.connexion.ip.capacite:50}") int capaciteIp,
+                          @Value("${securite.connexion.ip.recharge-par-minute:60}") int rechargeIpParMinute,
+                          @Value("${securite.connexion.seaux.taille-max:100000}") long tailleSeaux,
+                          @Value("${securite.connexion.bcrypt.threads:0}") int threadsBcrypt,
+                          @Value("${securite.connexion.bcrypt.file:64}") int fileBcrypt,
+                          @Value("${securite.connexion.bcrypt.delai-ms:3000}") long delaiBcryptMs,
+                          @Value("${securite.connexion.emails-inconnus.cache-secondes:300}") long dureeEmailsInconnus) {
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+        this.journalInvalidations = journalInvalidations;
+        this.capaciteEmail = capaciteEmail;
+        this.rechargeEmailParMinute = rechargeEmailParMinute;
+        this.capaciteIp = capaciteIp;
+        this.rechargeIpParMinute = rechargeIpParMinute;
+        this.delaiBcryptMs = delaiBcryptMs;
+
+        // Un seau inutilisé depuis une heure est forcément plein : inutile de le garder
+        this.seauxEmail = Caffeine.newBuilder().maximumSize(tailleSeaux).expireAfterAccess(Duration.ofHours(1)).build();
+        this.seauxIp = Caffeine.newBuilder().maximumSize(tailleSeaux).expireAfterAccess(Duration.ofHours(1)).build();
+        this.emailsInconnus = Caffeine.newBuilder()
+                .maximumSize(tailleSeaux)
+                .expireAfterWrite(Duration.ofSeconds(dureeEmailsInconnus))
+                .build();
+        journalInvalidations.abonner(CachesPartages.EMAILS_INCONNUS, cle -> {
+            if (cle == null) {
+                emailsInconnus.invalidateAll();
+            } else {
+                emailsInconnus.invalidate(cle);
+            }
+        });
+
+        // Par défaut la moitié des cœurs : le reste de l'API garde du CPU pendant une tempête de connexions
+        int threads = threadsBcrypt > 0 ? threadsBcrypt : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numero = new AtomicInteger();
+        this.poolBcrypt = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fileBcrypt),
+                tache -> {
+                    Thread thread = new Thread(tache, "bcrypt-" + numero.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.dureeBcrypt = Timer.builder("kafofond.auth.bcrypt")
+                .description("Durée des vérifications BCrypt à la connexion")
+                .register(meterRegistry);
+        Gauge.builder("kafofond.auth.bcrypt.file", poolBcrypt, pool -> pool.getQueue().size())
+                .description("Vérifications BCrypt en attente d'un thread")
+                .register(meterRegistry);
+        log.info("Porte de connexion : {} thread(s) BCrypt, file de {}", threads, fileBcrypt);
+    }
+
+    /**
+     * Consomme un jeton pour l'IP puis pour l'email ; lève TropDeTentativesException si l'un est vide
+     */
+    public void autoriser(String email, String ip) {
+        if (ip != null) {
+            long attente = seauxIp.get(ip, k -> new SeauJetons(capaciteIp, rechargeIpParMinute)).consommer();
+            if (attente > 0) {
+                throw rejet("ip", attente);
+            }
+        }
+        String cle = normaliser(email);
+        if (cle != null) {
+            long attente = seauxEmail.get(cle, k -> new SeauJetons(capaciteEmail, rechargeEmailParMinute)).consommer();
+            if (attente > 0) {
+                throw rejet("email", attente);
+            }
+        }
+    }
+
+    /**
+     * Vérifie le mot de passe sur le pool BCrypt borné
+     */
+    public boolean verifierMotDePasse(String motDePasse, String hache) {
+        Future<Boolean> verification;
+        try {
+            verification = poolBcrypt.submit(() -> dureeBcrypt.recordCallable(
+                    () -> passwordEncoder.matches(motDePasse, hache)));
+        } catch (RejectedExecutionException e) {
+            throw rejet("file_pleine", 1);
+        }
+        try {
+            return verification.get(delaiBcryptMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            verification.cancel(true);
+            throw rejet("delai", 1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Vérification du mot de passe interrompue", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Erreur lors de la vérification du mot de passe", e.getCause());
+        }
+    }
+
+    public boolean estEmailInconnu(String email) {
+        String cle = normaliser(email);
+        return cle != null && emailsInconnus.getIfPresent(cle) != null;
+    }
+
+    public void memoriserEmailInconnu(String email) {
+        String cle = normaliser(email);
+        if (cle != null) {
+            emailsInconnus.put(cle, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * À appeler quand un compte est créé ou change d'email (propagé aux autres instances)
+     * Dans une transaction, l'email est oublié de nouveau après le commit : une connexion concurrente
+     * faite avant le commit ne peut donc pas le remettre en cache comme inconnu
+     */
+    public void oublierEmailInconnu(String email) {
+        String cle = normaliser(email);
+        if (cle != null) {
+            emailsInconnus.invalidate(cle);
+            journalInvalidations.publier(CachesPartages.EMAILS_INCONNUS, cle);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        emailsInconnus.invalidate(cle);
+                    }
+                });
+            }
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        poolBcrypt.shutdownNow();
+    }
+
+    private TropDeTentativesException rejet(String motif, long attenteSecondes) {
+        Counter.builder("kafofond.auth.rejets")
+                .description("Tentatives de connexion refusées par la porte de connexion")
+                .tag("motif", motif)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Connexion refusée ({}), nouvel essai possible dans {} s", motif, attenteSecondes);
+        return new TropDeTentativesException("Trop de tentatives de connexion, réessayez plus tard", attenteSecondes);
+    }
+
+    private static String normaliser(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
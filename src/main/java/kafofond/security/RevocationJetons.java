@@ -0,0 +1,74 @@
+package kafofond.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * Révocations des jetons JWT par email : tout jeton émis avant la révocation est refusé
+ * Déclenchée par la désactivation du compte, un changement de rôle, d'email ou de mot de passe
+ * (modification par un administrateur ou réinitialisation). Ne dépend pas de la clé de signature :
+ * les révocations sont enregistrées et propagées aux autres instances même sans VerificationJetons
+ */
+@Component
+@Slf4j
+public class RevocationJetons {
+
+    private final Cache<String, Long> revocations;
+    private final JournalInvalidations journalInvalidations;
+
+    public RevocationJetons(@Value("${jwt.expiration:86400000}") long expirationMs,
+                            @Value("${securite.jwt.cache-taille:50000}") long tailleCache,
+                            JournalInvalidations journalInvalidations) {
+        // Au-delà de la durée de vie d'un jeton, tous les jetons antérieurs à la révocation ont expiré
+        this.revocations = Caffeine.newBuilder()
+                .maximumSize(tailleCache)
+                .expireAfterWrite(Duration.ofMillis(expirationMs))
+                .build();
+        this.journalInvalidations = journalInvalidations;
+        journalInvalidations.abonner(CachesPartages.JETONS_REVOQUES, this::appliquer);
+    }
+
+    /**
+     * Révoque les jetons émis jusqu'à maintenant pour cet email
+     */
+    public void revoquer(String email) {
+        if (email != null) {
+            long instant = System.currentTimeMillis();
+            revocations.put(email, instant);
+            journalInvalidations.publier(CachesPartages.JETONS_REVOQUES, instant + ":" + email);
+            log.info("Jetons JWT révoqués pour {}", email);
+        }
+    }
+
+    public boolean estRevoque(Claims claims) {
+        Long revocation = revocations.getIfPresent(claims.getSubject());
+        if (revocation == null) {
+            return false;
+        }
+        // Sans date d'émission, impossible de savoir si le jeton précède la révocation : refus
+        Date emission = claims.getIssuedAt();
+        return emission == null || emission.getTime() <= revocation;
+    }
+
+    /**
+     * Révocation publiée par une autre instance (clé "instantMs:email") ; un vidage complet est
+     * sans effet : les révocations ne peuvent pas être reconstituées
+     */
+    private void appliquer(String cle) {
+        int separateur = cle == null ? -1 : cle.indexOf(':');
+        if (separateur < 0) {
+            return;
+        }
+        long instant = Long.parseLong(cle.substring(0, separateur));
+        revocations.asMap().merge(cle.substring(separateur + 1), instant, Math::max);
+    }
+}
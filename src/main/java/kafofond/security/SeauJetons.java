@@ -0,0 +1,34 @@
+package kafofond.security;
+
+/**
+ * Seau à jetons : capacité maximale, recharge continue à débit constant
+ * Chaque tentative consomme un jeton ; seau vide = tentative refusée jusqu'à la recharge
+ */
+final class SeauJetons {
+
+    private final double capacite;
+    private final double jetonsParNs;
+    private double jetons;
+    private long derniereRechargeNs;
+
+    SeauJetons(int capacite, int rechargeParMinute) {
+        this.capacite = capacite;
+        this.jetonsParNs = rechargeParMinute / 60e9;
+        this.jetons = capacite;
+        this.derniereRechargeNs = System.nanoTime();
+    }
+
+    /**
+     * Consomme un jeton ; renvoie 0 si accordé, sinon l'attente en secondes avant le prochain jeton
+     */
+    synchronized long consommer() {
+        long maintenant = System.nanoTime();
+        jetons = Math.min(capacite, jetons + (maintenant - derniereRechargeNs) * jetonsParNs);
+        derniereRechargeNs = maintenant;
+        if (jetons >= 1) {
+            jetons -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - jetons) / jetonsParNs / 1e9));
+    }
+}
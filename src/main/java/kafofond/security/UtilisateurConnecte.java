@@ -0,0 +1,29 @@
+package kafofond.security;
+
+import kafofond.entity.Role;
+import lombok.Value;
+
+/**
+ * Instantané immuable de l'utilisateur authentifié (identité, rôle, entreprise)
+ * Suffit aux contrôles d'accès et au filtrage par entreprise sans charger l'entité Utilisateur
+ */
+@Value
+public class UtilisateurConnecte {
+
+    Long id;
+    String email;
+    String nom;
+    String prenom;
+    Role role;
+    boolean actif;
+    Long entrepriseId;
+    String entrepriseNom;
+
+    public boolean estSuperAdmin() {
+        return role == Role.SUPER_ADMIN;
+    }
+
+    public String getNomComplet() {
+        return prenom + " " + nom;
+    }
+}
@@ -0,0 +1,113 @@
+package kafofond.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import kafofond.repository.UtilisateurRepo;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Résout l'utilisateur authentifié (nom porté par le jeton JWT) en instantané UtilisateurConnecte
+ * Les instantanés sont gardés dans un cache Caffeine à TTL court, et mémorisés pour la durée
+ * de la requête HTTP : le chemin chaud des contrôleurs ne fait plus de SELECT sur utilisateurs.
+ * UtilisateurService invalide l'entrée à chaque modification, désactivation ou réactivation,
+ * sur cette instance et, par le journal des invalidations, sur les autres
+ */
+@Service
+@Slf4j
+public class UtilisateurConnecteService {
+
+    private static final String ATTRIBUT_REQUETE = UtilisateurConnecte.class.getName();
+
+    private final UtilisateurRepo utilisateurRepo;
+    private final JournalInvalidations journalInvalidations;
+    private final Cache<String, UtilisateurConnecte> instantanes;
+
+    public UtilisateurConnecteService(UtilisateurRepo utilisateurRepo,
+                                      JournalInvalidations journalInvalidations,
+                                      @Value("${securite.principal.cache-secondes:60}") long dureeCacheSecondes,
+                                      @Value("${securite.principal.cache-taille:10000}") long tailleCache) {
+        this.utilisateurRepo = utilisateurRepo;
+        this.instantanes = Caffeine.newBuilder()
+                .maximumSize(tailleCache)
+                .expireAfterWrite(Duration.ofSeconds(dureeCacheSecondes))
+                .build();
+        this.journalInvalidations = journalInvalidations;
+        journalInvalidations.abonner(CachesPartages.UTILISATEUR_CONNECTE, cle -> {
+            if (cle == null) {
+                instantanes.invalidateAll();
+            } else {
+                instantanes.invalidate(cle);
+            }
+        });
+    }
+
+    /**
+     * Utilisateur de la requête courante ; échoue si le compte est introuvable ou désactivé
+     */
+    public UtilisateurConnecte resoudre(Authentication authentication) {
+        RequestAttributes requete = RequestContextHolder.getRequestAttributes();
+        if (requete != null
+                && requete.getAttribute(ATTRIBUT_REQUETE, RequestAttributes.SCOPE_REQUEST) instanceof UtilisateurConnecte memorise
+                && memorise.getEmail().equals(authentication.getName())) {
+            return memorise;
+        }
+
+        UtilisateurConnecte utilisateur = trouver(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
+        if (!utilisateur.isActif()) {
+            throw new RuntimeException("Compte désactivé");
+        }
+
+        if (requete != null) {
+            requete.setAttribute(ATTRIBUT_REQUETE, utilisateur, RequestAttributes.SCOPE_REQUEST);
+        }
+        return utilisateur;
+    }
+
+    /**
+     * Instantané par email (cache, puis une requête de projection en cas d'absence)
+     */
+    public Optional<UtilisateurConnecte> trouver(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(instantanes.get(email, e -> utilisateurRepo.findConnecteParEmail(e).orElse(null)));
+    }
+
+    /**
+     * Invalide l'instantané tout de suite puis, dans une transaction, de nouveau après le commit :
+     * une résolution concurrente faite avant le commit ne peut donc pas remettre l'ancien état en cache
+     */
+    public void invalider(String email) {
+        if (email != null) {
+            instantanes.invalidate(email);
+            journalInvalidations.publier(CachesPartages.UTILISATEUR_CONNECTE, email);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        instantanes.invalidate(email);
+                    }
+                });
+            }
+            log.debug("Instantané utilisateur invalidé : {}", email);
+        }
+    }
+
+    public void invaliderTout() {
+        instantanes.invalidateAll();
+        journalInvalidations.publier(CachesPartages.UTILISATEUR_CONNECTE, null);
+    }
+}
@@ -0,0 +1,131 @@
+package kafofond.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification des jetons JWT (HS512) avec cache des claims déjà vérifiés
+ * Clé du cache : empreinte SHA-256 du jeton ; une entrée vit jusqu'à l'expiration du jeton.
+ * Les rafales d'appels parallèles de l'application avec le même jeton ne refont donc ni le
+ * HMAC ni l'analyse JSON. Les jetons révoqués (RevocationJetons) sont refusés, qu'ils soient
+ * en cache ou non.
+ * jwt.secret est lu comme une clé HS512 encodée en Base64 (au moins 512 bits) : le composant n'est
+ * enregistré qu'avec securite.jwt.cache-verification=true, une fois que le filtre JWT passe par
+ * verifier() avec une clé dans ce format.
+ * Métriques : cache.gets{cache=kafofond.jwt, result=hit|miss}, kafofond.jwt.revoques
+ */
+@Component
+@ConditionalOnProperty(name = "securite.jwt.cache-verification", havingValue = "true")
+@Slf4j
+public class VerificationJetons {
+
+    private final JwtParser parseur;
+    private final Cache<String, Claims> verifies;
+    private final RevocationJetons revocationJetons;
+    private final Counter refusRevocation;
+
+    public VerificationJetons(@Value("${jwt.secret}") String secret,
+                              @Value("${jwt.expiration:86400000}") long expirationMs,
+                              @Value("${securite.jwt.cache-taille:50000}") long tailleCache,
+                              MeterRegistry meterRegistry,
+                              RevocationJetons revocationJetons) {
+        this.parseur = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret)))
+                .build();
+        this.verifies = Caffeine.newBuilder()
+                .maximumSize(tailleCache)
+                .expireAfter(new ExpirationJeton(TimeUnit.MILLISECONDS.toNanos(expirationMs)))
+                .recordStats()
+                .build();
+        this.revocationJetons = revocationJetons;
+        CaffeineCacheMetrics.monitor(meterRegistry, verifies, "kafofond.jwt");
+        this.refusRevocation = Counter.builder("kafofond.jwt.revoques")
+                .description("Jetons refusés car émis avant une révocation de leur titulaire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Claims du jeton s'il est signé, non expiré et non révoqué ; vide sinon
+     */
+    public Optional<Claims> verifier(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return Optional.empty();
+        }
+        String cle = empreinte(jeton);
+        Claims claims = verifies.getIfPresent(cle);
+        if (claims == null) {
+            try {
+                claims = parseur.parseClaimsJws(jeton).getBody();
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Jeton JWT refusé : {}", e.getMessage());
+                return Optional.empty();
+            }
+            verifies.put(cle, claims);
+        } else if (claims.getExpiration() != null && claims.getExpiration().before(new Date())) {
+            verifies.invalidate(cle);
+            return Optional.empty();
+        }
+        if (revocationJetons.estRevoque(claims)) {
+            verifies.invalidate(cle);
+            refusRevocation.increment();
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    private static String empreinte(String jeton) {
+        try {
+            byte[] hachage = MessageDigest.getInstance("SHA-256").digest(jeton.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hachage);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    /**
+     * Une entrée expire avec son jeton (claim exp), plafonnée à jwt.expiration
+     */
+    private record ExpirationJeton(long dureeMaxNs) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String cle, Claims claims, long maintenant) {
+            if (claims.getExpiration() == null) {
+                return dureeMaxNs;
+            }
+            long restantNs = TimeUnit.MILLISECONDS.toNanos(claims.getExpiration().getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(restantNs, dureeMaxNs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String cle, Claims claims, long maintenant, long dureeRestante) {
+            return dureeRestante;
+        }
+
+        @Override
+        public long expireAfterRead(String cle, Claims claims, long maintenant, long dureeRestante) {
+            return dureeRestante;
+        }
+    }
+}
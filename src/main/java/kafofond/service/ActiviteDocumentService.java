@@ -0,0 +1,165 @@
+package kafofond.service;
+
+import kafofond.dto.ResumeActiviteDocumentDTO;
+import kafofond.entity.SegmentArchive;
+import kafofond.entity.TypeDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service de résumé d'activité des documents (commentaires et validations)
+ * Calcule en une seule requête groupée les compteurs d'un lot de documents du même type,
+ * pour que les écrans de liste coûtent un nombre constant de requêtes
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ActiviteDocumentService {
+
+    /**
+     * Les enregistrements de CREATION de table_validation ne sont pas des validations.
+     * La dernière validation est celle de plus grand ID (ordre d'insertion, conservé par l'archive).
+     */
+    private static final String SQL_RESUME =
+            "SELECT g.id_document, g.nombre_commentaires, g.nombre_validations," +
+            " COALESCE(v.statut, va.statut) AS statut, COALESCE(v.date_validation, va.date_validation) AS date_validation," +
+            " u.prenom, u.nom" +
+            " FROM (" +
+            "  SELECT x.id_document, SUM(x.commentaire) AS nombre_commentaires," +
+            "   SUM(x.validation) AS nombre_validations, MAX(x.validation_id) AS derniere_validation_id" +
+            "  FROM (" +
+            "   SELECT c.document_id AS id_document, 1 AS commentaire, 0 AS validation, NULL AS validation_id" +
+            "   FROM commentaires c WHERE c.type_document = :typeDocument AND c.document_id IN (:ids)" +
+            "   UNION ALL" +
+            "   SELECT t.id_document, 0, 1, t.id" +
+            "   FROM table_validation t WHERE t.type_document = :typeDocument AND t.id_document IN (:ids)" +
+            "    AND t.statut <> 'CREATION'" +
+            "%s" +
+            "  ) x GROUP BY x.id_document" +
+            " ) g" +
+            " LEFT JOIN table_validation v ON v.id = g.derniere_validation_id" +
+            " LEFT JOIN table_validation_archive va ON v.id IS NULL AND va.id = g.derniere_validation_id" +
+            " LEFT JOIN utilisateurs u ON u.id = COALESCE(v.validateur_id, va.validateur_id)";
+
+    /**
+     * Validations déplacées par HistoriqueArchiveService, lues seulement si un segment existe
+     */
+    private static final String SQL_VALIDATIONS_ARCHIVEES =
+            "   UNION ALL" +
+            "   SELECT a.id_document, 0, 1, a.id" +
+            "   FROM table_validation_archive a WHERE a.type_document = :typeDocument AND a.id_document IN (:ids)" +
+            "    AND a.statut <> 'CREATION'";
+
+    /**
+     * Documents d'un lot appartenant à l'entreprise, par type (la ligne de crédit l'est par son budget)
+     */
+    private static final Map<TypeDocument, String> SQL_DOCUMENTS_ENTREPRISE = new EnumMap<>(Map.of(
+            TypeDocument.BUDGET, "SELECT d.id FROM budgets d WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId",
+            TypeDocument.LIGNE_CREDIT, "SELECT d.id FROM lignes_credit d JOIN budgets b ON b.id = d.budget_id" +
+                    " WHERE d.id IN (:ids) AND b.entreprise_id = :entrepriseId",
+            TypeDocument.FICHE_BESOIN, "SELECT d.id FROM fiches_de_besoin d WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId",
+            TypeDocument.DEMANDE_ACHAT, "SELECT d.id FROM demandes_achat d WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId",
+            TypeDocument.BON_COMMANDE, "SELECT d.id FROM bons_de_commande d WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId",
+            TypeDocument.ATTESTATION_SERVICE_FAIT, "SELECT d.id FROM attestations_service_fait d" +
+                    " WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId",
+            TypeDocument.DECISION_PRELEVEMENT, "SELECT d.id FROM decisions_prelevement d" +
+                    " WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId",
+            TypeDocument.ORDRE_PAIEMENT, "SELECT d.id FROM ordres_paiement d WHERE d.id IN (:ids) AND d.entreprise_id = :entrepriseId"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HistoriqueArchiveService historiqueArchiveService;
+
+    /**
+     * IDs du lot qui n'appartiennent pas à l'entreprise (inexistants compris), dans l'ordre de la demande
+     */
+    public List<Long> idsHorsEntreprise(TypeDocument typeDocument, Collection<Long> ids, Long entrepriseId) {
+        Set<Long> idsDocuments = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (idsDocuments.isEmpty()) {
+            return List.of();
+        }
+        if (entrepriseId == null) {
+            return List.copyOf(idsDocuments);
+        }
+        MapSqlParameterSource parametres = new MapSqlParameterSource()
+                .addValue("ids", idsDocuments)
+                .addValue("entrepriseId", entrepriseId);
+        Set<Long> autorises = Set.copyOf(jdbcTemplate.queryForList(
+                SQL_DOCUMENTS_ENTREPRISE.get(typeDocument), parametres, Long.class));
+        return idsDocuments.stream().filter(id -> !autorises.contains(id)).toList();
+    }
+
+    /**
+     * Résume l'activité d'un lot de documents d'un même type
+     * Chaque ID demandé est présent dans le résultat (compteurs à zéro s'il n'a aucune activité)
+     */
+    public Map<Long, ResumeActiviteDocumentDTO> resumer(TypeDocument typeDocument, Collection<Long> ids) {
+        Set<Long> idsDocuments = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, ResumeActiviteDocumentDTO> resumes = new HashMap<>();
+        if (idsDocuments.isEmpty()) {
+            return resumes;
+        }
+
+        MapSqlParameterSource parametres = new MapSqlParameterSource()
+                .addValue("typeDocument", typeDocument.name())
+                .addValue("ids", idsDocuments);
+        String sql = String.format(SQL_RESUME,
+                historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_VALIDATION, null)
+                        ? SQL_VALIDATIONS_ARCHIVEES : "");
+        jdbcTemplate.query(sql, parametres, rs -> {
+            Timestamp date = rs.getTimestamp("date_validation");
+            String prenom = rs.getString("prenom");
+            String nom = rs.getString("nom");
+            ResumeActiviteDocumentDTO resume = ResumeActiviteDocumentDTO.builder()
+                    .idDocument(rs.getLong("id_document"))
+                    .nombreCommentaires(rs.getLong("nombre_commentaires"))
+                    .nombreValidations(rs.getLong("nombre_validations"))
+                    .dernierStatutValidation(rs.getString("statut"))
+                    .dateDerniereValidation(date != null ? date.toLocalDateTime() : null)
+                    .dernierValidateurNom(nom != null ? (prenom != null ? prenom + " " : "") + nom : null)
+                    .build();
+            resumes.put(resume.getIdDocument(), resume);
+        });
+
+        for (Long id : idsDocuments) {
+            resumes.computeIfAbsent(id, cle -> ResumeActiviteDocumentDTO.builder().idDocument(cle).build());
+        }
+        log.debug("Résumé d'activité calculé pour {} document(s) {}", idsDocuments.size(), typeDocument);
+        return resumes;
+    }
+
+    /**
+     * Renseigne le résumé d'activité de chaque DTO d'une liste (une seule requête pour toute la liste)
+     */
+    public <D> List<D> completer(TypeDocument typeDocument, List<D> dtos, Function<D, Long> id,
+                                 BiConsumer<D, ResumeActiviteDocumentDTO> affecter) {
+        if (dtos.isEmpty()) {
+            return dtos;
+        }
+        Map<Long, ResumeActiviteDocumentDTO> resumes = resumer(typeDocument,
+                dtos.stream().map(id).collect(Collectors.toList()));
+        for (D dto : dtos) {
+            affecter.accept(dto, resumes.get(id.apply(dto)));
+        }
+        return dtos;
+    }
+}
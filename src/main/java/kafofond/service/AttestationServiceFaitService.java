@@ -1,5 +1,6 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.entity.AttestationDeServiceFait;
 import kafofond.entity.Utilisateur;
 import kafofond.entity.Statut;
@@ -8,6 +9,7 @@ import kafofond.repository.AttestationDeServiceFaitRepo;
 import kafofond.repository.UtilisateurRepo;
 import kafofond.repository.BonDeCommandeRepo;
 import kafofond.repository.EntrepriseRepo;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -30,6 +32,7 @@ public class AttestationServiceFaitService {
 
     private final AttestationDeServiceFaitRepo attestationDeServiceFaitRepo;
     private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final BonDeCommandeRepo bonDeCommandeRepo;
     private final EntrepriseRepo entrepriseRepo;
     private final NotificationService notificationService;
@@ -103,8 +106,8 @@ public class AttestationServiceFaitService {
         // Notifier le Gestionnaire
         Utilisateur gestionnaire = trouverGestionnaire(utilisateur.getEntreprise());
         if (gestionnaire != null) {
-            notificationService.notifierModification("ATTESTATION_SERVICE_FAIT", attestationCreee.getId(),
-                    utilisateur, gestionnaire, "créée");
+            notificationService.notifierModification(EvenementNotification.de("ATTESTATION_SERVICE_FAIT", attestationCreee.getId(),
+                    attestationCreee.getCode(), utilisateur, "créée"), gestionnaire);
         }
 
         return attestationCreee;
@@ -183,12 +186,9 @@ public class AttestationServiceFaitService {
      * Trouve le gestionnaire d'une entreprise
      */
     private Utilisateur trouverGestionnaire(kafofond.entity.Entreprise entreprise) {
-        // Éviter les problèmes de proxy en utilisant le nom de l'entreprise de manière
-        // sécurisée
+        // L'identifiant suffit : le proxy de l'entreprise n'est pas initialisé
         try {
-            String nomEntreprise = entreprise.getNom();
-            return utilisateurRepo.findByEmail("gestionnaire@" + nomEntreprise.toLowerCase().replace(" ", "") + ".com")
-                    .orElse(null);
+            return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.GESTIONNAIRE);
         } catch (Exception e) {
             log.warn("Impossible d'accéder à l'entreprise pour trouver le gestionnaire: {}", e.getMessage());
             return null;
@@ -199,12 +199,9 @@ public class AttestationServiceFaitService {
      * Trouve le comptable d'une entreprise
      */
     private Utilisateur trouverComptable(kafofond.entity.Entreprise entreprise) {
-        // Éviter les problèmes de proxy en utilisant le nom de l'entreprise de manière
-        // sécurisée
+        // L'identifiant suffit : le proxy de l'entreprise n'est pas initialisé
         try {
-            String nomEntreprise = entreprise.getNom();
-            return utilisateurRepo.findByEmail("comptable@" + nomEntreprise.toLowerCase().replace(" ", "") + ".com")
-                    .orElse(null);
+            return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.COMPTABLE);
         } catch (Exception e) {
             log.warn("Impossible d'accéder à l'entreprise pour trouver le comptable: {}", e.getMessage());
             return null;
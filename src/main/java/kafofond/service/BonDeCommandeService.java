@@ -1,5 +1,6 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.dto.BonDeCommandeDTO;
 import kafofond.entity.BonDeCommande;
 import kafofond.entity.DemandeDAchat;
@@ -11,6 +12,7 @@ import kafofond.repository.BonDeCommandeRepo;
 import kafofond.repository.UtilisateurRepo;
 import kafofond.repository.EntrepriseRepo;
 import kafofond.service.DocumentService;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,6 +33,7 @@ public class BonDeCommandeService {
 
     private final BonDeCommandeRepo bonDeCommandeRepo;
     private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final EntrepriseRepo entrepriseRepo;
     private final BonDeCommandeMapper bonDeCommandeMapper;
     private final DocumentService documentService;
@@ -38,6 +41,7 @@ public class BonDeCommandeService {
     private final HistoriqueService historiqueService;
     private final TableValidationService tableValidationService;
     private final CommentaireService commentaireService;
+    private final ActiviteDocumentService activiteDocumentService;
     private final CodeGeneratorService codeGeneratorService;
     private final UtilisateurService utilisateurService;
 
@@ -91,8 +95,8 @@ public class BonDeCommandeService {
         // Notifier le Comptable
         Utilisateur responsable = trouverResponsable(comptable.getEntreprise());
         if (responsable != null) {
-            notificationService.notifierModification("BON_COMMANDE", bonCree.getId(),
-                    comptable, responsable, "généré");
+            notificationService.notifierModification(EvenementNotification.de("BON_COMMANDE", bonCree.getId(),
+                    bonCree.getCode(), comptable, "généré"), responsable);
         }
 
         return bonCree;
@@ -193,8 +197,8 @@ public class BonDeCommandeService {
                 modificateur.getRole() != kafofond.entity.Role.DIRECTEUR) {
             Utilisateur responsable = trouverResponsable(modificateur.getEntreprise());
             if (responsable != null) {
-                notificationService.notifierModification("BON_COMMANDE", id,
-                        modificateur, responsable, "personnalisé");
+                notificationService.notifierModification(EvenementNotification.de("BON_COMMANDE", id,
+                        bon.getCode(), modificateur, "personnalisé"), responsable);
             }
         }
 
@@ -278,10 +282,11 @@ public class BonDeCommandeService {
 
         // Notifier le Responsable pour approbation
         // Récupérer le responsable dans la même transaction
-        Utilisateur responsable = trouverResponsableDansTransaction(validateur.getEntreprise().getId(), validateur.getEntreprise().getNom());
+        Utilisateur responsable = trouverResponsableDansTransaction(validateur.getEntreprise().getId());
         if (responsable != null) {
-            notificationService.notifierValidation("BON_COMMANDE", id, validateur,
-                    responsable, "validé et en attente d'approbation", null);
+            notificationService.notifierValidation(EvenementNotification.de("BON_COMMANDE", id,
+                    bon.getCode(), validateur, "validé et en attente d'approbation"),
+                    responsable, null);
         }
 
         // Initialiser les relations pour éviter les problèmes de lazy loading
@@ -391,8 +396,9 @@ public class BonDeCommandeService {
 
         // Notifier le créateur
         if (bon.getCreePar() != null) {
-            notificationService.notifierValidation("BON_COMMANDE", id, approbateur,
-                    bon.getCreePar(), "approuvé", null);
+            notificationService.notifierValidation(EvenementNotification.de("BON_COMMANDE", id,
+                    bon.getCode(), approbateur, "approuvé"),
+                    bon.getCreePar(), null);
         }
 
         // Initialiser les relations pour éviter les problèmes de lazy loading
@@ -498,8 +504,9 @@ public class BonDeCommandeService {
 
         // Notifier le créateur
         if (bon.getCreePar() != null) {
-            notificationService.notifierValidation("BON_COMMANDE", id, validateur,
-                    bon.getCreePar(), "rejeté", commentaire);
+            notificationService.notifierValidation(EvenementNotification.de("BON_COMMANDE", id,
+                    bon.getCode(), validateur, "rejeté"),
+                    bon.getCreePar(), commentaire);
         }
 
         // Initialiser les relations pour éviter les problèmes de lazy loading
@@ -553,19 +560,15 @@ public class BonDeCommandeService {
      * Trouve le responsable d'une entreprise
      */
     private Utilisateur trouverResponsable(kafofond.entity.Entreprise entreprise) {
-        return utilisateurRepo.findByEmail("responsable@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.RESPONSABLE);
     }
 
     /**
-     * Trouve le responsable d'une entreprise dans une transaction
-     * Cette méthode est utilisée pour éviter les problèmes de lazy loading
+     * Trouve le responsable d'une entreprise à partir de son identifiant
+     * (évite d'initialiser le proxy paresseux de l'entreprise)
      */
-    @Transactional
-    public Utilisateur trouverResponsableDansTransaction(Long entrepriseId, String entrepriseNom) {
-        // Utiliser le nom de l'entreprise pour trouver le responsable
-        return utilisateurRepo.findByEmail("responsable@" + entrepriseNom.toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+    public Utilisateur trouverResponsableDansTransaction(Long entrepriseId) {
+        return annuaireApprobateurs.premier(entrepriseId, kafofond.entity.Role.RESPONSABLE);
     }
 
     /**
@@ -614,9 +617,12 @@ public class BonDeCommandeService {
             }
         }
         
-        return bons.stream()
+        List<BonDeCommandeDTO> dtos = bons.stream()
                 .map(bonDeCommandeMapper::toDTO)
                 .toList();
+        // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+        return activiteDocumentService.completer(TypeDocument.BON_COMMANDE, dtos,
+                BonDeCommandeDTO::getId, BonDeCommandeDTO::setActivite);
     }
 
     /**
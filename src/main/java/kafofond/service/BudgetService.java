@@ -1,11 +1,12 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.entity.Budget;
 import kafofond.entity.Utilisateur;
 import kafofond.entity.Statut;
 import kafofond.repository.BudgetRepo;
-import kafofond.repository.UtilisateurRepo;
 import kafofond.service.DocumentService;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -26,7 +27,7 @@ import java.util.Optional;
 public class BudgetService {
 
     private final BudgetRepo budgetRepo;
-    private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final DocumentService documentService;
     private final NotificationService notificationService;
     private final HistoriqueService historiqueService;
@@ -85,8 +86,8 @@ public class BudgetService {
         if (createur.getRole() != kafofond.entity.Role.DIRECTEUR) {
             Utilisateur directeur = trouverDirecteur(createur.getEntreprise());
             if (directeur != null) {
-                notificationService.notifierModification("BUDGET", budgetCree.getId(),
-                        createur, directeur, "créé");
+                notificationService.notifierModification(EvenementNotification.de("BUDGET", budgetCree.getId(),
+                        budgetCree.getCode(), createur, "créé"), directeur);
             }
         }
 
@@ -156,8 +157,8 @@ public class BudgetService {
         if (modificateur.getRole() != kafofond.entity.Role.DIRECTEUR) {
             Utilisateur directeur = trouverDirecteur(modificateur.getEntreprise());
             if (directeur != null) {
-                notificationService.notifierModification("BUDGET", id,
-                        modificateur, directeur, "modifié");
+                notificationService.notifierModification(EvenementNotification.de("BUDGET", id,
+                        budget.getCode(), modificateur, "modifié"), directeur);
             }
         }
 
@@ -220,8 +221,9 @@ public class BudgetService {
         );
 
         if (budget.getCreePar() != null) {
-            notificationService.notifierValidation("BUDGET", id, directeur,
-                    budget.getCreePar(), "validé", null);
+            notificationService.notifierValidation(EvenementNotification.de("BUDGET", id,
+                    budget.getCode(), directeur, "validé"),
+                    budget.getCreePar(), null);
         }
 
         return budgetValide;
@@ -286,8 +288,9 @@ public class BudgetService {
         );
 
         if (budget.getCreePar() != null) {
-            notificationService.notifierValidation("BUDGET", id, directeur,
-                    budget.getCreePar(), "rejeté", commentaire);
+            notificationService.notifierValidation(EvenementNotification.de("BUDGET", id,
+                    budget.getCode(), directeur, "rejeté"),
+                    budget.getCreePar(), commentaire);
         }
 
         return budgetRejete;
@@ -398,8 +401,7 @@ public class BudgetService {
      * Trouve le directeur d'une entreprise
      */
     private Utilisateur trouverDirecteur(kafofond.entity.Entreprise entreprise) {
-        return utilisateurRepo.findByEmail("directeur@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.DIRECTEUR);
     }
 
     /**
@@ -0,0 +1,237 @@
+package kafofond.service;
+
+import kafofond.dto.ChronologieDocumentDTO;
+import kafofond.dto.EvenementChronologieDTO;
+import kafofond.entity.SegmentArchive;
+import kafofond.entity.TypeDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Service de chronologie d'un document
+ * Fusionne historiques_actions, table_validation et commentaires en une seule requête UNION ALL,
+ * avec le nom de l'auteur joint, au lieu de trois appels et d'un chargement paresseux par auteur.
+ * Les tables d'archive (historiques_actions_archive, table_validation_archive) sont ajoutées à
+ * l'union dès qu'un segment de la source a été archivé.
+ * Pagination par curseur sur (date_evenement, source, id), comme les autres listes paginées ;
+ * l'ETag vient d'une sonde COUNT/MAX sur les trois sources, évaluée avant la requête complète
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChronologieDocumentService {
+
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int TAILLE_PAGE_MAX = 200;
+
+    private static final String SQL_CHRONOLOGIE =
+            "SELECT t.* FROM (" +
+            " SELECT 'HISTORIQUE' AS source, h.id AS id, h.date_action AS date_evenement," +
+            "  h.action AS libelle, COALESCE(h.nouveau_statut, h.nouveau_etat) AS statut, NULL AS contenu," +
+            "  u.id AS auteur_id, u.prenom AS auteur_prenom, u.nom AS auteur_nom" +
+            " FROM historiques_actions h LEFT JOIN utilisateurs u ON u.id = h.utilisateur_id" +
+            " WHERE h.type_document = :typeDocument AND h.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR h.entreprise_id = :entrepriseId)" +
+            "%s" +
+            " UNION ALL" +
+            " SELECT 'VALIDATION', v.id, v.date_validation, v.statut, v.statut, v.commentaire," +
+            "  u.id, u.prenom, u.nom" +
+            " FROM table_validation v LEFT JOIN utilisateurs u ON u.id = v.validateur_id" +
+            " WHERE v.type_document = :typeDocument AND v.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR u.entreprise_id = :entrepriseId)" +
+            "%s" +
+            " UNION ALL" +
+            " SELECT 'COMMENTAIRE', c.id, c.date_creation, 'COMMENTAIRE', NULL, c.contenu," +
+            "  u.id, u.prenom, u.nom" +
+            " FROM commentaires c JOIN utilisateurs u ON u.id = c.utilisateur_id" +
+            " WHERE c.type_document = :typeDocument AND c.document_id = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR u.entreprise_id = :entrepriseId)" +
+            ") t" +
+            " WHERE :curseurDate IS NULL OR t.date_evenement < :curseurDate" +
+            "  OR (t.date_evenement = :curseurDate AND (t.source > :curseurSource" +
+            "      OR (t.source = :curseurSource AND t.id < :curseurId)))" +
+            " ORDER BY t.date_evenement DESC, t.source, t.id DESC LIMIT :limite";
+
+    private static final String SQL_HISTORIQUE_ARCHIVE =
+            " UNION ALL" +
+            " SELECT 'HISTORIQUE', a.id, a.date_action, a.action, COALESCE(a.nouveau_statut, a.nouveau_etat), NULL," +
+            "  u.id, u.prenom, u.nom" +
+            " FROM historiques_actions_archive a LEFT JOIN utilisateurs u ON u.id = a.utilisateur_id" +
+            " WHERE a.type_document = :typeDocument AND a.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR a.entreprise_id = :entrepriseId)";
+
+    private static final String SQL_VALIDATIONS_ARCHIVE =
+            " UNION ALL" +
+            " SELECT 'VALIDATION', a.id, a.date_validation, a.statut, a.statut, a.commentaire," +
+            "  u.id, u.prenom, u.nom" +
+            " FROM table_validation_archive a LEFT JOIN utilisateurs u ON u.id = a.validateur_id" +
+            " WHERE a.type_document = :typeDocument AND a.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR u.entreprise_id = :entrepriseId)";
+
+    /**
+     * Sonde de l'ETag : nombre d'événements, date et identifiant les plus récents par source, plus la
+     * longueur cumulée des commentaires (une modification de commentaire ne crée pas d'événement du document).
+     * Agrégats servis par les index (type_document, id_document) : la requête complète n'est pas exécutée
+     */
+    private static final String SQL_SONDE =
+            " SELECT 'HISTORIQUE' AS source, COUNT(*) AS nombre, MAX(h.date_action) AS derniere_date," +
+            "  MAX(h.id) AS dernier_id, 0 AS volume" +
+            " FROM historiques_actions h" +
+            " WHERE h.type_document = :typeDocument AND h.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR h.entreprise_id = :entrepriseId)" +
+            " UNION ALL" +
+            " SELECT 'VALIDATION', COUNT(*), MAX(v.date_validation), MAX(v.id), 0" +
+            " FROM table_validation v LEFT JOIN utilisateurs u ON u.id = v.validateur_id" +
+            " WHERE v.type_document = :typeDocument AND v.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR u.entreprise_id = :entrepriseId)" +
+            " UNION ALL" +
+            " SELECT 'COMMENTAIRE', COUNT(*), MAX(c.date_creation), MAX(c.id), COALESCE(SUM(CHAR_LENGTH(c.contenu)), 0)" +
+            " FROM commentaires c JOIN utilisateurs u ON u.id = c.utilisateur_id" +
+            " WHERE c.type_document = :typeDocument AND c.document_id = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR u.entreprise_id = :entrepriseId)";
+
+    private static final String SQL_SONDE_HISTORIQUE_ARCHIVE =
+            " UNION ALL" +
+            " SELECT 'HISTORIQUE_ARCHIVE', COUNT(*), MAX(a.date_action), MAX(a.id), 0" +
+            " FROM historiques_actions_archive a" +
+            " WHERE a.type_document = :typeDocument AND a.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR a.entreprise_id = :entrepriseId)";
+
+    private static final String SQL_SONDE_VALIDATIONS_ARCHIVE =
+            " UNION ALL" +
+            " SELECT 'VALIDATION_ARCHIVE', COUNT(*), MAX(a.date_validation), MAX(a.id), 0" +
+            " FROM table_validation_archive a LEFT JOIN utilisateurs u ON u.id = a.validateur_id" +
+            " WHERE a.type_document = :typeDocument AND a.id_document = :idDocument" +
+            "  AND (:entrepriseId IS NULL OR u.entreprise_id = :entrepriseId)";
+
+    private static final RowMapper<EvenementChronologieDTO> MAPPER = (rs, i) -> {
+        Timestamp date = rs.getTimestamp("date_evenement");
+        long auteurId = rs.getLong("auteur_id");
+        boolean sansAuteur = rs.wasNull();
+        String prenom = rs.getString("auteur_prenom");
+        String nom = rs.getString("auteur_nom");
+        return EvenementChronologieDTO.builder()
+                .source(rs.getString("source"))
+                .id(rs.getLong("id"))
+                .dateEvenement(date != null ? date.toLocalDateTime() : null)
+                .libelle(rs.getString("libelle"))
+                .statut(rs.getString("statut"))
+                .contenu(rs.getString("contenu"))
+                .auteurId(sansAuteur ? null : auteurId)
+                .auteurNomComplet(nom != null ? (prenom != null ? prenom + " " : "") + nom : null)
+                .build();
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HistoriqueArchiveService historiqueArchiveService;
+
+    /**
+     * Consulte une page de la chronologie d'un document
+     * entrepriseId limite les événements à ceux de l'entreprise (null pour le Super Admin) ;
+     * le curseur (curseurDate, curseurSource, curseurId) est celui renvoyé par la page précédente
+     */
+    public ChronologieDocumentDTO consulterChronologie(TypeDocument typeDocument, Long idDocument, Long entrepriseId,
+                                                       LocalDateTime curseurDate, String curseurSource,
+                                                       Long curseurId, Integer taille) {
+        int tailleEffective = tailleEffective(taille);
+        verifierCurseur(curseurDate, curseurSource, curseurId);
+        log.info("Chronologie du document {} #{} (curseur {}, taille {})", typeDocument, idDocument,
+                curseurDate, tailleEffective);
+
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans requête COUNT
+        MapSqlParameterSource parametres = parametres(typeDocument, idDocument, entrepriseId)
+                .addValue("curseurDate", curseurDate != null ? Timestamp.valueOf(curseurDate) : null)
+                .addValue("curseurSource", curseurSource)
+                .addValue("curseurId", curseurId)
+                .addValue("limite", tailleEffective + 1);
+        String sql = String.format(SQL_CHRONOLOGIE,
+                historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_HISTORIQUE, null)
+                        ? SQL_HISTORIQUE_ARCHIVE : "",
+                historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_VALIDATION, null)
+                        ? SQL_VALIDATIONS_ARCHIVE : "");
+        List<EvenementChronologieDTO> evenements = jdbcTemplate.query(sql, parametres, MAPPER);
+
+        boolean pageSuivante = evenements.size() > tailleEffective;
+        if (pageSuivante) {
+            evenements = evenements.subList(0, tailleEffective);
+        }
+        EvenementChronologieDTO dernier = evenements.isEmpty() ? null : evenements.get(evenements.size() - 1);
+
+        return ChronologieDocumentDTO.builder()
+                .typeDocument(typeDocument.name())
+                .idDocument(idDocument)
+                .evenements(evenements)
+                .taille(evenements.size())
+                .pageSuivante(pageSuivante)
+                .curseurDate(pageSuivante ? dernier.getDateEvenement() : null)
+                .curseurSource(pageSuivante ? dernier.getSource() : null)
+                .curseurId(pageSuivante ? dernier.getId() : null)
+                .build();
+    }
+
+    /**
+     * ETag de la page, calculé sans exécuter la requête de chronologie : empreinte SHA-256 de la sonde
+     * COUNT/MAX des sources et des paramètres de la page (curseur, taille, périmètre).
+     * Faible (W/) car il décrit l'état des sources et non les octets de la réponse
+     */
+    public String calculerETag(TypeDocument typeDocument, Long idDocument, Long entrepriseId,
+                               LocalDateTime curseurDate, String curseurSource, Long curseurId, Integer taille) {
+        verifierCurseur(curseurDate, curseurSource, curseurId);
+        String sql = SQL_SONDE
+                + (historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_HISTORIQUE, null)
+                        ? SQL_SONDE_HISTORIQUE_ARCHIVE : "")
+                + (historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_VALIDATION, null)
+                        ? SQL_SONDE_VALIDATIONS_ARCHIVE : "");
+
+        StringBuilder etat = new StringBuilder()
+                .append(typeDocument.name()).append('|').append(idDocument).append('|').append(entrepriseId)
+                .append('|').append(curseurDate).append('|').append(curseurSource).append('|').append(curseurId)
+                .append('|').append(tailleEffective(taille));
+        jdbcTemplate.query(sql, parametres(typeDocument, idDocument, entrepriseId), rs -> {
+            etat.append('|').append(rs.getString("source"))
+                    .append(':').append(rs.getLong("nombre"))
+                    .append(':').append(rs.getTimestamp("derniere_date"))
+                    .append(':').append(rs.getLong("dernier_id"))
+                    .append(':').append(rs.getLong("volume"));
+        });
+        return "W/\"" + empreinte(etat.toString()) + "\"";
+    }
+
+    private static MapSqlParameterSource parametres(TypeDocument typeDocument, Long idDocument, Long entrepriseId) {
+        return new MapSqlParameterSource()
+                .addValue("typeDocument", typeDocument.name())
+                .addValue("idDocument", idDocument)
+                .addValue("entrepriseId", entrepriseId);
+    }
+
+    private static int tailleEffective(Integer taille) {
+        return taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+    }
+
+    private static void verifierCurseur(LocalDateTime curseurDate, String curseurSource, Long curseurId) {
+        if (curseurDate != null && (curseurSource == null || curseurId == null)) {
+            throw new IllegalArgumentException("curseurSource et curseurId sont obligatoires avec curseurDate");
+        }
+    }
+
+    private static String empreinte(String valeur) {
+        try {
+            byte[] hachage = MessageDigest.getInstance("SHA-256").digest(valeur.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hachage);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
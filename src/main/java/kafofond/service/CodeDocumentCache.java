@@ -0,0 +1,145 @@
+package kafofond.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import kafofond.repository.*;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Cache borné (type, id) → code de document
+ * Utilisé par les notifications lorsque l'appelant ne dispose que de l'ID du document.
+ * En cas d'absence, seul le code est lu en base (projection), jamais l'entité complète.
+ * Les invalidations sont propagées aux autres instances par le journal des invalidations.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodeDocumentCache {
+
+    private static final int TAILLE_MAX = 2000;
+
+    private final BudgetRepo budgetRepo;
+    private final LigneCreditRepo ligneCreditRepo;
+    private final FicheBesoinRepo ficheBesoinRepo;
+    private final DemandeDAchatRepo demandeDAchatRepo;
+    private final BonDeCommandeRepo bonDeCommandeRepo;
+    private final AttestationDeServiceFaitRepo attestationDeServiceFaitRepo;
+    private final DecisionDePrelevementRepo decisionDePrelevementRepo;
+    private final OrdreDePaiementRepo ordreDePaiementRepo;
+    private final JournalInvalidations journalInvalidations;
+
+    private final Cache<String, String> codes = Caffeine.newBuilder()
+            .maximumSize(TAILLE_MAX)
+            .build();
+
+    @PostConstruct
+    void abonner() {
+        journalInvalidations.abonner(CachesPartages.CODES_DOCUMENTS, cle -> {
+            if (cle == null) {
+                codes.invalidateAll();
+            } else {
+                codes.invalidate(cle);
+            }
+        });
+    }
+
+    /**
+     * Mémorise le code d'un document connu de l'appelant
+     */
+    public void memoriser(String typeDocument, Long idDocument, String code) {
+        if (typeDocument != null && idDocument != null && code != null) {
+            codes.put(cle(typeDocument, idDocument), code);
+        }
+    }
+
+    /**
+     * Retourne le code d'un document, depuis le cache ou par projection en base
+     */
+    public String resoudre(String typeDocument, Long idDocument) {
+        if (idDocument == null) {
+            return "N/A";
+        }
+        if (typeDocument == null) {
+            return String.format("%04d", idDocument);
+        }
+        String code = codes.getIfPresent(cle(typeDocument, idDocument));
+        if (code != null) {
+            return code;
+        }
+
+        try {
+            Optional<String> codeBase = chargerCode(typeDocument, idDocument);
+            if (codeBase.isPresent()) {
+                memoriser(typeDocument, idDocument, codeBase.get());
+                return codeBase.get();
+            }
+        } catch (Exception e) {
+            log.warn("Impossible de récupérer le code pour {} #{} : {}", typeDocument, idDocument, e.getMessage());
+        }
+        return codeParDefaut(typeDocument, idDocument);
+    }
+
+    /**
+     * Invalide le code d'un document (suppression ou régénération du code)
+     */
+    public void invalider(String typeDocument, Long idDocument) {
+        String cle = cle(typeDocument, idDocument);
+        codes.invalidate(cle);
+        journalInvalidations.publier(CachesPartages.CODES_DOCUMENTS, cle);
+    }
+
+    /**
+     * Code de repli pour les documents sans code (ex. RAPPORT_ACHAT)
+     * Préfixes courts historiques pour les attestations, bons de commande et demandes d'achat
+     */
+    public static String codeParDefaut(String typeDocument, Long idDocument) {
+        String numero = String.format("%04d", idDocument);
+        if (typeDocument == null) {
+            return numero;
+        }
+        switch (typeDocument.toUpperCase()) {
+            case "ATTESTATION_SERVICE_FAIT":
+                return "ASF-" + numero;
+            case "BON_COMMANDE":
+                return "BC-" + numero;
+            case "DEMANDE_ACHAT":
+                return "DA-" + numero;
+            default:
+                return typeDocument + "-" + numero;
+        }
+    }
+
+    private Optional<String> chargerCode(String typeDocument, Long idDocument) {
+        switch (typeDocument.toUpperCase()) {
+            case "BUDGET":
+                return budgetRepo.findCodeById(idDocument);
+            case "LIGNE_CREDIT":
+                return ligneCreditRepo.findCodeById(idDocument);
+            case "FICHE_BESOIN":
+                return ficheBesoinRepo.findCodeById(idDocument);
+            case "DEMANDE_ACHAT":
+                return demandeDAchatRepo.findCodeById(idDocument);
+            case "BON_COMMANDE":
+                return bonDeCommandeRepo.findCodeById(idDocument);
+            case "ATTESTATION_SERVICE_FAIT":
+                return attestationDeServiceFaitRepo.findCodeById(idDocument);
+            case "DECISION_PRELEVEMENT":
+                return decisionDePrelevementRepo.findCodeById(idDocument);
+            case "ORDRE_PAIEMENT":
+                return ordreDePaiementRepo.findCodeById(idDocument);
+            default:
+                return Optional.empty();
+        }
+    }
+
+    private static String cle(String typeDocument, Long idDocument) {
+        return typeDocument.toUpperCase() + ":" + idDocument;
+    }
+}
@@ -1,11 +1,13 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.dto.DecisionPrelevementCreateDTO;
 import kafofond.dto.DecisionPrelevementDTO;
 import kafofond.dto.DecisionPrelevementModificationDTO;
 import kafofond.entity.*;
 import kafofond.repository.*;
 import kafofond.mapper.DecisionPrelevementMapper;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -24,6 +26,7 @@ public class DecisionPrelevementService {
     private final DecisionDePrelevementRepo decisionDePrelevementRepo;
     private final AttestationDeServiceFaitRepo attestationRepo;
     private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final EntrepriseRepo entrepriseRepo;
     private final DecisionPrelevementMapper mapper;
     private final NotificationService notificationService;
@@ -119,11 +122,10 @@ public class DecisionPrelevementService {
                 comptable
         );
 
-        Utilisateur responsable = trouverResponsableDansTransaction(comptable.getEntreprise().getId(),
-                comptable.getEntreprise().getNom());
+        Utilisateur responsable = trouverResponsableDansTransaction(comptable.getEntreprise().getId());
         if (responsable != null) {
-            notificationService.notifierModification("DECISION_PRELEVEMENT", decisionCreee.getId(),
-                    comptable, responsable, "créée");
+            notificationService.notifierModification(EvenementNotification.de("DECISION_PRELEVEMENT", decisionCreee.getId(),
+                    decisionCreee.getCode(), comptable, "créée"), responsable);
         }
 
         return decisionCreee;
@@ -202,11 +204,10 @@ public class DecisionPrelevementService {
                         ancienMotif, decision.getMotifPrelevement()));
 
         // Notifier le responsable
-        Utilisateur responsable = trouverResponsableDansTransaction(comptable.getEntreprise().getId(),
-                comptable.getEntreprise().getNom());
+        Utilisateur responsable = trouverResponsableDansTransaction(comptable.getEntreprise().getId());
         if (responsable != null) {
-            notificationService.notifierModification("DECISION_PRELEVEMENT", decisionModifiee.getId(),
-                    comptable, responsable, "modifiée");
+            notificationService.notifierModification(EvenementNotification.de("DECISION_PRELEVEMENT", decisionModifiee.getId(),
+                    decisionModifiee.getCode(), comptable, "modifiée"), responsable);
         }
 
         return decisionModifiee;
@@ -249,9 +250,9 @@ public class DecisionPrelevementService {
 
         // Vérifier si le montant dépasse le seuil
         double montant = decision.getMontant();
-        var seuil = seuilValidationService.obtenirSeuilActif(responsable.getEntreprise());
+        var seuil = seuilValidationService.seuilActif(responsable.getEntreprise());
 
-        if (seuil != null && montant > seuil.getMontantSeuil()) {
+        if (seuil.estDefini() && montant > seuil.montantSeuil()) {
             // Si le montant dépasse le seuil, mettre en attente d'approbation du directeur
             decision.setStatut(Statut.APPROUVE);
         } else {
@@ -311,20 +312,19 @@ public class DecisionPrelevementService {
                         : "Décision validée");
 
         if (decision.getCreePar() != null) {
-            notificationService.notifierValidation("DECISION_PRELEVEMENT", id, responsable,
-                    decision.getCreePar(),
-                    decision.getStatut() == Statut.APPROUVE ? "en attente d'approbation" : "validée",
-                    null);
+            notificationService.notifierValidation(EvenementNotification.de("DECISION_PRELEVEMENT", id,
+                    decision.getCode(), responsable,
+                    decision.getStatut() == Statut.APPROUVE ? "en attente d'approbation" : "validée"),
+                    decision.getCreePar(), null);
         }
 
         // Si la décision est en attente d'approbation, notifier le directeur
         if (decision.getStatut() == Statut.APPROUVE) {
-            Utilisateur directeur = trouverDirecteurDansTransaction(responsable.getEntreprise().getId(),
-                    responsable.getEntreprise().getNom());
+            Utilisateur directeur = trouverDirecteurDansTransaction(responsable.getEntreprise().getId());
             if (directeur != null) {
-                notificationService.notifierValidation("DECISION_PRELEVEMENT", id, responsable,
-                        directeur, "requiert votre approbation",
-                        String.format("Montant %.2f dépasse le seuil de %.2f", montant, seuil.getMontantSeuil()));
+                notificationService.notifierValidation(EvenementNotification.de("DECISION_PRELEVEMENT", id,
+                        decision.getCode(), responsable, "requiert votre approbation"),
+                        directeur, String.format("Montant %.2f dépasse le seuil de %.2f", montant, seuil.getMontantSeuil()));
             }
         }
 
@@ -365,8 +365,8 @@ public class DecisionPrelevementService {
                 .orElseThrow(() -> new IllegalArgumentException("Décision de prélèvement introuvable"));
 
         // Vérifier que le montant dépasse le seuil de validation
-        var seuil = seuilValidationService.obtenirSeuilActif(directeur.getEntreprise());
-        if (seuil == null || decision.getMontant() <= seuil.getMontantSeuil()) {
+        var seuil = seuilValidationService.seuilActif(directeur.getEntreprise());
+        if (!seuil.estDefini() || decision.getMontant() <= seuil.montantSeuil()) {
             // Si le montant ne dépasse pas le seuil, vérifier que la décision est en attente d'approbation
             if (decision.getStatut() != Statut.APPROUVE) {
                 throw new IllegalArgumentException("La décision n'est pas en attente d'approbation");
@@ -425,8 +425,9 @@ public class DecisionPrelevementService {
                 "Décision approuvée");
 
         if (decision.getCreePar() != null) {
-            notificationService.notifierValidation("DECISION_PRELEVEMENT", id, directeur,
-                    decision.getCreePar(), "approuvée", null);
+            notificationService.notifierValidation(EvenementNotification.de("DECISION_PRELEVEMENT", id,
+                    decision.getCode(), directeur, "approuvée"),
+                    decision.getCreePar(), null);
         }
 
         // Générer automatiquement l'ordre de paiement
@@ -467,8 +468,8 @@ public class DecisionPrelevementService {
             // Notifier le comptable
             Utilisateur comptable = decision.getCreePar();
             if (comptable != null) {
-                notificationService.notifierModification("ORDRE_PAIEMENT", ordreCree.getId(),
-                        directeur, comptable, "généré");
+                notificationService.notifierModification(EvenementNotification.de("ORDRE_PAIEMENT", ordreCree.getId(),
+                        ordreCree.getCode(), directeur, "généré"), comptable);
             }
 
         } catch (Exception e) {
@@ -533,8 +534,9 @@ public class DecisionPrelevementService {
                 commentaire);
 
         if (decision.getCreePar() != null) {
-            notificationService.notifierValidation("DECISION_PRELEVEMENT", id, utilisateur,
-                    decision.getCreePar(), "rejetée", commentaire);
+            notificationService.notifierValidation(EvenementNotification.de("DECISION_PRELEVEMENT", id,
+                    decision.getCode(), utilisateur, "rejetée"),
+                    decision.getCreePar(), commentaire);
         }
 
         return decisionRejetee;
@@ -562,62 +564,11 @@ public class DecisionPrelevementService {
         return decisionDePrelevementRepo.findById(id);
     }
 
-    private Utilisateur trouverResponsableDansTransaction(Long entrepriseId, String nomEntreprise) {
-        try {
-            // Rechercher le responsable dans l'entreprise
-            Optional<Entreprise> entrepriseOpt = entrepriseRepo.findById(entrepriseId);
-            if (entrepriseOpt.isPresent()) {
-                Optional<Utilisateur> responsableOpt = utilisateurRepo.findByEntrepriseAndRole(entrepriseOpt.get(),
-                        kafofond.entity.Role.RESPONSABLE);
-                if (responsableOpt.isPresent()) {
-                    return responsableOpt.get();
-                }
-            }
-
-            // Si aucun responsable trouvé, rechercher dans l'entreprise par nom
-            Optional<Entreprise> entrepriseParNomOpt = entrepriseRepo.findByNom(nomEntreprise);
-            if (entrepriseParNomOpt.isPresent()) {
-                Optional<Utilisateur> responsableOpt = utilisateurRepo.findByEntrepriseAndRole(
-                        entrepriseParNomOpt.get(),
-                        kafofond.entity.Role.RESPONSABLE);
-                if (responsableOpt.isPresent()) {
-                    return responsableOpt.get();
-                }
-            }
-
-            return null;
-        } catch (Exception e) {
-            log.error("Erreur lors de la recherche du responsable : {}", e.getMessage());
-            return null;
-        }
+    private Utilisateur trouverResponsableDansTransaction(Long entrepriseId) {
+        return annuaireApprobateurs.premier(entrepriseId, Role.RESPONSABLE);
     }
 
-    private Utilisateur trouverDirecteurDansTransaction(Long entrepriseId, String nomEntreprise) {
-        try {
-            // Rechercher le directeur dans l'entreprise
-            Optional<Entreprise> entrepriseOpt = entrepriseRepo.findById(entrepriseId);
-            if (entrepriseOpt.isPresent()) {
-                Optional<Utilisateur> directeurOpt = utilisateurRepo.findByEntrepriseAndRole(entrepriseOpt.get(),
-                        kafofond.entity.Role.DIRECTEUR);
-                if (directeurOpt.isPresent()) {
-                    return directeurOpt.get();
-                }
-            }
-
-            // Si aucun directeur trouvé, rechercher dans l'entreprise par nom
-            Optional<Entreprise> entrepriseParNomOpt = entrepriseRepo.findByNom(nomEntreprise);
-            if (entrepriseParNomOpt.isPresent()) {
-                Optional<Utilisateur> directeurOpt = utilisateurRepo.findByEntrepriseAndRole(entrepriseParNomOpt.get(),
-                        kafofond.entity.Role.DIRECTEUR);
-                if (directeurOpt.isPresent()) {
-                    return directeurOpt.get();
-                }
-            }
-
-            return null;
-        } catch (Exception e) {
-            log.error("Erreur lors de la recherche du directeur : {}", e.getMessage());
-            return null;
-        }
+    private Utilisateur trouverDirecteurDansTransaction(Long entrepriseId) {
+        return annuaireApprobateurs.premier(entrepriseId, Role.DIRECTEUR);
     }
 }
\ No newline at end of file
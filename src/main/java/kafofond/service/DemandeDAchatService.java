@@ -1,13 +1,16 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.entity.DemandeDAchat;
 import kafofond.entity.BonDeCommande;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Utilisateur;
 import kafofond.entity.Statut;
+import kafofond.entity.TypeDocument;
 import kafofond.repository.DemandeDAchatRepo;
 import kafofond.repository.BonDeCommandeRepo;
 import kafofond.repository.UtilisateurRepo;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,6 +28,7 @@ public class DemandeDAchatService {
     private final DemandeDAchatRepo demandeDAchatRepo;
     private final BonDeCommandeRepo bonDeCommandeRepo;
     private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final NotificationService notificationService;
     private final HistoriqueService historiqueService;
     private final BonDeCommandeService bonDeCommandeService;
@@ -33,6 +37,7 @@ public class DemandeDAchatService {
     private final CodeGeneratorService codeGeneratorService;
     private final TableValidationService tableValidationService;
     private final CommentaireService commentaireService;
+    private final ActiviteDocumentService activiteDocumentService;
 
     @Transactional
     public DemandeDAchat creer(DemandeDAchat demande, Utilisateur utilisateur) {
@@ -92,8 +97,8 @@ public class DemandeDAchatService {
 
         Utilisateur gestionnaire = trouverGestionnaire(utilisateur.getEntreprise());
         if (gestionnaire != null) {
-            notificationService.notifierModification("DEMANDE_ACHAT", demandeCreee.getId(),
-                    utilisateur, gestionnaire, "créée");
+            notificationService.notifierModification(EvenementNotification.de("DEMANDE_ACHAT", demandeCreee.getId(),
+                    demandeCreee.getCode(), utilisateur, "créée"), gestionnaire);
         }
 
         return demandeCreee;
@@ -171,8 +176,8 @@ public class DemandeDAchatService {
 
         Utilisateur gestionnaire = trouverGestionnaire(modificateur.getEntreprise());
         if (gestionnaire != null) {
-            notificationService.notifierModification("DEMANDE_ACHAT", id,
-                    modificateur, gestionnaire, "modifiée");
+            notificationService.notifierModification(EvenementNotification.de("DEMANDE_ACHAT", id,
+                    demande.getCode(), modificateur, "modifiée"), gestionnaire);
         }
 
         return demandeModifiee;
@@ -239,14 +244,15 @@ public class DemandeDAchatService {
                 "Validée par Gestionnaire");
 
         if (demande.getCreePar() != null) {
-            notificationService.notifierValidation("DEMANDE_ACHAT", id, gestionnaire,
-                    demande.getCreePar(), "validée", null);
+            notificationService.notifierValidation(EvenementNotification.de("DEMANDE_ACHAT", id,
+                    demande.getCode(), gestionnaire, "validée"),
+                    demande.getCreePar(), null);
         }
 
         Utilisateur comptable = trouverComptable(gestionnaire.getEntreprise());
         if (comptable != null) {
-            notificationService.notifierModification("DEMANDE_ACHAT", id,
-                    gestionnaire, comptable, "validée");
+            notificationService.notifierModification(EvenementNotification.de("DEMANDE_ACHAT", id,
+                    demande.getCode(), gestionnaire, "validée"), comptable);
         }
 
         return demandeValidee;
@@ -312,8 +318,9 @@ public class DemandeDAchatService {
                 "Approuvée par Comptable");
 
         if (demande.getCreePar() != null) {
-            notificationService.notifierValidation("DEMANDE_ACHAT", id, comptable,
-                    demande.getCreePar(), "approuvée", null);
+            notificationService.notifierValidation(EvenementNotification.de("DEMANDE_ACHAT", id,
+                    demande.getCode(), comptable, "approuvée"),
+                    demande.getCreePar(), null);
         }
 
         BonDeCommande bonDeCommande = genererBonDeCommande(demande, comptable);
@@ -395,8 +402,9 @@ public class DemandeDAchatService {
                 commentaire);
 
         if (demande.getCreePar() != null) {
-            notificationService.notifierValidation("DEMANDE_ACHAT", id, validateur,
-                    demande.getCreePar(), "rejetée", commentaire);
+            notificationService.notifierValidation(EvenementNotification.de("DEMANDE_ACHAT", id,
+                    demande.getCode(), validateur, "rejetée"),
+                    demande.getCreePar(), commentaire);
         }
 
         return demandeRejetee;
@@ -452,14 +460,11 @@ public class DemandeDAchatService {
     }
 
     private Utilisateur trouverGestionnaire(kafofond.entity.Entreprise entreprise) {
-        return utilisateurRepo
-                .findByEmail("gestionnaire@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.GESTIONNAIRE);
     }
 
     private Utilisateur trouverComptable(kafofond.entity.Entreprise entreprise) {
-        return utilisateurRepo.findByEmail("comptable@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.COMPTABLE);
     }
 
     /**
@@ -559,7 +564,7 @@ public class DemandeDAchatService {
     @Transactional(readOnly = true)
     public List<kafofond.dto.DemandeDAchatDTO> listerParCreateurDTO(Utilisateur utilisateur) {
         List<DemandeDAchat> demandes = demandeDAchatRepo.findByCreePar(utilisateur);
-        return demandes.stream()
+        List<kafofond.dto.DemandeDAchatDTO> dtos = demandes.stream()
                 .map(demande -> {
                     // Forcer le chargement des relations lazy
                     if (demande.getFicheDeBesoin() != null) {
@@ -575,6 +580,9 @@ public class DemandeDAchatService {
                     return kafofond.dto.DemandeDAchatDTO.fromEntity(demande);
                 })
                 .collect(java.util.stream.Collectors.toList());
+        // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+        return activiteDocumentService.completer(TypeDocument.DEMANDE_ACHAT, dtos,
+                kafofond.dto.DemandeDAchatDTO::getId, kafofond.dto.DemandeDAchatDTO::setActivite);
     }
 
     /**
@@ -584,7 +592,7 @@ public class DemandeDAchatService {
     @Transactional(readOnly = true)
     public List<kafofond.dto.DemandeDAchatDTO> listerParEntrepriseIdDTO(Long entrepriseId) {
         List<DemandeDAchat> demandes = demandeDAchatRepo.findByEntrepriseId(entrepriseId);
-        return demandes.stream()
+        List<kafofond.dto.DemandeDAchatDTO> dtos = demandes.stream()
                 .map(demande -> {
                     // Forcer le chargement des relations lazy
                     if (demande.getFicheDeBesoin() != null) {
@@ -600,6 +608,9 @@ public class DemandeDAchatService {
                     return kafofond.dto.DemandeDAchatDTO.fromEntity(demande);
                 })
                 .collect(java.util.stream.Collectors.toList());
+        // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+        return activiteDocumentService.completer(TypeDocument.DEMANDE_ACHAT, dtos,
+                kafofond.dto.DemandeDAchatDTO::getId, kafofond.dto.DemandeDAchatDTO::setActivite);
     }
 
     public Optional<DemandeDAchat> trouverParId(Long id) {
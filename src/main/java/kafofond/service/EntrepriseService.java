@@ -1,5 +1,6 @@
 package kafofond.service;
 
+import kafofond.config.CacheReferences;
 import kafofond.dto.EntrepriseCreateDTO;
 import kafofond.dto.EntrepriseDTO;
 import kafofond.entity.Entreprise;
@@ -28,6 +29,7 @@ public class EntrepriseService {
     private final UtilisateurRepo utilisateurRepo;
     private final HistoriqueService historiqueService;
     private final EntrepriseMapper entrepriseMapper;
+    private final CacheReferences cacheReferences;
 
     /**
      * Crée une nouvelle entreprise (Super Admin uniquement)
@@ -185,6 +187,7 @@ public class EntrepriseService {
             entreprise.setEtat(entrepriseDTO.getEtat());
 
         Entreprise entrepriseModifiee = entrepriseRepo.save(entreprise);
+        cacheReferences.entrepriseModifiee(entrepriseModifiee.getId());
 
         // Enregistrement historique
         historiqueService.enregistrerAction(
@@ -250,6 +253,7 @@ public class EntrepriseService {
         String ancienEtat = Boolean.TRUE.equals(entreprise.getEtat()) ? "ACTIF" : "INACTIF";
         entreprise.setEtat(etat);
         Entreprise entrepriseModifiee = entrepriseRepo.save(entreprise);
+        cacheReferences.entrepriseModifiee(entrepriseModifiee.getId());
 
         // Enregistrement historique
         historiqueService.enregistrerAction(
@@ -1,11 +1,13 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.entity.Entreprise;
 import kafofond.entity.FicheDeBesoin;
 import kafofond.entity.Utilisateur;
 import kafofond.entity.Statut;
+import kafofond.entity.TypeDocument;
 import kafofond.repository.FicheBesoinRepo;
-import kafofond.repository.UtilisateurRepo;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,8 +33,9 @@ public class FicheBesoinService {
         private final TableValidationService tableValidationService;
         private final CodeGeneratorService codeGeneratorService;
         private final UtilisateurService utilisateurService;
-        private final UtilisateurRepo utilisateurRepo;
+        private final AnnuaireApprobateurs annuaireApprobateurs;
         private final CommentaireService commentaireService;
+        private final ActiviteDocumentService activiteDocumentService;
 
         @Transactional
         public FicheDeBesoin creer(FicheDeBesoin fiche, Utilisateur utilisateur) {
@@ -90,8 +93,8 @@ public class FicheBesoinService {
 
                 Utilisateur gestionnaire = trouverGestionnaire(utilisateur.getEntreprise());
                 if (gestionnaire != null) {
-                        notificationService.notifierModification("FICHE_BESOIN", ficheCreee.getId(),
-                                        utilisateur, gestionnaire, "créée");
+                        notificationService.notifierModification(EvenementNotification.de("FICHE_BESOIN", ficheCreee.getId(),
+                                        ficheCreee.getCode(), utilisateur, "créée"), gestionnaire);
                 }
 
                 return ficheCreee;
@@ -216,8 +219,8 @@ public class FicheBesoinService {
 
                 Utilisateur gestionnaire = trouverGestionnaire(modificateur.getEntreprise());
                 if (gestionnaire != null) {
-                        notificationService.notifierModification("FICHE_BESOIN", id,
-                                        modificateur, gestionnaire, "modifiée");
+                        notificationService.notifierModification(EvenementNotification.de("FICHE_BESOIN", id,
+                                        fiche.getCode(), modificateur, "modifiée"), gestionnaire);
                 }
 
                 return ficheModifie;
@@ -260,14 +263,15 @@ public class FicheBesoinService {
                                 "Validée par Gestionnaire");
 
                 if (fiche.getCreePar() != null) {
-                        notificationService.notifierValidation("FICHE_BESOIN", id, gestionnaire,
-                                        fiche.getCreePar(), "validée", null);
+                        notificationService.notifierValidation(EvenementNotification.de("FICHE_BESOIN", id,
+                                        fiche.getCode(), gestionnaire, "validée"),
+                                        fiche.getCreePar(), null);
                 }
 
                 Utilisateur comptable = trouverComptable(gestionnaire.getEntreprise());
                 if (comptable != null) {
-                        notificationService.notifierModification("FICHE_BESOIN", id,
-                                        gestionnaire, comptable, "validée");
+                        notificationService.notifierModification(EvenementNotification.de("FICHE_BESOIN", id,
+                                        fiche.getCode(), gestionnaire, "validée"), comptable);
                 }
 
                 return ficheValidee;
@@ -367,8 +371,9 @@ public class FicheBesoinService {
                                 "Approuvée par Comptable");
 
                 if (fiche.getCreePar() != null) {
-                        notificationService.notifierValidation("FICHE_BESOIN", id, comptable,
-                                        fiche.getCreePar(), "approuvée", null);
+                        notificationService.notifierValidation(EvenementNotification.de("FICHE_BESOIN", id,
+                                        fiche.getCode(), comptable, "approuvée"),
+                                        fiche.getCreePar(), null);
                 }
 
                 return ficheApprouvee;
@@ -482,8 +487,9 @@ public class FicheBesoinService {
                                 commentaire);
 
                 if (fiche.getCreePar() != null) {
-                        notificationService.notifierValidation("FICHE_BESOIN", id, validateur,
-                                        fiche.getCreePar(), "rejetée", commentaire);
+                        notificationService.notifierValidation(EvenementNotification.de("FICHE_BESOIN", id,
+                                        fiche.getCode(), validateur, "rejetée"),
+                                        fiche.getCreePar(), commentaire);
                 }
 
                 return ficheRejetee;
@@ -547,16 +553,11 @@ public class FicheBesoinService {
         }
 
         private Utilisateur trouverGestionnaire(kafofond.entity.Entreprise entreprise) {
-                return utilisateurRepo
-                                .findByEmail("gestionnaire@" + entreprise.getNom().toLowerCase().replace(" ", "")
-                                                + ".com")
-                                .orElse(null);
+                return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.GESTIONNAIRE);
         }
 
         private Utilisateur trouverComptable(kafofond.entity.Entreprise entreprise) {
-                return utilisateurRepo
-                                .findByEmail("comptable@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                                .orElse(null);
+                return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.COMPTABLE);
         }
 
         public List<FicheDeBesoin> listerParEntreprise(kafofond.entity.Entreprise entreprise) {
@@ -584,7 +585,7 @@ public class FicheBesoinService {
         @Transactional(readOnly = true)
         public List<kafofond.dto.FicheBesoinDTO> listerParEntrepriseDTO(kafofond.entity.Entreprise entreprise) {
                 List<FicheDeBesoin> fiches = ficheBesoinRepo.findByEntreprise(entreprise);
-                return fiches.stream()
+                List<kafofond.dto.FicheBesoinDTO> dtos = fiches.stream()
                                 .map(fiche -> {
                                         // Forcer le chargement des relations lazy
                                         if (fiche.getDesignations() != null && !fiche.getDesignations().isEmpty()) {
@@ -640,6 +641,9 @@ public class FicheBesoinService {
                                                         .build();
                                 })
                                 .collect(java.util.stream.Collectors.toList());
+                // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+                return activiteDocumentService.completer(TypeDocument.FICHE_BESOIN, dtos,
+                                kafofond.dto.FicheBesoinDTO::getId, kafofond.dto.FicheBesoinDTO::setActivite);
         }
 
         /**
@@ -649,7 +653,7 @@ public class FicheBesoinService {
         @Transactional(readOnly = true)
         public List<kafofond.dto.FicheBesoinDTO> listerParCreateurDTO(Utilisateur utilisateur) {
                 List<FicheDeBesoin> fiches = ficheBesoinRepo.findByCreePar(utilisateur);
-                return fiches.stream()
+                List<kafofond.dto.FicheBesoinDTO> dtos = fiches.stream()
                                 .map(fiche -> {
                                         // Forcer le chargement des relations lazy
                                         if (fiche.getDesignations() != null && !fiche.getDesignations().isEmpty()) {
@@ -705,6 +709,9 @@ public class FicheBesoinService {
                                                         .build();
                                 })
                                 .collect(java.util.stream.Collectors.toList());
+                // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+                return activiteDocumentService.completer(TypeDocument.FICHE_BESOIN, dtos,
+                                kafofond.dto.FicheBesoinDTO::getId, kafofond.dto.FicheBesoinDTO::setActivite);
         }
 
         /**
@@ -721,7 +728,7 @@ public class FicheBesoinService {
         @Transactional(readOnly = true)
         public List<kafofond.dto.FicheBesoinDTO> listerParEntrepriseIdDTO(Long entrepriseId) {
                 List<FicheDeBesoin> fiches = ficheBesoinRepo.findByEntrepriseId(entrepriseId);
-                return fiches.stream()
+                List<kafofond.dto.FicheBesoinDTO> dtos = fiches.stream()
                                 .map(fiche -> {
                                         // Forcer le chargement des relations lazy
                                         if (fiche.getDesignations() != null && !fiche.getDesignations().isEmpty()) {
@@ -776,6 +783,9 @@ public class FicheBesoinService {
                                                         .build();
                                 })
                                 .collect(java.util.stream.Collectors.toList());
+                // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+                return activiteDocumentService.completer(TypeDocument.FICHE_BESOIN, dtos,
+                                kafofond.dto.FicheBesoinDTO::getId, kafofond.dto.FicheBesoinDTO::setActivite);
         }
 
         public Optional<FicheDeBesoin> trouverParId(Long id) {
@@ -949,7 +959,7 @@ public class FicheBesoinService {
         @Transactional(readOnly = true)
         public List<kafofond.dto.FicheBesoinDTO> findApprovedWithoutDemandeDAchatDTO() {
                 List<FicheDeBesoin> fiches = ficheBesoinRepo.findApprovedWithoutDemandeDAchat();
-                return fiches.stream()
+                List<kafofond.dto.FicheBesoinDTO> dtos = fiches.stream()
                                 .map(fiche -> {
                                         // Forcer le chargement des relations lazy
                                         if (fiche.getDesignations() != null && !fiche.getDesignations().isEmpty()) {
@@ -1005,5 +1015,8 @@ public class FicheBesoinService {
                                                         .build();
                                 })
                                 .collect(java.util.stream.Collectors.toList());
+                // Compteurs de commentaires et validations en une requête groupée pour toute la liste
+                return activiteDocumentService.completer(TypeDocument.FICHE_BESOIN, dtos,
+                                kafofond.dto.FicheBesoinDTO::getId, kafofond.dto.FicheBesoinDTO::setActivite);
         }
 }
\ No newline at end of file
@@ -0,0 +1,250 @@
+package kafofond.service;
+
+import jakarta.annotation.PostConstruct;
+import kafofond.dto.ArchivageHistoriqueRapportDTO;
+import kafofond.entity.SegmentArchive;
+import kafofond.repository.HistoriqueActionArchiveRepo;
+import kafofond.repository.HistoriqueActionRepo;
+import kafofond.repository.SegmentArchiveRepo;
+import kafofond.repository.TableValidationArchiveRepo;
+import kafofond.repository.TableValidationRepo;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service d'archivage mensuel de historiques_actions et table_validation
+ * Déplace par lots les mois clos (au-delà de historique.archive.mois-chauds) vers les tables
+ * d'archive compressées, un segment par mois, et tient le manifeste archive_segments à jour.
+ * HistoriqueService et TableValidationService n'interrogent l'archive que si la période demandée
+ * commence avant la limite chaude (fin du dernier segment archivé)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HistoriqueArchiveService {
+
+    private static final DateTimeFormatter FORMAT_MOIS = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final HistoriqueActionRepo historiqueActionRepo;
+    private final HistoriqueActionArchiveRepo historiqueActionArchiveRepo;
+    private final TableValidationRepo tableValidationRepo;
+    private final TableValidationArchiveRepo tableValidationArchiveRepo;
+    private final SegmentArchiveRepo segmentArchiveRepo;
+    private final PlatformTransactionManager transactionManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final JournalInvalidations journalInvalidations;
+
+    /**
+     * Limite chaude par source, relue depuis le manifeste après chaque archivage
+     * (sur les autres instances : à la réception de l'invalidation publiée dans le journal)
+     */
+    private final Map<String, Optional<LocalDateTime>> limitesChaudes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void abonner() {
+        journalInvalidations.abonner(CachesPartages.ARCHIVES_LIMITES, cle -> {
+            if (cle == null) {
+                limitesChaudes.clear();
+            } else {
+                limitesChaudes.remove(cle);
+            }
+        });
+    }
+
+    @Value("${historique.archive.enabled:true}")
+    private boolean archivageActif;
+
+    @Value("${historique.archive.mois-chauds:12}")
+    private int moisChauds;
+
+    @Value("${historique.archive.taille-lot:1000}")
+    private int tailleLot;
+
+    @Value("${historique.archive.partitions:false}")
+    private boolean partitionsActives;
+
+    /**
+     * Exécution planifiée de l'archivage (par défaut le 1er de chaque mois)
+     */
+    @Scheduled(cron = "${historique.archive.cron:0 0 3 1 * *}")
+    public void archivagePlanifie() {
+        if (!archivageActif) {
+            return;
+        }
+        archiverMoisClos();
+    }
+
+    /**
+     * Archive tous les mois antérieurs au premier mois chaud, pour l'historique puis les validations
+     */
+    public ArchivageHistoriqueRapportDTO archiverMoisClos() {
+        YearMonth premierMoisChaud = YearMonth.now().minusMonths(moisChauds);
+        log.info("Archivage de l'historique et des validations antérieurs à {} (lots de {})",
+                premierMoisChaud, tailleLot);
+
+        long debut = System.currentTimeMillis();
+        List<ArchivageHistoriqueRapportDTO.Segment> segments = new ArrayList<>();
+        archiverSource(SegmentArchive.SOURCE_HISTORIQUE, historiqueActionRepo.findDateActionMin(),
+                premierMoisChaud, segments);
+        archiverSource(SegmentArchive.SOURCE_VALIDATION, tableValidationRepo.findDateValidationMin(),
+                premierMoisChaud, segments);
+
+        long totalLignes = segments.stream().mapToLong(ArchivageHistoriqueRapportDTO.Segment::getLignes).sum();
+        long dureeTotale = System.currentTimeMillis() - debut;
+        log.info("Archivage terminé : {} ligne(s) en {} segment(s), {} ms", totalLignes, segments.size(), dureeTotale);
+
+        return ArchivageHistoriqueRapportDTO.builder()
+                .premierMoisChaud(premierMoisChaud)
+                .tailleLot(tailleLot)
+                .totalLignes(totalLignes)
+                .dureeTotaleMs(dureeTotale)
+                .segments(segments)
+                .build();
+    }
+
+    /**
+     * Début de la période couverte par la table chaude d'une source, null si rien n'est archivé
+     * Toute période commençant avant cette date doit aussi être lue dans l'archive
+     */
+    public LocalDateTime limiteChaude(String source) {
+        return limitesChaudes.computeIfAbsent(source, segmentArchiveRepo::findLimiteChaude).orElse(null);
+    }
+
+    /**
+     * Indique si une période commençant à dateDebut (null = sans borne) déborde sur l'archive
+     */
+    public boolean periodeArchivee(String source, LocalDateTime dateDebut) {
+        LocalDateTime limite = limiteChaude(source);
+        return limite != null && (dateDebut == null || dateDebut.isBefore(limite));
+    }
+
+    /**
+     * Manifeste des segments archivés d'une source, du plus récent au plus ancien
+     */
+    public List<SegmentArchive> consulterSegments(String source) {
+        return segmentArchiveRepo.findBySourceOrderByMoisDesc(source);
+    }
+
+    private void archiverSource(String source, Optional<LocalDateTime> plusAncienne, YearMonth premierMoisChaud,
+                                List<ArchivageHistoriqueRapportDTO.Segment> segments) {
+        if (plusAncienne.isEmpty()) {
+            return;
+        }
+        for (YearMonth mois = YearMonth.from(plusAncienne.get()); mois.isBefore(premierMoisChaud);
+             mois = mois.plusMonths(1)) {
+            segments.add(archiverMois(source, mois));
+        }
+        limitesChaudes.remove(source);
+        journalInvalidations.publier(CachesPartages.ARCHIVES_LIMITES, source);
+    }
+
+    /**
+     * Déplace un mois d'une source vers son segment d'archive
+     * Chaque lot (copie + suppression) est exécuté dans sa propre transaction courte
+     */
+    private ArchivageHistoriqueRapportDTO.Segment archiverMois(String source, YearMonth mois) {
+        int codeMois = Integer.parseInt(mois.format(FORMAT_MOIS));
+        LocalDateTime debut = mois.atDay(1).atStartOfDay();
+        LocalDateTime fin = mois.plusMonths(1).atDay(1).atStartOfDay();
+        boolean historique = SegmentArchive.SOURCE_HISTORIQUE.equals(source);
+
+        if (partitionsActives) {
+            preparerPartition(historique ? "historiques_actions_archive" : "table_validation_archive", mois);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long debutSegment = System.currentTimeMillis();
+        long lignesSegment = 0;
+
+        while (true) {
+            Integer lignes = transaction.execute(status -> {
+                List<Long> ids = historique
+                        ? historiqueActionRepo.findIdsEntre(debut, fin, PageRequest.of(0, tailleLot))
+                        : tableValidationRepo.findIdsEntre(debut, fin, PageRequest.of(0, tailleLot));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                if (historique) {
+                    historiqueActionArchiveRepo.archiverLot(ids, codeMois);
+                    return historiqueActionRepo.supprimerParIds(ids);
+                }
+                tableValidationArchiveRepo.archiverLot(ids, codeMois);
+                return tableValidationRepo.supprimerParIds(ids);
+            });
+            if (lignes == null || lignes == 0) {
+                break;
+            }
+            lignesSegment += lignes;
+            if (lignes < tailleLot) {
+                break;
+            }
+        }
+
+        // Manifeste : un segment par (source, mois), cumulé si le mois est ré-archivé
+        long lignesArchivees = lignesSegment;
+        transaction.executeWithoutResult(status -> {
+            SegmentArchive segment = segmentArchiveRepo.findBySourceAndMois(source, codeMois)
+                    .orElseGet(() -> SegmentArchive.builder()
+                            .source(source)
+                            .mois(codeMois)
+                            .nombreLignes(0L)
+                            .build());
+            segment.setDebut(debut);
+            segment.setFin(fin);
+            segment.setNombreLignes(segment.getNombreLignes() + lignesArchivees);
+            segment.setDateArchivage(LocalDateTime.now());
+            segmentArchiveRepo.save(segment);
+        });
+
+        long duree = System.currentTimeMillis() - debutSegment;
+        log.info("Segment {} {} : {} ligne(s) archivée(s) en {} ms", source, codeMois, lignesSegment, duree);
+
+        return ArchivageHistoriqueRapportDTO.Segment.builder()
+                .source(source)
+                .mois(codeMois)
+                .lignes(lignesSegment)
+                .dureeMs(duree)
+                .build();
+    }
+
+    /**
+     * Crée la partition mensuelle pAAAAMM en la détachant de la partition p_max (voir migration V8)
+     * Sans partitionnement MySQL, l'archive reste une table compressée unique et l'erreur est ignorée
+     */
+    private void preparerPartition(String table, YearMonth mois) {
+        String partition = "p" + mois.format(FORMAT_MOIS);
+        try {
+            Integer existe = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM information_schema.partitions " +
+                    "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name = ?",
+                    Integer.class, table, partition);
+            if (existe != null && existe > 0) {
+                return;
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " REORGANIZE PARTITION p_max INTO (" +
+                    "PARTITION " + partition + " VALUES LESS THAN (" + mois.plusMonths(1).format(FORMAT_MOIS) + "), " +
+                    "PARTITION p_max VALUES LESS THAN MAXVALUE)");
+            log.info("Partition {} créée sur {}", partition, table);
+        } catch (Exception e) {
+            log.warn("Impossible de créer la partition {} sur {} : {}", partition, table, e.getMessage());
+        }
+    }
+}
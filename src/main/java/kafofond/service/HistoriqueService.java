@@ -1,17 +1,26 @@
 package kafofond.service;
 
+import kafofond.dto.HistoriqueDTO;
+import kafofond.dto.HistoriquePageDTO;
 import kafofond.entity.HistoriqueAction;
+import kafofond.entity.SegmentArchive;
 import kafofond.entity.Utilisateur;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Statut;
+import kafofond.repository.HistoriqueActionArchiveRepo;
 import kafofond.repository.HistoriqueActionRepo;
+import kafofond.service.audit.AuditWriter;
+import kafofond.service.audit.EntreeAudit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -19,15 +28,22 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class HistoriqueService {
 
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int TAILLE_PAGE_MAX = 200;
+
     private final HistoriqueActionRepo historiqueActionRepo;
+    private final HistoriqueActionArchiveRepo historiqueActionArchiveRepo;
+    private final HistoriqueArchiveService historiqueArchiveService;
+    private final AuditWriter auditWriter;
 
     /**
      * Enregistre une action pour les documents ou entités
      * Pour entités booléennes : ancienEtat/nouveauEtat ("ACTIF"/"INACTIF")
      * Pour documents enum : ancienStatut/nouveauStatut
+     * L'insertion est asynchrone (AuditWriter) et n'a lieu que si la transaction appelante est validée
      */
     @Transactional
-    public HistoriqueAction enregistrerAction(
+    public void enregistrerAction(
             String typeDocument,
             Long idDocument,
             String action,
@@ -41,7 +57,9 @@ public class HistoriqueService {
         log.info("Enregistrement de l'action {} sur {} #{} par {}",
                 action, typeDocument, idDocument, utilisateur.getEmail());
 
-        HistoriqueAction historique = HistoriqueAction.builder()
+        // Écriture différée par lots après le commit de la transaction métier
+        auditWriter.soumettre(EntreeAudit.builder()
+                .cible(EntreeAudit.Cible.HISTORIQUE)
                 .typeDocument(typeDocument)
                 .idDocument(idDocument)
                 .action(action)
@@ -50,24 +68,22 @@ public class HistoriqueService {
                 .ancienStatut(ancienStatut)
                 .nouveauStatut(nouveauStatut)
                 .dateAction(LocalDateTime.now())
-                .utilisateur(utilisateur)
-                .entreprise(utilisateur.getEntreprise())
-                .build();
-
-        return historiqueActionRepo.save(historique);
+                .utilisateurId(utilisateur.getId())
+                .entrepriseId(utilisateur.getEntreprise() != null ? utilisateur.getEntreprise().getId() : null)
+                .build());
     }
 
     /**
      * Enregistre une action de création pour un document
      */
     @Transactional
-    public HistoriqueAction enregistrerCreation(
+    public void enregistrerCreation(
             String typeDocument,
             Long idDocument,
             Utilisateur utilisateur,
             Statut statut
     ) {
-        return enregistrerAction(
+        enregistrerAction(
                 typeDocument,
                 idDocument,
                 "CREATION",
@@ -84,14 +100,14 @@ public class HistoriqueService {
      * Enregistre une action de création pour une entité avec état
      */
     @Transactional
-    public HistoriqueAction enregistrerCreation(
+    public void enregistrerCreation(
             String typeDocument,
             Long idDocument,
             Utilisateur utilisateur,
             boolean etat,
             Statut statut
     ) {
-        return enregistrerAction(
+        enregistrerAction(
                 typeDocument,
                 idDocument,
                 "CREATION",
@@ -108,14 +124,14 @@ public class HistoriqueService {
      * Enregistre une action de modification pour un document
      */
     @Transactional
-    public HistoriqueAction enregistrerModification(
+    public void enregistrerModification(
             String typeDocument,
             Long idDocument,
             Utilisateur utilisateur,
             Statut ancienStatut,
             Statut nouveauStatut
     ) {
-        return enregistrerAction(
+        enregistrerAction(
                 typeDocument,
                 idDocument,
                 "MODIFICATION",
@@ -132,7 +148,7 @@ public class HistoriqueService {
      * Enregistre une action de modification pour une entité avec état
      */
     @Transactional
-    public HistoriqueAction enregistrerModification(
+    public void enregistrerModification(
             String typeDocument,
             Long idDocument,
             Utilisateur utilisateur,
@@ -141,7 +157,7 @@ public class HistoriqueService {
             Statut ancienStatut,
             Statut nouveauStatut
     ) {
-        return enregistrerAction(
+        enregistrerAction(
                 typeDocument,
                 idDocument,
                 "MODIFICATION",
@@ -162,28 +178,106 @@ public class HistoriqueService {
         return historique;
     }
 
-    public List<HistoriqueAction> consulterHistoriqueEntreprise(Entreprise entreprise) {
+    /**
+     * Historique complet d'un document en projection, archive comprise
+     * L'archive n'est lue que si l'action de CREATION n'est plus dans la table chaude
+     */
+    public List<HistoriqueDTO> consulterHistoriqueDocument(String typeDocument, Long idDocument) {
+        log.info("Consultation de l'historique pour {} #{}", typeDocument, idDocument);
+        List<HistoriqueDTO> historique = historiqueActionRepo.findParDocument(typeDocument, idDocument);
+
+        boolean creationChaude = historique.stream().anyMatch(h -> "CREATION".equals(h.getAction()));
+        if (!creationChaude && historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_HISTORIQUE, null)) {
+            List<HistoriqueDTO> complet = new ArrayList<>(
+                    historiqueActionArchiveRepo.findParDocument(typeDocument, idDocument));
+            complet.addAll(historique);
+            return complet;
+        }
+        return historique;
+    }
+
+    /**
+     * Historique complet d'une entreprise en DTO, archive comprise (table chaude puis segments archivés)
+     */
+    public List<HistoriqueDTO> consulterHistoriqueEntreprise(Entreprise entreprise) {
         log.info("Consultation de l'historique complet pour l'entreprise ID: {}", entreprise.getId());
         List<HistoriqueAction> historique = historiqueActionRepo.findByEntreprise(entreprise);
-        // Initialiser les entités pour éviter les problèmes de proxy lors de la sérialisation
-        initializeHistoriqueActions(historique);
-        return historique;
+        return completerAvecArchive(historique,
+                () -> historiqueActionArchiveRepo.findParEntreprise(entreprise.getId(), null));
     }
 
-    public List<HistoriqueAction> consulterHistoriqueParType(Entreprise entreprise, String typeDocument) {
+    public List<HistoriqueDTO> consulterHistoriqueParType(Entreprise entreprise, String typeDocument) {
         log.info("Consultation de l'historique pour l'entreprise ID: {} et le type {}", entreprise.getId(), typeDocument);
         List<HistoriqueAction> historique = historiqueActionRepo.findByEntrepriseAndTypeDocument(entreprise, typeDocument);
-        // Initialiser les entités pour éviter les problèmes de proxy lors de la sérialisation
-        initializeHistoriqueActions(historique);
-        return historique;
+        return completerAvecArchive(historique,
+                () -> historiqueActionArchiveRepo.findParEntreprise(entreprise.getId(), typeDocument));
     }
 
-    public List<HistoriqueAction> consulterHistoriqueUtilisateur(Utilisateur utilisateur) {
+    public List<HistoriqueDTO> consulterHistoriqueUtilisateur(Utilisateur utilisateur) {
         log.info("Consultation de l'historique pour l'utilisateur ID: {}", utilisateur.getId());
         List<HistoriqueAction> historique = historiqueActionRepo.findByUtilisateur(utilisateur);
+        return completerAvecArchive(historique,
+                () -> historiqueActionArchiveRepo.findParUtilisateur(utilisateur.getId()));
+    }
+
+    /**
+     * Convertit les actions de la table chaude en DTO et y ajoute celles de l'archive,
+     * lue seulement si au moins un segment a été archivé
+     */
+    private List<HistoriqueDTO> completerAvecArchive(List<HistoriqueAction> historique,
+                                                     Supplier<List<HistoriqueDTO>> archive) {
         // Initialiser les entités pour éviter les problèmes de proxy lors de la sérialisation
         initializeHistoriqueActions(historique);
-        return historique;
+        List<HistoriqueDTO> complet = new ArrayList<>(historique.size());
+        historique.forEach(h -> complet.add(HistoriqueDTO.fromEntity(h)));
+        if (historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_HISTORIQUE, null)) {
+            complet.addAll(archive.get());
+        }
+        return complet;
+    }
+    
+    /**
+     * Recherche paginée par curseur dans l'historique d'une entreprise
+     * Filtres optionnels : type et id de document, action, utilisateur, intervalle [dateDebut, dateFin[
+     */
+    public HistoriquePageDTO rechercherHistorique(Long entrepriseId, String typeDocument, Long idDocument,
+                                                  String action, Long utilisateurId,
+                                                  LocalDateTime dateDebut, LocalDateTime dateFin,
+                                                  LocalDateTime curseurDate, Long curseurId, Integer taille) {
+        int tailleEffective = taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+        if (curseurDate != null && curseurId == null) {
+            throw new IllegalArgumentException("curseurId est obligatoire avec curseurDate");
+        }
+
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans requête COUNT
+        List<HistoriqueDTO> historique = historiqueActionRepo.rechercher(entrepriseId, typeDocument, idDocument,
+                action, utilisateurId, dateDebut, dateFin, curseurDate, curseurId,
+                PageRequest.of(0, tailleEffective + 1));
+
+        // Les segments archivés sont tous antérieurs à la table chaude : on complète la page
+        // avec l'archive seulement si la période demandée commence avant la limite chaude
+        if (historique.size() <= tailleEffective
+                && historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_HISTORIQUE, dateDebut)) {
+            List<HistoriqueDTO> complet = new ArrayList<>(historique);
+            complet.addAll(historiqueActionArchiveRepo.rechercher(entrepriseId, typeDocument, idDocument,
+                    action, utilisateurId, dateDebut, dateFin, curseurDate, curseurId,
+                    PageRequest.of(0, tailleEffective + 1 - historique.size())));
+            historique = complet;
+        }
+
+        boolean pageSuivante = historique.size() > tailleEffective;
+        if (pageSuivante) {
+            historique = historique.subList(0, tailleEffective);
+        }
+        HistoriqueDTO derniere = historique.isEmpty() ? null : historique.get(historique.size() - 1);
+
+        return HistoriquePageDTO.builder()
+                .historique(historique)
+                .taille(historique.size())
+                .pageSuivante(pageSuivante)
+                .curseurDate(pageSuivante ? derniere.getDateAction() : null)
+                .curseurId(pageSuivante ? derniere.getId() : null)
+                .build();
     }
     
     /**
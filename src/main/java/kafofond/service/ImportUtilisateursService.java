@@ -0,0 +1,367 @@
+package kafofond.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import kafofond.config.CacheReferences;
+import kafofond.dto.ImportUtilisateursRapportDTO;
+import kafofond.dto.ImportUtilisateursRapportDTO.ErreurLigne;
+import kafofond.entity.Role;
+import kafofond.entity.Utilisateur;
+import kafofond.repository.EntrepriseRepo;
+import kafofond.repository.UtilisateurRepo;
+import kafofond.security.AnnuaireApprobateurs;
+import kafofond.security.PorteConnexion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Import en masse d'utilisateurs depuis un fichier CSV (intégration d'une entreprise)
+ * En-tête attendu : nom;prenom;email;motDePasse;departement;role (séparateur ; ou ,)
+ * - le fichier est lu en flux et chaque ligne validée comme UtilisateurCreateDTO
+ * - doublons : dans le fichier, puis en base par requêtes IN par lots
+ * - hachage BCrypt en parallèle sur un pool borné
+ * - insertion JDBC par lots dans une seule transaction
+ * Les lignes invalides sont ignorées et décrites dans le rapport
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportUtilisateursService {
+
+    private static final String SQL_INSERER = "INSERT INTO utilisateurs " +
+            "(nom, prenom, email, mot_de_passe, departement, role, etat, date_creation, entreprise_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final int TAILLE_LOT_SQL = 200;
+    private static final int TAILLE_LOT_IN = 500;
+    private static final Pattern FORMAT_EMAIL = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
+    private final UtilisateurRepo utilisateurRepo;
+    private final EntrepriseRepo entrepriseRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PasswordEncoder passwordEncoder;
+    private final HistoriqueService historiqueService;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
+    private final PorteConnexion porteConnexion;
+    private final CacheReferences cacheReferences;
+
+    @Value("${utilisateurs.import.lignes-max:5000}")
+    private int lignesMax;
+
+    @Value("${utilisateurs.import.bcrypt-threads:0}")
+    private int threadsBcrypt;
+
+    private ExecutorService poolBcrypt;
+
+    @PostConstruct
+    void demarrer() {
+        // Par défaut la moitié des cœurs : un import ne doit pas affamer le reste de l'API
+        int threads = threadsBcrypt > 0 ? threadsBcrypt : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger numero = new AtomicInteger();
+        poolBcrypt = Executors.newFixedThreadPool(threads, tache -> {
+            Thread thread = new Thread(tache, "import-bcrypt-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void arreter() {
+        poolBcrypt.shutdownNow();
+    }
+
+    /**
+     * Importe les utilisateurs du fichier dans l'entreprise cible
+     * (celle de l'administrateur, ou entrepriseId pour un Super Admin)
+     */
+    public ImportUtilisateursRapportDTO importer(InputStream fichier, Long entrepriseId, Utilisateur admin) {
+        if (admin.getRole() != Role.SUPER_ADMIN && admin.getRole() != Role.ADMIN && admin.getRole() != Role.DIRECTEUR) {
+            throw new IllegalArgumentException(
+                    "Seuls les Super Admins, Admins et Directeurs peuvent créer des utilisateurs");
+        }
+        Long entrepriseCible = entrepriseCible(entrepriseId, admin);
+        long debut = System.nanoTime();
+
+        List<ErreurLigne> erreurs = new ArrayList<>();
+        List<LigneImport> lignes = lire(fichier, admin, erreurs);
+        int lignesLues = lignes.size() + erreurs.size();
+
+        lignes = retirerEmailsExistants(lignes, erreurs);
+
+        // Hachage parallèle, hors transaction : aucune connexion n'est tenue pendant BCrypt
+        List<CompletableFuture<String>> hachages = lignes.stream()
+                .map(ligne -> CompletableFuture.supplyAsync(() -> passwordEncoder.encode(ligne.motDePasse()), poolBcrypt))
+                .toList();
+        List<String> motsDePasse = hachages.stream().map(CompletableFuture::join).toList();
+
+        List<LigneImport> aInserer = lignes;
+        if (!aInserer.isEmpty()) {
+            Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+            new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+                jdbcTemplate.batchUpdate(SQL_INSERER, indices(aInserer.size()), TAILLE_LOT_SQL, (ps, i) -> {
+                    LigneImport ligne = aInserer.get(i);
+                    ps.setString(1, ligne.nom());
+                    ps.setString(2, ligne.prenom());
+                    ps.setString(3, ligne.email());
+                    ps.setString(4, motsDePasse.get(i));
+                    ps.setString(5, ligne.departement());
+                    ps.setString(6, ligne.role().name());
+                    ps.setBoolean(7, true);
+                    ps.setTimestamp(8, maintenant);
+                    ps.setLong(9, entrepriseCible);
+                });
+                historiqueService.enregistrerAction("UTILISATEUR", null, "IMPORT", admin, null, "ACTIF",
+                        null, null, String.format("Import CSV : %d utilisateur(s) dans l'entreprise %d",
+                                aInserer.size(), entrepriseCible));
+            });
+            cacheReferences.utilisateursImportes();
+            annuaireApprobateurs.invalider(entrepriseCible);
+            aInserer.forEach(ligne -> porteConnexion.oublierEmailInconnu(ligne.email()));
+        }
+
+        erreurs.sort((a, b) -> Integer.compare(a.getLigne(), b.getLigne()));
+        long dureeMs = (System.nanoTime() - debut) / 1_000_000;
+        log.info("Import CSV par {} : {} ligne(s), {} créé(s), {} rejetée(s) en {} ms",
+                admin.getEmail(), lignesLues, aInserer.size(), erreurs.size(), dureeMs);
+
+        return ImportUtilisateursRapportDTO.builder()
+                .entrepriseId(entrepriseCible)
+                .lignesLues(lignesLues)
+                .utilisateursCrees(aInserer.size())
+                .lignesRejetees(erreurs.size())
+                .dureeMs(dureeMs)
+                .erreurs(erreurs)
+                .build();
+    }
+
+    private Long entrepriseCible(Long entrepriseId, Utilisateur admin) {
+        if (admin.getRole() == Role.SUPER_ADMIN && entrepriseId != null) {
+            if (!entrepriseRepo.existsById(entrepriseId)) {
+                throw new IllegalArgumentException("Entreprise introuvable");
+            }
+            return entrepriseId;
+        }
+        if (admin.getEntreprise() == null) {
+            throw new IllegalArgumentException("L'entreprise cible doit être précisée");
+        }
+        return admin.getEntreprise().getId();
+    }
+
+    /**
+     * Lecture en flux : en-tête, puis une ligne validée par enregistrement (doublons du fichier inclus)
+     */
+    private List<LigneImport> lire(InputStream fichier, Utilisateur admin, List<ErreurLigne> erreurs) {
+        List<LigneImport> lignes = new ArrayList<>();
+        Set<String> emailsVus = new HashSet<>();
+        try (BufferedReader lecteur = new BufferedReader(new InputStreamReader(fichier, StandardCharsets.UTF_8))) {
+            String entete = lecteur.readLine();
+            if (entete == null) {
+                throw new IllegalArgumentException("Fichier vide");
+            }
+            entete = entete.replace("\uFEFF", "");
+            char separateur = entete.indexOf(';') >= 0 ? ';' : ',';
+            Map<String, Integer> colonnes = colonnes(decouper(entete, separateur));
+
+            String texte;
+            int numero = 1;
+            while ((texte = lecteur.readLine()) != null) {
+                numero++;
+                if (texte.isBlank()) {
+                    continue;
+                }
+                if (lignes.size() + erreurs.size() >= lignesMax) {
+                    throw new IllegalArgumentException("Fichier trop volumineux : " + lignesMax + " lignes maximum");
+                }
+                List<String> valeurs = decouper(texte, separateur);
+                String email = valeur(valeurs, colonnes, "email");
+                String erreur = valider(valeurs, colonnes, admin);
+                if (erreur == null && !emailsVus.add(email.toLowerCase(Locale.ROOT))) {
+                    erreur = "Email en double dans le fichier";
+                }
+                if (erreur != null) {
+                    erreurs.add(new ErreurLigne(numero, email, erreur));
+                    continue;
+                }
+                lignes.add(new LigneImport(numero,
+                        valeur(valeurs, colonnes, "nom"),
+                        valeur(valeurs, colonnes, "prenom"),
+                        email,
+                        valeur(valeurs, colonnes, "motdepasse"),
+                        valeur(valeurs, colonnes, "departement"),
+                        Role.valueOf(valeur(valeurs, colonnes, "role").toUpperCase(Locale.ROOT))));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Lecture du fichier impossible : " + e.getMessage());
+        }
+        return lignes;
+    }
+
+    /**
+     * Retire les lignes dont l'email existe déjà en base (une requête IN par lot de 500 emails)
+     */
+    private List<LigneImport> retirerEmailsExistants(List<LigneImport> lignes, List<ErreurLigne> erreurs) {
+        Set<String> existants = new HashSet<>();
+        for (int i = 0; i < lignes.size(); i += TAILLE_LOT_IN) {
+            List<String> emails = lignes.subList(i, Math.min(i + TAILLE_LOT_IN, lignes.size())).stream()
+                    .map(LigneImport::email)
+                    .toList();
+            utilisateurRepo.findEmailsExistants(emails)
+                    .forEach(email -> existants.add(email.toLowerCase(Locale.ROOT)));
+        }
+        if (existants.isEmpty()) {
+            return lignes;
+        }
+        List<LigneImport> restantes = new ArrayList<>(lignes.size());
+        for (LigneImport ligne : lignes) {
+            if (existants.contains(ligne.email().toLowerCase(Locale.ROOT))) {
+                erreurs.add(new ErreurLigne(ligne.numero(), ligne.email(), "Email déjà utilisé"));
+            } else {
+                restantes.add(ligne);
+            }
+        }
+        return restantes;
+    }
+
+    /**
+     * Mêmes règles que UtilisateurCreateDTO ; renvoie le message d'erreur ou null
+     */
+    private String valider(List<String> valeurs, Map<String, Integer> colonnes, Utilisateur admin) {
+        String nom = valeur(valeurs, colonnes, "nom");
+        String prenom = valeur(valeurs, colonnes, "prenom");
+        String email = valeur(valeurs, colonnes, "email");
+        String motDePasse = valeur(valeurs, colonnes, "motdepasse");
+        String departement = valeur(valeurs, colonnes, "departement");
+        String role = valeur(valeurs, colonnes, "role");
+
+        if (nom == null || nom.length() > 50) {
+            return "Le nom est obligatoire (50 caractères maximum)";
+        }
+        if (prenom == null || prenom.length() > 50) {
+            return "Le prénom est obligatoire (50 caractères maximum)";
+        }
+        if (email == null || email.length() > 100 || !FORMAT_EMAIL.matcher(email).matches()) {
+            return "L'email doit être valide (100 caractères maximum)";
+        }
+        if (motDePasse == null || motDePasse.length() < 6 || motDePasse.length() > 100) {
+            return "Le mot de passe doit contenir entre 6 et 100 caractères";
+        }
+        if (departement != null && departement.length() > 100) {
+            return "Le département ne peut pas dépasser 100 caractères";
+        }
+        if (role == null) {
+            return "Le rôle est obligatoire";
+        }
+        Role roleLu;
+        try {
+            roleLu = Role.valueOf(role.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return "Rôle inconnu : " + role;
+        }
+        if (roleLu == Role.SUPER_ADMIN && admin.getRole() != Role.SUPER_ADMIN) {
+            return "Seul un Super Admin peut créer un Super Admin";
+        }
+        return null;
+    }
+
+    private static Map<String, Integer> colonnes(List<String> entete) {
+        Map<String, Integer> colonnes = new HashMap<>();
+        for (int i = 0; i < entete.size(); i++) {
+            colonnes.put(normaliser(entete.get(i)), i);
+        }
+        for (String obligatoire : List.of("nom", "prenom", "email", "motdepasse", "role")) {
+            if (!colonnes.containsKey(obligatoire)) {
+                throw new IllegalArgumentException("Colonne obligatoire absente de l'en-tête : " + obligatoire);
+            }
+        }
+        return colonnes;
+    }
+
+    /**
+     * "Prénom", "mot_de_passe", "Mot de passe" → prenom, motdepasse
+     */
+    private static String normaliser(String colonne) {
+        return Normalizer.normalize(colonne, Normalizer.Form.NFD)
+                .replaceAll("[^A-Za-z]", "")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    private static String valeur(List<String> valeurs, Map<String, Integer> colonnes, String colonne) {
+        Integer index = colonnes.get(colonne);
+        if (index == null || index >= valeurs.size()) {
+            return null;
+        }
+        String valeur = valeurs.get(index).trim();
+        return valeur.isEmpty() ? null : valeur;
+    }
+
+    /**
+     * Découpe une ligne CSV (champs entre guillemets, "" pour un guillemet)
+     */
+    private static List<String> decouper(String ligne, char separateur) {
+        List<String> champs = new ArrayList<>();
+        StringBuilder champ = new StringBuilder();
+        boolean entreGuillemets = false;
+        for (int i = 0; i < ligne.length(); i++) {
+            char c = ligne.charAt(i);
+            if (entreGuillemets) {
+                if (c == '"' && i + 1 < ligne.length() && ligne.charAt(i + 1) == '"') {
+                    champ.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreGuillemets = false;
+                } else {
+                    champ.append(c);
+                }
+            } else if (c == '"') {
+                entreGuillemets = true;
+            } else if (c == separateur) {
+                champs.add(champ.toString());
+                champ.setLength(0);
+            } else {
+                champ.append(c);
+            }
+        }
+        champs.add(champ.toString());
+        return champs;
+    }
+
+    private static List<Integer> indices(int taille) {
+        List<Integer> indices = new ArrayList<>(taille);
+        for (int i = 0; i < taille; i++) {
+            indices.add(i);
+        }
+        return indices;
+    }
+
+    private record LigneImport(int numero, String nom, String prenom, String email, String motDePasse,
+                               String departement, Role role) {
+    }
+}
@@ -1,11 +1,12 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.dto.LigneCreditDTO;
 import kafofond.entity.*;
 import kafofond.mapper.LigneCreditMapper;
 import kafofond.repository.CommentaireRepo;
 import kafofond.repository.LigneCreditRepo;
-import kafofond.repository.UtilisateurRepo;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,7 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -22,7 +25,7 @@ import java.util.Optional;
 public class LigneCreditService {
 
     private final LigneCreditRepo ligneCreditRepo;
-    private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final CommentaireRepo commentaireRepo;
     private final LigneCreditMapper mapper;
     private final NotificationService notificationService;
@@ -31,6 +34,7 @@ public class LigneCreditService {
     private final CodeGeneratorService codeGeneratorService;
     private final BudgetService budgetService;
     private final TableValidationService tableValidationService;
+    private final ActiviteDocumentService activiteDocumentService;
 
     @Transactional
     public LigneCredit creer(LigneCredit ligne, Utilisateur createur) {
@@ -93,7 +97,8 @@ public class LigneCreditService {
 
         Utilisateur directeur = trouverDirecteur(createur.getEntreprise());
         if (directeur != null)
-            notificationService.notifierModification("LIGNE_CREDIT", ligneCreee.getId(), createur, directeur, "créée");
+            notificationService.notifierModification(EvenementNotification.de("LIGNE_CREDIT", ligneCreee.getId(),
+                    ligneCreee.getCode(), createur, "créée"), directeur);
 
         return ligneCreee;
     }
@@ -161,7 +166,8 @@ public class LigneCreditService {
 
         Utilisateur directeur = trouverDirecteur(modificateur.getEntreprise());
         if (directeur != null)
-            notificationService.notifierModification("LIGNE_CREDIT", id, modificateur, directeur, "modifiée");
+            notificationService.notifierModification(EvenementNotification.de("LIGNE_CREDIT", id,
+                    ligne.getCode(), modificateur, "modifiée"), directeur);
 
         return ligneModifie;
     }
@@ -207,7 +213,9 @@ public class LigneCreditService {
                 null);
 
         if (ligne.getCreePar() != null)
-            notificationService.notifierValidation("LIGNE_CREDIT", id, directeur, ligne.getCreePar(), "validée", null);
+            notificationService.notifierValidation(EvenementNotification.de("LIGNE_CREDIT", id,
+                    ligne.getCode(), directeur, "validée"),
+                    ligne.getCreePar(), null);
 
         return ligneValidee;
     }
@@ -264,8 +272,9 @@ public class LigneCreditService {
                 commentaire);
 
         if (ligne.getCreePar() != null)
-            notificationService.notifierValidation("LIGNE_CREDIT", id, directeur, ligne.getCreePar(), "rejetée",
-                    commentaire);
+            notificationService.notifierValidation(EvenementNotification.de("LIGNE_CREDIT", id,
+                    ligne.getCode(), directeur, "rejetée"),
+                    ligne.getCreePar(), commentaire);
 
         return ligneRejetee;
     }
@@ -331,8 +340,7 @@ public class LigneCreditService {
     }
 
     private Utilisateur trouverDirecteur(Entreprise entreprise) {
-        return utilisateurRepo.findByEmail(
-                "directeur@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com").orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), Role.DIRECTEUR);
     }
 
     public List<LigneCredit> listerParEntreprise(Entreprise entreprise) {
@@ -382,6 +390,19 @@ public class LigneCreditService {
         );
     }
 
+    /**
+     * Récupère en une requête les commentaires d'un lot de lignes de crédit, groupés par ligne
+     */
+    public Map<Long, List<Commentaire>> getCommentairesParLigne(List<LigneCredit> lignes) {
+        if (lignes.isEmpty()) {
+            return Map.of();
+        }
+        return commentaireRepo.findByTypeDocumentAndDocumentIds(TypeDocument.LIGNE_CREDIT,
+                        lignes.stream().map(LigneCredit::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(Commentaire::getDocumentId));
+    }
+
     // ========== MÉTHODES DTO ==========
 
     /**
@@ -485,7 +506,10 @@ public class LigneCreditService {
                 .orElseThrow(() -> new IllegalArgumentException("Utilisateur introuvable"));
 
         List<LigneCredit> lignes = listerParEntreprise(utilisateur.getEntreprise());
-        return lignes.stream()
+        // Commentaires de toutes les lignes en une requête
+        Map<Long, List<Commentaire>> commentairesParLigne = getCommentairesParLigne(lignes);
+
+        List<LigneCreditDTO> dtos = lignes.stream()
                 .map(l -> {
                     // Forcer le chargement des relations
                     if (l.getCreePar() != null) {
@@ -500,10 +524,12 @@ public class LigneCreditService {
                             l.getBudget().getEntreprise().getNom();
                         }
                     }
-                    List<Commentaire> commentaires = getCommentaires(l);
+                    List<Commentaire> commentaires = commentairesParLigne.getOrDefault(l.getId(), List.of());
                     return mapper.toDTO(l, commentaires);
                 })
                 .toList();
+        return activiteDocumentService.completer(TypeDocument.LIGNE_CREDIT, dtos,
+                LigneCreditDTO::getId, LigneCreditDTO::setActivite);
     }
 
     /**
@@ -518,7 +544,10 @@ public class LigneCreditService {
                 .orElseThrow(() -> new IllegalArgumentException("Budget introuvable"));
 
         List<LigneCredit> lignes = ligneCreditRepo.findByBudget(budget);
-        return lignes.stream()
+        // Commentaires de toutes les lignes en une requête
+        Map<Long, List<Commentaire>> commentairesParLigne = getCommentairesParLigne(lignes);
+
+        List<LigneCreditDTO> dtos = lignes.stream()
                 .map(l -> {
                     // Forcer le chargement des relations
                     if (l.getCreePar() != null) {
@@ -533,10 +562,12 @@ public class LigneCreditService {
                             l.getBudget().getEntreprise().getNom();
                         }
                     }
-                    List<Commentaire> commentaires = getCommentaires(l);
+                    List<Commentaire> commentaires = commentairesParLigne.getOrDefault(l.getId(), List.of());
                     return mapper.toDTO(l, commentaires);
                 })
                 .toList();
+        return activiteDocumentService.completer(TypeDocument.LIGNE_CREDIT, dtos,
+                LigneCreditDTO::getId, LigneCreditDTO::setActivite);
     }
 
     /**
@@ -551,7 +582,10 @@ public class LigneCreditService {
         List<LigneCredit> lignes = ligneCreditRepo.findByBudgetEntrepriseAndStatut(
                 utilisateur.getEntreprise(), statut);
 
-        return lignes.stream()
+        // Commentaires de toutes les lignes en une requête
+        Map<Long, List<Commentaire>> commentairesParLigne = getCommentairesParLigne(lignes);
+
+        List<LigneCreditDTO> dtos = lignes.stream()
                 .map(l -> {
                     // Forcer le chargement des relations
                     if (l.getCreePar() != null) {
@@ -566,10 +600,12 @@ public class LigneCreditService {
                             l.getBudget().getEntreprise().getNom();
                         }
                     }
-                    List<Commentaire> commentaires = getCommentaires(l);
+                    List<Commentaire> commentaires = commentairesParLigne.getOrDefault(l.getId(), List.of());
                     return mapper.toDTO(l, commentaires);
                 })
                 .toList();
+        return activiteDocumentService.completer(TypeDocument.LIGNE_CREDIT, dtos,
+                LigneCreditDTO::getId, LigneCreditDTO::setActivite);
     }
 
     /**
@@ -586,7 +622,10 @@ public class LigneCreditService {
                 .filter(l -> l.isEtat() == actif)
                 .toList();
 
-        return lignes.stream()
+        // Commentaires de toutes les lignes en une requête
+        Map<Long, List<Commentaire>> commentairesParLigne = getCommentairesParLigne(lignes);
+
+        List<LigneCreditDTO> dtos = lignes.stream()
                 .map(l -> {
                     // Forcer le chargement des relations
                     if (l.getCreePar() != null) {
@@ -601,10 +640,12 @@ public class LigneCreditService {
                             l.getBudget().getEntreprise().getNom();
                         }
                     }
-                    List<Commentaire> commentaires = getCommentaires(l);
+                    List<Commentaire> commentaires = commentairesParLigne.getOrDefault(l.getId(), List.of());
                     return mapper.toDTO(l, commentaires);
                 })
                 .toList();
+        return activiteDocumentService.completer(TypeDocument.LIGNE_CREDIT, dtos,
+                LigneCreditDTO::getId, LigneCreditDTO::setActivite);
     }
 
     /**
@@ -632,7 +673,10 @@ public class LigneCreditService {
         List<LigneCredit> lignes = ligneCreditRepo.findByEntrepriseIdAndStatutAndEtat(
                 entrepriseId, Statut.VALIDE, true);
         
-        return lignes.stream()
+        // Commentaires de toutes les lignes en une requête
+        Map<Long, List<Commentaire>> commentairesParLigne = getCommentairesParLigne(lignes);
+
+        List<LigneCreditDTO> dtos = lignes.stream()
                 .map(l -> {
                     // Forcer le chargement des relations
                     if (l.getCreePar() != null) {
@@ -647,9 +691,11 @@ public class LigneCreditService {
                             l.getBudget().getEntreprise().getNom();
                         }
                     }
-                    List<Commentaire> commentaires = getCommentaires(l);
+                    List<Commentaire> commentaires = commentairesParLigne.getOrDefault(l.getId(), List.of());
                     return mapper.toDTO(l, commentaires);
                 })
                 .toList();
+        return activiteDocumentService.completer(TypeDocument.LIGNE_CREDIT, dtos,
+                LigneCreditDTO::getId, LigneCreditDTO::setActivite);
     }
 }
@@ -0,0 +1,151 @@
+package kafofond.service;
+
+import kafofond.dto.ArchivageNotificationsRapportDTO;
+import kafofond.dto.NotificationDTO;
+import kafofond.dto.NotificationPageDTO;
+import kafofond.entity.NotificationArchive;
+import kafofond.repository.NotificationArchiveRepo;
+import kafofond.repository.NotificationRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Service de rétention des notifications
+ * Déplace par lots les notifications lues anciennes vers notifications_archive
+ * afin de garder la table chaude petite pour les requêtes indexées de la boîte de réception
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationRetentionService {
+
+    private static final int TAILLE_PAGE_DEFAUT = 20;
+    private static final int TAILLE_PAGE_MAX = 100;
+
+    private final NotificationRepo notificationRepo;
+    private final NotificationArchiveRepo notificationArchiveRepo;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${notifications.retention.enabled:true}")
+    private boolean retentionActive;
+
+    @Value("${notifications.retention.jours:90}")
+    private int joursRetention;
+
+    @Value("${notifications.retention.taille-lot:1000}")
+    private int tailleLot;
+
+    /**
+     * Exécution planifiée de l'archivage (par défaut chaque nuit)
+     */
+    @Scheduled(cron = "${notifications.retention.cron:0 30 2 * * *}")
+    public void archivagePlanifie() {
+        if (!retentionActive) {
+            return;
+        }
+        archiverNotificationsLues(LocalDateTime.now().minusDays(joursRetention));
+    }
+
+    /**
+     * Archive les notifications lues envoyées avant la date limite
+     * Chaque lot (copie + suppression) est exécuté dans sa propre transaction courte
+     */
+    public ArchivageNotificationsRapportDTO archiverNotificationsLues(LocalDateTime dateLimite) {
+        log.info("Archivage des notifications lues antérieures au {} (lots de {})", dateLimite, tailleLot);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<ArchivageNotificationsRapportDTO.Lot> lots = new ArrayList<>();
+        long debut = System.currentTimeMillis();
+        long totalLignes = 0;
+
+        while (true) {
+            long debutLot = System.currentTimeMillis();
+            Integer lignes = transaction.execute(status -> {
+                List<Long> ids = notificationRepo.findIdsLuesAvant(dateLimite, PageRequest.of(0, tailleLot));
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                notificationArchiveRepo.archiverLot(ids, LocalDateTime.now());
+                return notificationRepo.supprimerParIds(ids);
+            });
+            if (lignes == null || lignes == 0) {
+                break;
+            }
+
+            long dureeLot = System.currentTimeMillis() - debutLot;
+            totalLignes += lignes;
+            lots.add(ArchivageNotificationsRapportDTO.Lot.builder()
+                    .numero(lots.size() + 1)
+                    .lignes(lignes)
+                    .dureeMs(dureeLot)
+                    .build());
+            log.info("Lot d'archivage {} : {} notification(s) déplacée(s) en {} ms", lots.size(), lignes, dureeLot);
+
+            if (lignes < tailleLot) {
+                break;
+            }
+        }
+
+        long dureeTotale = System.currentTimeMillis() - debut;
+        log.info("Archivage terminé : {} notification(s) en {} lot(s), {} ms", totalLignes, lots.size(), dureeTotale);
+
+        return ArchivageNotificationsRapportDTO.builder()
+                .dateLimite(dateLimite)
+                .tailleLot(tailleLot)
+                .totalLignes(totalLignes)
+                .dureeTotaleMs(dureeTotale)
+                .lots(lots)
+                .build();
+    }
+
+    /**
+     * Archive selon la rétention configurée (notifications.retention.jours)
+     */
+    public ArchivageNotificationsRapportDTO archiverSelonRetention() {
+        return archiverNotificationsLues(LocalDateTime.now().minusDays(joursRetention));
+    }
+
+    /**
+     * Consulte les notifications archivées d'un utilisateur (chemin lent, pagination par curseur)
+     */
+    @Transactional(readOnly = true)
+    public NotificationPageDTO consulterArchives(Long utilisateurId, LocalDateTime curseurDate,
+                                                 Long curseurId, Integer taille) {
+        int tailleEffective = taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+        if (curseurDate != null && curseurId == null) {
+            throw new IllegalArgumentException("curseurId est obligatoire avec curseurDate");
+        }
+
+        // Une ligne de plus pour savoir s'il existe une page suivante, comme pour la boîte de réception
+        List<NotificationArchive> archives = notificationArchiveRepo.findArchives(utilisateurId, curseurDate, curseurId,
+                PageRequest.of(0, tailleEffective + 1));
+
+        boolean pageSuivante = archives.size() > tailleEffective;
+        if (pageSuivante) {
+            archives = archives.subList(0, tailleEffective);
+        }
+        NotificationArchive derniere = archives.isEmpty() ? null : archives.get(archives.size() - 1);
+
+        return NotificationPageDTO.builder()
+                .notifications(archives.stream()
+                        .map(NotificationDTO::fromArchive)
+                        .collect(Collectors.toList()))
+                .taille(archives.size())
+                .pageSuivante(pageSuivante)
+                .curseurDate(pageSuivante ? derniere.getDateEnvoi() : null)
+                .curseurId(pageSuivante ? derniere.getId() : null)
+                .build();
+    }
+}
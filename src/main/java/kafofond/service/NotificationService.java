@@ -1,24 +1,31 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
+import kafofond.dto.NotificationDTO;
+import kafofond.dto.NotificationPageDTO;
 import kafofond.entity.Notification;
 import kafofond.entity.Utilisateur;
 import kafofond.repository.NotificationRepo;
-import kafofond.repository.AttestationDeServiceFaitRepo;
-import kafofond.repository.BonDeCommandeRepo;
-import kafofond.repository.DemandeDAchatRepo;
 import kafofond.repository.UtilisateurRepo;
 import kafofond.service.CodeGeneratorService;
+import kafofond.service.mail.MailRendu;
+import kafofond.service.mail.MailTemplateService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Service de gestion des notifications
@@ -29,12 +36,14 @@ import java.util.List;
 @Slf4j
 public class NotificationService {
 
+    private static final int TAILLE_PAGE_DEFAUT = 20;
+    private static final int TAILLE_PAGE_MAX = 100;
+
     private final NotificationRepo notificationRepo;
     private final UtilisateurRepo utilisateurRepo;
     private final JavaMailSender mailSender;
-    private final AttestationDeServiceFaitRepo attestationDeServiceFaitRepo;
-    private final BonDeCommandeRepo bonDeCommandeRepo;
-    private final DemandeDAchatRepo demandeDAchatRepo;
+    private final CodeDocumentCache codeDocumentCache;
+    private final MailTemplateService mailTemplateService;
     private final CodeGeneratorService codeGeneratorService;
 
     /**
@@ -51,6 +60,7 @@ public class NotificationService {
                 .transmission(null)  // Pas d'email par défaut
                 .dateEnvoi(LocalDateTime.now())
                 .destinataire(destinataire)
+                .typeDocument(typeDocument)
                 .idDocument(idDocument)
                 .build();
         
@@ -97,6 +107,27 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Envoie un email avec une version texte et une version HTML (multipart/alternative)
+     */
+    public void envoyerEmailHtml(String destinataire, String sujet, String texte, String htmlContent) {
+        try {
+            log.info("Envoi d'un email HTML à {} : {}", destinataire, sujet);
+            
+            MimeMessage mimeMessage = mailSender.createMimeMessage();
+            MimeMessageHelper helper = new MimeMessageHelper(mimeMessage, true, "UTF-8");
+            
+            helper.setTo(destinataire);
+            helper.setSubject(sujet);
+            helper.setText(texte, htmlContent);
+            
+            mailSender.send(mimeMessage);
+            log.info("Email HTML envoyé avec succès à {}", destinataire);
+        } catch (Exception e) {
+            log.error("Erreur lors de l'envoi de l'email HTML à {} : {}", destinataire, e.getMessage());
+        }
+    }
+
     /**
      * Récupère toutes les notifications d'un utilisateur par son ID
      */
@@ -128,98 +159,126 @@ public class NotificationService {
     }
 
     /**
-     * Récupère le code d'un document selon son type et son ID
+     * Consulte une page de la boîte de réception d'un utilisateur (pagination par curseur)
+     * Le coût ne dépend que de la taille de la page, pas du volume d'historique
      */
-    private String getCodeDocument(String typeDocument, Long idDocument) {
-        if (idDocument == null) {
-            return "N/A";
+    @Transactional(readOnly = true)
+    public NotificationPageDTO consulterBoiteReception(Long utilisateurId, Boolean etat,
+                                                       String typeDocument, Long idDocument,
+                                                       LocalDateTime dateDebut, LocalDateTime dateFin,
+                                                       LocalDateTime curseurDate, Long curseurId, Integer taille) {
+        int tailleEffective = taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+        if (curseurDate != null && curseurId == null) {
+            throw new IllegalArgumentException("curseurId est obligatoire avec curseurDate");
         }
-        
-        try {
-            switch (typeDocument.toUpperCase()) {
-                case "ATTESTATION_SERVICE_FAIT":
-                    return attestationDeServiceFaitRepo.findById(idDocument)
-                            .map(attestation -> attestation.getCode())
-                            .orElse("ASF-" + String.format("%04d", idDocument));
-                case "BON_COMMANDE":
-                    return bonDeCommandeRepo.findById(idDocument)
-                            .map(bon -> bon.getCode())
-                            .orElse("BC-" + String.format("%04d", idDocument));
-                case "DEMANDE_ACHAT":
-                    return demandeDAchatRepo.findById(idDocument)
-                            .map(demande -> demande.getCode())
-                            .orElse("DA-" + String.format("%04d", idDocument));
-                default:
-                    return typeDocument + "-" + String.format("%04d", idDocument);
-            }
-        } catch (Exception e) {
-            log.warn("Impossible de récupérer le code pour {} #{} : {}", typeDocument, idDocument, e.getMessage());
-            return typeDocument + "-" + String.format("%04d", idDocument);
+        if (idDocument != null && typeDocument == null) {
+            throw new IllegalArgumentException("typeDocument est obligatoire avec idDocument");
+        }
+
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans requête COUNT
+        List<Notification> notifications = notificationRepo.findBoiteReception(utilisateurId, etat,
+                typeDocument, idDocument,
+                dateDebut, dateFin, curseurDate, curseurId, PageRequest.of(0, tailleEffective + 1));
+
+        boolean pageSuivante = notifications.size() > tailleEffective;
+        if (pageSuivante) {
+            notifications = notifications.subList(0, tailleEffective);
         }
+        Notification derniere = notifications.isEmpty() ? null : notifications.get(notifications.size() - 1);
+
+        return NotificationPageDTO.builder()
+                .notifications(notifications.stream()
+                        .map(NotificationDTO::fromEntity)
+                        .collect(Collectors.toList()))
+                .taille(notifications.size())
+                .pageSuivante(pageSuivante)
+                .curseurDate(pageSuivante ? derniere.getDateEnvoi() : null)
+                .curseurId(pageSuivante ? derniere.getId() : null)
+                .build();
     }
 
     /**
-     * Formate un message avec du HTML pour les emails
+     * Notifie automatiquement le supérieur hiérarchique lors d'une modification
+     * Le code du document est résolu via le cache (type, id) → code
      */
-    private String formaterMessageHtml(String titre, String message) {
-        return "<html>" +
-               "<body>" +
-               "<h2 style='color: blue; font-weight: bold;'>" + titre + "</h2>" +
-               "<p>" + message.replace("\n", "<br>") + "</p>" +
-               "<hr>" +
-               "<p><i>Ceci est une notification automatique de KafoFond.</i></p>" +
-               "</body>" +
-               "</html>";
+    public void notifierModification(String typeDocument, Long idDocument, Utilisateur createur, 
+                                   Utilisateur superieur, String action) {
+        notifierModification(EvenementNotification.de(typeDocument, idDocument,
+                codeDocumentCache.resoudre(typeDocument, idDocument), createur, action), superieur);
     }
 
     /**
      * Notifie automatiquement le supérieur hiérarchique lors d'une modification
      */
-    public void notifierModification(String typeDocument, Long idDocument, Utilisateur createur, 
-                                   Utilisateur superieur, String action) {
-        String codeDocument = getCodeDocument(typeDocument, idDocument);
-        String titre = String.format("Document %s - %s", typeDocument, action);
-        String message = String.format("L'utilisateur %s %s a %s le document %s #%s. " +
-                "Veuillez le valider ou le rejeter.", 
-                createur.getPrenom(), createur.getNom(), action.toLowerCase(), typeDocument, codeDocument);
+    public void notifierModification(EvenementNotification evenement, Utilisateur superieur) {
+        MailRendu rendu = mailTemplateService.rendre(MailTemplateService.TypeMail.MODIFICATION,
+                modeleMail(evenement, null));
         
-        // Créer notification système
-        Notification notification = creerNotification(superieur, titre, message, typeDocument, idDocument);
-        
-        // Envoyer email et mettre à jour le statut de transmission
-        try {
-            String htmlContent = formaterMessageHtml(titre, message);
-            envoyerEmailHtml(superieur.getEmail(), titre, htmlContent);
-            notification.setTransmission(true);  // Email envoyé avec succès
-        } catch (Exception e) {
-            notification.setTransmission(false);  // Échec d'envoi
-            log.error("Échec d'envoi email pour notification {} : {}", notification.getId(), e.getMessage());
-        }
-        notificationRepo.save(notification);
+        envoyerNotification(superieur, rendu, evenement);
     }
 
     /**
      * Notifie le créateur lors d'une validation/rejet
+     * Le code du document est résolu via le cache (type, id) → code
      */
     public void notifierValidation(String typeDocument, Long idDocument, Utilisateur validateur, 
                                  Utilisateur createur, String action, String commentaire) {
-        String codeDocument = getCodeDocument(typeDocument, idDocument);
-        String titre = String.format("Document %s - %s", typeDocument, action);
-        String message = String.format("Votre document %s #%s a été %s par %s %s.", 
-                typeDocument, codeDocument, action.toLowerCase(), 
-                validateur.getPrenom(), validateur.getNom());
+        notifierValidation(EvenementNotification.de(typeDocument, idDocument,
+                codeDocumentCache.resoudre(typeDocument, idDocument), validateur, action), createur, commentaire);
+    }
+
+    /**
+     * Notifie le créateur lors d'une validation/rejet
+     */
+    public void notifierValidation(EvenementNotification evenement, Utilisateur createur, String commentaire) {
+        MailRendu rendu = mailTemplateService.rendre(MailTemplateService.TypeMail.VALIDATION,
+                modeleMail(evenement, commentaire));
         
+        envoyerNotification(createur, rendu, evenement);
+    }
+
+    /**
+     * Modèle de rendu des templates de mail pour un événement
+     */
+    private Map<String, String> modeleMail(EvenementNotification evenement, String commentaire) {
+        Map<String, String> modele = new HashMap<>(16);
+        modele.put("typeDocument", evenement.getTypeDocument());
+        modele.put("codeDocument", codeDocument(evenement));
+        modele.put("action", evenement.getAction());
+        modele.put("actionMinuscule", evenement.getAction().toLowerCase());
+        modele.put("acteurPrenom", evenement.getActeurPrenom());
+        modele.put("acteurNom", evenement.getActeurNom());
         if (commentaire != null && !commentaire.trim().isEmpty()) {
-            message += String.format(" Commentaire : %s", commentaire);
+            modele.put("commentaire", commentaire);
         }
-        
+        return modele;
+    }
+
+    /**
+     * Code porté par l'événement, mémorisé dans le cache ; code de repli si le document n'en a pas
+     */
+    private String codeDocument(EvenementNotification evenement) {
+        if (evenement.getIdDocument() == null) {
+            return "N/A";
+        }
+        if (evenement.getCodeDocument() == null) {
+            return CodeDocumentCache.codeParDefaut(evenement.getTypeDocument(), evenement.getIdDocument());
+        }
+        codeDocumentCache.memoriser(evenement.getTypeDocument(), evenement.getIdDocument(), evenement.getCodeDocument());
+        return evenement.getCodeDocument();
+    }
+
+    /**
+     * Crée la notification système puis envoie l'email en mettant à jour le statut de transmission
+     */
+    private void envoyerNotification(Utilisateur destinataire, MailRendu rendu, EvenementNotification evenement) {
         // Créer notification système
-        Notification notification = creerNotification(createur, titre, message, typeDocument, idDocument);
+        Notification notification = creerNotification(destinataire, rendu.getSujet(), rendu.getTexte(),
+                evenement.getTypeDocument(), evenement.getIdDocument());
         
         // Envoyer email et mettre à jour le statut de transmission
         try {
-            String htmlContent = formaterMessageHtml(titre, message);
-            envoyerEmailHtml(createur.getEmail(), titre, htmlContent);
+            envoyerEmailHtml(destinataire.getEmail(), rendu.getSujet(), rendu.getTexte(), rendu.getHtml());
             notification.setTransmission(true);  // Email envoyé avec succès
         } catch (Exception e) {
             notification.setTransmission(false);  // Échec d'envoi
@@ -240,16 +299,44 @@ public class NotificationService {
 
     /**
      * Marque toutes les notifications d'un utilisateur comme lues
+     * Une seule requête UPDATE, retourne le nombre de notifications marquées
      */
-    public void marquerToutesCommeLues(Long utilisateurId) {
-        // Récupérer l'utilisateur par son ID
-        Utilisateur utilisateur = utilisateurRepo.findById(utilisateurId)
-                .orElseThrow(() -> new IllegalArgumentException("Utilisateur introuvable avec ID: " + utilisateurId));
-        
-        List<Notification> notifications = notificationRepo.findByDestinataireAndEtat(utilisateur, false);
-        for (Notification notification : notifications) {
-            notification.setEtat(true); // Marquer comme lue
-        }
-        notificationRepo.saveAll(notifications);
+    @Transactional
+    public int marquerToutesCommeLues(Long utilisateurId) {
+        int nombre = notificationRepo.marquerToutesCommeLues(utilisateurId);
+        log.info("{} notification(s) marquée(s) comme lue(s) pour l'utilisateur {}", nombre, utilisateurId);
+        return nombre;
+    }
+
+    /**
+     * Marque comme lues les notifications d'un utilisateur concernant un document
+     */
+    @Transactional
+    public int marquerCommeLuesParDocument(Long utilisateurId, String typeDocument, Long idDocument) {
+        int nombre = notificationRepo.marquerCommeLuesParDocument(utilisateurId, typeDocument, idDocument);
+        log.info("{} notification(s) du document {} #{} marquée(s) comme lue(s) pour l'utilisateur {}",
+                nombre, typeDocument, idDocument, utilisateurId);
+        return nombre;
+    }
+
+    /**
+     * Marque comme lues les notifications d'un utilisateur envoyées avant une date
+     */
+    @Transactional
+    public int marquerCommeLuesAvant(Long utilisateurId, LocalDateTime dateLimite) {
+        int nombre = notificationRepo.marquerCommeLuesAvant(utilisateurId, dateLimite);
+        log.info("{} notification(s) antérieure(s) au {} marquée(s) comme lue(s) pour l'utilisateur {}",
+                nombre, dateLimite, utilisateurId);
+        return nombre;
+    }
+
+    /**
+     * Supprime les notifications lues envoyées avant une date (rétention)
+     */
+    @Transactional
+    public int supprimerNotificationsLuesAvant(LocalDateTime dateLimite) {
+        int nombre = notificationRepo.supprimerLuesAvant(dateLimite);
+        log.info("{} notification(s) lue(s) antérieure(s) au {} supprimée(s)", nombre, dateLimite);
+        return nombre;
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package kafofond.service;
 
+import kafofond.dto.EvenementNotification;
 import kafofond.dto.OrdreDePaiementModificationDTO;
 import kafofond.entity.OrdreDePaiement;
 import kafofond.entity.DecisionDePrelevement;
@@ -10,6 +11,7 @@ import kafofond.repository.OrdreDePaiementRepo;
 import kafofond.repository.UtilisateurRepo;
 import kafofond.repository.LigneCreditRepo;
 import kafofond.repository.EntrepriseRepo;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,6 +33,7 @@ public class OrdreDePaiementService {
 
     private final OrdreDePaiementRepo ordreDePaiementRepo;
     private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final EntrepriseRepo entrepriseRepo;
     private final NotificationService notificationService;
     private final HistoriqueService historiqueService;
@@ -105,14 +108,14 @@ public class OrdreDePaiementService {
         if (depasseSeuil) {
             Utilisateur directeur = trouverDirecteur(comptable.getEntreprise());
             if (directeur != null) {
-                notificationService.notifierModification("ORDRE_PAIEMENT", ordreCree.getId(),
-                        comptable, directeur, "créé (montant >= seuil)");
+                notificationService.notifierModification(EvenementNotification.de("ORDRE_PAIEMENT", ordreCree.getId(),
+                        ordreCree.getCode(), comptable, "créé (montant >= seuil)"), directeur);
             }
         } else {
             Utilisateur responsable = trouverResponsable(comptable.getEntreprise());
             if (responsable != null) {
-                notificationService.notifierModification("ORDRE_PAIEMENT", ordreCree.getId(),
-                        comptable, responsable, "créé");
+                notificationService.notifierModification(EvenementNotification.de("ORDRE_PAIEMENT", ordreCree.getId(),
+                        ordreCree.getCode(), comptable, "créé"), responsable);
             }
         }
 
@@ -199,14 +202,14 @@ public class OrdreDePaiementService {
         if (depasseSeuil) {
             Utilisateur directeur = trouverDirecteur(comptable.getEntreprise());
             if (directeur != null) {
-                notificationService.notifierModification("ORDRE_PAIEMENT", ordreModifie.getId(),
-                        comptable, directeur, "modifié (montant >= seuil)");
+                notificationService.notifierModification(EvenementNotification.de("ORDRE_PAIEMENT", ordreModifie.getId(),
+                        ordreModifie.getCode(), comptable, "modifié (montant >= seuil)"), directeur);
             }
         } else {
             Utilisateur responsable = trouverResponsable(comptable.getEntreprise());
             if (responsable != null) {
-                notificationService.notifierModification("ORDRE_PAIEMENT", ordreModifie.getId(),
-                        comptable, responsable, "modifié");
+                notificationService.notifierModification(EvenementNotification.de("ORDRE_PAIEMENT", ordreModifie.getId(),
+                        ordreModifie.getCode(), comptable, "modifié"), responsable);
             }
         }
 
@@ -303,8 +306,9 @@ public class OrdreDePaiementService {
         );
 
         if (ordre.getCreePar() != null) {
-            notificationService.notifierValidation("ORDRE_PAIEMENT", id, responsable,
-                    ordre.getCreePar(), "validé", null);
+            notificationService.notifierValidation(EvenementNotification.de("ORDRE_PAIEMENT", id,
+                    ordre.getCode(), responsable, "validé"),
+                    ordre.getCreePar(), null);
         }
 
         return ordreValide;
@@ -399,8 +403,9 @@ public class OrdreDePaiementService {
         );
 
         if (ordre.getCreePar() != null) {
-            notificationService.notifierValidation("ORDRE_PAIEMENT", id, directeur,
-                    ordre.getCreePar(), "approuvé", null);
+            notificationService.notifierValidation(EvenementNotification.de("ORDRE_PAIEMENT", id,
+                    ordre.getCode(), directeur, "approuvé"),
+                    ordre.getCreePar(), null);
         }
 
         return ordreApprouve;
@@ -473,21 +478,20 @@ public class OrdreDePaiementService {
         );
 
         if (ordre.getCreePar() != null) {
-            notificationService.notifierValidation("ORDRE_PAIEMENT", id, validateur,
-                    ordre.getCreePar(), "rejeté", commentaire);
+            notificationService.notifierValidation(EvenementNotification.de("ORDRE_PAIEMENT", id,
+                    ordre.getCode(), validateur, "rejeté"),
+                    ordre.getCreePar(), commentaire);
         }
 
         return ordreRejete;
     }
 
     private Utilisateur trouverDirecteur(kafofond.entity.Entreprise entreprise) {
-        return utilisateurRepo.findByEmail("directeur@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.DIRECTEUR);
     }
 
     private Utilisateur trouverResponsable(kafofond.entity.Entreprise entreprise) {
-        return utilisateurRepo.findByEmail("responsable@" + entreprise.getNom().toLowerCase().replace(" ", "") + ".com")
-                .orElse(null);
+        return annuaireApprobateurs.premier(entreprise.getId(), kafofond.entity.Role.RESPONSABLE);
     }
 
     public List<OrdreDePaiement> listerParEntreprise(kafofond.entity.Entreprise entreprise) {
@@ -5,7 +5,7 @@ import kafofond.entity.Utilisateur;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Role;
 import kafofond.repository.RapportAchatRepo;
-import kafofond.repository.UtilisateurRepo;
+import kafofond.security.AnnuaireApprobateurs;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -25,7 +25,7 @@ import java.util.stream.Collectors;
 public class RapportAchatService {
 
     private final RapportAchatRepo rapportAchatRepo;
-    private final UtilisateurRepo utilisateurRepo;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
     private final NotificationService notificationService;
     private final HistoriqueService historiqueService;
 
@@ -62,8 +62,7 @@ public class RapportAchatService {
         // Utiliser une approche qui évite les problèmes de proxy
         try {
             Long entrepriseId = rapportCree.getEntreprise().getId();
-            Utilisateur directeur = utilisateurRepo.findByEntrepriseIdAndRole(entrepriseId, Role.DIRECTEUR)
-                    .orElse(null);
+            Utilisateur directeur = annuaireApprobateurs.premier(entrepriseId, Role.DIRECTEUR);
 
             if (directeur != null) {
                 notificationService.notifierModification(
@@ -1,18 +1,21 @@
 package kafofond.service;
 
+import kafofond.config.CacheReferences;
 import kafofond.dto.ReinitialisationMotDePasseDTO;
 import kafofond.entity.Utilisateur;
 import kafofond.repository.UtilisateurRepo;
+import kafofond.security.RevocationJetons;
+import kafofond.security.UtilisateurConnecteService;
+import kafofond.service.reinitialisation.StockCodesReinitialisation;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.security.SecureRandom;
+import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
@@ -22,9 +25,16 @@ public class ReinitialisationMotDePasseService {
     private final UtilisateurRepo utilisateurRepo;
     private final PasswordEncoder passwordEncoder;
     private final NotificationService notificationService;
-    
-    // Stockage temporaire des codes de réinitialisation avec email et timestamp (en production, utiliser Redis ou une base de données)
-    private final Map<String, CodeReinitialisation> codesReinitialisation = new HashMap<>();
+    private final StockCodesReinitialisation stockCodes;
+    private final RevocationJetons revocationJetons;
+    private final CacheReferences cacheReferences;
+    private final UtilisateurConnecteService utilisateurConnecteService;
+
+    private static final int TENTATIVES_GENERATION = 5;
+    private final SecureRandom aleatoire = new SecureRandom();
+
+    @Value("${securite.reinitialisation.validite-minutes:10}")
+    private long validiteMinutes;
     
     /**
      * Demande de réinitialisation de mot de passe
@@ -33,18 +43,16 @@ public class ReinitialisationMotDePasseService {
         Utilisateur utilisateur = utilisateurRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
         
-        // Générer un code aléatoire
-        String code = genererCodeAleatoire();
-        CodeReinitialisation codeReinit = new CodeReinitialisation(code, email, LocalDateTime.now());
-        codesReinitialisation.put(code, codeReinit);
+        // Générer un code aléatoire (remplace le code précédent de cet email)
+        String code = enregistrerNouveauCode(utilisateur.getEmail());
         
         // Envoyer le code par email avec une durée de validité
         try {
             String message = String.format(
                 "Votre code de réinitialisation est : %s\n\n" +
-                "Ce code est valable pendant 10 minutes.\n" +
+                "Ce code est valable pendant %d minutes.\n" +
                 "Si vous n'avez pas demandé cette réinitialisation, ignorez cet email.",
-                code
+                code, validiteMinutes
             );
             notificationService.envoyerEmail(email, "Réinitialisation de mot de passe", message);
             log.info("Code de réinitialisation envoyé à {}", email);
@@ -69,65 +77,43 @@ public class ReinitialisationMotDePasseService {
             throw new RuntimeException("Les mots de passe ne correspondent pas");
         }
         
-        // Vérifier si le code est valide et non expiré
-        CodeReinitialisation codeStocke = codesReinitialisation.get(codeSaisi);
-        if (codeStocke == null) {
-            throw new RuntimeException("Code de réinitialisation invalide ou expiré");
-        }
-        
-        // Vérifier si le code est expiré (10 minutes)
-        if (codeStocke.getTimestamp().isBefore(LocalDateTime.now().minusMinutes(10))) {
-            codesReinitialisation.remove(codeSaisi); // Supprimer le code expiré
-            throw new RuntimeException("Code de réinitialisation expiré");
-        }
+        // Consommer le code : valide, non expiré, et utilisable une seule fois
+        String email = stockCodes.consommer(codeSaisi)
+                .orElseThrow(() -> new RuntimeException("Code de réinitialisation invalide ou expiré"));
         
         // Mettre à jour le mot de passe
-        String email = codeStocke.getEmail();
         Utilisateur utilisateur = utilisateurRepo.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur introuvable"));
         
         utilisateur.setMotDePasse(passwordEncoder.encode(nouveauMotDePasse));
         utilisateurRepo.save(utilisateur);
-        
-        // Supprimer le code utilisé
-        codesReinitialisation.remove(codeSaisi);
+        // Toutes les instances doivent oublier l'ancien mot de passe (cache de second niveau)
+        cacheReferences.utilisateurModifie(utilisateur.getId());
+        utilisateurConnecteService.invalider(utilisateur.getEmail());
+        revocationJetons.revoquer(utilisateur.getEmail());
         
         log.info("Mot de passe réinitialisé pour l'utilisateur {}", email);
     }
     
     /**
-     * Générer un code aléatoire de 6 chiffres
+     * Enregistre un nouveau code de 6 chiffres pour l'email (nouveau tirage si le code est déjà pris)
      */
-    private String genererCodeAleatoire() {
-        Random random = new Random();
-        int code = 100000 + random.nextInt(900000);
-        return String.valueOf(code);
+    private String enregistrerNouveauCode(String email) {
+        Duration validite = Duration.ofMinutes(validiteMinutes);
+        for (int tentative = 0; tentative < TENTATIVES_GENERATION; tentative++) {
+            String code = genererCodeAleatoire();
+            if (stockCodes.enregistrer(email, code, validite)) {
+                return code;
+            }
+        }
+        throw new RuntimeException("Impossible de générer un code de réinitialisation, réessayez");
     }
-    
+
     /**
-     * Classe interne pour stocker le code avec son email et timestamp
+     * Générer un code aléatoire de 6 chiffres
      */
-    private static class CodeReinitialisation {
-        private final String code;
-        private final String email;
-        private final LocalDateTime timestamp;
-        
-        public CodeReinitialisation(String code, String email, LocalDateTime timestamp) {
-            this.code = code;
-            this.email = email;
-            this.timestamp = timestamp;
-        }
-        
-        public String getCode() {
-            return code;
-        }
-        
-        public String getEmail() {
-            return email;
-        }
-        
-        public LocalDateTime getTimestamp() {
-            return timestamp;
-        }
+    private String genererCodeAleatoire() {
+        int code = 100000 + aleatoire.nextInt(900000);
+        return String.valueOf(code);
     }
-}
\ No newline at end of file
+}
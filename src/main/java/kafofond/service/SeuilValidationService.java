@@ -1,5 +1,6 @@
 package kafofond.service;
 
+import kafofond.config.CacheReferences;
 import kafofond.dto.SeuilValidationDTO;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Role;
@@ -7,6 +8,8 @@ import kafofond.entity.SeuilValidation;
 import kafofond.entity.Utilisateur;
 import kafofond.mapper.SeuilValidationMapper;
 import kafofond.repository.SeuilValidationRepo;
+import kafofond.service.seuil.RegistreSeuilsActifs;
+import kafofond.service.seuil.SeuilActif;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,6 +31,8 @@ public class SeuilValidationService {
     private final SeuilValidationMapper seuilValidationMapper;
     private final HistoriqueService historiqueService;
     private final UtilisateurService utilisateurService;
+    private final CacheReferences cacheReferences;
+    private final RegistreSeuilsActifs registreSeuilsActifs;
 
     /**
      * Configure un seuil de validation (Directeur uniquement)
@@ -60,6 +65,8 @@ public class SeuilValidationService {
         seuil.setActif(true);
         
         SeuilValidation saved = seuilValidationRepo.save(seuil);
+        cacheReferences.seuilModifie(saved.getId());
+        registreSeuilsActifs.publier(entreprise != null ? entreprise.getId() : null, saved);
         
         historiqueService.enregistrerAction("SEUIL_VALIDATION", saved.getId(), "CREATION", 
                 directeur, null, "ACTIF", null, null, 
@@ -96,6 +103,13 @@ public class SeuilValidationService {
                 .orElse(null);
     }
 
+    /**
+     * Seuil actif lu dans le registre en mémoire (aucun accès base une fois l'entreprise chargée)
+     */
+    public SeuilActif seuilActif(Entreprise entreprise) {
+        return registreSeuilsActifs.actif(entreprise != null ? entreprise.getId() : null);
+    }
+
     /**
      * Obtient le seuil actif en DTO
      */
@@ -111,8 +125,7 @@ public class SeuilValidationService {
      */
     @Transactional(readOnly = true)
     public List<SeuilValidationDTO> listerSeuilsParEntreprise(Entreprise entreprise) {
-        return seuilValidationRepo.findAll().stream()
-                .filter(s -> s.getEntreprise() != null && s.getEntreprise().getId().equals(entreprise.getId()))
+        return seuilValidationRepo.findByEntrepriseIdOrderByIdAsc(entreprise.getId()).stream()
                 .map(seuilValidationMapper::toDTO)
                 .toList();
     }
@@ -155,6 +168,10 @@ public class SeuilValidationService {
         seuil.setMontantSeuil(modification.getMontantSeuil());
 
         SeuilValidation updated = seuilValidationRepo.save(seuil);
+        cacheReferences.seuilModifie(updated.getId());
+        if (updated.isActif()) {
+            registreSeuilsActifs.publier(entrepriseId(updated), updated);
+        }
 
         historiqueService.enregistrerAction("SEUIL_VALIDATION", id, "MODIFICATION", 
                 directeur, null, null, null, null,
@@ -210,6 +227,7 @@ public class SeuilValidationService {
         if (ancienSeuilActif != null) {
             ancienSeuilActif.setActif(false);
             seuilValidationRepo.save(ancienSeuilActif);
+            cacheReferences.seuilModifie(ancienSeuilActif.getId());
             
             historiqueService.enregistrerAction("SEUIL_VALIDATION", ancienSeuilActif.getId(), "DESACTIVATION", 
                     directeur, "ACTIF", "INACTIF", null, null, "Désactivation automatique");
@@ -218,6 +236,8 @@ public class SeuilValidationService {
         // Activer le nouveau seuil
         seuil.setActif(true);
         SeuilValidation updated = seuilValidationRepo.save(seuil);
+        cacheReferences.seuilModifie(updated.getId());
+        registreSeuilsActifs.publier(entrepriseId(updated), updated);
 
         historiqueService.enregistrerAction("SEUIL_VALIDATION", id, "ACTIVATION", 
                 directeur, "INACTIF", "ACTIF", null, null, "Activation seuil");
@@ -266,6 +286,8 @@ public class SeuilValidationService {
 
         seuil.setActif(false);
         SeuilValidation updated = seuilValidationRepo.save(seuil);
+        cacheReferences.seuilModifie(updated.getId());
+        registreSeuilsActifs.publier(entrepriseId(updated), null);
 
         historiqueService.enregistrerAction("SEUIL_VALIDATION", id, "DESACTIVATION", 
                 directeur, "ACTIF", "INACTIF", null, null, "Désactivation seuil");
@@ -290,4 +312,8 @@ public class SeuilValidationService {
         SeuilValidation updated = desactiverSeuil(id, directeur);
         return seuilValidationMapper.toDTO(updated);
     }
+
+    private static Long entrepriseId(SeuilValidation seuil) {
+        return seuil.getEntreprise() != null ? seuil.getEntreprise().getId() : null;
+    }
 }
@@ -1,16 +1,26 @@
 package kafofond.service;
 
+import kafofond.dto.TableValidationDTO;
+import kafofond.dto.ValidationPageDTO;
+import kafofond.entity.SegmentArchive;
+import kafofond.entity.StatutValidation;
 import kafofond.entity.TableValidation;
 import kafofond.entity.TypeDocument;
 import kafofond.entity.Utilisateur;
+import kafofond.repository.TableValidationArchiveRepo;
 import kafofond.repository.TableValidationRepo;
+import kafofond.service.audit.AuditWriter;
+import kafofond.service.audit.EntreeAudit;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Service de gestion de la table de validation
@@ -21,13 +31,20 @@ import java.util.List;
 @Slf4j
 public class TableValidationService {
 
+    private static final int TAILLE_PAGE_DEFAUT = 50;
+    private static final int TAILLE_PAGE_MAX = 200;
+
     private final TableValidationRepo tableValidationRepo;
+    private final TableValidationArchiveRepo tableValidationArchiveRepo;
+    private final HistoriqueArchiveService historiqueArchiveService;
+    private final AuditWriter auditWriter;
 
     /**
      * Enregistre une validation (VALIDE, REJETE, APPROUVE, etc.)
+     * L'insertion est asynchrone (AuditWriter) et n'a lieu que si la transaction appelante est validée
      */
     @Transactional
-    public TableValidation enregistrerValidation(
+    public void enregistrerValidation(
             Long idDocument,
             TypeDocument typeDocument,
             Utilisateur validateur,
@@ -37,23 +54,23 @@ public class TableValidationService {
         log.info("Enregistrement de validation {} pour {} #{} par {}",
                 statut, typeDocument, idDocument, validateur.getEmail());
 
-        TableValidation validation = TableValidation.builder()
-                .validateurId(validateur.getId())
+        // Écriture différée par lots après le commit de la transaction métier
+        auditWriter.soumettre(EntreeAudit.builder()
+                .cible(EntreeAudit.Cible.VALIDATION)
+                .utilisateurId(validateur.getId())
                 .commentaire(commentaire)
-                .statut(statut)
+                .statut(StatutValidation.valueOf(statut).name())
                 .idDocument(idDocument)
-                .typeDocument(typeDocument)
-                .dateValidation(LocalDateTime.now())
-                .build();
-
-        return tableValidationRepo.save(validation);
+                .typeDocument(typeDocument.name())
+                .dateAction(LocalDateTime.now())
+                .build());
     }
 
     /**
      * Enregistre la création d'un document
      */
     @Transactional
-    public TableValidation enregistrerCreation(
+    public void enregistrerCreation(
             Long idDocument,
             TypeDocument typeDocument,
             Utilisateur createur
@@ -61,15 +78,14 @@ public class TableValidationService {
         log.info("Enregistrement de la création du {} #{} par {}",
                 typeDocument, idDocument, createur.getEmail());
 
-        TableValidation validation = TableValidation.builder()
-                .validateurId(createur.getId())
-                .statut("CREATION")
+        auditWriter.soumettre(EntreeAudit.builder()
+                .cible(EntreeAudit.Cible.VALIDATION)
+                .utilisateurId(createur.getId())
+                .statut(StatutValidation.CREATION.name())
                 .idDocument(idDocument)
-                .typeDocument(typeDocument)
-                .dateValidation(LocalDateTime.now())
-                .build();
-
-        return tableValidationRepo.save(validation);
+                .typeDocument(typeDocument.name())
+                .dateAction(LocalDateTime.now())
+                .build());
     }
 
     /**
@@ -78,7 +94,17 @@ public class TableValidationService {
     @Transactional(readOnly = true)
     public List<TableValidation> consulterValidationsDocument(Long idDocument, TypeDocument typeDocument) {
         log.info("Consultation des validations pour {} #{}", typeDocument, idDocument);
-        return tableValidationRepo.findByIdDocumentAndTypeDocument(idDocument, typeDocument);
+        List<TableValidation> validations = tableValidationRepo.findByIdDocumentAndTypeDocument(idDocument, typeDocument);
+
+        // L'archive n'est lue que si l'enregistrement de CREATION n'est plus dans la table chaude
+        boolean creationChaude = validations.stream().anyMatch(v -> v.getStatut() == StatutValidation.CREATION);
+        if (!creationChaude && historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_VALIDATION, null)) {
+            List<TableValidation> complet = new ArrayList<>(
+                    tableValidationArchiveRepo.findParDocument(idDocument, typeDocument));
+            complet.addAll(validations);
+            return complet;
+        }
+        return validations;
     }
 
     /**
@@ -87,24 +113,61 @@ public class TableValidationService {
     @Transactional(readOnly = true)
     public List<TableValidation> consulterValidationsValidateur(Long validateurId) {
         log.info("Consultation des validations du validateur #{}", validateurId);
-        return tableValidationRepo.findByValidateurId(validateurId);
-    }
+        List<TableValidation> validations = tableValidationRepo.findByValidateurId(validateurId);
 
-    /**
-     * Récupère toutes les validations par type de document
-     */
-    @Transactional(readOnly = true)
-    public List<TableValidation> consulterValidationsParType(TypeDocument typeDocument) {
-        log.info("Consultation des validations pour le type {}", typeDocument);
-        return tableValidationRepo.findByTypeDocument(typeDocument);
+        // Sans borne de date, la période couvre aussi les segments archivés éventuels
+        if (historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_VALIDATION, null)) {
+            List<TableValidation> complet = new ArrayList<>(tableValidationArchiveRepo.findParValidateur(validateurId));
+            complet.addAll(validations);
+            return complet;
+        }
+        return validations;
     }
 
     /**
-     * Récupère toutes les validations par statut
+     * Recherche paginée par curseur dans les validations faites par les utilisateurs d'une entreprise
+     * (entrepriseId null : toutes les entreprises, réservé au Super Admin)
+     * Filtres optionnels : type de document, statut, validateur, intervalle [dateDebut, dateFin[
      */
     @Transactional(readOnly = true)
-    public List<TableValidation> consulterValidationsParStatut(String statut) {
-        log.info("Consultation des validations avec le statut {}", statut);
-        return tableValidationRepo.findByStatut(statut);
+    public ValidationPageDTO rechercherValidations(Long entrepriseId, TypeDocument typeDocument,
+                                                   StatutValidation statut, Long validateurId,
+                                                   LocalDateTime dateDebut, LocalDateTime dateFin,
+                                                   LocalDateTime curseurDate, Long curseurId, Integer taille) {
+        int tailleEffective = taille == null || taille <= 0 ? TAILLE_PAGE_DEFAUT : Math.min(taille, TAILLE_PAGE_MAX);
+        if (curseurDate != null && curseurId == null) {
+            throw new IllegalArgumentException("curseurId est obligatoire avec curseurDate");
+        }
+        log.info("Recherche des validations de l'entreprise #{} (type {}, statut {})", entrepriseId, typeDocument, statut);
+
+        // Une ligne de plus pour savoir s'il existe une page suivante, sans requête COUNT
+        List<TableValidation> validations = tableValidationRepo.rechercher(entrepriseId, typeDocument, statut,
+                validateurId, dateDebut, dateFin, curseurDate, curseurId, PageRequest.of(0, tailleEffective + 1));
+
+        // Complément depuis l'archive seulement si la période demandée précède la limite chaude
+        if (validations.size() <= tailleEffective
+                && historiqueArchiveService.periodeArchivee(SegmentArchive.SOURCE_VALIDATION, dateDebut)) {
+            List<TableValidation> complet = new ArrayList<>(validations);
+            complet.addAll(tableValidationArchiveRepo.rechercher(entrepriseId, typeDocument, statut,
+                    validateurId, dateDebut, dateFin, curseurDate, curseurId,
+                    PageRequest.of(0, tailleEffective + 1 - validations.size())));
+            validations = complet;
+        }
+
+        boolean pageSuivante = validations.size() > tailleEffective;
+        if (pageSuivante) {
+            validations = validations.subList(0, tailleEffective);
+        }
+        TableValidation derniere = validations.isEmpty() ? null : validations.get(validations.size() - 1);
+
+        return ValidationPageDTO.builder()
+                .validations(validations.stream()
+                        .map(TableValidationDTO::fromEntity)
+                        .collect(Collectors.toList()))
+                .taille(validations.size())
+                .pageSuivante(pageSuivante)
+                .curseurDate(pageSuivante ? derniere.getDateValidation() : null)
+                .curseurId(pageSuivante ? derniere.getId() : null)
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -1,22 +1,32 @@
 package kafofond.service;
 
+import kafofond.config.CacheReferences;
 import kafofond.dto.UtilisateurCreateDTO;
 import kafofond.dto.UtilisateurDTO;
+import kafofond.dto.UtilisateurPageDTO;
 import kafofond.entity.Entreprise;
 import kafofond.entity.Role;
 import kafofond.entity.Utilisateur;
 import kafofond.mapper.UtilisateurMapper;
 import kafofond.repository.EntrepriseRepo;
 import kafofond.repository.UtilisateurRepo;
+import kafofond.security.AnnuaireApprobateurs;
+import kafofond.security.PorteConnexion;
+import kafofond.security.RevocationJetons;
+import kafofond.security.UtilisateurConnecteService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -29,6 +39,16 @@ public class UtilisateurService {
     private final NotificationService notificationService;
     private final HistoriqueService historiqueService;
     private final UtilisateurMapper utilisateurMapper;
+    private final UtilisateurConnecteService utilisateurConnecteService;
+    private final AnnuaireApprobateurs annuaireApprobateurs;
+    private final PorteConnexion porteConnexion;
+    private final RevocationJetons revocationJetons;
+    private final CacheReferences cacheReferences;
+
+    private static final int TAILLE_PAGE_ANNUAIRE = 50;
+    private static final int TAILLE_PAGE_ANNUAIRE_MAX = 200;
+    private static final Sort TRI_ANNUAIRE = Sort.by("nom", "prenom", "id");
+    private static final Set<String> CHAMPS_TRI_ANNUAIRE = Set.of("nom", "prenom", "email", "role", "dateCreation");
 
     @Transactional
     public UtilisateurDTO creerUtilisateurFromSimpleDTO(UtilisateurCreateDTO utilisateurCreateDTO, Utilisateur admin) {
@@ -73,6 +93,9 @@ public class UtilisateurService {
         }
 
         Utilisateur saved = utilisateurRepo.save(user);
+        cacheReferences.utilisateurModifie(saved.getId());
+        annuaireApprobateurs.invalider(saved);
+        porteConnexion.oublierEmailInconnu(saved.getEmail());
 
         // Enregistrer l'action dans l'historique
         historiqueService.enregistrerAction("UTILISATEUR", saved.getId(), "CREATION", admin, null,
@@ -122,6 +145,9 @@ public class UtilisateurService {
         user.setEtat(true);
 
         Utilisateur saved = utilisateurRepo.save(user);
+        cacheReferences.utilisateurModifie(saved.getId());
+        annuaireApprobateurs.invalider(saved);
+        porteConnexion.oublierEmailInconnu(saved.getEmail());
         historiqueService.enregistrerAction("UTILISATEUR", saved.getId(), "CREATION", admin, null,
                 saved.isEtat() ? "ACTIF" : "INACTIF", null, null, "Création utilisateur");
 
@@ -155,16 +181,27 @@ public class UtilisateurService {
 
         Role ancienRole = user.getRole();
         boolean ancienEtat = user.isEtat();
+        String ancienEmail = user.getEmail();
+        utilisateurConnecteService.invalider(user.getEmail());
 
         user.setNom(modif.getNom());
         user.setPrenom(modif.getPrenom());
         user.setEmail(modif.getEmail());
         user.setDepartement(modif.getDepartement());
         user.setRole(modif.getRole());
-        if (modif.getMotDePasse() != null && !modif.getMotDePasse().trim().isEmpty())
+        boolean motDePasseModifie = modif.getMotDePasse() != null && !modif.getMotDePasse().trim().isEmpty();
+        if (motDePasseModifie)
             user.setMotDePasse(passwordEncoder.encode(modif.getMotDePasse()));
 
         Utilisateur updated = utilisateurRepo.save(user);
+        // Les jetons en circulation portent l'ancien rôle ou l'ancien email : ils ne doivent plus servir
+        if (ancienRole != updated.getRole() || motDePasseModifie || !ancienEmail.equals(updated.getEmail())) {
+            revocationJetons.revoquer(ancienEmail);
+        }
+        cacheReferences.utilisateurModifie(updated.getId());
+        utilisateurConnecteService.invalider(updated.getEmail());
+        annuaireApprobateurs.invalider(updated);
+        porteConnexion.oublierEmailInconnu(updated.getEmail());
 
         historiqueService.enregistrerAction("UTILISATEUR", id, "MODIFICATION", admin,
                 ancienEtat ? "ACTIF" : "INACTIF",
@@ -200,6 +237,8 @@ public class UtilisateurService {
         // Modifier le mot de passe
         utilisateur.setMotDePasse(passwordEncoder.encode(nouveauMotDePasse));
         Utilisateur utilisateurModifie = utilisateurRepo.save(utilisateur);
+        cacheReferences.utilisateurModifie(utilisateurModifie.getId());
+        revocationJetons.revoquer(utilisateurModifie.getEmail());
 
         historiqueService.enregistrerAction("UTILISATEUR", id, "MODIFICATION_MDP", admin,
                 null, null, null, null, "Modification du mot de passe");
@@ -227,6 +266,10 @@ public class UtilisateurService {
 
         user.setEtat(false);
         Utilisateur updated = utilisateurRepo.save(user);
+        cacheReferences.utilisateurModifie(updated.getId());
+        utilisateurConnecteService.invalider(updated.getEmail());
+        annuaireApprobateurs.invalider(updated);
+        revocationJetons.revoquer(updated.getEmail());
 
         historiqueService.enregistrerAction("UTILISATEUR", id, "DESACTIVATION", admin, "ACTIF", "INACTIF", null, null,
                 "Utilisateur désactivé");
@@ -258,6 +301,9 @@ public class UtilisateurService {
 
         user.setEtat(true);
         Utilisateur updated = utilisateurRepo.save(user);
+        cacheReferences.utilisateurModifie(updated.getId());
+        utilisateurConnecteService.invalider(updated.getEmail());
+        annuaireApprobateurs.invalider(updated);
 
         historiqueService.enregistrerAction("UTILISATEUR", id, "REACTIVATION", admin, "INACTIF", "ACTIF", null, null,
                 "Utilisateur réactivé");
@@ -272,117 +318,109 @@ public class UtilisateurService {
 
     @Transactional(readOnly = true)
     public List<Utilisateur> listerParEntreprise(Entreprise entreprise) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entreprise.getId()))
-                .toList();
+        return utilisateurRepo.findByEntrepriseId(entreprise.getId());
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerParEntrepriseDTO(Entreprise entreprise) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entreprise.getId()))
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entreprise.getId(), null, null, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<Utilisateur> listerActifsParEntreprise(Entreprise entreprise) {
-        return listerParEntreprise(entreprise).stream()
-                .filter(Utilisateur::isEtat)
-                .toList();
+        return utilisateurRepo.findByEntrepriseIdAndEtatTrue(entreprise.getId());
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerActifsParEntrepriseDTO(Entreprise entreprise) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entreprise.getId()))
-                .filter(Utilisateur::isEtat)
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entreprise.getId(), null, true, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerTousActifsDTO() {
-        return utilisateurRepo.findAll().stream()
-                .filter(Utilisateur::isEtat)
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(null, null, true, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerInactifsParEntrepriseDTO(Entreprise entreprise) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entreprise.getId()))
-                .filter(u -> !u.isEtat())
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entreprise.getId(), null, false, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerTousInactifsDTO() {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> !u.isEtat())
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(null, null, false, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerTousUtilisateursDTO() {
-        return utilisateurRepo.findAll().stream()
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(null, null, null, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerParRoleDTO(Role role) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getRole() == role)
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(null, role, null, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerParRoleEtEntrepriseDTO(Role role, Entreprise entreprise) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getRole() == role)
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entreprise.getId()))
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entreprise.getId(), role, null, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerParEntrepriseIdDTO(Long entrepriseId) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entrepriseId))
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entrepriseId, null, null, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerActifsParEntrepriseIdDTO(Long entrepriseId) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entrepriseId))
-                .filter(Utilisateur::isEtat)
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entrepriseId, null, true, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerInactifsParEntrepriseIdDTO(Long entrepriseId) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entrepriseId))
-                .filter(u -> !u.isEtat())
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entrepriseId, null, false, TRI_ANNUAIRE);
     }
 
     @Transactional(readOnly = true)
     public List<UtilisateurDTO> listerParRoleEtEntrepriseIdDTO(Role role, Long entrepriseId) {
-        return utilisateurRepo.findAll().stream()
-                .filter(u -> u.getRole() == role)
-                .filter(u -> u.getEntreprise() != null && u.getEntreprise().getId().equals(entrepriseId))
-                .map(utilisateurMapper::toDTO)
-                .toList();
+        return utilisateurRepo.listerAnnuaire(entrepriseId, role, null, TRI_ANNUAIRE);
+    }
+
+    /**
+     * Annuaire paginé et trié, filtré en base (entreprise, rôle, état, recherche nom/prénom/email)
+     * @param entrepriseId null = toutes les entreprises (Super Admin)
+     * @param tri champ de tri autorisé (nom, prenom, email, role, dateCreation), préfixé par "-" pour l'ordre décroissant
+     */
+    @Transactional(readOnly = true)
+    public UtilisateurPageDTO rechercherAnnuaire(Long entrepriseId, Role role, Boolean actif, String recherche,
+                                                 Integer page, Integer taille, String tri) {
+        int numero = page == null || page < 0 ? 0 : page;
+        int tailleEffective = taille == null || taille <= 0 ? TAILLE_PAGE_ANNUAIRE : Math.min(taille, TAILLE_PAGE_ANNUAIRE_MAX);
+
+        Sort ordre = TRI_ANNUAIRE;
+        if (tri != null && !tri.isBlank()) {
+            boolean decroissant = tri.startsWith("-");
+            String champ = decroissant ? tri.substring(1) : tri;
+            if (!CHAMPS_TRI_ANNUAIRE.contains(champ)) {
+                throw new IllegalArgumentException("Tri non supporté : " + champ);
+            }
+            ordre = Sort.by(decroissant ? Sort.Direction.DESC : Sort.Direction.ASC, champ).and(Sort.by("id"));
+        }
+
+        String motif = recherche == null || recherche.isBlank()
+                ? null
+                : "%" + recherche.trim().toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+
+        Page<UtilisateurDTO> resultat = utilisateurRepo.rechercherAnnuaire(entrepriseId, role, actif, motif,
+                PageRequest.of(numero, tailleEffective, ordre));
+
+        return UtilisateurPageDTO.builder()
+                .utilisateurs(resultat.getContent())
+                .page(resultat.getNumber())
+                .taille(resultat.getSize())
+                .totalElements(resultat.getTotalElements())
+                .totalPages(resultat.getTotalPages())
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -2,16 +2,14 @@ package kafofond.service;
 
 import kafofond.entity.Entreprise;
 import kafofond.entity.Statut;
-import kafofond.entity.SeuilValidation;
-import kafofond.repository.SeuilValidationRepo;
+import kafofond.service.seuil.RegistreSeuilsActifs;
+import kafofond.service.seuil.SeuilActif;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import kafofond.entity.Utilisateur;
 
 
-import java.util.Optional;
-
 /**
  * Service de validation et vérification des seuils
  * Détermine les validateurs selon les règles métier
@@ -21,24 +19,23 @@ import java.util.Optional;
 @Slf4j
 public class ValidationService {
 
-    private final SeuilValidationRepo seuilValidationRepo;
+    private final RegistreSeuilsActifs registreSeuilsActifs;
 
     /**
      * Vérifie si un montant dépasse le seuil de validation configuré
      */
     public boolean verifierSeuilValidation(double montant, Entreprise entreprise) {
-        Optional<SeuilValidation> seuilOpt = seuilValidationRepo.findByEntrepriseAndActif(entreprise, true);
+        SeuilActif seuil = registreSeuilsActifs.actif(entreprise != null ? entreprise.getId() : null);
         
-        if (seuilOpt.isEmpty()) {
-            log.warn("Aucun seuil configuré pour l'entreprise {}", entreprise.getNom());
+        if (!seuil.estDefini()) {
+            log.warn("Aucun seuil configuré pour l'entreprise {}", entreprise != null ? entreprise.getNom() : null);
             return false; // Pas de seuil configuré, validation par défaut
         }
         
-        SeuilValidation seuil = seuilOpt.get();
-        boolean depasseSeuil = montant >= seuil.getMontantSeuil();
+        boolean depasseSeuil = seuil.estAtteintPar(montant);
         
         log.info("Vérification seuil pour {} FCFA : seuil={} FCFA, dépasse={}", 
-                montant, seuil.getMontantSeuil(), depasseSeuil);
+                montant, seuil.montantSeuil(), depasseSeuil);
         
         return depasseSeuil;
     }
@@ -0,0 +1,324 @@
+package kafofond.service.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Écrivain d'audit asynchrone par lots
+ * Les entrées (historiques_actions, table_validation) sont placées dans une file bornée au commit
+ * de la transaction métier, puis écrites par un thread dédié en lots JDBC toutes les N entrées
+ * ou toutes les M millisecondes.
+ * - File pleine : écriture synchrone de l'entrée (pas de perte)
+ * - Arrêt : la file est vidée en base ; en cas d'échec les entrées sont écrites dans un fichier
+ *   de secours, rejoué au démarrage suivant
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuditWriter {
+
+    private static final String SQL_HISTORIQUE = "INSERT INTO historiques_actions " +
+            "(type_document, id_document, action, ancien_statut, nouveau_statut, ancien_etat, nouveau_etat, " +
+            "date_action, utilisateur_id, entreprise_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_VALIDATION = "INSERT INTO table_validation " +
+            "(validateur_id, commentaire, statut, id_document, type_document, date_validation) " +
+            "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${audit.file.capacite:10000}")
+    private int capacite;
+
+    @Value("${audit.lot.taille:200}")
+    private int tailleLot;
+
+    @Value("${audit.lot.delai-ms:200}")
+    private long delaiLotMs;
+
+    @Value("${audit.secours.fichier:logs/audit-secours.jsonl}")
+    private String fichierSecours;
+
+    private BlockingQueue<EntreeAudit> file;
+    private TransactionTemplate transaction;
+    private Thread ecrivain;
+    private volatile boolean actif;
+
+    // Métriques
+    private final AtomicLong entreesEcrites = new AtomicLong();
+    private final AtomicLong lotsEcrits = new AtomicLong();
+    private final AtomicLong ecrituresSynchrones = new AtomicLong();
+    private final AtomicLong entreesSecours = new AtomicLong();
+    private final AtomicLong dureeTotaleFlushNs = new AtomicLong();
+    private final AtomicLong dureeMaxFlushNs = new AtomicLong();
+    private volatile long dureeDernierFlushNs;
+
+    @PostConstruct
+    public void demarrer() {
+        file = new ArrayBlockingQueue<>(capacite);
+        // Transaction propre à chaque lot : l'écriture peut avoir lieu dans afterCommit d'une transaction métier
+        transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        rejouerSecours();
+        actif = true;
+        ecrivain = new Thread(this::boucle, "audit-writer");
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+        log.info("Écrivain d'audit démarré (file={}, lot={}, délai={} ms)", capacite, tailleLot, delaiLotMs);
+    }
+
+    /**
+     * Soumet une entrée d'audit : mise en file au commit de la transaction courante,
+     * ou immédiatement s'il n'y a pas de transaction. Une transaction annulée n'est pas auditée.
+     */
+    public void soumettre(EntreeAudit entree) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enfiler(entree);
+                }
+            });
+        } else {
+            enfiler(entree);
+        }
+    }
+
+    private void enfiler(EntreeAudit entree) {
+        if (actif && file.offer(entree)) {
+            return;
+        }
+        // File pleine ou écrivain arrêté : écriture synchrone
+        ecrituresSynchrones.incrementAndGet();
+        ecrire(List.of(entree));
+    }
+
+    private void boucle() {
+        List<EntreeAudit> lot = new ArrayList<>(tailleLot);
+        while (actif) {
+            try {
+                EntreeAudit premiere = file.poll(delaiLotMs, TimeUnit.MILLISECONDS);
+                if (premiere == null) {
+                    continue;
+                }
+                lot.add(premiere);
+                long echeance = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delaiLotMs);
+                while (lot.size() < tailleLot) {
+                    file.drainTo(lot, tailleLot - lot.size());
+                    long reste = echeance - System.nanoTime();
+                    if (lot.size() >= tailleLot || reste <= 0) {
+                        break;
+                    }
+                    EntreeAudit suivante = file.poll(reste, TimeUnit.NANOSECONDS);
+                    if (suivante == null) {
+                        break;
+                    }
+                    lot.add(suivante);
+                }
+                ecrire(lot);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Erreur inattendue de l'écrivain d'audit : {}", e.getMessage(), e);
+            } finally {
+                lot.clear();
+            }
+        }
+    }
+
+    /**
+     * Écrit un lot en base (un batch JDBC par table) ; en cas d'échec, bascule vers le fichier de secours
+     */
+    private void ecrire(List<EntreeAudit> lot) {
+        if (lot.isEmpty()) {
+            return;
+        }
+        long debut = System.nanoTime();
+        try {
+            transaction.executeWithoutResult(status -> ecrireLot(lot));
+            entreesEcrites.addAndGet(lot.size());
+            lotsEcrits.incrementAndGet();
+        } catch (Exception e) {
+            log.error("Échec d'écriture d'un lot d'audit de {} entrée(s), bascule vers le fichier de secours : {}",
+                    lot.size(), e.getMessage());
+            ecrireSecours(lot);
+        } finally {
+            long duree = System.nanoTime() - debut;
+            dureeDernierFlushNs = duree;
+            dureeTotaleFlushNs.addAndGet(duree);
+            dureeMaxFlushNs.accumulateAndGet(duree, Math::max);
+        }
+    }
+
+    private void ecrireLot(List<EntreeAudit> lot) {
+        List<EntreeAudit> historiques = new ArrayList<>();
+        List<EntreeAudit> validations = new ArrayList<>();
+        for (EntreeAudit entree : lot) {
+            (entree.getCible() == EntreeAudit.Cible.VALIDATION ? validations : historiques).add(entree);
+        }
+        if (!historiques.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_HISTORIQUE, historiques, historiques.size(), (ps, e) -> {
+                ps.setString(1, e.getTypeDocument());
+                ps.setObject(2, e.getIdDocument());
+                ps.setString(3, e.getAction());
+                ps.setString(4, e.getAncienStatut());
+                ps.setString(5, e.getNouveauStatut());
+                ps.setString(6, e.getAncienEtat());
+                ps.setString(7, e.getNouveauEtat());
+                ps.setTimestamp(8, e.getDateAction() != null ? Timestamp.valueOf(e.getDateAction()) : null);
+                ps.setObject(9, e.getUtilisateurId());
+                ps.setObject(10, e.getEntrepriseId());
+            });
+        }
+        if (!validations.isEmpty()) {
+            jdbcTemplate.batchUpdate(SQL_VALIDATION, validations, validations.size(), (ps, e) -> {
+                ps.setObject(1, e.getUtilisateurId());
+                ps.setString(2, e.getCommentaire());
+                ps.setString(3, e.getStatut());
+                ps.setObject(4, e.getIdDocument());
+                ps.setString(5, e.getTypeDocument());
+                ps.setTimestamp(6, e.getDateAction() != null ? Timestamp.valueOf(e.getDateAction()) : null);
+            });
+        }
+    }
+
+    @PreDestroy
+    public void arreter() {
+        actif = false;
+        try {
+            ecrivain.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<EntreeAudit> restantes = new ArrayList<>();
+        file.drainTo(restantes);
+        log.info("Arrêt de l'écrivain d'audit : {} entrée(s) restante(s) à écrire", restantes.size());
+        for (int i = 0; i < restantes.size(); i += tailleLot) {
+            ecrire(restantes.subList(i, Math.min(i + tailleLot, restantes.size())));
+        }
+    }
+
+    private synchronized void ecrireSecours(List<EntreeAudit> lot) {
+        Path chemin = Paths.get(fichierSecours);
+        try {
+            if (chemin.getParent() != null) {
+                Files.createDirectories(chemin.getParent());
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(chemin, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (EntreeAudit entree : lot) {
+                    writer.write(objectMapper.writeValueAsString(entree));
+                    writer.newLine();
+                }
+            }
+            entreesSecours.addAndGet(lot.size());
+        } catch (IOException e) {
+            log.error("Impossible d'écrire {} entrée(s) d'audit dans le fichier de secours {} : {}",
+                    lot.size(), chemin.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Rejoue le fichier de secours laissé par une exécution précédente
+     */
+    private void rejouerSecours() {
+        Path chemin = Paths.get(fichierSecours);
+        if (!Files.exists(chemin)) {
+            return;
+        }
+        try {
+            List<EntreeAudit> entrees = new ArrayList<>();
+            for (String ligne : Files.readAllLines(chemin, StandardCharsets.UTF_8)) {
+                if (!ligne.isBlank()) {
+                    entrees.add(objectMapper.readValue(ligne, EntreeAudit.class));
+                }
+            }
+            Path traite = chemin.resolveSibling(chemin.getFileName() + "." + System.currentTimeMillis());
+            Files.move(chemin, traite);
+            log.info("Rejeu de {} entrée(s) d'audit depuis {}", entrees.size(), traite.toAbsolutePath());
+            for (int i = 0; i < entrees.size(); i += tailleLot) {
+                ecrire(entrees.subList(i, Math.min(i + tailleLot, entrees.size())));
+            }
+            Files.deleteIfExists(traite);
+        } catch (IOException e) {
+            log.error("Impossible de rejouer le fichier de secours d'audit {} : {}", chemin.toAbsolutePath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Statistiques de l'écrivain : profondeur de file et latence d'écriture des lots
+     */
+    public Map<String, Object> statistiques() {
+        long lots = lotsEcrits.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("profondeurFile", file.size());
+        stats.put("capaciteFile", capacite);
+        stats.put("entreesEcrites", entreesEcrites.get());
+        stats.put("lotsEcrits", lots);
+        stats.put("ecrituresSynchrones", ecrituresSynchrones.get());
+        stats.put("entreesSecours", entreesSecours.get());
+        stats.put("dureeDernierLotMs", TimeUnit.NANOSECONDS.toMillis(dureeDernierFlushNs));
+        stats.put("dureeMoyenneLotMs", lots > 0 ? TimeUnit.NANOSECONDS.toMillis(dureeTotaleFlushNs.get() / lots) : 0);
+        stats.put("dureeMaxLotMs", TimeUnit.NANOSECONDS.toMillis(dureeMaxFlushNs.get()));
+        return stats;
+    }
+
+    public int profondeurFile() {
+        return file.size();
+    }
+
+    public int capaciteFile() {
+        return capacite;
+    }
+
+    public long entreesEcrites() {
+        return entreesEcrites.get();
+    }
+
+    public long lotsEcrits() {
+        return lotsEcrits.get();
+    }
+
+    public long ecrituresSynchrones() {
+        return ecrituresSynchrones.get();
+    }
+
+    public long entreesSecours() {
+        return entreesSecours.get();
+    }
+
+    public long dureeTotaleLotsNs() {
+        return dureeTotaleFlushNs.get();
+    }
+}
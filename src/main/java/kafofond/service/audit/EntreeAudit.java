@@ -0,0 +1,44 @@
+package kafofond.service.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrée d'audit en attente d'écriture par AuditWriter
+ * Une entrée correspond soit à une ligne de historiques_actions, soit à une ligne de table_validation.
+ * Seuls les IDs sont conservés (aucune entité JPA), afin de pouvoir l'écrire hors transaction.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EntreeAudit {
+
+    public enum Cible {
+        HISTORIQUE,
+        VALIDATION
+    }
+
+    private Cible cible;
+
+    private String typeDocument;
+    private Long idDocument;
+    private Long utilisateurId;
+    private Long entrepriseId;
+
+    // historiques_actions
+    private String action;
+    private String ancienStatut;
+    private String nouveauStatut;
+    private String ancienEtat;
+    private String nouveauEtat;
+    private LocalDateTime dateAction;
+
+    // table_validation
+    private String statut;
+    private String commentaire;
+}
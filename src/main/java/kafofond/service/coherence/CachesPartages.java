@@ -0,0 +1,28 @@
+package kafofond.service.coherence;
+
+/**
+ * Noms des caches locaux dont les invalidations sont propagées par le journal (colonne nom_cache)
+ */
+public final class CachesPartages {
+
+    public static final String NIVEAU2_ENTREPRISE = "niveau2.entreprise";
+    public static final String NIVEAU2_SEUIL = "niveau2.seuil";
+    public static final String NIVEAU2_UTILISATEUR = "niveau2.utilisateur";
+    /** Clé = email */
+    public static final String UTILISATEUR_CONNECTE = "utilisateur.connecte";
+    /** Clé = identifiant d'entreprise */
+    public static final String APPROBATEURS = "approbateurs";
+    /** Clé = identifiant d'entreprise */
+    public static final String SEUILS_ACTIFS = "seuils.actifs";
+    /** Clé = "instantRevocationMs:email" */
+    public static final String JETONS_REVOQUES = "jetons.revoques";
+    /** Clé = email normalisé */
+    public static final String EMAILS_INCONNUS = "connexion.emails-inconnus";
+    /** Clé = "TYPE:id" */
+    public static final String CODES_DOCUMENTS = "documents.codes";
+    /** Clé = source archivée (SegmentArchive.SOURCE_*) */
+    public static final String ARCHIVES_LIMITES = "archives.limites";
+
+    private CachesPartages() {
+    }
+}
@@ -0,0 +1,22 @@
+package kafofond.service.coherence;
+
+import java.util.function.Consumer;
+
+/**
+ * Journal des invalidations de caches locaux, partagé entre les instances de l'application
+ * Chaque cache publie ses invalidations et s'abonne pour appliquer celles des autres instances.
+ * Implémentations : local (instance unique, rien n'est publié) ou jdbc (table cache_invalidation, V13)
+ */
+public interface JournalInvalidations {
+
+    /**
+     * Annonce une invalidation aux autres instances (cle null : tout le cache)
+     * Dans une transaction, l'annonce est écrite avec le commit et abandonnée en cas de rollback
+     */
+    void publier(String cache, String cle);
+
+    /**
+     * Éviction locale à appliquer quand une autre instance publie sur ce cache (cle null : tout le cache)
+     */
+    void abonner(String cache, Consumer<String> eviction);
+}
@@ -0,0 +1,254 @@
+package kafofond.service.coherence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Journal des invalidations partagé en base (table cache_invalidation, migration V13)
+ * - publication : une ligne par (cache, clé), dédoublonnée et écrite par lot juste avant le commit
+ * - suivi : chaque instance lit les lignes d'id supérieur à la dernière vue (clé primaire) et
+ *   applique celles des autres instances ; les ids sautés (transaction pas encore commitée) sont
+ *   relus pendant cache.coherence.lacune-ms
+ * - borne de convergence : intervalle de suivi + durée de la transaction émettrice ; une instance
+ *   qui n'a pas pu suivre depuis plus de cache.coherence.retard-max-ms vide tous ses caches abonnés
+ * - purge des lignes plus anciennes que cache.coherence.retention-minutes
+ * Métriques : kafofond.cache.coherence.{publiees,appliquees,resynchronisations,retard}
+ */
+@Component
+@ConditionalOnProperty(name = "cache.coherence.mode", havingValue = "jdbc")
+@Slf4j
+public class JournalInvalidationsJdbc implements JournalInvalidations {
+
+    private static final String SQL_INSERER = "INSERT INTO cache_invalidation " +
+            "(nom_cache, cle, noeud, date_creation) VALUES (?, ?, ?, ?)";
+    private static final String SQL_SUIVANTES = "SELECT id, nom_cache, cle, noeud FROM cache_invalidation " +
+            "WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String SQL_PAR_IDS = "SELECT id, nom_cache, cle, noeud FROM cache_invalidation WHERE id IN (%s)";
+    private static final String SQL_DERNIER_ID = "SELECT COALESCE(MAX(id), 0) FROM cache_invalidation";
+    private static final String SQL_PURGER = "DELETE FROM cache_invalidation WHERE date_creation < ? LIMIT 10000";
+    private static final int LACUNES_MAX = 1000;
+    private static final int TAILLE_CLE = 320;
+
+    private static final RowMapper<Ligne> LIGNE = (rs, i) -> new Ligne(
+            rs.getLong("id"), rs.getString("nom_cache"), rs.getString("cle"), rs.getString("noeud"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String noeud;
+    private final int lot;
+    private final long delaiLacuneNs;
+    private final long retardMaxNs;
+    private final long retentionMinutes;
+    private final Map<String, List<Consumer<String>>> abonnements = new ConcurrentHashMap<>();
+    private final Counter publiees;
+    private final Counter appliquees;
+    private final Counter resynchronisations;
+
+    // État du suivi : uniquement modifié par le thread du planificateur
+    private long dernierId = -1;
+    private final Map<Long, Long> lacunes = new LinkedHashMap<>();
+    private volatile long dernierSuiviNs = System.nanoTime();
+
+    public JournalInvalidationsJdbc(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${cache.coherence.noeud:}") String noeud,
+                                    @Value("${cache.coherence.lot:500}") int lot,
+                                    @Value("${cache.coherence.lacune-ms:60000}") long delaiLacuneMs,
+                                    @Value("${cache.coherence.retard-max-ms:30000}") long retardMaxMs,
+                                    @Value("${cache.coherence.retention-minutes:60}") long retentionMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.noeud = noeud.isBlank() ? UUID.randomUUID().toString() : noeud;
+        this.lot = lot;
+        this.delaiLacuneNs = delaiLacuneMs * 1_000_000L;
+        this.retardMaxNs = retardMaxMs * 1_000_000L;
+        this.retentionMinutes = retentionMinutes;
+        this.publiees = Counter.builder("kafofond.cache.coherence.publiees")
+                .description("Invalidations écrites dans cache_invalidation par cette instance")
+                .register(meterRegistry);
+        this.appliquees = Counter.builder("kafofond.cache.coherence.appliquees")
+                .description("Invalidations d'autres instances appliquées localement")
+                .register(meterRegistry);
+        this.resynchronisations = Counter.builder("kafofond.cache.coherence.resynchronisations")
+                .description("Vidages complets des caches abonnés après un retard de suivi")
+                .register(meterRegistry);
+        Gauge.builder("kafofond.cache.coherence.retard", this, j -> (System.nanoTime() - j.dernierSuiviNs) / 1_000_000.0)
+                .description("Temps écoulé depuis le dernier suivi réussi du journal")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        log.info("Cohérence des caches par la table cache_invalidation, instance {}", this.noeud);
+    }
+
+    @Override
+    public void publier(String cache, String cle) {
+        if (cache == null) {
+            return;
+        }
+        Invalidation invalidation = new Invalidation(cache,
+                cle != null && cle.length() > TAILLE_CLE ? null : cle);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            inserer(List.of(invalidation));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Invalidation> enAttente = (Set<Invalidation>) TransactionSynchronizationManager.getResource(this);
+        if (enAttente == null) {
+            Set<Invalidation> nouvelles = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, nouvelles);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    inserer(nouvelles);
+                }
+
+                @Override
+                public void afterCompletion(int statut) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(JournalInvalidationsJdbc.this);
+                }
+            });
+            enAttente = nouvelles;
+        }
+        enAttente.add(invalidation);
+    }
+
+    @Override
+    public void abonner(String cache, Consumer<String> eviction) {
+        abonnements.computeIfAbsent(cache, c -> new CopyOnWriteArrayList<>()).add(eviction);
+    }
+
+    /**
+     * Lit les invalidations publiées depuis le dernier passage et les applique localement
+     */
+    @Scheduled(fixedDelayString = "${cache.coherence.intervalle-ms:1000}")
+    public void suivre() {
+        long debut = System.nanoTime();
+        try {
+            if (dernierId < 0) {
+                Long maximum = jdbcTemplate.queryForObject(SQL_DERNIER_ID, Long.class);
+                dernierId = maximum == null ? 0 : maximum;
+                dernierSuiviNs = debut;
+                return;
+            }
+            boolean enRetard = debut - dernierSuiviNs > retardMaxNs;
+
+            List<Ligne> lues = new ArrayList<>(relireLacunes(debut));
+            List<Ligne> suivantes;
+            do {
+                suivantes = jdbcTemplate.query(SQL_SUIVANTES, LIGNE, dernierId, lot);
+                for (Ligne ligne : suivantes) {
+                    noterLacunes(ligne.id(), debut);
+                    dernierId = ligne.id();
+                }
+                lues.addAll(suivantes);
+            } while (suivantes.size() == lot);
+
+            if (enRetard || lacunes.size() > LACUNES_MAX) {
+                // Des invalidations ont pu être manquées : tout vider respecte la borne de convergence
+                lacunes.clear();
+                resynchronisations.increment();
+                log.warn("Suivi du journal des invalidations en retard : vidage des caches abonnés");
+                appliquer(abonnements.keySet().stream().map(c -> new Ligne(0, c, null, null)).toList());
+            } else {
+                appliquer(lues);
+            }
+            dernierSuiviNs = debut;
+        } catch (DataAccessException e) {
+            log.warn("Suivi du journal des invalidations impossible : {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cache.coherence.purge-ms:600000}")
+    public void purger() {
+        try {
+            int supprimees = jdbcTemplate.update(SQL_PURGER,
+                    Timestamp.valueOf(LocalDateTime.now().minusMinutes(retentionMinutes)));
+            if (supprimees > 0) {
+                log.debug("{} invalidation(s) purgée(s) du journal", supprimees);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Purge du journal des invalidations impossible : {}", e.getMessage());
+        }
+    }
+
+    private void inserer(Collection<Invalidation> invalidations) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(SQL_INSERER, invalidations, invalidations.size(), (ps, invalidation) -> {
+            ps.setString(1, invalidation.cache());
+            ps.setString(2, invalidation.cle());
+            ps.setString(3, noeud);
+            ps.setTimestamp(4, maintenant);
+        });
+        publiees.increment(invalidations.size());
+    }
+
+    /**
+     * Un id sauté appartient à une transaction pas encore commitée (ou annulée) : il est relu
+     * à chaque passage jusqu'à son apparition ou l'expiration du délai
+     */
+    private void noterLacunes(long id, long maintenant) {
+        for (long manquant = dernierId + 1; manquant < id && lacunes.size() <= LACUNES_MAX; manquant++) {
+            lacunes.put(manquant, maintenant);
+        }
+    }
+
+    private List<Ligne> relireLacunes(long maintenant) {
+        lacunes.values().removeIf(detection -> maintenant - detection > delaiLacuneNs);
+        if (lacunes.isEmpty()) {
+            return List.of();
+        }
+        String ids = lacunes.keySet().stream().map(String::valueOf).collect(Collectors.joining(","));
+        List<Ligne> trouvees = jdbcTemplate.query(String.format(SQL_PAR_IDS, ids), LIGNE);
+        trouvees.forEach(ligne -> lacunes.remove(ligne.id()));
+        return trouvees;
+    }
+
+    private void appliquer(List<Ligne> lignes) {
+        for (Ligne ligne : lignes) {
+            if (noeud.equals(ligne.noeud())) {
+                continue;
+            }
+            for (Consumer<String> eviction : abonnements.getOrDefault(ligne.cache(), Collections.emptyList())) {
+                try {
+                    eviction.accept(ligne.cle());
+                } catch (RuntimeException e) {
+                    log.warn("Invalidation {}:{} non appliquée : {}", ligne.cache(), ligne.cle(), e.getMessage());
+                }
+            }
+            appliquees.increment();
+        }
+    }
+
+    private record Invalidation(String cache, String cle) {
+    }
+
+    private record Ligne(long id, String cache, String cle, String noeud) {
+    }
+}
@@ -0,0 +1,22 @@
+package kafofond.service.coherence;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Consumer;
+
+/**
+ * Instance unique : les invalidations locales suffisent, rien n'est publié
+ */
+@Component
+@ConditionalOnProperty(name = "cache.coherence.mode", havingValue = "local", matchIfMissing = true)
+public class JournalInvalidationsLocal implements JournalInvalidations {
+
+    @Override
+    public void publier(String cache, String cle) {
+    }
+
+    @Override
+    public void abonner(String cache, Consumer<String> eviction) {
+    }
+}
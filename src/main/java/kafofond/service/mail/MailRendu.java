@@ -0,0 +1,16 @@
+package kafofond.service.mail;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Résultat du rendu d'un mail : sujet, version texte et version HTML
+ */
+@Getter
+@AllArgsConstructor
+public class MailRendu {
+
+    private final String sujet;
+    private final String texte;
+    private final String html;
+}
@@ -0,0 +1,159 @@
+package kafofond.service.mail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template de mail compilé une seule fois
+ * Syntaxe : {{variable}} et sections conditionnelles {{#variable}}...{{/variable}}
+ * (la section n'est rendue que si la variable est non vide).
+ * En mode HTML, les valeurs des variables sont échappées au rendu.
+ */
+public final class MailTemplate {
+
+    private final String nom;
+    private final Segment[] segments;
+
+    private MailTemplate(String nom, Segment[] segments) {
+        this.nom = nom;
+        this.segments = segments;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    /**
+     * Rend le template dans le buffer fourni
+     */
+    public void rendre(Map<String, String> modele, StringBuilder sortie) {
+        for (Segment segment : segments) {
+            segment.rendre(modele, sortie);
+        }
+    }
+
+    /**
+     * Analyse et compile un template en une suite de segments
+     */
+    public static MailTemplate compiler(String nom, String source, boolean html) {
+        Deque<List<Segment>> pile = new ArrayDeque<>();
+        Deque<String> sectionsOuvertes = new ArrayDeque<>();
+        pile.push(new ArrayList<>());
+
+        int position = 0;
+        while (position < source.length()) {
+            int debut = source.indexOf("{{", position);
+            if (debut < 0) {
+                pile.peek().add(new Litteral(source.substring(position)));
+                break;
+            }
+            if (debut > position) {
+                pile.peek().add(new Litteral(source.substring(position, debut)));
+            }
+            int fin = source.indexOf("}}", debut);
+            if (fin < 0) {
+                throw new IllegalArgumentException("Balise non fermée dans le template " + nom + " à la position " + debut);
+            }
+            String balise = source.substring(debut + 2, fin).trim();
+            if (balise.startsWith("#")) {
+                sectionsOuvertes.push(balise.substring(1));
+                pile.push(new ArrayList<>());
+            } else if (balise.startsWith("/")) {
+                String section = balise.substring(1);
+                if (sectionsOuvertes.isEmpty() || !sectionsOuvertes.peek().equals(section)) {
+                    throw new IllegalArgumentException("Section " + section + " fermée sans ouverture dans le template " + nom);
+                }
+                sectionsOuvertes.pop();
+                Segment[] contenu = pile.pop().toArray(new Segment[0]);
+                pile.peek().add(new Section(section, contenu));
+            } else {
+                pile.peek().add(new Variable(balise, html));
+            }
+            position = fin + 2;
+        }
+
+        if (!sectionsOuvertes.isEmpty()) {
+            throw new IllegalArgumentException("Section " + sectionsOuvertes.peek() + " non fermée dans le template " + nom);
+        }
+        return new MailTemplate(nom, pile.pop().toArray(new Segment[0]));
+    }
+
+    private interface Segment {
+        void rendre(Map<String, String> modele, StringBuilder sortie);
+    }
+
+    private static final class Litteral implements Segment {
+        private final String texte;
+
+        Litteral(String texte) {
+            this.texte = texte;
+        }
+
+        @Override
+        public void rendre(Map<String, String> modele, StringBuilder sortie) {
+            sortie.append(texte);
+        }
+    }
+
+    private static final class Variable implements Segment {
+        private final String nom;
+        private final boolean html;
+
+        Variable(String nom, boolean html) {
+            this.nom = nom;
+            this.html = html;
+        }
+
+        @Override
+        public void rendre(Map<String, String> modele, StringBuilder sortie) {
+            String valeur = modele.get(nom);
+            if (valeur == null) {
+                return;
+            }
+            if (html) {
+                echapperHtml(valeur, sortie);
+            } else {
+                sortie.append(valeur);
+            }
+        }
+    }
+
+    private static final class Section implements Segment {
+        private final String nom;
+        private final Segment[] contenu;
+
+        Section(String nom, Segment[] contenu) {
+            this.nom = nom;
+            this.contenu = contenu;
+        }
+
+        @Override
+        public void rendre(Map<String, String> modele, StringBuilder sortie) {
+            String valeur = modele.get(nom);
+            if (valeur == null || valeur.isBlank()) {
+                return;
+            }
+            for (Segment segment : contenu) {
+                segment.rendre(modele, sortie);
+            }
+        }
+    }
+
+    private static void echapperHtml(String valeur, StringBuilder sortie) {
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            switch (c) {
+                case '<' -> sortie.append("&lt;");
+                case '>' -> sortie.append("&gt;");
+                case '&' -> sortie.append("&amp;");
+                case '"' -> sortie.append("&quot;");
+                case '\'' -> sortie.append("&#39;");
+                case '\n' -> sortie.append("<br>");
+                default -> sortie.append(c);
+            }
+        }
+    }
+}
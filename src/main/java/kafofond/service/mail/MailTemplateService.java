@@ -0,0 +1,109 @@
+package kafofond.service.mail;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service de templates de mails
+ * Les templates (sujet, texte, HTML) de chaque type d'événement et de chaque langue sont
+ * lus depuis templates/mail/{langue}/ et compilés une seule fois au démarrage.
+ * Le rendu réutilise un buffer par thread.
+ */
+@Service
+@Slf4j
+public class MailTemplateService {
+
+    public static final String LANGUE_DEFAUT = "fr";
+    private static final String[] LANGUES = {"fr"};
+    private static final String DOSSIER = "templates/mail/";
+    private static final int CAPACITE_MAX_BUFFER = 16 * 1024;
+
+    /**
+     * Types d'événements disposant d'un template
+     */
+    public enum TypeMail {
+        MODIFICATION,
+        VALIDATION
+    }
+
+    private final Map<String, Map<TypeMail, MailTemplate[]>> templates = new HashMap<>();
+
+    private final ThreadLocal<StringBuilder> buffer = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    /**
+     * Charge et compile tous les templates
+     */
+    @PostConstruct
+    public void chargerTemplates() {
+        for (String langue : LANGUES) {
+            Map<TypeMail, MailTemplate[]> parType = new EnumMap<>(TypeMail.class);
+            for (TypeMail type : TypeMail.values()) {
+                String base = DOSSIER + langue + "/" + type.name().toLowerCase();
+                parType.put(type, new MailTemplate[]{
+                        MailTemplate.compiler(base + ".sujet.txt", lire(base + ".sujet.txt").strip(), false),
+                        MailTemplate.compiler(base + ".txt", lire(base + ".txt").strip(), false),
+                        MailTemplate.compiler(base + ".html", lire(base + ".html"), true)
+                });
+            }
+            templates.put(langue, parType);
+        }
+        log.info("{} template(s) de mail compilé(s) pour les langues {}",
+                templates.size() * TypeMail.values().length * 3, String.join(", ", LANGUES));
+    }
+
+    /**
+     * Rend le sujet et les versions texte et HTML d'un mail
+     */
+    public MailRendu rendre(TypeMail type, Locale locale, Map<String, String> modele) {
+        MailTemplate[] compiles = templatesPour(type, locale);
+        return new MailRendu(
+                rendre(compiles[0], modele),
+                rendre(compiles[1], modele),
+                rendre(compiles[2], modele));
+    }
+
+    /**
+     * Rend le sujet et les versions texte et HTML d'un mail dans la langue par défaut
+     */
+    public MailRendu rendre(TypeMail type, Map<String, String> modele) {
+        return rendre(type, null, modele);
+    }
+
+    private String rendre(MailTemplate template, Map<String, String> modele) {
+        StringBuilder sortie = buffer.get();
+        sortie.setLength(0);
+        template.rendre(modele, sortie);
+        String resultat = sortie.toString();
+        // Ne pas garder en mémoire un buffer agrandi par un message exceptionnel
+        if (sortie.capacity() > CAPACITE_MAX_BUFFER) {
+            buffer.remove();
+        }
+        return resultat;
+    }
+
+    private MailTemplate[] templatesPour(TypeMail type, Locale locale) {
+        Map<TypeMail, MailTemplate[]> parType = locale != null ? templates.get(locale.getLanguage()) : null;
+        if (parType == null) {
+            parType = templates.get(LANGUE_DEFAUT);
+        }
+        return parType.get(type);
+    }
+
+    private static String lire(String chemin) {
+        try (InputStream in = new ClassPathResource(chemin).getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Template de mail introuvable : " + chemin, e);
+        }
+    }
+}
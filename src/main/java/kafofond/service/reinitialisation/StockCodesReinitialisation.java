@@ -0,0 +1,31 @@
+package kafofond.service.reinitialisation;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Stockage des codes de réinitialisation de mot de passe
+ * Un seul code vivant par email (un nouveau code remplace le précédent), expiration automatique
+ * après la durée de validité, et consommation atomique : un code ne sert qu'une fois, même sous
+ * requêtes concurrentes. Implémentation choisie par securite.reinitialisation.stockage
+ * (memoire par défaut, jdbc pour partager les codes entre plusieurs instances)
+ */
+public interface StockCodesReinitialisation {
+
+    /**
+     * Enregistre le code pour l'email en remplaçant le code précédent
+     * @return false si le code est déjà attribué à un autre email ou si l'écriture a perdu un conflit
+     *         de verrous (l'appelant en tire un autre)
+     */
+    boolean enregistrer(String email, String code, Duration validite);
+
+    /**
+     * Consomme le code : renvoie l'email associé si le code existe et n'est pas expiré, puis le supprime
+     */
+    Optional<String> consommer(String code);
+
+    /**
+     * Nombre de codes actuellement stockés (estimation pour l'implémentation mémoire)
+     */
+    long taille();
+}
@@ -0,0 +1,131 @@
+package kafofond.service.reinitialisation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Codes de réinitialisation partagés en base (table codes_reinitialisation, migration V12)
+ * pour plusieurs instances derrière un répartiteur de charge.
+ * - email en clé primaire : un seul code vivant par utilisateur
+ * - seule l'empreinte HMAC-SHA256 du code est stockée, unique ; la clé (securite.reinitialisation.cle-hmac,
+ *   jwt.secret par défaut) reste côté serveur et doit être la même sur toutes les instances : sans elle,
+ *   l'empreinte d'un code à 6 chiffres ne peut pas être retrouvée par essai des 10^6 valeurs
+ * - la consommation est un DELETE conditionnel : une seule instance peut l'emporter
+ * - les codes expirés sont purgés périodiquement
+ */
+@Component
+@ConditionalOnProperty(name = "securite.reinitialisation.stockage", havingValue = "jdbc")
+@Slf4j
+public class StockCodesReinitialisationJdbc implements StockCodesReinitialisation {
+
+    private static final String SQL_SUPPRIMER_EMAIL = "DELETE FROM codes_reinitialisation WHERE email = ?";
+    private static final String SQL_INSERER = "INSERT INTO codes_reinitialisation " +
+            "(email, empreinte_code, expire_le, date_creation) VALUES (?, ?, ?, ?)";
+    private static final String SQL_EMAIL_VALIDE = "SELECT email FROM codes_reinitialisation " +
+            "WHERE empreinte_code = ? AND expire_le > ?";
+    private static final String SQL_CONSOMMER = "DELETE FROM codes_reinitialisation " +
+            "WHERE empreinte_code = ? AND email = ? AND expire_le > ?";
+    private static final String SQL_PURGER = "DELETE FROM codes_reinitialisation WHERE expire_le <= ?";
+    private static final String ALGORITHME_HMAC = "HmacSHA256";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final SecretKeySpec cleHmac;
+
+    public StockCodesReinitialisationJdbc(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          @Value("${securite.reinitialisation.cle-hmac:${jwt.secret:}}") String cleHmac) {
+        if (cleHmac == null || cleHmac.isBlank()) {
+            throw new IllegalStateException(
+                    "securite.reinitialisation.cle-hmac (ou jwt.secret) est obligatoire avec le stockage jdbc");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.cleHmac = new SecretKeySpec(cleHmac.getBytes(StandardCharsets.UTF_8), ALGORITHME_HMAC);
+    }
+
+    @Override
+    public boolean enregistrer(String email, String code, Duration validite) {
+        LocalDateTime maintenant = LocalDateTime.now();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(statut -> {
+                jdbcTemplate.update(SQL_SUPPRIMER_EMAIL, email);
+                jdbcTemplate.update(SQL_INSERER, email, empreinte(code),
+                        Timestamp.valueOf(maintenant.plus(validite)), Timestamp.valueOf(maintenant));
+            });
+            return true;
+        } catch (DuplicateKeyException e) {
+            // Code déjà attribué (ou demande concurrente pour le même email) : l'appelant réessaie
+            return false;
+        } catch (PessimisticLockingFailureException e) {
+            // Interblocage ou attente de verrou dépassée entre le DELETE et l'INSERT de deux demandes
+            // concurrentes : la transaction est annulée, l'appelant réessaie avec un nouveau code
+            log.debug("Conflit de verrous à l'enregistrement d'un code pour {} : {}", email, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<String> consommer(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        String empreinte = empreinte(code);
+        Timestamp maintenant = Timestamp.valueOf(LocalDateTime.now());
+        List<String> emails = jdbcTemplate.queryForList(SQL_EMAIL_VALIDE, String.class, empreinte, maintenant);
+        if (emails.isEmpty()) {
+            return Optional.empty();
+        }
+        String email = emails.get(0);
+        return jdbcTemplate.update(SQL_CONSOMMER, empreinte, email, maintenant) == 1
+                ? Optional.of(email)
+                : Optional.empty();
+    }
+
+    @Override
+    public long taille() {
+        Long taille = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM codes_reinitialisation", Long.class);
+        return taille == null ? 0 : taille;
+    }
+
+    @Scheduled(fixedDelayString = "${securite.reinitialisation.purge-ms:300000}")
+    public void purgerExpires() {
+        int supprimes = jdbcTemplate.update(SQL_PURGER, Timestamp.valueOf(LocalDateTime.now()));
+        if (supprimes > 0) {
+            log.debug("{} code(s) de réinitialisation expiré(s) purgé(s)", supprimes);
+        }
+    }
+
+    /**
+     * HMAC-SHA256 du code (64 caractères hexadécimaux, comme la colonne empreinte_code)
+     * Mac n'est pas thread-safe : une instance par appel
+     */
+    private String empreinte(String code) {
+        try {
+            Mac hmac = Mac.getInstance(ALGORITHME_HMAC);
+            hmac.init(cleHmac);
+            return HexFormat.of().formatHex(hmac.doFinal(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+}
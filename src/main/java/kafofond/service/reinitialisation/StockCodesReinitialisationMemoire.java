@@ -0,0 +1,95 @@
+package kafofond.service.reinitialisation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Codes de réinitialisation en mémoire locale (instance unique)
+ * Deux caches Caffeine bornés : code → entrée et email → entrée. L'expiration suit la validité
+ * de chaque code et la taille maximale plafonne la mémoire même sous un afflux de demandes ;
+ * l'index par email permet le remplacement du code précédent
+ */
+@Component
+@ConditionalOnProperty(name = "securite.reinitialisation.stockage", havingValue = "memoire", matchIfMissing = true)
+@Slf4j
+public class StockCodesReinitialisationMemoire implements StockCodesReinitialisation {
+
+    private final Cache<String, Entree> parCode;
+    private final Cache<String, Entree> parEmail;
+
+    public StockCodesReinitialisationMemoire(@Value("${securite.reinitialisation.taille-max:10000}") long tailleMax) {
+        this.parCode = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfter(new ExpirationEntree())
+                .build();
+        this.parEmail = Caffeine.newBuilder()
+                .maximumSize(tailleMax)
+                .expireAfter(new ExpirationEntree())
+                .build();
+    }
+
+    @Override
+    public boolean enregistrer(String email, String code, Duration validite) {
+        Entree entree = new Entree(email, code, System.nanoTime() + validite.toNanos());
+        if (parCode.asMap().putIfAbsent(code, entree) != null) {
+            return false;
+        }
+        // Un seul code vivant par email : l'ancien code est retiré au remplacement
+        Entree ancienne = parEmail.asMap().put(email, entree);
+        if (ancienne != null && !ancienne.code().equals(code)) {
+            parCode.asMap().remove(ancienne.code(), ancienne);
+        }
+        return true;
+    }
+
+    @Override
+    public Optional<String> consommer(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        // remove atomique : deux requêtes concurrentes ne peuvent pas consommer le même code
+        Entree entree = parCode.asMap().remove(code);
+        if (entree == null || entree.expireNs() - System.nanoTime() <= 0) {
+            return Optional.empty();
+        }
+        parEmail.asMap().remove(entree.email(), entree);
+        return Optional.of(entree.email());
+    }
+
+    @Override
+    public long taille() {
+        return parCode.estimatedSize();
+    }
+
+    private record Entree(String email, String code, long expireNs) {
+    }
+
+    /**
+     * Chaque entrée expire à sa propre échéance (validité passée à l'enregistrement)
+     */
+    private static final class ExpirationEntree implements Expiry<String, Entree> {
+
+        @Override
+        public long expireAfterCreate(String cle, Entree entree, long maintenant) {
+            return Math.max(entree.expireNs() - maintenant, 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(String cle, Entree entree, long maintenant, long dureeRestante) {
+            return Math.max(entree.expireNs() - maintenant, 0);
+        }
+
+        @Override
+        public long expireAfterRead(String cle, Entree entree, long maintenant, long dureeRestante) {
+            return dureeRestante;
+        }
+    }
+}
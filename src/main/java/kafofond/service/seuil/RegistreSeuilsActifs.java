@@ -0,0 +1,174 @@
+package kafofond.service.seuil;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import kafofond.entity.SeuilValidation;
+import kafofond.repository.SeuilValidationRepo;
+import kafofond.service.coherence.CachesPartages;
+import kafofond.service.coherence.JournalInvalidations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Registre en mémoire du seuil actif de chaque entreprise
+ * Chargé à la première lecture, puis tenu à jour en écriture directe par SeuilValidationService
+ * (configuration, modification, activation, désactivation) après le commit : les validations
+ * d'ordres de paiement et de décisions de prélèvement ne lisent plus la base. Les autres instances
+ * oublient l'entreprise (journal des invalidations) et la rechargent à la lecture suivante.
+ * Une vérification périodique compare le registre à la table et corrige les écarts (écriture
+ * hors application, autre instance) ; les lectures servies par une entrée trouvée périmée sont comptées.
+ * Métriques : kafofond.seuils.divergences, kafofond.seuils.lectures_perimees, kafofond.seuils.entreprises
+ */
+@Component
+@Slf4j
+public class RegistreSeuilsActifs {
+
+    private final SeuilValidationRepo seuilValidationRepo;
+    private final JournalInvalidations journalInvalidations;
+    private final Map<Long, Entree> parEntreprise = new ConcurrentHashMap<>();
+    private final Counter divergences;
+    private final Counter lecturesPerimees;
+
+    public RegistreSeuilsActifs(SeuilValidationRepo seuilValidationRepo,
+                                JournalInvalidations journalInvalidations,
+                                MeterRegistry meterRegistry) {
+        this.seuilValidationRepo = seuilValidationRepo;
+        this.journalInvalidations = journalInvalidations;
+        this.divergences = Counter.builder("kafofond.seuils.divergences")
+                .description("Entrées du registre des seuils corrigées par la vérification de cohérence")
+                .register(meterRegistry);
+        this.lecturesPerimees = Counter.builder("kafofond.seuils.lectures_perimees")
+                .description("Lectures servies par une entrée du registre trouvée périmée (borne haute)")
+                .register(meterRegistry);
+        Gauge.builder("kafofond.seuils.entreprises", parEntreprise, Map::size)
+                .description("Entreprises présentes dans le registre des seuils")
+                .register(meterRegistry);
+        journalInvalidations.abonner(CachesPartages.SEUILS_ACTIFS, cle -> {
+            if (cle == null) {
+                parEntreprise.clear();
+            } else {
+                parEntreprise.remove(Long.valueOf(cle));
+            }
+        });
+    }
+
+    /**
+     * Seuil actif de l'entreprise (SeuilActif.AUCUN si aucun seuil ou entreprise inconnue)
+     */
+    public SeuilActif actif(Long entrepriseId) {
+        if (entrepriseId == null) {
+            return SeuilActif.AUCUN;
+        }
+        Entree entree = parEntreprise.computeIfAbsent(entrepriseId, this::charger);
+        entree.lectures().increment();
+        return entree.seuil();
+    }
+
+    /**
+     * Publie le nouveau seuil actif de l'entreprise (null : plus aucun seuil actif)
+     * Dans une transaction, la publication a lieu après le commit ; rien n'est publié en cas de rollback
+     */
+    public void publier(Long entrepriseId, SeuilValidation seuilActif) {
+        if (entrepriseId == null) {
+            return;
+        }
+        SeuilActif seuil = instantane(seuilActif);
+        journalInvalidations.publier(CachesPartages.SEUILS_ACTIFS, String.valueOf(entrepriseId));
+        apresCommit(() -> {
+            parEntreprise.put(entrepriseId, new Entree(seuil, System.nanoTime(), new LongAdder()));
+            log.debug("Seuil actif publié pour l'entreprise {} : {}", entrepriseId, seuil);
+        });
+    }
+
+    /**
+     * Oublie l'entreprise : la prochaine lecture recharge depuis la base
+     */
+    public void invalider(Long entrepriseId) {
+        if (entrepriseId != null) {
+            journalInvalidations.publier(CachesPartages.SEUILS_ACTIFS, String.valueOf(entrepriseId));
+            apresCommit(() -> parEntreprise.remove(entrepriseId));
+        }
+    }
+
+    public void invaliderTout() {
+        parEntreprise.clear();
+        journalInvalidations.publier(CachesPartages.SEUILS_ACTIFS, null);
+    }
+
+    /**
+     * Compare le registre aux seuils actifs en base et corrige les entrées divergentes
+     * Une entrée publiée après le début de la vérification est plus récente que la lecture : ignorée
+     */
+    @Scheduled(fixedDelayString = "${workflow.seuils.verification-ms:300000}",
+            initialDelayString = "${workflow.seuils.verification-ms:300000}")
+    public void verifierCoherence() {
+        if (parEntreprise.isEmpty()) {
+            return;
+        }
+        long debut = System.nanoTime();
+        Map<Long, SeuilActif> enBase = seuilValidationRepo.findByActifTrue().stream()
+                .filter(s -> s.getEntreprise() != null)
+                .collect(Collectors.toMap(s -> s.getEntreprise().getId(), RegistreSeuilsActifs::instantane,
+                        (a, b) -> a.seuilId() > b.seuilId() ? a : b));
+
+        int corrigees = 0;
+        for (Map.Entry<Long, Entree> e : parEntreprise.entrySet()) {
+            Entree entree = e.getValue();
+            SeuilActif attendu = enBase.getOrDefault(e.getKey(), SeuilActif.AUCUN);
+            if (entree.chargementNs() - debut > 0 || entree.seuil().equals(attendu)) {
+                continue;
+            }
+            if (parEntreprise.replace(e.getKey(), entree, new Entree(attendu, debut, new LongAdder()))) {
+                corrigees++;
+                divergences.increment();
+                lecturesPerimees.increment(entree.lectures().sum());
+                log.warn("Seuil actif périmé pour l'entreprise {} : registre={}, base={}",
+                        e.getKey(), entree.seuil(), attendu);
+            }
+        }
+        if (corrigees > 0) {
+            log.info("Registre des seuils : {} entreprise(s) corrigée(s) sur {}", corrigees, parEntreprise.size());
+        }
+    }
+
+    private Entree charger(Long entrepriseId) {
+        long chargement = System.nanoTime();
+        SeuilActif seuil = seuilValidationRepo.findFirstByEntrepriseIdAndActifTrueOrderByIdDesc(entrepriseId)
+                .map(RegistreSeuilsActifs::instantane)
+                .orElse(SeuilActif.AUCUN);
+        log.debug("Seuil actif chargé pour l'entreprise {} : {}", entrepriseId, seuil);
+        return new Entree(seuil, chargement, new LongAdder());
+    }
+
+    private static SeuilActif instantane(SeuilValidation seuil) {
+        return seuil == null ? SeuilActif.AUCUN : new SeuilActif(seuil.getId(), seuil.getMontantSeuil());
+    }
+
+    private static void apresCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * chargementNs : instant de la lecture en base (ou de la publication) qui a produit l'entrée
+     */
+    private record Entree(SeuilActif seuil, long chargementNs, LongAdder lectures) {
+    }
+}
@@ -0,0 +1,20 @@
+package kafofond.service.seuil;
+
+/**
+ * Instantané immuable du seuil actif d'une entreprise (AUCUN si aucun seuil n'est actif)
+ */
+public record SeuilActif(Long seuilId, double montantSeuil) {
+
+    public static final SeuilActif AUCUN = new SeuilActif(null, 0);
+
+    public boolean estDefini() {
+        return seuilId != null;
+    }
+
+    /**
+     * Même règle que ValidationService : le seuil est atteint à partir de montantSeuil
+     */
+    public boolean estAtteintPar(double montant) {
+        return estDefini() && montant >= montantSeuil;
+    }
+}
@@ -0,0 +1,19 @@
+-- =====================================================
+-- Script de migration V10 : Index de l'annuaire des utilisateurs
+-- Date: 2026-10-19
+-- Description: 
+--   Les listes d'utilisateurs (UtilisateurRepo.rechercherAnnuaire / listerAnnuaire)
+--   filtrent désormais en SQL par entreprise, rôle et état au lieu de charger
+--   toute la table. Index composite par entreprise pour les Admins / Directeurs,
+--   et (role, etat) pour les listes inter-entreprises du Super Admin
+-- =====================================================
+
+CREATE INDEX idx_utilisateurs_entreprise_role_etat
+ON utilisateurs(entreprise_id, role, etat);
+
+CREATE INDEX idx_utilisateurs_role_etat
+ON utilisateurs(role, etat);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V10
+-- =====================================================
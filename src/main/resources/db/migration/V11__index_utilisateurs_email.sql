@@ -0,0 +1,15 @@
+-- =====================================================
+-- Script de migration V11 : Index sur l'email des utilisateurs
+-- Date: 2026-10-19
+-- Description: 
+--   L'utilisateur authentifié est résolu par son email (nom porté par le jeton JWT).
+--   UtilisateurConnecteService le garde en cache, mais chaque absence de cache
+--   et chaque connexion (findByEmail) faisaient un parcours complet de la table
+-- =====================================================
+
+CREATE INDEX idx_utilisateurs_email
+ON utilisateurs(email);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V11
+-- =====================================================
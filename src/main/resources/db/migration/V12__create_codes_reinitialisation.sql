@@ -0,0 +1,26 @@
+-- =====================================================
+-- Script de migration V12 : Codes de réinitialisation de mot de passe partagés
+-- Date: 2026-10-19
+-- Description: 
+--   Stockage des codes de réinitialisation utilisé lorsque
+--   securite.reinitialisation.stockage=jdbc (plusieurs instances).
+--   Un seul code vivant par email (clé primaire) ; seule l'empreinte
+--   HMAC-SHA256 du code est conservée, avec la clé secrète
+--   securite.reinitialisation.cle-hmac (absente de la base) : sans elle,
+--   les empreintes ne se retrouvent pas par essai des 10^6 codes.
+--   Les codes expirés sont purgés périodiquement par StockCodesReinitialisationJdbc
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS codes_reinitialisation (
+    email VARCHAR(255) NOT NULL,
+    empreinte_code CHAR(64) NOT NULL,
+    expire_le DATETIME(6) NOT NULL,
+    date_creation DATETIME(6) NOT NULL,
+    PRIMARY KEY (email),
+    UNIQUE KEY uk_codes_reinitialisation_empreinte (empreinte_code),
+    KEY idx_codes_reinitialisation_expiration (expire_le)
+);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V12
+-- =====================================================
@@ -0,0 +1,24 @@
+-- =====================================================
+-- Script de migration V13 : Journal des invalidations de caches
+-- Date: 2026-10-19
+-- Description: 
+--   Cohérence des caches locaux entre plusieurs instances lorsque
+--   cache.coherence.mode=jdbc. Chaque invalidation (cache, clé) est
+--   ajoutée par l'instance émettrice ; les autres instances lisent
+--   les lignes d'id supérieur au dernier vu (clé primaire) et évincent
+--   localement. Les lignes anciennes sont purgées par date_creation
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS cache_invalidation (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    nom_cache VARCHAR(64) NOT NULL,
+    cle VARCHAR(320) NULL,
+    noeud VARCHAR(64) NOT NULL,
+    date_creation DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_cache_invalidation_date (date_creation)
+);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V13
+-- =====================================================
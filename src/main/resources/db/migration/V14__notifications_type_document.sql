@@ -0,0 +1,19 @@
+-- =====================================================
+-- Script de migration V14 : Type de document des notifications
+-- Date: 2026-10-19
+-- Description: 
+--   Conserve le type du document concerné (jusqu'ici seul l'id était
+--   stocké) pour que le marquage par document ne touche pas les
+--   notifications d'un autre type portant le même id. Les notifications
+--   existantes gardent un type NULL
+-- =====================================================
+
+ALTER TABLE notifications
+ADD COLUMN type_document VARCHAR(50) NULL AFTER date_envoi;
+
+ALTER TABLE notifications_archive
+ADD COLUMN type_document VARCHAR(50) NULL AFTER date_envoi;
+
+-- =====================================================
+-- FIN DE LA MIGRATION V14
+-- =====================================================
@@ -0,0 +1,16 @@
+-- =====================================================
+-- Script de migration V15 : Index de la boîte de réception sans filtre d'état
+-- Date: 2026-10-19
+-- Description: 
+--   La boîte de réception par défaut (sans filtre etat) ne peut utiliser
+--   que le préfixe destinataire_id de l'index V5 et trie alors tout
+--   l'historique du destinataire. Cet index suit l'ordre de la pagination
+--   par curseur (date_envoi, id) de NotificationRepo.findBoiteReception
+-- =====================================================
+
+CREATE INDEX idx_notifications_destinataire_date_id
+ON notifications(destinataire_id, date_envoi, id);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V15
+-- =====================================================
@@ -0,0 +1,15 @@
+-- =====================================================
+-- Script de migration V16 : Index des commentaires d'un document
+-- Date: 2026-10-19
+-- Description: 
+--   Index composite (type_document, document_id) : la chronologie d'un document
+--   et la sonde de son ETag (COUNT/MAX par source) ne parcourent plus toute la
+--   table commentaires
+-- =====================================================
+
+CREATE INDEX idx_commentaires_document
+ON commentaires(type_document, document_id);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V16
+-- =====================================================
@@ -0,0 +1,14 @@
+-- =====================================================
+-- Script de migration V5 : Index de la boîte de réception des notifications
+-- Date: 2026-10-19
+-- Description: 
+--   Index composite pour la pagination par curseur (dateEnvoi, id)
+--   de NotificationRepo.findBoiteReception
+-- =====================================================
+
+CREATE INDEX idx_notifications_destinataire_etat_date
+ON notifications(destinataire_id, etat, date_envoi);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V5
+-- =====================================================
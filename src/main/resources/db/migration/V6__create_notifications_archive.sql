@@ -0,0 +1,26 @@
+-- =====================================================
+-- Script de migration V6 : Archive des notifications
+-- Date: 2026-10-19
+-- Description: 
+--   Table compacte recevant les notifications lues au-delà de la rétention
+--   (notifications.retention.jours), déplacées par NotificationRetentionService
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS notifications_archive (
+    id BIGINT NOT NULL PRIMARY KEY COMMENT 'ID d''origine dans notifications',
+    titre VARCHAR(255),
+    message VARCHAR(255),
+    etat BOOLEAN,
+    transmission BOOLEAN,
+    date_envoi DATETIME(6),
+    id_document BIGINT,
+    destinataire_id BIGINT COMMENT 'ID du destinataire (sans clé étrangère)',
+    date_archivage DATETIME(6)
+) ROW_FORMAT=COMPRESSED;
+
+CREATE INDEX idx_notifications_archive_destinataire_date
+ON notifications_archive(destinataire_id, date_envoi);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V6
+-- =====================================================
@@ -0,0 +1,17 @@
+-- =====================================================
+-- Script de migration V7 : Index de l'historique des actions
+-- Date: 2026-10-19
+-- Description: 
+--   Index composites pour la recherche paginée par curseur (dateAction, id)
+--   de HistoriqueActionRepo.rechercher et pour l'historique d'un document
+-- =====================================================
+
+CREATE INDEX idx_historiques_entreprise_date
+ON historiques_actions(entreprise_id, date_action);
+
+CREATE INDEX idx_historiques_document
+ON historiques_actions(type_document, id_document);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V7
+-- =====================================================
@@ -0,0 +1,70 @@
+-- =====================================================
+-- Script de migration V8 : Archive mensuelle de l'historique et des validations
+-- Date: 2026-10-19
+-- Description: 
+--   Tables d'archive compressées, partitionnées par mois (mois_archive = AAAAMM),
+--   alimentées par HistoriqueArchiveService, et manifeste archive_segments.
+--   Les partitions mensuelles pAAAAMM sont détachées de p_max au fil de l'archivage
+--   lorsque historique.archive.partitions=true
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS historiques_actions_archive (
+    id BIGINT NOT NULL COMMENT 'ID d''origine dans historiques_actions',
+    type_document VARCHAR(255),
+    id_document BIGINT,
+    action VARCHAR(255),
+    ancien_statut VARCHAR(255),
+    nouveau_statut VARCHAR(255),
+    ancien_etat VARCHAR(255),
+    nouveau_etat VARCHAR(255),
+    date_action DATETIME(6),
+    utilisateur_id BIGINT COMMENT 'ID de l''utilisateur (sans clé étrangère)',
+    entreprise_id BIGINT COMMENT 'ID de l''entreprise (sans clé étrangère)',
+    mois_archive INT NOT NULL,
+    PRIMARY KEY (id, mois_archive)
+) ROW_FORMAT=COMPRESSED
+PARTITION BY RANGE (mois_archive) (
+    PARTITION p_max VALUES LESS THAN MAXVALUE
+);
+
+CREATE INDEX idx_historiques_archive_entreprise_date
+ON historiques_actions_archive(entreprise_id, date_action);
+
+CREATE INDEX idx_historiques_archive_document
+ON historiques_actions_archive(type_document, id_document);
+
+CREATE TABLE IF NOT EXISTS table_validation_archive (
+    id BIGINT NOT NULL COMMENT 'ID d''origine dans table_validation',
+    validateur_id BIGINT NOT NULL COMMENT 'ID du validateur (sans clé étrangère)',
+    commentaire TEXT,
+    statut VARCHAR(255) NOT NULL,
+    id_document BIGINT NOT NULL,
+    type_document VARCHAR(255) NOT NULL,
+    date_validation DATETIME(6),
+    mois_archive INT NOT NULL,
+    PRIMARY KEY (id, mois_archive)
+) ROW_FORMAT=COMPRESSED
+PARTITION BY RANGE (mois_archive) (
+    PARTITION p_max VALUES LESS THAN MAXVALUE
+);
+
+CREATE INDEX idx_validation_archive_document
+ON table_validation_archive(type_document, id_document);
+
+CREATE INDEX idx_validation_archive_validateur_date
+ON table_validation_archive(validateur_id, date_validation);
+
+CREATE TABLE IF NOT EXISTS archive_segments (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    source VARCHAR(20) NOT NULL COMMENT 'HISTORIQUE ou VALIDATION',
+    mois INT NOT NULL COMMENT 'Mois archivé AAAAMM',
+    debut DATETIME(6),
+    fin DATETIME(6),
+    nombre_lignes BIGINT,
+    date_archivage DATETIME(6),
+    CONSTRAINT uk_archive_segments_source_mois UNIQUE (source, mois)
+);
+
+-- =====================================================
+-- FIN DE LA MIGRATION V8
+-- =====================================================
@@ -0,0 +1,23 @@
+-- =====================================================
+-- Script de migration V9 : Index de la table de validation
+-- Date: 2026-10-19
+-- Description: 
+--   Index composites pour les validations d'un document et pour la recherche
+--   paginée par curseur (dateValidation, id) de TableValidationRepo.rechercher.
+--   La colonne statut est désormais typée par l'enum StatutValidation
+--   (valeurs existantes : VALIDE, REJETE, APPROUVE, CREATION)
+-- =====================================================
+
+CREATE INDEX idx_validation_document
+ON table_validation(type_document, id_document);
+
+CREATE INDEX idx_validation_validateur_date
+ON table_validation(validateur_id, date_validation);
+
+-- Contrôle : aucune ligne ne doit sortir de l'enum
+-- SELECT DISTINCT statut FROM table_validation
+-- WHERE statut NOT IN ('CREATION', 'EN_ATTENTE', 'VALIDE', 'APPROUVE', 'REJETE');
+
+-- =====================================================
+-- FIN DE LA MIGRATION V9
+-- =====================================================
@@ -0,0 +1,229 @@
+package kafofond.charge;
+
+import kafofond.entity.*;
+import kafofond.repository.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Jeu de données du banc de charge : N entreprises, un utilisateur par rôle métier,
+ * un budget et une ligne de crédit, puis des chaînes complètes FB → DA → BC → ASF → DP → OP
+ * Les documents sont persistés directement (sans passer par le workflow) pour que l'amorçage
+ * reste rapide même avec plusieurs milliers de chaînes
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JeuDeDonneesCharge {
+
+    public static final String MOT_DE_PASSE = "charge123";
+
+    private static final Role[] ROLES = {Role.ADMIN, Role.DIRECTEUR, Role.RESPONSABLE,
+            Role.GESTIONNAIRE, Role.COMPTABLE, Role.TRESORERIE};
+
+    private final EntrepriseRepo entrepriseRepo;
+    private final UtilisateurRepo utilisateurRepo;
+    private final BudgetRepo budgetRepo;
+    private final LigneCreditRepo ligneCreditRepo;
+    private final FicheBesoinRepo ficheBesoinRepo;
+    private final DemandeDAchatRepo demandeDAchatRepo;
+    private final BonDeCommandeRepo bonDeCommandeRepo;
+    private final AttestationDeServiceFaitRepo attestationDeServiceFaitRepo;
+    private final DecisionDePrelevementRepo decisionDePrelevementRepo;
+    private final OrdreDePaiementRepo ordreDePaiementRepo;
+
+    /**
+     * Entreprise amorcée : emails par rôle et IDs des documents utilisables par le mélange d'opérations
+     */
+    public record EntrepriseAmorcee(Long id, Map<Role, String> emails, List<Long> bonsDeCommande,
+                                    List<Long> ordresDePaiement, List<Long> fichesBesoin) {
+    }
+
+    public List<EntrepriseAmorcee> amorcer(int nombreEntreprises, int chainesParEntreprise, long graine) {
+        Random aleatoire = new Random(graine);
+        // Un seul hachage BCrypt : tous les comptes partagent le mot de passe du banc
+        String motDePasseHache = new BCryptPasswordEncoder().encode(MOT_DE_PASSE);
+        List<EntrepriseAmorcee> entreprises = new ArrayList<>();
+
+        for (int e = 1; e <= nombreEntreprises; e++) {
+            Entreprise entreprise = entrepriseRepo.save(Entreprise.builder()
+                    .nom("Charge " + e)
+                    .domaine("Finance")
+                    .adresse("Bamako")
+                    .email("contact@charge" + e + ".ml")
+                    .dateCreation(LocalDateTime.now())
+                    .etat(true)
+                    .build());
+
+            Map<Role, Utilisateur> utilisateurs = new EnumMap<>(Role.class);
+            Map<Role, String> emails = new EnumMap<>(Role.class);
+            for (Role role : ROLES) {
+                String email = role.name().toLowerCase() + "@charge" + e + ".ml";
+                utilisateurs.put(role, utilisateurRepo.save(Utilisateur.builder()
+                        .nom(role.name())
+                        .prenom("Charge" + e)
+                        .email(email)
+                        .motDePasse(motDePasseHache)
+                        .departement("Charge")
+                        .role(role)
+                        .etat(true)
+                        .dateCreation(LocalDateTime.now())
+                        .entreprise(entreprise)
+                        .build()));
+                emails.put(role, email);
+            }
+
+            Utilisateur comptable = utilisateurs.get(Role.COMPTABLE);
+            Budget budget = budgetRepo.save(Budget.builder()
+                    .code("BU-C" + e)
+                    .intituleBudget("Budget de charge " + e)
+                    .montantBudget(1_000_000_000d)
+                    .dateCreation(LocalDateTime.now())
+                    .dateDebut(LocalDate.now().withDayOfYear(1))
+                    .dateFin(LocalDate.now().withDayOfYear(1).plusYears(1).minusDays(1))
+                    .statut(Statut.APPROUVE)
+                    .etat(true)
+                    .creePar(comptable)
+                    .entreprise(entreprise)
+                    .build());
+            LigneCredit ligne = ligneCreditRepo.save(LigneCredit.builder()
+                    .code("LC-C" + e)
+                    .intituleLigne("Ligne de charge " + e)
+                    .montantAllouer(1_000_000_000d)
+                    .montantRestant(1_000_000_000d)
+                    .dateCreation(LocalDateTime.now())
+                    .dateDebut(budget.getDateDebut())
+                    .dateFin(budget.getDateFin())
+                    .statut(Statut.APPROUVE)
+                    .etat(true)
+                    .creePar(comptable)
+                    .budget(budget)
+                    .build());
+
+            List<Long> bons = new ArrayList<>();
+            List<Long> ordres = new ArrayList<>();
+            List<Long> fiches = new ArrayList<>();
+            for (int c = 1; c <= chainesParEntreprise; c++) {
+                String suffixe = e + "-" + c;
+                LocalDateTime date = LocalDateTime.now().minusDays(aleatoire.nextInt(365));
+                double montant = 10_000 + aleatoire.nextInt(990_000);
+                chaine(entreprise, utilisateurs, ligne, suffixe, date, montant, bons, ordres, fiches);
+            }
+
+            entreprises.add(new EntrepriseAmorcee(entreprise.getId(), emails, bons, ordres, fiches));
+            log.info("Entreprise de charge {} amorcée : {} chaîne(s) FB → OP", entreprise.getId(), chainesParEntreprise);
+        }
+        return entreprises;
+    }
+
+    private void chaine(Entreprise entreprise, Map<Role, Utilisateur> utilisateurs, LigneCredit ligne,
+                        String suffixe, LocalDateTime date, double montant,
+                        List<Long> bons, List<Long> ordres, List<Long> fiches) {
+        Utilisateur tresorerie = utilisateurs.get(Role.TRESORERIE);
+        Utilisateur gestionnaire = utilisateurs.get(Role.GESTIONNAIRE);
+        Utilisateur comptable = utilisateurs.get(Role.COMPTABLE);
+
+        FicheDeBesoin fiche = ficheBesoinRepo.save(FicheDeBesoin.builder()
+                .code("FB-C" + suffixe)
+                .serviceBeneficiaire("Service " + suffixe)
+                .objet("Besoin de charge " + suffixe)
+                .description("Fiche générée par le banc de charge")
+                .quantite(1)
+                .montantEstime(montant)
+                .dateAttendu(date.toLocalDate().plusDays(30))
+                .dateCreation(date)
+                .statut(Statut.APPROUVE)
+                .creePar(tresorerie)
+                .entreprise(entreprise)
+                .designations(new ArrayList<>())
+                .build());
+        fiches.add(fiche.getId());
+
+        DemandeDAchat demande = demandeDAchatRepo.save(DemandeDAchat.builder()
+                .code("DA-C" + suffixe)
+                .referenceBesoin(fiche.getCode())
+                .description(fiche.getObjet())
+                .fournisseur("Fournisseur " + suffixe)
+                .montantTotal(montant)
+                .serviceBeneficiaire(fiche.getServiceBeneficiaire())
+                .dateCreation(date.plusDays(1))
+                .dateAttendu(fiche.getDateAttendu())
+                .statut(Statut.APPROUVE)
+                .creePar(tresorerie)
+                .entreprise(entreprise)
+                .ficheDeBesoin(fiche)
+                .build());
+
+        BonDeCommande bon = bonDeCommandeRepo.save(BonDeCommande.builder()
+                .code("BC-C" + suffixe)
+                .fournisseur(demande.getFournisseur())
+                .description(demande.getDescription())
+                .montantTotal(montant)
+                .serviceBeneficiaire(demande.getServiceBeneficiaire())
+                .modePaiement("Virement")
+                .dateCreation(date.plusDays(2))
+                .delaiPaiement(date.toLocalDate().plusDays(45))
+                .dateExecution(date.toLocalDate().plusDays(10))
+                .statut(Statut.APPROUVE)
+                .creePar(gestionnaire)
+                .entreprise(entreprise)
+                .demandeDAchat(demande)
+                .build());
+        bons.add(bon.getId());
+
+        AttestationDeServiceFait attestation = attestationDeServiceFaitRepo.save(AttestationDeServiceFait.builder()
+                .code("ASF-C" + suffixe)
+                .referenceBonCommande(bon.getCode())
+                .fournisseur(bon.getFournisseur())
+                .titre("Attestation " + suffixe)
+                .constat("Service conforme")
+                .dateLivraison(bon.getDateExecution())
+                .dateCreation(date.plusDays(12))
+                .creePar(gestionnaire)
+                .entreprise(entreprise)
+                .bonDeCommande(bon)
+                .build());
+
+        DecisionDePrelevement decision = decisionDePrelevementRepo.save(DecisionDePrelevement.builder()
+                .code("DP-C" + suffixe)
+                .referenceAttestation(attestation.getCode())
+                .montant(montant)
+                .compteOrigine("ML001")
+                .compteDestinataire("ML" + suffixe)
+                .motifPrelevement("Paiement " + bon.getCode())
+                .dateCreation(date.plusDays(13))
+                .statut(Statut.APPROUVE)
+                .creePar(comptable)
+                .entreprise(entreprise)
+                .attestationDeServiceFait(attestation)
+                .ligneCredit(ligne)
+                .build());
+
+        OrdreDePaiement ordre = ordreDePaiementRepo.save(OrdreDePaiement.builder()
+                .code("OP-C" + suffixe)
+                .referenceDecisionPrelevement(decision.getCode())
+                .montant(montant)
+                .description(decision.getMotifPrelevement())
+                .compteOrigine(decision.getCompteOrigine())
+                .compteDestinataire(decision.getCompteDestinataire())
+                .dateExecution(date.toLocalDate().plusDays(15))
+                .dateCreation(date.plusDays(14))
+                .statut(Statut.EN_COURS)
+                .creePar(comptable)
+                .entreprise(entreprise)
+                .decisionDePrelevement(decision)
+                .ligneCredit(ligne)
+                .build());
+        ordres.add(ordre.getId());
+    }
+}
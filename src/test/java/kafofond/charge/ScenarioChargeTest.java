@@ -0,0 +1,379 @@
+package kafofond.charge;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import kafofond.entity.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Banc de charge : démarre l'application sur H2 (mode MySQL), amorce le jeu de données puis
+ * envoie pendant une durée fixe un mélange réaliste d'appels HTTP (création, validation,
+ * approbation, listes, PDF, tableaux de bord) depuis des clients concurrents.
+ * Écrit p50/p95/p99 et débit par endpoint dans un JSON de référence (charge.sortie) ;
+ * échoue si un endpoint dépasse charge.taux-erreur-max d'appels en échec (les latences ne comptent
+ * que les appels réussis) et, si charge.reference pointe vers une référence précédente, quand un p95
+ * régresse au-delà de charge.tolerance.
+ * Lancer avec : mvn test -Pcharge [-Dcharge.clients=64 -Dcharge.duree-secondes=120]
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("charge")
+@Tag("charge")
+@Slf4j
+class ScenarioChargeTest {
+
+    /**
+     * Mélange d'opérations : nom de l'endpoint mesuré et poids relatif
+     */
+    private static final Map<String, Integer> MELANGE = new LinkedHashMap<>();
+
+    static {
+        MELANGE.put("POST /api/fiches-besoin", 10);
+        MELANGE.put("POST /api/fiches-besoin/{id}/valider", 8);
+        MELANGE.put("POST /api/fiches-besoin/{id}/approuver", 6);
+        MELANGE.put("GET /api/fiches-besoin", 15);
+        MELANGE.put("GET /api/bons-commande", 12);
+        MELANGE.put("GET /api/ordres-paiement", 10);
+        MELANGE.put("GET /api/validation/recherche", 8);
+        MELANGE.put("GET /api/historique/recherche", 6);
+        MELANGE.put("GET /api/documents/bon-commande/{id}/pdf", 5);
+        MELANGE.put("GET /api/statistiques/directeur/dashboard", 10);
+        MELANGE.put("GET /api/statistiques/comptable/dashboard", 10);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JeuDeDonneesCharge jeuDeDonnees;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${charge.entreprises:3}")
+    private int nombreEntreprises;
+
+    @Value("${charge.chaines-par-entreprise:40}")
+    private int chainesParEntreprise;
+
+    @Value("${charge.clients:32}")
+    private int clients;
+
+    @Value("${charge.duree-secondes:60}")
+    private int dureeSecondes;
+
+    @Value("${charge.chauffe-secondes:10}")
+    private int chauffeSecondes;
+
+    @Value("${charge.graine:42}")
+    private long graine;
+
+    @Value("${charge.sortie:target/charge/baseline-charge.json}")
+    private String sortie;
+
+    @Value("${charge.reference:}")
+    private String reference;
+
+    @Value("${charge.tolerance:0.25}")
+    private double tolerance;
+
+    @Value("${charge.taux-erreur-max:0.01}")
+    private double tauxErreurMax;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final AtomicInteger postesClients = new AtomicInteger();
+
+    /**
+     * État partagé d'une entreprise : jetons par rôle et fiches en attente de l'étape suivante
+     */
+    private record EtatEntreprise(JeuDeDonneesCharge.EntrepriseAmorcee donnees, Map<Role, String> jetons,
+                                  Queue<Long> fichesAValider, Queue<Long> fichesAApprouver) {
+    }
+
+    private record Requete(String endpoint, Role role, String methode, String chemin, String corps) {
+    }
+
+    @Test
+    void scenarioFicheBesoinJusquOrdreDePaiement() throws Exception {
+        long debutAmorcage = System.nanoTime();
+        List<EtatEntreprise> entreprises = new ArrayList<>();
+        for (JeuDeDonneesCharge.EntrepriseAmorcee donnees : jeuDeDonnees.amorcer(nombreEntreprises, chainesParEntreprise, graine)) {
+            Map<Role, String> jetons = new EnumMap<>(Role.class);
+            for (Map.Entry<Role, String> compte : donnees.emails().entrySet()) {
+                jetons.put(compte.getKey(), connecter(compte.getValue()));
+            }
+            entreprises.add(new EtatEntreprise(donnees, jetons, new ConcurrentLinkedQueue<>(), new ConcurrentLinkedQueue<>()));
+        }
+        log.info("Amorçage terminé en {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - debutAmorcage));
+
+        executer(entreprises, chauffeSecondes, null, 0);
+        StatistiquesLatence statistiques = new StatistiquesLatence();
+        long debut = System.nanoTime();
+        executer(entreprises, dureeSecondes, statistiques, 1);
+        long duree = System.nanoTime() - debut;
+
+        Map<String, Map<String, Object>> endpoints = statistiques.synthese(duree);
+        Map<String, Object> rapport = new LinkedHashMap<>();
+        rapport.put("genereLe", LocalDateTime.now().toString());
+        rapport.put("java", Runtime.version().toString());
+        rapport.put("configuration", Map.of(
+                "entreprises", nombreEntreprises,
+                "chainesParEntreprise", chainesParEntreprise,
+                "clients", clients,
+                "dureeSecondes", dureeSecondes,
+                "graine", graine,
+                "threadsVirtuels", threadsVirtuelsDisponibles()));
+        rapport.put("endpoints", endpoints);
+
+        Path fichier = Path.of(sortie);
+        Files.createDirectories(fichier.toAbsolutePath().getParent());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(fichier.toFile(), rapport);
+        log.info("Référence de charge écrite dans {}", fichier.toAbsolutePath());
+
+        Map<String, Double> enErreur = statistiques.endpointsEnErreur(tauxErreurMax);
+        enErreur.forEach((endpoint, taux) -> log.warn("Taux d'erreur sur {} : {} %", endpoint, Math.round(taux * 10_000) / 100.0));
+        assertTrue(enErreur.isEmpty(), "Taux d'erreur supérieur à " + tauxErreurMax * 100 + " % : " + enErreur);
+        comparerAvecReference(endpoints);
+    }
+
+    /**
+     * Lance les clients concurrents jusqu'à l'échéance ; statistiques null = chauffe sans mesure
+     * Chaque client tire ses opérations d'un Random dérivé de charge.graine (phase, numéro de client) :
+     * deux exécutions de même graine envoient la même suite d'opérations par client.
+     * Un client arrêté par une exception fait échouer le banc (sinon la charge mesurée serait moindre)
+     */
+    private void executer(List<EtatEntreprise> entreprises, int secondes, StatistiquesLatence statistiques,
+                          int phase) throws InterruptedException {
+        long echeance = System.nanoTime() + TimeUnit.SECONDS.toNanos(secondes);
+        ExecutorService executeur = executeurClients();
+        List<Future<Void>> clientsLances = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random aleatoire = new Random(graine * 1_000_003L + phase * 10_007L + c);
+            clientsLances.add(executeur.submit(() -> {
+                while (System.nanoTime() < echeance) {
+                    EtatEntreprise etat = entreprises.get(aleatoire.nextInt(entreprises.size()));
+                    Requete requete = requete(tirerOperation(aleatoire), etat, aleatoire);
+                    envoyer(requete, etat, statistiques);
+                }
+                return null;
+            }));
+        }
+        executeur.shutdown();
+        if (!executeur.awaitTermination(secondes + 60L, TimeUnit.SECONDS)) {
+            executeur.shutdownNow();
+            throw new IllegalStateException("Clients de charge toujours actifs " + (secondes + 60L) + " s après le départ");
+        }
+        for (int c = 0; c < clientsLances.size(); c++) {
+            try {
+                clientsLances.get(c).get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Client de charge " + c + " arrêté par une exception", e.getCause());
+            }
+        }
+    }
+
+    private String tirerOperation(Random aleatoire) {
+        int total = MELANGE.values().stream().mapToInt(Integer::intValue).sum();
+        int tirage = aleatoire.nextInt(total);
+        for (Map.Entry<String, Integer> operation : MELANGE.entrySet()) {
+            tirage -= operation.getValue();
+            if (tirage < 0) {
+                return operation.getKey();
+            }
+        }
+        throw new IllegalStateException("Mélange d'opérations vide");
+    }
+
+    private Requete requete(String endpoint, EtatEntreprise etat, Random aleatoire) {
+        JeuDeDonneesCharge.EntrepriseAmorcee donnees = etat.donnees();
+        switch (endpoint) {
+            case "POST /api/fiches-besoin" -> {
+                int montant = 1_000 + aleatoire.nextInt(500_000);
+                String corps = "{\"serviceBeneficiaire\":\"Service charge\",\"objet\":\"Besoin " + montant + "\","
+                        + "\"description\":\"Créée par le banc de charge\",\"montantEstime\":" + montant + ","
+                        + "\"dateAttendu\":\"" + LocalDate.now().plusDays(30) + "\"}";
+                return new Requete(endpoint, Role.TRESORERIE, "POST", "/api/fiches-besoin", corps);
+            }
+            case "POST /api/fiches-besoin/{id}/valider" -> {
+                Long id = etat.fichesAValider().poll();
+                if (id != null) {
+                    return new Requete(endpoint, Role.GESTIONNAIRE, "POST", "/api/fiches-besoin/" + id + "/valider", null);
+                }
+            }
+            case "POST /api/fiches-besoin/{id}/approuver" -> {
+                Long id = etat.fichesAApprouver().poll();
+                if (id != null) {
+                    return new Requete(endpoint, Role.COMPTABLE, "POST", "/api/fiches-besoin/" + id + "/approuver", null);
+                }
+            }
+            case "GET /api/bons-commande" -> {
+                return new Requete(endpoint, Role.GESTIONNAIRE, "GET", "/api/bons-commande", null);
+            }
+            case "GET /api/ordres-paiement" -> {
+                return new Requete(endpoint, Role.COMPTABLE, "GET", "/api/ordres-paiement", null);
+            }
+            case "GET /api/validation/recherche" -> {
+                return new Requete(endpoint, Role.DIRECTEUR, "GET", "/api/validation/recherche?taille=50", null);
+            }
+            case "GET /api/historique/recherche" -> {
+                return new Requete(endpoint, Role.ADMIN, "GET", "/api/historique/recherche?taille=50", null);
+            }
+            case "GET /api/documents/bon-commande/{id}/pdf" -> {
+                List<Long> bons = donnees.bonsDeCommande();
+                if (!bons.isEmpty()) {
+                    Long id = bons.get(aleatoire.nextInt(bons.size()));
+                    return new Requete(endpoint, Role.GESTIONNAIRE, "GET", "/api/documents/bon-commande/" + id + "/pdf", null);
+                }
+            }
+            case "GET /api/statistiques/directeur/dashboard" -> {
+                return new Requete(endpoint, Role.DIRECTEUR, "GET", "/api/statistiques/directeur/dashboard", null);
+            }
+            case "GET /api/statistiques/comptable/dashboard" -> {
+                return new Requete(endpoint, Role.COMPTABLE, "GET", "/api/statistiques/comptable/dashboard", null);
+            }
+            default -> {
+            }
+        }
+        // Aucune fiche en attente pour cette étape : lecture de la liste à la place
+        return new Requete("GET /api/fiches-besoin", Role.GESTIONNAIRE, "GET", "/api/fiches-besoin", null);
+    }
+
+    private void envoyer(Requete requete, EtatEntreprise etat, StatistiquesLatence statistiques) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + requete.chemin()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + etat.jetons().get(requete.role()));
+        if ("POST".equals(requete.methode())) {
+            builder.header("Content-Type", "application/json")
+                    .POST(requete.corps() != null
+                            ? HttpRequest.BodyPublishers.ofString(requete.corps())
+                            : HttpRequest.BodyPublishers.noBody());
+        } else {
+            builder.GET();
+        }
+
+        long debut = System.nanoTime();
+        boolean succes;
+        String corps = null;
+        try {
+            HttpResponse<String> reponse = http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+            succes = reponse.statusCode() / 100 == 2;
+            corps = reponse.body();
+        } catch (Exception e) {
+            succes = false;
+        }
+        long duree = System.nanoTime() - debut;
+        if (statistiques != null) {
+            statistiques.enregistrer(requete.endpoint(), duree, succes);
+        }
+        if (succes) {
+            enchainer(requete, etat, corps);
+        }
+    }
+
+    /**
+     * Fait avancer la fiche créée ou validée vers l'étape suivante du workflow
+     */
+    private void enchainer(Requete requete, EtatEntreprise etat, String corps) {
+        try {
+            switch (requete.endpoint()) {
+                case "POST /api/fiches-besoin" -> {
+                    JsonNode id = objectMapper.readTree(corps).path("fiche").path("id");
+                    if (id.isNumber()) {
+                        etat.fichesAValider().add(id.asLong());
+                    }
+                }
+                case "POST /api/fiches-besoin/{id}/valider" -> {
+                    String chemin = requete.chemin();
+                    etat.fichesAApprouver().add(Long.valueOf(chemin.split("/")[3]));
+                }
+                default -> {
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Réponse inattendue pour {} : {}", requete.endpoint(), e.getMessage());
+        }
+    }
+
+    private String connecter(String email) throws Exception {
+        String corps = objectMapper.writeValueAsString(Map.of("email", email, "motDePasse", JeuDeDonneesCharge.MOT_DE_PASSE));
+        // Chaque compte se connecte depuis son propre poste, annoncé comme derrière le répartiteur (127.0.0.1)
+        int poste = postesClients.incrementAndGet();
+        String adresseClient = "198.51." + (100 + poste / 250) + "." + (poste % 250 + 1);
+        HttpResponse<String> reponse = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .header("X-Forwarded-For", adresseClient)
+                        .POST(HttpRequest.BodyPublishers.ofString(corps))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (reponse.statusCode() != 200) {
+            throw new IllegalStateException("Connexion impossible pour " + email + " : " + reponse.body());
+        }
+        return objectMapper.readTree(reponse.body()).path("token").asText();
+    }
+
+    /**
+     * Compare les p95 à la référence précédente (même format) : échoue au-delà de la tolérance
+     */
+    private void comparerAvecReference(Map<String, Map<String, Object>> endpoints) throws Exception {
+        if (reference.isBlank() || !Files.exists(Path.of(reference))) {
+            return;
+        }
+        JsonNode precedente = objectMapper.readTree(Path.of(reference).toFile()).path("endpoints");
+        Map<String, String> regressions = new TreeMap<>();
+        endpoints.forEach((endpoint, mesures) -> {
+            JsonNode ancien = precedente.path(endpoint).path("p95Ms");
+            double p95 = (Double) mesures.get("p95Ms");
+            if (ancien.isNumber() && ancien.asDouble() > 0 && p95 > ancien.asDouble() * (1 + tolerance)) {
+                regressions.put(endpoint, ancien.asDouble() + " ms → " + p95 + " ms");
+            }
+        });
+        regressions.forEach((endpoint, ecart) -> log.warn("Régression p95 sur {} : {}", endpoint, ecart));
+        assertTrue(regressions.isEmpty(), "p95 en régression de plus de " + (int) (tolerance * 100) + " % : " + regressions);
+    }
+
+    /**
+     * Un thread virtuel par client si le JDK les fournit (21+), sinon un pool fixe de threads plateforme
+     */
+    private ExecutorService executeurClients() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(clients);
+        }
+    }
+
+    private static boolean threadsVirtuelsDisponibles() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package kafofond.charge;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latences par endpoint du banc de charge, puis synthèse p50/p95/p99, débit et taux d'erreur
+ * Les échantillons sont conservés bruts (tableau extensible par endpoint) : quelques millions
+ * de mesures tiennent en mémoire et les percentiles sont exacts. Seuls les appels réussis entrent
+ * dans les percentiles et le débit : un refus rapide (403, 429, 500) ne doit pas faire baisser le p95
+ */
+public class StatistiquesLatence {
+
+    private final Map<String, Echantillons> parEndpoint = new ConcurrentHashMap<>();
+
+    public void enregistrer(String endpoint, long dureeNs, boolean succes) {
+        parEndpoint.computeIfAbsent(endpoint, e -> new Echantillons()).ajouter(dureeNs, succes);
+    }
+
+    /**
+     * Synthèse triée par endpoint (ordre stable pour que le JSON se compare ligne à ligne)
+     */
+    public Map<String, Map<String, Object>> synthese(long dureeMesureNs) {
+        double secondes = dureeMesureNs / 1e9;
+        Map<String, Map<String, Object>> synthese = new TreeMap<>();
+        parEndpoint.forEach((endpoint, echantillons) -> synthese.put(endpoint, echantillons.synthese(secondes)));
+        return synthese;
+    }
+
+    /**
+     * Endpoints dont la part d'appels en échec dépasse tauxMax, avec leur taux
+     */
+    public Map<String, Double> endpointsEnErreur(double tauxMax) {
+        Map<String, Double> enErreur = new TreeMap<>();
+        parEndpoint.forEach((endpoint, echantillons) -> {
+            double taux = echantillons.tauxErreur();
+            if (taux > tauxMax) {
+                enErreur.put(endpoint, taux);
+            }
+        });
+        return enErreur;
+    }
+
+    private static final class Echantillons {
+
+        // Durées des seuls appels réussis
+        private long[] durees = new long[1024];
+        private int taille;
+        private long erreurs;
+
+        synchronized void ajouter(long dureeNs, boolean succes) {
+            if (!succes) {
+                erreurs++;
+                return;
+            }
+            if (taille == durees.length) {
+                durees = Arrays.copyOf(durees, taille * 2);
+            }
+            durees[taille++] = dureeNs;
+        }
+
+        synchronized double tauxErreur() {
+            long requetes = taille + erreurs;
+            return requetes == 0 ? 0 : erreurs / (double) requetes;
+        }
+
+        synchronized Map<String, Object> synthese(double secondes) {
+            long[] triees = Arrays.copyOf(durees, taille);
+            Arrays.sort(triees);
+            Map<String, Object> resultat = new LinkedHashMap<>();
+            resultat.put("requetes", taille + erreurs);
+            resultat.put("erreurs", erreurs);
+            resultat.put("tauxErreurPourcent", arrondir(tauxErreur() * 100));
+            resultat.put("debitParSeconde", arrondir(taille / secondes));
+            resultat.put("p50Ms", percentile(triees, 0.50));
+            resultat.put("p95Ms", percentile(triees, 0.95));
+            resultat.put("p99Ms", percentile(triees, 0.99));
+            resultat.put("maxMs", taille == 0 ? 0 : millis(triees[taille - 1]));
+            return resultat;
+        }
+
+        private static double percentile(long[] triees, double rang) {
+            if (triees.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(rang * triees.length) - 1;
+            return millis(triees[Math.max(index, 0)]);
+        }
+
+        private static double millis(long ns) {
+            return arrondir(ns / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        private static double arrondir(double valeur) {
+            return Math.round(valeur * 100) / 100.0;
+        }
+    }
+}
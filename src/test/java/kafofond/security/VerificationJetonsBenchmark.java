@@ -0,0 +1,77 @@
+package kafofond.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import kafofond.service.coherence.JournalInvalidationsLocal;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH : coût par requête de la vérification d'un jeton HS512
+ * analyse complète (HMAC + JSON à chaque appel, comme le filtre JWT historique)
+ * vs VerificationJetons avec le jeton déjà en cache (rafale d'appels avec le même jeton).
+ * Lancer la méthode main depuis l'IDE ou avec le classpath de test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VerificationJetonsBenchmark {
+
+    private static final String SECRET =
+            "YmVuY2gta2Fmb2ZvbmQtc2VjcmV0LWRlLXRlc3QtcG91ci1sZS1iZW5jaG1hcmstaHM1MTItMDEyMzQ1Njc4OQ==";
+
+    private JwtParser parseur;
+    private VerificationJetons verificationJetons;
+    private String jeton;
+
+    @Setup
+    public void setup() {
+        SecretKey cle = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        parseur = Jwts.parserBuilder().setSigningKey(cle).build();
+        verificationJetons = new VerificationJetons(SECRET, 86_400_000L, 50_000L, new SimpleMeterRegistry(),
+                new RevocationJetons(86_400_000L, 50_000L, new JournalInvalidationsLocal()));
+        jeton = Jwts.builder()
+                .setSubject("gestionnaire@kafofond.ml")
+                .claim("role", "GESTIONNAIRE")
+                .claim("userId", 42L)
+                .claim("entrepriseId", 7L)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 86_400_000L))
+                .signWith(cle, SignatureAlgorithm.HS512)
+                .compact();
+        verificationJetons.verifier(jeton);
+    }
+
+    @Benchmark
+    public Claims analyseComplete() {
+        return parseur.parseClaimsJws(jeton).getBody();
+    }
+
+    @Benchmark
+    public Optional<Claims> cacheVerifie() {
+        return verificationJetons.verifier(jeton);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(VerificationJetonsBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
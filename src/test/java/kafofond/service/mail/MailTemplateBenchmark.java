@@ -0,0 +1,77 @@
+package kafofond.service.mail;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark JMH : templates de mail précompilés vs concaténation historique
+ * (String.format + formaterMessageHtml de NotificationService).
+ * Lancer la méthode main depuis l'IDE ou avec le classpath de test.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MailTemplateBenchmark {
+
+    private MailTemplateService mailTemplateService;
+
+    private final String typeDocument = "FICHE_BESOIN";
+    private final String codeDocument = "FB-0042-10-2026";
+    private final String action = "validée";
+    private final String prenom = "Moussa";
+    private final String nom = "Diarra";
+    private final String commentaire = "Montant conforme au budget";
+
+    @Setup
+    public void setup() {
+        mailTemplateService = new MailTemplateService();
+        mailTemplateService.chargerTemplates();
+    }
+
+    @Benchmark
+    public String[] concatenation() {
+        String titre = String.format("Document %s - %s", typeDocument, action);
+        String message = String.format("Votre document %s #%s a été %s par %s %s.",
+                typeDocument, codeDocument, action.toLowerCase(), prenom, nom);
+        message += String.format(" Commentaire : %s", commentaire);
+        String html = "<html>" +
+                "<body>" +
+                "<h2 style='color: blue; font-weight: bold;'>" + titre + "</h2>" +
+                "<p>" + message.replace("\n", "<br>") + "</p>" +
+                "<hr>" +
+                "<p><i>Ceci est une notification automatique de KafoFond.</i></p>" +
+                "</body>" +
+                "</html>";
+        return new String[]{titre, message, html};
+    }
+
+    @Benchmark
+    public MailRendu templates() {
+        Map<String, String> modele = new HashMap<>(16);
+        modele.put("typeDocument", typeDocument);
+        modele.put("codeDocument", codeDocument);
+        modele.put("action", action);
+        modele.put("actionMinuscule", action.toLowerCase());
+        modele.put("acteurPrenom", prenom);
+        modele.put("acteurNom", nom);
+        modele.put("commentaire", commentaire);
+        return mailTemplateService.rendre(MailTemplateService.TypeMail.VALIDATION, modele);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MailTemplateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}